@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package org.openrefine.benchmark;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.refine.browsing.filters.ExpressionEqualRowFilter;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Filters rows by list facet selections of increasing size, comparing {@link ExpressionEqualRowFilter} with a filter
+ * which scans the whole selection for each row, as it used to do.
+ */
+public class ListFacetSelectionBenchmark {
+
+    static final int ROWS = 10000;
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({ "10", "100", "2000" })
+        public int selectionSize;
+
+        Project project;
+        List<Row> rows;
+        ExpressionEqualRowFilter filter;
+        ExpressionEqualRowFilter scanningFilter;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random rnd = new Random(42);
+            project = new Project();
+            rows = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                Row row = new Row(1);
+                // a mix of identifiers and numbers, about a quarter of which are selected
+                int n = rnd.nextInt(2 * selectionSize);
+                row.setCell(0, new Cell(i % 2 == 0 ? "id" + n : (Serializable) (long) n, null));
+                rows.add(row);
+            }
+            Object[] matches = new Object[selectionSize];
+            for (int i = 0; i < selectionSize; i++) {
+                matches[i] = i % 2 == 0 ? "id" + i : (Object) (double) i;
+            }
+            Evaluable evaluable = (Properties bindings) -> bindings.get("value");
+            filter = new ExpressionEqualRowFilter(evaluable, "column", 0, matches, false, false, false);
+            scanningFilter = new ScanningRowFilter(evaluable, matches);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void hashedSelection(ExecutionPlan plan, Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(plan.filter.filterRow(plan.project, i, plan.rows.get(i)));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void scannedSelection(ExecutionPlan plan, Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(plan.scanningFilter.filterRow(plan.project, i, plan.rows.get(i)));
+        }
+    }
+
+    /**
+     * The filter as it was before selections were hashed, testing each value against all selected ones.
+     */
+    static class ScanningRowFilter extends ExpressionEqualRowFilter {
+
+        ScanningRowFilter(Evaluable evaluable, Object[] matches) {
+            super(evaluable, "column", 0, matches, false, false, false);
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        protected boolean testValue(Object v, Object match) {
+            return (v instanceof Number && match instanceof Number) ? ((Number) match).doubleValue() == ((Number) v).doubleValue()
+                    : match.equals(v);
+        }
+    }
+}
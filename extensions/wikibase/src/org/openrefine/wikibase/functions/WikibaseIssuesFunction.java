@@ -126,4 +126,9 @@ public class WikibaseIssuesFunction implements Function {
         return null;
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        // reads the schema and preferences of the project
+        return false;
+    }
 }
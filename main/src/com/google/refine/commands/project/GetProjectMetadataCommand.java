@@ -39,9 +39,14 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 import com.google.refine.ProjectManager;
+import com.google.refine.ProjectMetadata;
 import com.google.refine.commands.Command;
+import com.google.refine.model.MemoryEstimator;
 import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
 
 public class GetProjectMetadataCommand extends Command {
 
@@ -57,6 +62,15 @@ public class GetProjectMetadataCommand extends Command {
             return;
         }
 
-        respondJSON(response, ProjectManager.singleton.getProjectMetadata(project.id));
+        ProjectMetadata metadata = ProjectManager.singleton.getProjectMetadata(project.id);
+        if ("true".equals(request.getParameter("includeMemoryFootprint"))) {
+            ObjectNode node = (ObjectNode) ParsingUtilities.mapper.readTree(
+                    ParsingUtilities.defaultWriter.writeValueAsString(metadata));
+            node.set("memoryFootprint", ParsingUtilities.mapper.valueToTree(
+                    MemoryEstimator.itemise(project, ProjectManager.singleton.getLookupCacheManager())));
+            respondJSON(response, node);
+            return;
+        }
+        respondJSON(response, metadata);
     }
 }
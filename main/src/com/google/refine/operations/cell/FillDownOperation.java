@@ -50,6 +50,7 @@ import com.google.refine.model.Row;
 import com.google.refine.model.changes.CellChange;
 import com.google.refine.operations.EngineDependentMassCellOperation;
 import com.google.refine.operations.OperationDescription;
+import com.google.refine.util.CellInterner;
 
 public class FillDownOperation extends EngineDependentMassCellOperation {
 
@@ -85,6 +86,8 @@ public class FillDownOperation extends EngineDependentMassCellOperation {
             List<CellChange> cellChanges;
             Cell previousCell;
             Mode engineMode;
+            // equal values filled down from different rows share their cell
+            CellInterner cellInterner = new CellInterner();
 
             public RowVisitor init(int cellIndex, List<CellChange> cellChanges, Mode engineMode) {
                 this.cellIndex = cellIndex;
@@ -111,7 +114,7 @@ public class FillDownOperation extends EngineDependentMassCellOperation {
                     previousCell = null;
                 }
                 if (ExpressionUtils.isNonBlankData(value)) {
-                    previousCell = row.getCell(cellIndex);
+                    previousCell = cellInterner.intern(row.getCell(cellIndex));
                 } else if (previousCell != null) {
                     CellChange cellChange = new CellChange(rowIndex, cellIndex, row.getCell(cellIndex), previousCell);
                     cellChanges.add(cellChange);
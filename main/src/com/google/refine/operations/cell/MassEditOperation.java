@@ -57,6 +57,7 @@ import com.google.refine.model.Row;
 import com.google.refine.model.changes.CellChange;
 import com.google.refine.operations.EngineDependentMassCellOperation;
 import com.google.refine.operations.OperationDescription;
+import com.google.refine.util.CellInterner;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.StringUtils;
 
@@ -182,6 +183,8 @@ public class MassEditOperation extends EngineDependentMassCellOperation {
             Map<String, Serializable> fromTo;
             Serializable fromBlankTo;
             Serializable fromErrorTo;
+            // rows edited to the same value share their new cell
+            CellInterner cellInterner = new CellInterner();
 
             public RowVisitor init(
                     int cellIndex,
@@ -221,17 +224,17 @@ public class MassEditOperation extends EngineDependentMassCellOperation {
                 Object v = eval.evaluate(bindings);
                 if (ExpressionUtils.isError(v)) {
                     if (fromErrorTo != null) {
-                        newCell = new Cell(fromErrorTo, (cell != null) ? cell.recon : null);
+                        newCell = cellInterner.intern(fromErrorTo, (cell != null) ? cell.recon : null);
                     }
                 } else if (ExpressionUtils.isNonBlankData(v)) {
                     String from = StringUtils.toString(v);
                     Serializable to = fromTo.get(from);
                     if (to != null) {
-                        newCell = new Cell(to, (cell != null) ? cell.recon : null);
+                        newCell = cellInterner.intern(to, (cell != null) ? cell.recon : null);
                     }
                 } else {
                     if (fromBlankTo != null) {
-                        newCell = new Cell(fromBlankTo, (cell != null) ? cell.recon : null);
+                        newCell = cellInterner.intern(fromBlankTo, (cell != null) ? cell.recon : null);
                     }
                 }
 
@@ -27,6 +27,10 @@
 
 package com.google.refine.browsing.facets;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -43,10 +47,16 @@ import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.facets.ListFacet.ListFacetConfig;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.grel.Parser;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.ColumnarRowList;
 import com.google.refine.model.Project;
+import com.google.refine.model.changes.CellChange;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
 
@@ -174,4 +184,85 @@ public class ListFacetTests extends RefineTest {
 
         TestUtils.assertEqualsAsJson(actual.toString(), selectedEmptyChoiceFacet);
     }
+
+    @Test
+    public void testSelectionOnDictionaryEncodedColumn() throws IOException {
+        Serializable[][] values = new Serializable[300][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new Serializable[] { i % 7 == 0 ? null : "value " + (i % 3) };
+        }
+        System.setProperty(Project.ROW_STORE_PROPERTY, Project.COLUMNAR_ROW_STORE);
+        Project project;
+        try {
+            project = createProject(new String[] { "Column A" }, values);
+        } finally {
+            System.clearProperty(Project.ROW_STORE_PROPERTY);
+        }
+        assertNotNull(((ColumnarRowList) project.rows).getDictionary(0));
+
+        for (boolean invert : new boolean[] { false, true }) {
+            String config = "{\"type\":\"list\",\"name\":\"facet A\",\"columnName\":\"Column A\","
+                    + "\"expression\":\"value\",\"omitBlank\":false,\"omitError\":false,"
+                    + "\"selection\":[{\"v\":{\"v\":\"value 1\",\"l\":\"value 1\"}}],"
+                    + "\"selectBlank\":true,\"selectError\":false,\"invert\":" + invert + "}";
+            Facet facet = ParsingUtilities.mapper.readValue(config, ListFacetConfig.class).apply(project);
+            RowFilter filter = facet.getRowFilter(project);
+
+            int expected = 0;
+            int actual = 0;
+            for (int i = 0; i < values.length; i++) {
+                expected += (values[i][0] == null || "value 1".equals(values[i][0])) != invert ? 1 : 0;
+                actual += filter.filterRow(project, i, project.rows.get(i)) ? 1 : 0;
+            }
+            assertEquals(actual, expected);
+        }
+    }
+
+    @Test
+    public void testNominalIndexIsPrecomputed() throws IOException {
+        Project project = createProject(
+                new String[] { "Column A", "Column B" },
+                new Serializable[][] {
+                        { "a", "x" },
+                        { "b", "y" },
+                        { "a", "z" },
+                });
+        Column column = project.columnModel.getColumnByName("Column A");
+
+        ListFacet facet = createListFacet(project, "value");
+        facet.computeChoices(project, new Engine(project).getAllRows());
+        assertNotNull(column.getPrecompute("nominal:value"));
+        assertEquals(getCount(facet, "a"), 2);
+
+        HistoryEntry entry = new HistoryEntry(HistoryEntry.allocateID(), project, "Edit", null,
+                new CellChange(0, 0, project.rows.get(0).getCell(0), new Cell("b", null)));
+        project.history.addEntry(entry);
+        assertNull(column.getPrecompute("nominal:value"));
+
+        facet = createListFacet(project, "value");
+        facet.computeChoices(project, new Engine(project).getAllRows());
+        assertEquals(getCount(facet, "a"), 1);
+        assertEquals(getCount(facet, "b"), 2);
+
+        // expressions reading other columns are not indexed, as changes to those do not clear the precomputes of this
+        // one
+        facet = createListFacet(project, "value + cells[\"Column B\"].value");
+        facet.computeChoices(project, new Engine(project).getAllRows());
+        assertNull(column.getPrecompute("nominal:value + cells[\"Column B\"].value"));
+        assertEquals(getCount(facet, "bx"), 1);
+    }
+
+    protected ListFacet createListFacet(Project project, String expression) throws IOException {
+        String config = "{\"type\":\"list\",\"name\":\"facet A\",\"columnName\":\"Column A\","
+                + "\"expression\":" + ParsingUtilities.mapper.writeValueAsString(expression) + ","
+                + "\"omitBlank\":false,\"omitError\":false,\"selection\":[],"
+                + "\"selectBlank\":false,\"selectError\":false,\"invert\":false}";
+        return (ListFacet) ParsingUtilities.mapper.readValue(config, ListFacetConfig.class).apply(project);
+    }
+
+    protected int getCount(ListFacet facet, String value) {
+        return facet._choices.stream()
+                .filter(choice -> value.equals(choice.decoratedValue.label))
+                .findFirst().get().count;
+    }
 }
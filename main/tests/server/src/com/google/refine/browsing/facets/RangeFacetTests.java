@@ -27,6 +27,9 @@
 
 package com.google.refine.browsing.facets;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
 import java.io.IOException;
 import java.io.Serializable;
 
@@ -38,9 +41,11 @@ import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.facets.RangeFacet.RangeFacetConfig;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.grel.Parser;
+import com.google.refine.model.ColumnarRowList;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
@@ -112,4 +117,36 @@ public class RangeFacetTests extends RefineTest {
         facet.computeChoices(project, engine.getAllFilteredRows());
         TestUtils.isSerializedTo(facet, facetJson);
     }
+
+    @Test
+    public void testNumericColumnOfColumnarRows() throws IOException {
+        Serializable[][] values = new Serializable[200][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new Serializable[] { i % 9 == 0 ? null : (i % 4 == 0 ? (Serializable) (i - 50.5) : (long) (i - 40)) };
+        }
+        Project plain = createProject(new String[] { "my column" }, values);
+        System.setProperty(Project.ROW_STORE_PROPERTY, Project.COLUMNAR_ROW_STORE);
+        Project columnar;
+        try {
+            columnar = createProject(new String[] { "my column" }, values);
+        } finally {
+            System.clearProperty(Project.ROW_STORE_PROPERTY);
+        }
+        assertTrue(((ColumnarRowList) columnar.rows).isNumeric(0));
+
+        // the numbers read from the columns give the same facet as the evaluated expression
+        RangeFacetConfig config = ParsingUtilities.mapper.readValue(configJson, RangeFacetConfig.class);
+        RangeFacet plainFacet = config.apply(plain);
+        plainFacet.computeChoices(plain, new Engine(plain).getAllFilteredRows());
+        RangeFacet columnarFacet = config.apply(columnar);
+        columnarFacet.computeChoices(columnar, new Engine(columnar).getAllFilteredRows());
+        TestUtils.isSerializedTo(columnarFacet, ParsingUtilities.mapper.writeValueAsString(plainFacet));
+
+        RowFilter plainFilter = plainFacet.getRowFilter(plain);
+        RowFilter columnarFilter = columnarFacet.getRowFilter(columnar);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(columnarFilter.filterRow(columnar, i, columnar.rows.get(i)),
+                    plainFilter.filterRow(plain, i, plain.rows.get(i)));
+        }
+    }
 }
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.commands.project;
+
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import javax.servlet.ServletException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.commands.CommandTestBase;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+public class GetMemoryFootprintCommandTests extends CommandTestBase {
+
+    private Project project = null;
+
+    @BeforeMethod
+    public void setUpCommand() {
+        command = new GetMemoryFootprintCommand();
+        project = createProject(
+                new String[] { "Column 1", "Column 2" },
+                new Serializable[][] {
+                        { "a", 1L },
+                        { "b", 2L },
+                });
+        when(request.getParameter("project")).thenReturn(Long.toString(project.id));
+    }
+
+    @Test
+    public void testFootprint() throws ServletException, IOException {
+        command.doGet(request, response);
+
+        JsonNode node = ParsingUtilities.mapper.readValue(writer.toString(), JsonNode.class);
+        assertTrue(node.get("rows").asLong() > 0);
+        assertEquals(node.get("offHeap").asLong(), 0L);
+        assertTrue(node.get("precomputes").isObject());
+        assertTrue(node.get("total").asLong() >= node.get("rows").asLong());
+    }
+
+    @Test
+    public void testNoProjectId() throws ServletException, IOException {
+        when(request.getParameter("project")).thenReturn(null);
+        command.doGet(request, response);
+
+        JsonNode node = ParsingUtilities.mapper.readValue(writer.toString(), JsonNode.class);
+        assertEquals(node.get("status").asText(), "error");
+    }
+}
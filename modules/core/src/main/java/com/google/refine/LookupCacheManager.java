@@ -76,6 +76,21 @@ public class LookupCacheManager {
         return _lookups.get(key);
     }
 
+    /**
+     * @return the lookups computed on the given project
+     */
+    public List<ProjectLookup> getLookupsInvolvingProject(long projectID) {
+        List<ProjectLookup> lookups = new ArrayList<>();
+        synchronized (_lookups) {
+            for (ProjectLookup lookup : _lookups.values()) {
+                if (lookup.targetProjectID == projectID) {
+                    lookups.add(lookup);
+                }
+            }
+        }
+        return lookups;
+    }
+
     public void flushLookupsInvolvingProject(long projectID) {
         synchronized (_lookups) {
             for (Iterator<Map.Entry<String, ProjectLookup>> it = _lookups.entrySet().iterator(); it.hasNext();) {
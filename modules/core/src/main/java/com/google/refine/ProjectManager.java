@@ -39,10 +39,19 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -54,6 +63,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.refine.history.HistoryEntryManager;
+import com.google.refine.model.MemoryEstimator;
 import com.google.refine.model.Project;
 import com.google.refine.preference.PreferenceStore;
 import com.google.refine.preference.TopList;
@@ -76,6 +86,21 @@ public abstract class ProjectManager {
     // Don't spend more than this much time saving projects if doing a quick save
     static protected final Duration QUICK_SAVE_MAX_TIME = Duration.ofSeconds(30);
 
+    /**
+     * System property setting how much heap, in megabytes, the loaded projects may use together. When it is exceeded,
+     * the least recently used projects are saved if needed and unloaded. Defaults to 60% of the maximum heap size.
+     */
+    static public final String MEMORY_BUDGET_PROPERTY = "refine.projects.memory_budget_mb";
+
+    /**
+     * System property setting how many projects can be saved at the same time. Defaults to the number of processors, up
+     * to 4.
+     */
+    static public final String SAVE_THREADS_PROPERTY = "refine.autosave.threads";
+
+    // Projects requested this recently are never unloaded to honour the memory budget, as they are likely in use
+    static protected final Duration MEMORY_EVICTION_GRACE = Duration.ofSeconds(10);
+
     protected Map<Long, ProjectMetadata> _projectsMetadata;
     /**
      * Count of projects which have the given tag
@@ -102,6 +127,23 @@ public abstract class ProjectManager {
      */
     transient protected Map<Long, Project> _projects;
 
+    /**
+     * When each loaded project was last requested, to unload the least recently used ones first.
+     */
+    transient protected Map<Long, Instant> _lastAccess = new HashMap<>();
+
+    /**
+     * The last memory estimate of each loaded project, dropped when the project is modified or saved.
+     */
+    transient protected final Map<Long, Long> _memoryEstimates = new ConcurrentHashMap<>();
+
+    /**
+     * Projects currently being saved by an automatic save.
+     */
+    transient protected final Set<Long> _savingProjects = ConcurrentHashMap.newKeySet();
+    transient private ExecutorService _saveExecutor;
+    transient protected final SaveMetrics _saveMetrics = new SaveMetrics();
+
     static public ProjectManager singleton;
 
     protected ProjectManager() {
@@ -123,6 +165,7 @@ public abstract class ProjectManager {
         }
 
         _projects.clear();
+        _lastAccess.clear();
         _projectsMetadata.clear();
     }
 
@@ -139,7 +182,9 @@ public abstract class ProjectManager {
             _projects.put(project.id, project);
             _projectsMetadata.put(project.id, projectMetadata);
             addProjectTags(projectMetadata.getTags());
+            _lastAccess.put(project.id, Instant.now());
         }
+        enforceMemoryBudget(project.id);
     }
 
     /**
@@ -248,13 +293,27 @@ public abstract class ProjectManager {
 
         final Project project;
         final long overdue;
+        final long size;
 
         SaveRecord(Project project, long overdue) {
+            this(project, overdue, 0);
+        }
+
+        SaveRecord(Project project, long overdue, long size) {
             this.project = project;
             this.overdue = overdue;
+            this.size = size;
         }
     }
 
+    /**
+     * Orders projects to save: those whose changes have been waiting the longest first, by the minute, and then the
+     * smallest ones first so that a quick save gets through as many projects as it can.
+     */
+    static protected final Comparator<SaveRecord> SAVE_ORDER = Comparator
+            .comparingLong((SaveRecord record) -> -record.overdue / 60000)
+            .thenComparingLong(record -> record.size);
+
     /**
      * Saves all projects to the data store
      * 
@@ -267,10 +326,10 @@ public abstract class ProjectManager {
 
         synchronized (this) {
             for (long id : _projectsMetadata.keySet()) {
-                ProjectMetadata metadata = getProjectMetadata(id);
                 Project project = _projects.get(id); // don't call getProject() as that will load the project.
 
                 if (project != null) {
+                    ProjectMetadata metadata = getProjectMetadata(id);
                     // We use after or equals to avoid the case where a newly created project
                     // has the same modified and last save times, resulting in the project not getting
                     // saved at all.
@@ -278,7 +337,7 @@ public abstract class ProjectManager {
                             || metadata.getModified().equals(project.getLastSave());
 
                     if (hasUnsavedChanges) {
-                        long msecsOverdue = Duration.between(startTimeOfSave, project.getLastSave()).toMillis();
+                        long msecsOverdue = Duration.between(project.getLastSave(), startTimeOfSave).toMillis();
                         records.add(new SaveRecord(project, msecsOverdue));
 
                     } else if (!project.getProcessManager().hasPending()
@@ -289,31 +348,101 @@ public abstract class ProjectManager {
                          * safely remove it from the cache to save some memory.
                          */
                         _projects.remove(id).dispose();
+                        _lastAccess.remove(id);
                     }
                 }
             }
         }
 
         if (records.size() > 0) {
-            // Save most overdue projects first
-            records.sort((o1, o2) -> Long.compare(o2.overdue, o1.overdue));
+            // estimating a project walks its rows, which is not done under the lock of the project manager
+            records.replaceAll(record -> new SaveRecord(record.project, record.overdue, estimateMemory(record.project)));
+            records.sort(SAVE_ORDER);
 
             logger.info(allModified ? "Saving all modified projects ..." : "Saving some modified projects ...");
 
+            // independent projects are saved in parallel, each project by a single worker at a time
+            List<Future<Boolean>> results = new ArrayList<>();
             for (SaveRecord record : records) {
-                // If we've run out of time, bail out, unless we've been asked to save all modified projects
-                if (!allModified && Instant.now().isAfter(quicksaveDeadline)) {
-                    break;
+                if (!_savingProjects.add(record.project.id)) {
+                    // already being saved by a previous pass
+                    results.add(null);
+                    continue;
                 }
-                try {
-                    saveProject(record.project);
-                } catch (Exception e) {
-                    logger.error("Error when saving projects. Attempting to free memory", e);
-                    // In case we're running low on memory, free as much as we can
-                    disposeUnmodifiedProjects();
+                results.add(getSaveExecutor().submit(() -> {
+                    try {
+                        // If we've run out of time, bail out, unless we've been asked to save all modified projects
+                        if (!allModified && Instant.now().isAfter(quicksaveDeadline)) {
+                            return false;
+                        }
+                        long start = System.nanoTime();
+                        saveProject(record.project);
+                        _saveMetrics.recordSave((System.nanoTime() - start) / 1000000);
+                        return true;
+                    } finally {
+                        _savingProjects.remove(record.project.id);
+                    }
+                }));
+            }
+
+            int saved = 0;
+            boolean failed = false;
+            long oldestUnsaved = 0;
+            for (int i = 0; i < records.size(); i++) {
+                boolean done = false;
+                if (results.get(i) != null) {
+                    try {
+                        done = results.get(i).get();
+                    } catch (ExecutionException e) {
+                        logger.error("Error when saving projects. Attempting to free memory", e.getCause());
+                        _saveMetrics.recordFailure();
+                        failed = true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
                 }
+                if (done) {
+                    saved++;
+                } else {
+                    oldestUnsaved = Math.max(oldestUnsaved, records.get(i).overdue);
+                }
+            }
+            _saveMetrics.recordCycle(Duration.between(startTimeOfSave, Instant.now()).toMillis(), saved,
+                    records.size() - saved, oldestUnsaved);
+            if (saved < records.size()) {
+                logger.info("Saved {} of {} modified projects, the oldest unsaved changes are {} s old", saved,
+                        records.size(), oldestUnsaved / 1000);
+            }
+            if (failed) {
+                // In case we're running low on memory, free as much as we can
+                disposeUnmodifiedProjects();
             }
         }
+
+        enforceMemoryBudget(-1);
+    }
+
+    synchronized protected ExecutorService getSaveExecutor() {
+        if (_saveExecutor == null) {
+            int threads = Math.max(1,
+                    Integer.getInteger(SAVE_THREADS_PROPERTY, Math.min(4, Runtime.getRuntime().availableProcessors())));
+            AtomicInteger count = new AtomicInteger();
+            _saveExecutor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "project-saver-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return _saveExecutor;
+    }
+
+    /**
+     * @return the latency and backlog of the automatic saves
+     */
+    @JsonIgnore
+    public SaveMetrics getSaveMetrics() {
+        return _saveMetrics;
     }
 
     /**
@@ -322,11 +451,11 @@ public abstract class ProjectManager {
     protected void disposeUnmodifiedProjects() {
         synchronized (this) {
             for (long id : _projectsMetadata.keySet()) {
-                ProjectMetadata metadata = getProjectMetadata(id);
                 Project project = _projects.get(id);
                 if (project != null && !project.getProcessManager().hasPending()
-                        && project.getLastSave().isAfter(metadata.getModified())) {
+                        && project.getLastSave().isAfter(getProjectMetadata(id).getModified())) {
                     _projects.remove(id).dispose();
+                    _lastAccess.remove(id);
                 }
             }
         }
@@ -552,17 +681,156 @@ public abstract class ProjectManager {
      * @return the project with the matching id, or null if it can't be found
      */
     public Project getProject(long id) {
+        Project project;
         synchronized (this) {
             if (_projects.containsKey(id)) {
+                _lastAccess.put(id, Instant.now());
                 return _projects.get(id);
-            } else {
-                Project project = loadProject(id);
+            }
+            project = loadProject(id);
+            if (project == null) {
+                return null;
+            }
+            _projects.put(id, project);
+            _lastAccess.put(id, Instant.now());
+        }
+        enforceMemoryBudget(id);
+        return project;
+    }
+
+    /**
+     * @return the number of bytes of heap the loaded projects may use together
+     */
+    @JsonIgnore
+    public long getMemoryBudget() {
+        Long budget = Long.getLong(MEMORY_BUDGET_PROPERTY);
+        return budget != null ? budget * 1024 * 1024 : (long) (Runtime.getRuntime().maxMemory() * 0.6);
+    }
+
+    /**
+     * Estimates the heap used by each loaded project. Projects which were neither modified nor saved since they were
+     * last estimated are not estimated again. The loaded projects are listed under the lock of the project manager, but
+     * estimated outside of it.
+     *
+     * @return the estimated number of bytes, by project id
+     */
+    @JsonIgnore
+    public Map<Long, Long> getMemoryUsage() {
+        List<Project> loaded = new ArrayList<>();
+        synchronized (this) {
+            _memoryEstimates.keySet().retainAll(_projects.keySet());
+            for (Project project : _projects.values()) {
                 if (project != null) {
-                    _projects.put(id, project);
+                    loaded.add(project);
+                }
+            }
+        }
+        Map<Long, Long> usage = new HashMap<>();
+        for (Project project : loaded) {
+            usage.put(project.id, estimateMemory(project));
+        }
+        return usage;
+    }
+
+    /**
+     * @return the estimated number of bytes used by the project, reusing the last estimate if the project was neither
+     *         modified nor saved since
+     */
+    protected long estimateMemory(Project project) {
+        Long estimate = _memoryEstimates.get(project.id);
+        if (estimate == null) {
+            // not computed within the map, which would block invalidateMemoryEstimate while the rows are walked
+            estimate = MemoryEstimator.estimate(project);
+            _memoryEstimates.put(project.id, estimate);
+        }
+        return estimate;
+    }
+
+    /**
+     * Drops the memory estimate of a project, so that it is estimated again. Called when the project is modified or
+     * saved.
+     */
+    public void invalidateMemoryEstimate(long projectID) {
+        _memoryEstimates.remove(projectID);
+    }
+
+    /**
+     * Unloads the least recently used projects until the loaded projects fit in the memory budget. Projects with
+     * unsaved changes are saved first, and those with pending processes are kept. Projects are estimated before taking
+     * the lock of the project manager, and the projects to unload are chosen under it, but saved and disposed of
+     * outside of it, so that other projects can be requested meanwhile.
+     *
+     * @param keepID
+     *            a project which must stay loaded, such as the one just requested, or -1
+     */
+    protected void enforceMemoryBudget(long keepID) {
+        long budget = getMemoryBudget();
+        Map<Long, Long> usage = getMemoryUsage();
+        long total;
+        List<Project> evictions = new ArrayList<>();
+        synchronized (this) {
+            // projects may have been unloaded while they were estimated
+            usage.keySet().removeIf(id -> _projects.get(id) == null);
+            total = usage.values().stream().mapToLong(Long::longValue).sum();
+            if (total <= budget) {
+                return;
+            }
+
+            Instant recent = Instant.now().minus(MEMORY_EVICTION_GRACE);
+            List<Long> candidates = new ArrayList<>(usage.keySet());
+            candidates.remove(keepID);
+            candidates.sort((a, b) -> _lastAccess.getOrDefault(a, Instant.MIN).compareTo(_lastAccess.getOrDefault(b, Instant.MIN)));
+            long remaining = total;
+            for (long id : candidates) {
+                if (remaining <= budget) {
+                    break;
                 }
-                return project;
+                Project project = _projects.get(id);
+                if (_lastAccess.getOrDefault(id, Instant.MIN).isAfter(recent) || project.getProcessManager().hasPending()
+                        || !_savingProjects.add(id)) {
+                    // requested recently, busy or being saved by an automatic save
+                    continue;
+                }
+                evictions.add(project);
+                remaining -= usage.get(id);
             }
         }
+
+        Instant selected = Instant.now();
+        for (Project project : evictions) {
+            long id = project.id;
+            try {
+                ProjectMetadata metadata = getProjectMetadata(id);
+                Instant modified = metadata != null ? metadata.getModified() : null;
+                if (modified != null && !modified.isBefore(project.getLastSave())) {
+                    try {
+                        saveProject(project);
+                    } catch (Exception e) {
+                        logger.error("Failed to save project {} before unloading it, keeping it in memory", id, e);
+                        continue;
+                    }
+                }
+                synchronized (this) {
+                    // the project may have been requested or modified while it was saved
+                    if (_projects.get(id) != project || _lastAccess.getOrDefault(id, Instant.MIN).isAfter(selected)
+                            || project.getProcessManager().hasPending()
+                            || (metadata != null && !Objects.equals(metadata.getModified(), modified))) {
+                        continue;
+                    }
+                    _projects.remove(id);
+                    _lastAccess.remove(id);
+                    _memoryEstimates.remove(id);
+                }
+            } finally {
+                _savingProjects.remove(id);
+            }
+            logger.info("Unloading project {} (about {} MB) to stay within the memory budget", id, usage.get(id) >> 20);
+            project.dispose();
+            total -= usage.get(id);
+        }
+        if (total > budget) {
+            logger.warn("Loaded projects use about {} MB, over the memory budget of {} MB", total >> 20, budget >> 20);
+        }
     }
 
     /**
@@ -618,6 +886,7 @@ public abstract class ProjectManager {
         if (_projects.containsKey(projectID)) {
             _projects.remove(projectID).dispose();
         }
+        _lastAccess.remove(projectID);
         _projectsMetadata.remove(projectID);
     }
 
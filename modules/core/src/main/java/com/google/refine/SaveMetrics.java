@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Latency and backlog of the automatic saves of projects, as recorded by {@link ProjectManager#saveProjects(boolean)}.
+ */
+public class SaveMetrics {
+
+    protected long cycles = 0;
+    protected long saved = 0;
+    protected long failed = 0;
+    protected long totalSaveMillis = 0;
+    protected long maxSaveMillis = 0;
+    protected Instant lastCycle = null;
+    protected long lastCycleMillis = 0;
+    protected int lastCycleSaved = 0;
+    protected int backlog = 0;
+    protected long oldestUnsavedMillis = 0;
+
+    synchronized protected void recordSave(long millis) {
+        saved++;
+        totalSaveMillis += millis;
+        maxSaveMillis = Math.max(maxSaveMillis, millis);
+    }
+
+    synchronized protected void recordFailure() {
+        failed++;
+    }
+
+    /**
+     * Records the end of a pass over the modified projects.
+     *
+     * @param millis
+     *            how long the pass took
+     * @param savedCount
+     *            the number of projects saved during the pass
+     * @param backlog
+     *            the number of modified projects left unsaved by the pass
+     * @param oldestUnsavedMillis
+     *            for how long the oldest of them has been waiting for a save
+     */
+    synchronized protected void recordCycle(long millis, int savedCount, int backlog, long oldestUnsavedMillis) {
+        cycles++;
+        lastCycle = Instant.now();
+        lastCycleMillis = millis;
+        lastCycleSaved = savedCount;
+        this.backlog = backlog;
+        this.oldestUnsavedMillis = oldestUnsavedMillis;
+    }
+
+    @JsonProperty("cycles")
+    synchronized public long getCycles() {
+        return cycles;
+    }
+
+    @JsonProperty("saved")
+    synchronized public long getSaved() {
+        return saved;
+    }
+
+    @JsonProperty("failed")
+    synchronized public long getFailed() {
+        return failed;
+    }
+
+    @JsonProperty("averageSaveMillis")
+    synchronized public long getAverageSaveMillis() {
+        return saved == 0 ? 0 : totalSaveMillis / saved;
+    }
+
+    @JsonProperty("maxSaveMillis")
+    synchronized public long getMaxSaveMillis() {
+        return maxSaveMillis;
+    }
+
+    @JsonProperty("lastCycle")
+    @JsonInclude(Include.NON_NULL)
+    synchronized public Instant getLastCycle() {
+        return lastCycle;
+    }
+
+    @JsonProperty("lastCycleMillis")
+    synchronized public long getLastCycleMillis() {
+        return lastCycleMillis;
+    }
+
+    @JsonProperty("lastCycleSaved")
+    synchronized public int getLastCycleSaved() {
+        return lastCycleSaved;
+    }
+
+    /**
+     * @return the number of modified projects which the last pass did not get to save
+     */
+    @JsonProperty("backlog")
+    synchronized public int getBacklog() {
+        return backlog;
+    }
+
+    @JsonProperty("oldestUnsavedMillis")
+    synchronized public long getOldestUnsavedMillis() {
+        return oldestUnsavedMillis;
+    }
+}
@@ -33,21 +33,37 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
 
 import com.google.refine.browsing.facets.Facet;
+import com.google.refine.browsing.facets.FacetConfig;
 import com.google.refine.browsing.util.ConjunctiveFilteredRecords;
 import com.google.refine.browsing.util.ConjunctiveFilteredRows;
+import com.google.refine.browsing.util.FacetCache;
+import com.google.refine.browsing.util.FilterMaskCache;
+import com.google.refine.browsing.util.FilterMasks;
 import com.google.refine.browsing.util.FilteredRecordsAsFilteredRows;
+import com.google.refine.browsing.util.ParallelTraversal;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 import com.google.refine.model.Row;
+import com.google.refine.util.ParsingUtilities;
 
 /**
  * Faceted browsing engine.
@@ -70,6 +86,9 @@ public class Engine {
     protected Project _project;
     @JsonProperty("facets")
     protected List<Facet> _facets = new LinkedList<Facet>();
+    @JsonProperty("recomputedFacets")
+    @JsonInclude(Include.NON_NULL)
+    protected List<Integer> _recomputedFacets = null;
     @JsonIgnore
     protected EngineConfig _config = new EngineConfig(Collections.emptyList(), Mode.RowBased);
 
@@ -102,6 +121,9 @@ public class Engine {
             public void accept(Project project, RowVisitor visitor) {
                 try {
                     visitor.start(project);
+                    if (ParallelTraversal.visitRows(project, visitor, null)) {
+                        return;
+                    }
 
                     int c = project.rows.size();
                     for (int rowIndex = 0; rowIndex < c; rowIndex++) {
@@ -122,6 +144,10 @@ public class Engine {
         return getFilteredRows(null);
     }
 
+    /**
+     * The filters of the facets are evaluated row by row, stopping at the first which rejects the row, so that visitors
+     * which stop early do not pay for a full pass. Only {@link #computeFacets()} evaluates them all upfront.
+     */
     public FilteredRows getFilteredRows(Facet except) {
         if (_config.getMode().equals(Mode.RecordBased)) {
             return new FilteredRecordsAsFilteredRows(getFilteredRecords(except));
@@ -148,6 +174,9 @@ public class Engine {
             public void accept(Project project, RecordVisitor visitor) {
                 try {
                     visitor.start(project);
+                    if (ParallelTraversal.visitRecords(project, visitor, null)) {
+                        return;
+                    }
 
                     int c = project.recordModel.getRecordCount();
                     for (int r = 0; r < c; r++) {
@@ -189,21 +218,185 @@ public class Engine {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Computes the choices of all facets. The filters of the facets are evaluated once per row (or record), in a single
+     * pass, and each facet is then fed the rows matched by the filters of all other facets.
+     * <p>
+     * A facet computed before with the same configuration, the same selection in the other facets and on the same data
+     * in the columns they all read is reused instead of being computed again.
+     */
     public void computeFacets() {
         if (_config.getMode().equals(Mode.RowBased)) {
-            for (Facet facet : _facets) {
-                FilteredRows filteredRows = getFilteredRows(facet);
+            computeFacets(getRowFilterMasks(), _project.rows.size(),
+                    (facet, mask) -> facet.computeChoices(_project, FilterMasks.rows(mask)));
+        } else if (_config.getMode().equals(Mode.RecordBased)) {
+            computeFacets(getRecordFilterMasks(), _project.recordModel.getRecordCount(),
+                    (facet, mask) -> facet.computeChoices(_project, FilterMasks.records(mask)));
+        } else {
+            throw new InternalError("Unknown mode.");
+        }
+    }
 
-                facet.computeChoices(_project, filteredRows);
+    protected void computeFacets(BitSet[] masks, int size, BiConsumer<Facet, BitSet> compute) {
+        FacetCache cache = _project.facetCache;
+        long historyEntryID = _project.history.getLastEntryID();
+        List<String> keys = getFilterMaskKeys();
+        BitSet[] others = FilterMasks.exceptEach(masks);
+
+        List<Facet> facets = new ArrayList<>(_facets.size());
+        List<Integer> recomputed = new ArrayList<>();
+        int i = 0;
+        for (Facet facet : _facets) {
+            String key = getFacetKey(keys, masks, i);
+            Facet cached = key != null ? cache.get(key, historyEntryID, size) : null;
+            if (cached != null) {
+                facets.add(cached);
+            } else {
+                compute.accept(facet, others[i]);
+                if (key != null) {
+                    cache.put(key, facet, size, getFacetDependencies(masks, i), historyEntryID);
+                }
+                facets.add(facet);
+                recomputed.add(i);
             }
-        } else if (_config.getMode().equals(Mode.RecordBased)) {
-            for (Facet facet : _facets) {
-                FilteredRecords filteredRecords = getFilteredRecords(facet);
+            i++;
+        }
+        _facets = facets;
+        _recomputedFacets = recomputed;
+    }
+
+    /**
+     * @return the indices of the facets which were computed by the last call to {@link #computeFacets()}, the others
+     *         being reused from a previous computation, or null if the facets were not computed
+     */
+    public List<Integer> getRecomputedFacets() {
+        return _recomputedFacets;
+    }
+
+    /**
+     * Evaluates the row filters of all facets, reusing the masks cached for the project when they are still valid.
+     *
+     * @return for each facet, the rows its filter matches, or null if it has no filter
+     */
+    protected BitSet[] getRowFilterMasks() {
+        List<RowFilter> filters = new ArrayList<>(_facets.size());
+        for (Facet facet : _facets) {
+            filters.add(facet.getRowFilter(_project));
+        }
+        return getFilterMasks(filters, _project.rows.size(), FilterMasks::matchRows);
+    }
 
-                facet.computeChoices(_project, filteredRecords);
+    /**
+     * Evaluates the record filters of all facets, reusing the masks cached for the project when they are still valid.
+     *
+     * @return for each facet, the records its filter matches, or null if it has no filter
+     */
+    protected BitSet[] getRecordFilterMasks() {
+        List<RecordFilter> filters = new ArrayList<>(_facets.size());
+        for (Facet facet : _facets) {
+            filters.add(facet.getRecordFilter(_project));
+        }
+        return getFilterMasks(filters, _project.recordModel.getRecordCount(), FilterMasks::matchRecords);
+    }
+
+    protected <F> BitSet[] getFilterMasks(List<F> filters, int size, BiFunction<Project, List<F>, BitSet[]> match) {
+        FilterMaskCache cache = _project.filterMaskCache;
+        long historyEntryID = _project.history.getLastEntryID();
+        List<String> keys = getFilterMaskKeys();
+
+        BitSet[] masks = new BitSet[filters.size()];
+        List<F> missing = new ArrayList<>(filters);
+        for (int i = 0; i < masks.length; i++) {
+            if (filters.get(i) != null && keys.get(i) != null) {
+                masks[i] = cache.get(keys.get(i), historyEntryID, size);
+                if (masks[i] != null) {
+                    missing.set(i, null);
+                }
             }
-        } else {
-            throw new InternalError("Unknown mode.");
         }
+
+        BitSet[] computed = match.apply(_project, missing);
+        int i = 0;
+        for (Facet facet : _facets) {
+            if (computed[i] != null) {
+                masks[i] = computed[i];
+                if (keys.get(i) != null) {
+                    cache.put(keys.get(i), computed[i], size, getFilterDependencies(facet), historyEntryID);
+                }
+            }
+            i++;
+        }
+        return masks;
+    }
+
+    /**
+     * @return for each facet, the key its filter mask is cached under, or null if it cannot be cached
+     */
+    protected List<String> getFilterMaskKeys() {
+        List<FacetConfig> configs = _config.getFacetConfigs();
+        List<String> keys = new ArrayList<>(_facets.size());
+        for (int i = 0; i < _facets.size(); i++) {
+            String key = null;
+            if (configs.size() == _facets.size()) {
+                try {
+                    key = modeToString(getMode()) + ":" + ParsingUtilities.mapper.writeValueAsString(configs.get(i));
+                } catch (JsonProcessingException e) {
+                    // not cached
+                }
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    protected Optional<Set<String>> getFilterDependencies(Facet facet) {
+        Optional<Set<String>> dependencies = facet.getColumnDependencies();
+        if (dependencies.isPresent() && getMode() == Mode.RecordBased) {
+            // records are delimited by the key column
+            String keyColumnName = _project.columnModel.getKeyColumnName();
+            if (keyColumnName == null) {
+                return Optional.empty();
+            }
+            Set<String> columnNames = new HashSet<>(dependencies.get());
+            columnNames.add(keyColumnName);
+            return Optional.of(columnNames);
+        }
+        return dependencies;
+    }
+
+    /**
+     * @return the key the computed facet at the given index is cached under, made of its configuration and the
+     *         configurations of the other facets which filter rows, or null if it cannot be cached
+     */
+    protected String getFacetKey(List<String> keys, BitSet[] masks, int index) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.size(); i++) {
+            if (i == index || masks[i] != null) {
+                if (keys.get(i) == null) {
+                    return null;
+                }
+                sb.append(i == index ? "facet=" : "filter=").append(keys.get(i)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the columns read by the facet at the given index and by the filters of the other facets
+     */
+    protected Optional<Set<String>> getFacetDependencies(BitSet[] masks, int index) {
+        Set<String> columnNames = new HashSet<>();
+        int i = 0;
+        for (Facet facet : _facets) {
+            if (i == index || masks[i] != null) {
+                Optional<Set<String>> dependencies = getFilterDependencies(facet);
+                if (dependencies.isEmpty()) {
+                    return Optional.empty();
+                }
+                columnNames.addAll(dependencies.get());
+            }
+            i++;
+        }
+        return Optional.of(columnNames);
     }
 }
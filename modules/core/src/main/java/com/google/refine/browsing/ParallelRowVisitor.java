@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing;
+
+/**
+ * A row visitor whose work can be split across threads. Each partition of the rows is visited by its own fork, and the
+ * results of the forks are then combined into the original visitor, in the order of their partitions.
+ * <p>
+ * Forks only ever see the rows of their partition, so visitors which abort visitation early or depend on the rows
+ * visited before should not implement this interface.
+ *
+ * @param <T>
+ *            the type of the visitor itself
+ */
+public interface ParallelRowVisitor<T extends ParallelRowVisitor<T>> extends RowVisitor {
+
+    /**
+     * Creates a visitor with the same configuration as this one and no results yet. {@link #start} and {@link #end} are
+     * not called on forks.
+     *
+     * @return the new visitor, or null if this visitor cannot be split, in which case the rows are visited sequentially
+     */
+    public T fork();
+
+    /**
+     * Merges the results of a fork into this visitor.
+     */
+    public void combine(T fork);
+}
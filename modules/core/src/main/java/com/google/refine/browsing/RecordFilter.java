@@ -43,4 +43,12 @@ import com.google.refine.model.Record;
 public interface RecordFilter {
 
     public boolean filterRecord(Project project, Record record);
+
+    /**
+     * Whether this filter can be called concurrently from several threads. Records are only filtered in parallel when
+     * all filters are thread-safe.
+     */
+    public default boolean isThreadSafe() {
+        return false;
+    }
 }
@@ -43,4 +43,12 @@ import com.google.refine.model.Row;
 public interface RowFilter {
 
     public boolean filterRow(Project project, int rowIndex, Row row);
+
+    /**
+     * Whether this filter can be called concurrently from several threads. Rows are only filtered in parallel when all
+     * filters are thread-safe.
+     */
+    public default boolean isThreadSafe() {
+        return false;
+    }
 }
@@ -33,6 +33,11 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import java.util.Optional;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import com.google.refine.browsing.FilteredRecords;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RecordFilter;
@@ -51,4 +56,15 @@ public interface Facet {
     public void computeChoices(Project project, FilteredRows filteredRows);
 
     public void computeChoices(Project project, FilteredRecords filteredRecords);
+
+    /**
+     * Returns the names of the columns read by the filter and the choices of this facet, which lets the results for a
+     * facet be reused when other columns change.
+     *
+     * @return {@link Optional#empty()} if the facet might depend on any column
+     */
+    @JsonIgnore
+    public default Optional<Set<String>> getColumnDependencies() {
+        return Optional.empty();
+    }
 }
@@ -35,6 +35,8 @@ package com.google.refine.browsing.facets;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -53,7 +55,10 @@ import com.google.refine.browsing.filters.AllRowsRecordFilter;
 import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.ExpressionEqualRowFilter;
 import com.google.refine.browsing.util.ExpressionNominalValueGrouper;
+import com.google.refine.browsing.util.IndexedNominalValueGrouper;
+import com.google.refine.browsing.util.NominalValueIndex;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
@@ -280,6 +285,12 @@ public class ListFacet implements Facet {
         }
     }
 
+    @JsonIgnore
+    @Override
+    public Optional<Set<String>> getColumnDependencies() {
+        return ExpressionUtils.getColumnDependencies(_eval, _config.columnName);
+    }
+
     @Override
     public RowFilter getRowFilter(Project project) {
         return _eval == null ||
@@ -292,7 +303,8 @@ public class ListFacet implements Facet {
                                 createMatches(),
                                 _config.selectBlank,
                                 _config.selectError,
-                                _config.invert);
+                                _config.invert,
+                                ExpressionUtils.isCellValueExpression(_config.expression));
     }
 
     @Override
@@ -304,7 +316,7 @@ public class ListFacet implements Facet {
     @Override
     public void computeChoices(Project project, FilteredRows filteredRows) {
         if (_eval != null && _errorMessage == null) {
-            ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+            ExpressionNominalValueGrouper grouper = createGrouper(project);
 
             filteredRows.accept(project, grouper);
 
@@ -315,7 +327,7 @@ public class ListFacet implements Facet {
     @Override
     public void computeChoices(Project project, FilteredRecords filteredRecords) {
         if (_eval != null && _errorMessage == null) {
-            ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+            ExpressionNominalValueGrouper grouper = createGrouper(project);
 
             filteredRecords.accept(project, grouper);
 
@@ -323,6 +335,33 @@ public class ListFacet implements Facet {
         }
     }
 
+    protected ExpressionNominalValueGrouper createGrouper(Project project) {
+        NominalValueIndex index = getNominalValueIndex(project);
+        return index != null ? new IndexedNominalValueGrouper(_eval, _config.columnName, _cellIndex, index)
+                : new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+    }
+
+    /**
+     * @return the values of the expression on all rows, computed once and cached by the column, or null if the
+     *         expression reads more than the column, in which case the precomputes of the column would not be cleared
+     *         when its value changes
+     */
+    protected NominalValueIndex getNominalValueIndex(Project project) {
+        Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
+        Optional<Set<String>> dependencies = getColumnDependencies();
+        if (column == null || dependencies.isEmpty() || !Set.of(column.getName()).containsAll(dependencies.get())) {
+            return null;
+        }
+
+        String key = "nominal:" + _config.expression;
+        Object index = column.getPrecompute(key);
+        if (!(index instanceof NominalValueIndex) || !((NominalValueIndex) index).covers(project)) {
+            index = new NominalValueIndex(project, _eval, _config.columnName, _cellIndex);
+            column.setPrecompute(key, index);
+        }
+        return (NominalValueIndex) index;
+    }
+
     protected void postProcessGrouper(ExpressionNominalValueGrouper grouper) {
         _choices.clear();
         _choices.addAll(grouper.choices.values());
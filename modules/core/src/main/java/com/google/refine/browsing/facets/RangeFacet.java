@@ -33,6 +33,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import java.util.Optional;
+import java.util.Set;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -52,6 +55,7 @@ import com.google.refine.browsing.util.NumericBinRecordIndex;
 import com.google.refine.browsing.util.NumericBinRowIndex;
 import com.google.refine.browsing.util.RowEvaluable;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
@@ -295,6 +299,12 @@ public class RangeFacet implements Facet {
         }
     }
 
+    @JsonIgnore
+    @Override
+    public Optional<Set<String>> getColumnDependencies() {
+        return ExpressionUtils.getColumnDependencies(_eval, _config._columnName);
+    }
+
     @Override
     public RowFilter getRowFilter(Project project) {
         if (_eval != null && _errorMessage == null && _config._selected) {
@@ -364,7 +374,8 @@ public class RangeFacet implements Facet {
     }
 
     protected RowEvaluable getRowEvaluable(Project project) {
-        return new ExpressionBasedRowEvaluable(_config._columnName, _cellIndex, _eval);
+        return new ExpressionBasedRowEvaluable(_config._columnName, _cellIndex, _eval,
+                ExpressionUtils.isCellValueExpression(_config._expression));
     }
 
     protected void retrieveDataFromBaseBinIndex(NumericBinIndex index) {
@@ -40,6 +40,9 @@ import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
 
 import javax.imageio.ImageIO;
 
@@ -62,6 +65,7 @@ import com.google.refine.browsing.util.NumericBinIndex;
 import com.google.refine.browsing.util.NumericBinRecordIndex;
 import com.google.refine.browsing.util.NumericBinRowIndex;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
@@ -401,6 +405,19 @@ public class ScatterplotFacet implements Facet {
 
     }
 
+    @JsonIgnore
+    @Override
+    public Optional<Set<String>> getColumnDependencies() {
+        Optional<Set<String>> x = ExpressionUtils.getColumnDependencies(eval_x, config.columnName_x);
+        Optional<Set<String>> y = ExpressionUtils.getColumnDependencies(eval_y, config.columnName_y);
+        if (x.isEmpty() || y.isEmpty()) {
+            return Optional.empty();
+        }
+        Set<String> columnNames = new HashSet<>(x.get());
+        columnNames.addAll(y.get());
+        return Optional.of(columnNames);
+    }
+
     @Override
     public RowFilter getRowFilter(Project project) {
         if (config.isSelected() &&
@@ -33,9 +33,12 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.regex.Pattern;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.browsing.FilteredRecords;
@@ -161,6 +164,12 @@ public class TextSearchFacet implements Facet {
 
     }
 
+    @JsonIgnore
+    @Override
+    public Optional<Set<String>> getColumnDependencies() {
+        return Optional.of(Set.of(_config._columnName));
+    }
+
     @Override
     public RowFilter getRowFilter(Project project) {
         if (_query == null || _query.length() == 0 || _cellIndex < 0) {
@@ -33,6 +33,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import java.util.Optional;
+import java.util.Set;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -51,6 +54,7 @@ import com.google.refine.browsing.util.TimeBinIndex;
 import com.google.refine.browsing.util.TimeBinRecordIndex;
 import com.google.refine.browsing.util.TimeBinRowIndex;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
@@ -255,6 +259,12 @@ public class TimeRangeFacet implements Facet {
         }
     }
 
+    @JsonIgnore
+    @Override
+    public Optional<Set<String>> getColumnDependencies() {
+        return ExpressionUtils.getColumnDependencies(_eval, _config._columnName);
+    }
+
     @Override
     public RowFilter getRowFilter(Project project) {
         if (_eval != null && _errorMessage == null && _config.isSelected()) {
@@ -55,4 +55,9 @@ public class AllRowsRecordFilter implements RecordFilter {
         }
         return true;
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return _rowFilter.isThreadSafe();
+    }
 }
@@ -115,4 +115,9 @@ abstract public class DualExpressionsNumberComparisonRowFilter implements RowFil
     }
 
     abstract protected boolean checkValues(double dx, double dy);
+
+    @Override
+    public boolean isThreadSafe() {
+        return _x_evaluable.isThreadSafe() && _y_evaluable.isThreadSafe();
+    }
 }
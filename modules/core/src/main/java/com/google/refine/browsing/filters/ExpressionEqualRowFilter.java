@@ -34,7 +34,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.browsing.filters;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Properties;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
 
@@ -43,6 +45,7 @@ import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.util.JsonValueConverter;
 import com.google.refine.model.Cell;
+import com.google.refine.model.ColumnarRowList;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 
@@ -61,10 +64,20 @@ public class ExpressionEqualRowFilter implements RowFilter {
                                     // for expression such as "row.starred".
 
     final protected Object[] _matches;
+    // the matches indexed for lookup: numbers by their double value, as numbers of different types are equal
+    final protected Set<Object> _matchSet;
+    final protected Set<Double> _numericMatchSet;
     final protected boolean _selectBlank;
     final protected boolean _selectError;
     final protected boolean _invert;
 
+    // whether the expression returns the value of the cell, so that dictionary-encoded columns can be tested by code
+    final protected boolean _cellValueOnly;
+    // whether a subclass overrides testValue(Object, Object), with which values are then tested against each match
+    final private boolean _scanMatches;
+    // the codes of the dictionary matched last, by code
+    private volatile DictionaryMatches _dictionaryMatches;
+
     public ExpressionEqualRowFilter(
             Evaluable evaluable,
             String columnName,
@@ -73,17 +86,79 @@ public class ExpressionEqualRowFilter implements RowFilter {
             boolean selectBlank,
             boolean selectError,
             boolean invert) {
+        this(evaluable, columnName, cellIndex, matches, selectBlank, selectError, invert, false);
+    }
+
+    /**
+     * @param cellValueOnly
+     *            true if the expression returns the value of the cell, see
+     *            {@link ExpressionUtils#isCellValueExpression(String)}
+     */
+    public ExpressionEqualRowFilter(
+            Evaluable evaluable,
+            String columnName,
+            int cellIndex,
+            Object[] matches,
+            boolean selectBlank,
+            boolean selectError,
+            boolean invert,
+            boolean cellValueOnly) {
         _evaluable = evaluable;
         _columnName = columnName;
         _cellIndex = cellIndex;
         _matches = matches;
+        _matchSet = new HashSet<>();
+        _numericMatchSet = new HashSet<>();
+        for (Object match : matches) {
+            if (match instanceof Number) {
+                double d = ((Number) match).doubleValue();
+                if (!Double.isNaN(d)) {
+                    _numericMatchSet.add(normalize(d));
+                }
+            } else if (match != null) {
+                _matchSet.add(match);
+            }
+        }
         _selectBlank = selectBlank;
         _selectError = selectError;
         _invert = invert;
+        _cellValueOnly = cellValueOnly;
+        _scanMatches = overridesTestValue(getClass());
+    }
+
+    static private boolean overridesTestValue(Class<?> cls) {
+        for (Class<?> c = cls; c != ExpressionEqualRowFilter.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod("testValue", Object.class, Object.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // look in the superclass
+            }
+        }
+        return false;
+    }
+
+    static private class DictionaryMatches {
+
+        final ColumnarRowList.Dictionary dictionary;
+        final boolean[] matches;
+
+        DictionaryMatches(ColumnarRowList.Dictionary dictionary, boolean[] matches) {
+            this.dictionary = dictionary;
+            this.matches = matches;
+        }
     }
 
     @Override
     public boolean filterRow(Project project, int rowIndex, Row row) {
+        if (_cellValueOnly && _cellIndex >= 0 && project.rows instanceof ColumnarRowList) {
+            // each distinct value of the column is only tested once
+            ColumnarRowList rows = (ColumnarRowList) project.rows;
+            int code = rows.getCode(row, _cellIndex);
+            if (code >= 0) {
+                return _invert != matchesCode(rows.getDictionary(_cellIndex), code);
+            }
+        }
         return _invert ? internalInvertedFilterRow(project, rowIndex, row) : internalFilterRow(project, rowIndex, row);
     }
 
@@ -165,23 +240,65 @@ public class ExpressionEqualRowFilter implements RowFilter {
         return !testValue(value);
     }
 
+    protected boolean matchesCode(ColumnarRowList.Dictionary dictionary, int code) {
+        DictionaryMatches matches = _dictionaryMatches;
+        if (matches == null || matches.dictionary != dictionary || code >= matches.matches.length) {
+            // the dictionary only grows, so the codes tested already keep their result
+            int tested = matches == null || matches.dictionary != dictionary ? 0 : matches.matches.length;
+            boolean[] result = new boolean[dictionary.size() + 1];
+            if (tested > 0) {
+                System.arraycopy(matches.matches, 0, result, 0, tested);
+            }
+            for (int c = tested; c < result.length; c++) {
+                result[c] = testValue(dictionary.getValue(c));
+            }
+            matches = new DictionaryMatches(dictionary, result);
+            _dictionaryMatches = matches;
+        }
+        return matches.matches[code];
+    }
+
     protected boolean testValue(Object v) {
         if (ExpressionUtils.isError(v)) {
             return _selectError;
         } else if (ExpressionUtils.isNonBlankData(v)) {
-            for (Object match : _matches) {
-                if (testValue(v, match)) {
-                    return true;
+            if (_scanMatches) {
+                for (Object match : _matches) {
+                    if (testValue(v, match)) {
+                        return true;
+                    }
                 }
+                return false;
             }
-            return false;
+            if (v instanceof Number) {
+                return _numericMatchSet.contains(normalize(((Number) v).doubleValue()));
+            }
+            return _matchSet.contains(v);
         } else {
             return _selectBlank;
         }
     }
 
+    /**
+     * @deprecated matches are looked up in hash sets rather than tested one by one. Subclasses which override this
+     *             method still have each value tested against each match with it, which is slower.
+     */
+    @Deprecated
     protected boolean testValue(Object v, Object match) {
         return (v instanceof Number && match instanceof Number) ? ((Number) match).doubleValue() == ((Number) v).doubleValue()
                 : match.equals(v);
     }
+
+    /**
+     * Boxes a double so that values equal in the sense of == are equal as objects, which Double.equals does not do for
+     * 0.0 and -0.0. NaN, which is equal to nothing, is left to the caller.
+     */
+    static private Double normalize(double d) {
+        return d == 0.0 ? 0.0 : d;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return _evaluable.isThreadSafe();
+    }
 }
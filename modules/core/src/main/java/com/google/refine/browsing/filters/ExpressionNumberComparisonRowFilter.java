@@ -39,9 +39,11 @@ import java.util.Properties;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 
 import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.util.ExpressionBasedRowEvaluable;
 import com.google.refine.browsing.util.RowEvaluable;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.util.JsonValueConverter;
+import com.google.refine.model.ColumnarRowList;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 
@@ -73,6 +75,23 @@ abstract public class ExpressionNumberComparisonRowFilter implements RowFilter {
 
     @Override
     public boolean filterRow(Project project, int rowIndex, Row row) {
+        if (_rowEvaluable instanceof ExpressionBasedRowEvaluable) {
+            // the number of a column stored as numbers can be checked without evaluating the expression
+            ExpressionBasedRowEvaluable evaluable = (ExpressionBasedRowEvaluable) _rowEvaluable;
+            ColumnarRowList numericRows = evaluable.getNumericRows(project);
+            int index = numericRows != null ? numericRows.getPosition(row) : -1;
+            if (index >= 0) {
+                if (!numericRows.hasNumber(index, evaluable.getCellIndex())) {
+                    return _selectBlank;
+                }
+                double d = numericRows.getDouble(index, evaluable.getCellIndex());
+                if (Double.isInfinite(d) || Double.isNaN(d)) {
+                    return _selectError;
+                }
+                return _selectNumeric && checkValue(d);
+            }
+        }
+
         Properties bindings = ExpressionUtils.createBindings(project);
 
         Object value = _rowEvaluable.eval(project, rowIndex, row, bindings);
@@ -128,4 +147,9 @@ abstract public class ExpressionNumberComparisonRowFilter implements RowFilter {
     }
 
     abstract protected boolean checkValue(double d);
+
+    @Override
+    public boolean isThreadSafe() {
+        return _rowEvaluable.isThreadSafe();
+    }
 }
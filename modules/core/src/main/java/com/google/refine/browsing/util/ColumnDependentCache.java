@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.refine.history.Change;
+import com.google.refine.model.Project;
+
+/**
+ * A cache of values computed on a project, which only depend on some of its columns.
+ * <p>
+ * Values are tagged with the id of the last history entry done when they were computed, so they are only used on the
+ * same state of the project. When a change is applied or reverted, the values which do not depend on the columns it
+ * modified are carried over to the new state, and the others are dropped. The least recently used values are evicted
+ * once the cache is full.
+ *
+ * @param <V>
+ *            the type of the cached values
+ */
+public class ColumnDependentCache<V> {
+
+    static protected class Entry<V> {
+
+        final protected V value;
+        final protected int size;
+        final protected Optional<Set<String>> dependencies;
+        protected long historyEntryID;
+
+        protected Entry(V value, int size, Optional<Set<String>> dependencies, long historyEntryID) {
+            this.value = value;
+            this.size = size;
+            this.dependencies = dependencies;
+            this.historyEntryID = historyEntryID;
+        }
+    }
+
+    final protected String _maxSizeProperty;
+    final protected int _defaultMaxSize;
+    // least recently used first
+    final protected Map<String, Entry<V>> _entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param maxSizeProperty
+     *            the system property holding the number of values cached per project, 0 disabling the cache
+     */
+    protected ColumnDependentCache(String maxSizeProperty, int defaultMaxSize) {
+        _maxSizeProperty = maxSizeProperty;
+        _defaultMaxSize = defaultMaxSize;
+    }
+
+    public int getMaxSize() {
+        return Integer.getInteger(_maxSizeProperty, _defaultMaxSize);
+    }
+
+    /**
+     * @param size
+     *            the number of rows (or records) of the project
+     * @return the cached value, which must not be modified, or null if it is not cached for this state of the project
+     */
+    synchronized public V get(String key, long historyEntryID, int size) {
+        Entry<V> entry = _entries.get(key);
+        if (entry == null) {
+            return null;
+        } else if (entry.historyEntryID != historyEntryID || entry.size != size) {
+            _entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * @param dependencies
+     *            the columns the value was computed from, or {@link Optional#empty()} if it might depend on any column
+     */
+    synchronized public void put(String key, V value, int size, Optional<Set<String>> dependencies, long historyEntryID) {
+        int maxSize = getMaxSize();
+        if (maxSize <= 0) {
+            return;
+        }
+        _entries.put(key, new Entry<>(value, size, dependencies, historyEntryID));
+        Iterator<Entry<V>> it = _entries.values().iterator();
+        while (_entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * Updates the cache after a change was applied or reverted.
+     *
+     * @param fromHistoryEntryID
+     *            the id of the last history entry done before the change
+     * @param toHistoryEntryID
+     *            the id of the last history entry done after the change
+     */
+    synchronized public void changed(Project project, Change change, long fromHistoryEntryID, long toHistoryEntryID) {
+        Optional<Set<String>> modified = change.getModifiedColumns(project);
+        for (Iterator<Entry<V>> it = _entries.values().iterator(); it.hasNext();) {
+            Entry<V> entry = it.next();
+            if (entry.historyEntryID == fromHistoryEntryID && modified.isPresent() && entry.dependencies.isPresent()
+                    && entry.dependencies.get().stream().noneMatch(modified.get()::contains)) {
+                entry.historyEntryID = toHistoryEntryID;
+            } else {
+                it.remove();
+            }
+        }
+    }
+
+    synchronized public int size() {
+        return _entries.size();
+    }
+
+    synchronized public void clear() {
+        _entries.clear();
+    }
+}
@@ -57,6 +57,9 @@ public class ConjunctiveFilteredRecords implements FilteredRecords {
     public void accept(Project project, RecordVisitor visitor) {
         try {
             visitor.start(project);
+            if (ParallelTraversal.visitRecords(project, visitor, asRecordFilter())) {
+                return;
+            }
 
             int c = project.recordModel.getRecordCount();
             for (int r = 0; r < c; r++) {
@@ -72,6 +75,21 @@ public class ConjunctiveFilteredRecords implements FilteredRecords {
         }
     }
 
+    protected RecordFilter asRecordFilter() {
+        return new RecordFilter() {
+
+            @Override
+            public boolean filterRecord(Project project, Record record) {
+                return matchRecord(project, record);
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return _recordFilters.stream().allMatch(RecordFilter::isThreadSafe);
+            }
+        };
+    }
+
     protected boolean matchRecord(Project project, Record record) {
         for (RecordFilter recordFilter : _recordFilters) {
             if (!recordFilter.filterRecord(project, record)) {
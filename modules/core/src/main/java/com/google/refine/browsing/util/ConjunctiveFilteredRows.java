@@ -58,6 +58,9 @@ public class ConjunctiveFilteredRows implements FilteredRows {
     public void accept(Project project, RowVisitor visitor) {
         try {
             visitor.start(project);
+            if (ParallelTraversal.visitRows(project, visitor, asRowFilter())) {
+                return;
+            }
 
             int c = project.rows.size();
             for (int rowIndex = 0; rowIndex < c; rowIndex++) {
@@ -77,6 +80,21 @@ public class ConjunctiveFilteredRows implements FilteredRows {
         return visitor.visit(project, rowIndex, rowIndex, row);
     }
 
+    protected RowFilter asRowFilter() {
+        return new RowFilter() {
+
+            @Override
+            public boolean filterRow(Project project, int rowIndex, Row row) {
+                return matchRow(project, rowIndex, row);
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return _rowFilters.stream().allMatch(RowFilter::isThreadSafe);
+            }
+        };
+    }
+
     protected boolean matchRow(Project project, int rowIndex, Row row) {
         for (RowFilter rowFilter : _rowFilters) {
             if (!rowFilter.filterRow(project, rowIndex, row)) {
@@ -38,6 +38,7 @@ import java.util.Properties;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.model.Cell;
+import com.google.refine.model.ColumnarRowList;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 
@@ -46,13 +47,46 @@ public class ExpressionBasedRowEvaluable implements RowEvaluable {
     final protected String _columnName;
     final protected int _cellIndex;
     final protected Evaluable _eval;
+    final protected boolean _cellValueOnly;
 
     public ExpressionBasedRowEvaluable(
             String columnName, int cellIndex, Evaluable eval) {
+        this(columnName, cellIndex, eval, false);
+    }
+
+    /**
+     * @param cellValueOnly
+     *            whether the expression returns the value of the cell unchanged, so that numbers can be read from the
+     *            column without evaluating it
+     */
+    public ExpressionBasedRowEvaluable(
+            String columnName, int cellIndex, Evaluable eval, boolean cellValueOnly) {
 
         _columnName = columnName;
         _cellIndex = cellIndex;
         _eval = eval;
+        _cellValueOnly = cellValueOnly;
+    }
+
+    public int getCellIndex() {
+        return _cellIndex;
+    }
+
+    /**
+     * @return the rows of the project if the expression returns the cell value and the column is stored as
+     *         {@link ColumnarRowList#isNumeric(int) numbers}, so that its values can be read from them, or null
+     */
+    public ColumnarRowList getNumericRows(Project project) {
+        if (_cellValueOnly && project.rows instanceof ColumnarRowList
+                && ((ColumnarRowList) project.rows).isNumeric(_cellIndex)) {
+            return (ColumnarRowList) project.rows;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return _eval.isThreadSafe();
     }
 
     @Override
@@ -38,11 +38,12 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Properties;
 
 import com.google.refine.browsing.DecoratedValue;
-import com.google.refine.browsing.RecordVisitor;
-import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.ParallelRecordVisitor;
+import com.google.refine.browsing.ParallelRowVisitor;
 import com.google.refine.browsing.facets.NominalFacetChoice;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
@@ -55,7 +56,8 @@ import com.google.refine.util.StringUtils;
 /**
  * Visit matched rows or records and group them into facet choices based on the values computed from a given expression.
  */
-public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor {
+public class ExpressionNominalValueGrouper implements ParallelRowVisitor<ExpressionNominalValueGrouper>,
+        ParallelRecordVisitor<ExpressionNominalValueGrouper> {
 
     static public class IndexedNominalFacetChoice extends NominalFacetChoice {
 
@@ -103,6 +105,28 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
         // nothing to do
     }
 
+    @Override
+    public ExpressionNominalValueGrouper fork() {
+        if (getClass() != ExpressionNominalValueGrouper.class || !_evaluable.isThreadSafe()) {
+            return null;
+        }
+        return new ExpressionNominalValueGrouper(_evaluable, _columnName, _cellIndex);
+    }
+
+    @Override
+    public void combine(ExpressionNominalValueGrouper fork) {
+        for (Entry<Object, IndexedNominalFacetChoice> entry : fork.choices.entrySet()) {
+            IndexedNominalFacetChoice choice = choices.putIfAbsent(entry.getKey(), entry.getValue());
+            if (choice != null) {
+                // forks visit disjoint rows and records, so their counts add up
+                choice.count += entry.getValue().count;
+                choice._latestIndex = Math.max(choice._latestIndex, entry.getValue()._latestIndex);
+            }
+        }
+        blankCount += fork.blankCount;
+        errorCount += fork.errorCount;
+    }
+
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
         hasError = false;
@@ -36,9 +36,10 @@ package com.google.refine.browsing.util;
 import java.util.Collection;
 import java.util.Properties;
 
-import com.google.refine.browsing.RecordVisitor;
-import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.ParallelRecordVisitor;
+import com.google.refine.browsing.ParallelRowVisitor;
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.ColumnarRowList;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 import com.google.refine.model.Row;
@@ -46,7 +47,8 @@ import com.google.refine.model.Row;
 /**
  * Visit matched rows or records and slot them into bins based on the numbers computed from a given expression.
  */
-public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor {
+public class ExpressionNumericValueBinner implements ParallelRowVisitor<ExpressionNumericValueBinner>,
+        ParallelRecordVisitor<ExpressionNumericValueBinner> {
 
     /*
      * Configuration
@@ -87,12 +89,37 @@ public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor {
         // nothing to do
     }
 
+    @Override
+    public ExpressionNumericValueBinner fork() {
+        if (getClass() != ExpressionNumericValueBinner.class || !_rowEvaluable.isThreadSafe()) {
+            return null;
+        }
+        return new ExpressionNumericValueBinner(_rowEvaluable, _index);
+    }
+
+    @Override
+    public void combine(ExpressionNumericValueBinner fork) {
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] += fork.bins[i];
+        }
+        numericCount += fork.numericCount;
+        nonNumericCount += fork.nonNumericCount;
+        blankCount += fork.blankCount;
+        errorCount += fork.errorCount;
+    }
+
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
         resetFlags();
 
-        Properties bindings = ExpressionUtils.createBindings(project);
-        processRow(project, rowIndex, row, bindings);
+        ColumnarRowList numericRows = getNumericRows(project);
+        int index = numericRows != null ? numericRows.getPosition(row) : -1;
+        if (index >= 0) {
+            processNumericCell(numericRows, index);
+        } else {
+            Properties bindings = ExpressionUtils.createBindings(project);
+            processRow(project, rowIndex, row, bindings);
+        }
 
         updateCounts();
 
@@ -103,9 +130,14 @@ public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor {
     public boolean visit(Project project, Record record) {
         resetFlags();
 
+        ColumnarRowList numericRows = getNumericRows(project);
         Properties bindings = ExpressionUtils.createBindings(project);
         for (int r = record.fromRowIndex; r < record.toRowIndex; r++) {
-            processRow(project, r, project.rows.get(r), bindings);
+            if (numericRows != null) {
+                processNumericCell(numericRows, r);
+            } else {
+                processRow(project, r, project.rows.get(r), bindings);
+            }
         }
 
         updateCounts();
@@ -135,6 +167,24 @@ public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor {
         }
     }
 
+    protected ColumnarRowList getNumericRows(Project project) {
+        return _rowEvaluable instanceof ExpressionBasedRowEvaluable
+                ? ((ExpressionBasedRowEvaluable) _rowEvaluable).getNumericRows(project)
+                : null;
+    }
+
+    /**
+     * Bins the cell of a row in a column of numbers, without evaluating the expression, which returns that cell value.
+     */
+    protected void processNumericCell(ColumnarRowList rows, int rowIndex) {
+        int cellIndex = ((ExpressionBasedRowEvaluable) _rowEvaluable).getCellIndex();
+        if (rows.hasNumber(rowIndex, cellIndex)) {
+            processNumber(rows.getDouble(rowIndex, cellIndex));
+        } else {
+            hasBlank = true;
+        }
+    }
+
     protected void processRow(Project project, int rowIndex, Row row, Properties bindings) {
         Object value = _rowEvaluable.eval(project, rowIndex, row, bindings);
         if (value != null) {
@@ -160,17 +210,7 @@ public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor {
             hasError = true;
         } else if (ExpressionUtils.isNonBlankData(value)) {
             if (value instanceof Number) {
-                double d = ((Number) value).doubleValue();
-                if (!Double.isInfinite(d) && !Double.isNaN(d)) {
-                    hasNumeric = true;
-
-                    int bin = (int) Math.floor((d - _index.getMin()) / _index.getStep());
-                    if (bin >= 0 && bin < bins.length) { // as a precaution
-                        bins[bin]++;
-                    }
-                } else {
-                    hasError = true;
-                }
+                processNumber(((Number) value).doubleValue());
             } else {
                 hasNonNumeric = true;
             }
@@ -178,4 +218,17 @@ public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor {
             hasBlank = true;
         }
     }
+
+    protected void processNumber(double d) {
+        if (!Double.isInfinite(d) && !Double.isNaN(d)) {
+            hasNumeric = true;
+
+            int bin = (int) Math.floor((d - _index.getMin()) / _index.getStep());
+            if (bin >= 0 && bin < bins.length) { // as a precaution
+                bins[bin]++;
+            }
+        } else {
+            hasError = true;
+        }
+    }
 }
@@ -37,8 +37,8 @@ import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.Properties;
 
-import com.google.refine.browsing.RecordVisitor;
-import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.ParallelRecordVisitor;
+import com.google.refine.browsing.ParallelRowVisitor;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
@@ -47,7 +47,8 @@ import com.google.refine.model.Row;
 /**
  * Visit matched rows or records and slot them into bins based on the date computed from a given expression.
  */
-public class ExpressionTimeValueBinner implements RowVisitor, RecordVisitor {
+public class ExpressionTimeValueBinner implements ParallelRowVisitor<ExpressionTimeValueBinner>,
+        ParallelRecordVisitor<ExpressionTimeValueBinner> {
 
     /*
      * Configuration
@@ -88,6 +89,25 @@ public class ExpressionTimeValueBinner implements RowVisitor, RecordVisitor {
         // nothing to do
     }
 
+    @Override
+    public ExpressionTimeValueBinner fork() {
+        if (getClass() != ExpressionTimeValueBinner.class || !_rowEvaluable.isThreadSafe()) {
+            return null;
+        }
+        return new ExpressionTimeValueBinner(_rowEvaluable, _index);
+    }
+
+    @Override
+    public void combine(ExpressionTimeValueBinner fork) {
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] += fork.bins[i];
+        }
+        timeCount += fork.timeCount;
+        nonTimeCount += fork.nonTimeCount;
+        blankCount += fork.blankCount;
+        errorCount += fork.errorCount;
+    }
+
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
         resetFlags();
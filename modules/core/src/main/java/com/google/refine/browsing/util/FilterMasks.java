@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.google.refine.browsing.FilteredRecords;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RecordFilter;
+import com.google.refine.browsing.RecordVisitor;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+
+/**
+ * Evaluates the filters of all facets in a single pass over the rows (or records) of a project, recording which rows
+ * each filter matches in a bit set. The rows matching every filter but one are then derived from those bit sets, which
+ * lets each facet compute its choices without evaluating the filters of the other facets again. On large projects the
+ * filters are evaluated in parallel, as long as they are all thread-safe.
+ */
+public class FilterMasks {
+
+    /**
+     * @param filters
+     *            the filters to evaluate, which may contain nulls
+     * @return for each filter, the indices of the rows it matches, or null where the filter is null
+     */
+    static public BitSet[] matchRows(Project project, List<RowFilter> filters) {
+        boolean threadSafe = filters.stream().allMatch(filter -> filter == null || filter.isThreadSafe());
+        return match(filters, project.rows.size(), threadSafe, (words, from, to) -> {
+            for (int rowIndex = from; rowIndex < to; rowIndex++) {
+                Row row = project.rows.get(rowIndex);
+                for (int i = 0; i < words.length; i++) {
+                    if (words[i] != null && filters.get(i).filterRow(project, rowIndex, row)) {
+                        words[i][rowIndex >> 6] |= 1L << rowIndex;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @param filters
+     *            the filters to evaluate, which may contain nulls
+     * @return for each filter, the indices of the records it matches, or null where the filter is null
+     */
+    static public BitSet[] matchRecords(Project project, List<RecordFilter> filters) {
+        boolean threadSafe = filters.stream().allMatch(filter -> filter == null || filter.isThreadSafe());
+        return match(filters, project.recordModel.getRecordCount(), threadSafe, (words, from, to) -> {
+            for (int r = from; r < to; r++) {
+                Record record = project.recordModel.getRecord(r);
+                for (int i = 0; i < words.length; i++) {
+                    if (words[i] != null && filters.get(i).filterRecord(project, record)) {
+                        words[i][r >> 6] |= 1L << r;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets the bits of the rows (or records) matched by each filter in a range, in the words of a {@link BitSet} per
+     * filter, which are null where the filter is null.
+     */
+    protected interface RangeMatcher {
+
+        void match(long[][] words, int from, int to);
+    }
+
+    /**
+     * Runs the matcher over all rows (or records), in parallel on large projects if all filters are thread-safe. The
+     * ranges are aligned on words, so that each is written by a single worker.
+     *
+     * @return for each filter, the indices of the rows it matches, or null where the filter is null
+     */
+    static protected BitSet[] match(List<?> filters, int count, boolean threadSafe, RangeMatcher matcher) {
+        int wordCount = (count + 63) >> 6;
+        long[][] words = new long[filters.size()][];
+        for (int i = 0; i < words.length; i++) {
+            if (filters.get(i) != null) {
+                words[i] = new long[wordCount];
+            }
+        }
+        int partitionCount = threadSafe ? ParallelTraversal.getPartitionCount(count) : 1;
+        if (partitionCount < 2) {
+            matcher.match(words, 0, count);
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>(partitionCount);
+            for (int p = 0; p < partitionCount; p++) {
+                int from = (int) ((long) wordCount * p / partitionCount) << 6;
+                int to = Math.min(count, (int) ((long) wordCount * (p + 1) / partitionCount) << 6);
+                tasks.add(() -> {
+                    matcher.match(words, from, to);
+                    return null;
+                });
+            }
+            ParallelTraversal.invokeAll(tasks);
+        }
+
+        BitSet[] masks = new BitSet[words.length];
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != null) {
+                masks[i] = BitSet.valueOf(words[i]);
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Intersects the masks of all filters but one, for each filter in turn. This uses the intersections of the masks
+     * before and after each filter, so that the cost is linear in the number of filters.
+     *
+     * @return for each filter, the rows matched by all other filters, or null if no other filter constrains the rows
+     */
+    static public BitSet[] exceptEach(BitSet[] masks) {
+        int n = masks.length;
+        BitSet[] before = new BitSet[n];
+        BitSet[] result = new BitSet[n];
+        BitSet acc = null;
+        for (int i = 0; i < n; i++) {
+            before[i] = acc;
+            acc = and(acc, masks[i]);
+        }
+        acc = null;
+        for (int i = n - 1; i >= 0; i--) {
+            result[i] = and(before[i], acc);
+            acc = and(acc, masks[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return the intersection of two masks, either of which may be null to stand for all rows
+     */
+    static public BitSet and(BitSet a, BitSet b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        }
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result;
+    }
+
+    /**
+     * @param mask
+     *            the indices of the rows to visit, or null to visit all rows
+     */
+    static public FilteredRows rows(BitSet mask) {
+        return new FilteredRows() {
+
+            @Override
+            public void accept(Project project, RowVisitor visitor) {
+                try {
+                    visitor.start(project);
+                    if (ParallelTraversal.visitRows(project, visitor, mask == null ? null : new RowFilter() {
+
+                        @Override
+                        public boolean filterRow(Project project, int rowIndex, Row row) {
+                            return mask.get(rowIndex);
+                        }
+
+                        @Override
+                        public boolean isThreadSafe() {
+                            // the mask is only read
+                            return true;
+                        }
+                    })) {
+                        return;
+                    }
+
+                    int c = project.rows.size();
+                    int rowIndex = mask == null ? 0 : mask.nextSetBit(0);
+                    while (rowIndex >= 0 && rowIndex < c) {
+                        if (visitor.visit(project, rowIndex, rowIndex, project.rows.get(rowIndex))) {
+                            break;
+                        }
+                        rowIndex = mask == null ? rowIndex + 1 : mask.nextSetBit(rowIndex + 1);
+                    }
+                } finally {
+                    visitor.end(project);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param mask
+     *            the indices of the records to visit, or null to visit all records
+     */
+    static public FilteredRecords records(BitSet mask) {
+        return new FilteredRecords() {
+
+            @Override
+            public void accept(Project project, RecordVisitor visitor) {
+                try {
+                    visitor.start(project);
+                    if (ParallelTraversal.visitRecords(project, visitor, mask == null ? null : new RecordFilter() {
+
+                        @Override
+                        public boolean filterRecord(Project project, Record record) {
+                            return mask.get(record.recordIndex);
+                        }
+
+                        @Override
+                        public boolean isThreadSafe() {
+                            // the mask is only read
+                            return true;
+                        }
+                    })) {
+                        return;
+                    }
+
+                    int c = project.recordModel.getRecordCount();
+                    int r = mask == null ? 0 : mask.nextSetBit(0);
+                    while (r >= 0 && r < c) {
+                        Record record = project.recordModel.getRecord(r);
+                        if (visitor.visit(project, record.fromRowIndex, record)) {
+                            break;
+                        }
+                        r = mask == null ? r + 1 : mask.nextSetBit(r + 1);
+                    }
+                } finally {
+                    visitor.end(project);
+                }
+            }
+        };
+    }
+}
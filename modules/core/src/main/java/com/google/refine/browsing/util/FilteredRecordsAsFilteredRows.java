@@ -35,6 +35,8 @@ package com.google.refine.browsing.util;
 
 import com.google.refine.browsing.FilteredRecords;
 import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.ParallelRecordVisitor;
+import com.google.refine.browsing.ParallelRowVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.model.Project;
 
@@ -48,7 +50,34 @@ public class FilteredRecordsAsFilteredRows implements FilteredRows {
 
     @Override
     public void accept(Project project, RowVisitor visitor) {
-        _filteredRecords.accept(project, new RowVisitorAsRecordVisitor(visitor));
+        if (visitor instanceof ParallelRowVisitor) {
+            _filteredRecords.accept(project, new ParallelRowVisitorAsRecordVisitor((ParallelRowVisitor<?>) visitor));
+        } else {
+            _filteredRecords.accept(project, new RowVisitorAsRecordVisitor(visitor));
+        }
+    }
+
+    /**
+     * Lets the records be visited in parallel when the row visitor can be split.
+     */
+    static protected class ParallelRowVisitorAsRecordVisitor extends RowVisitorAsRecordVisitor
+            implements ParallelRecordVisitor<ParallelRowVisitorAsRecordVisitor> {
+
+        public ParallelRowVisitorAsRecordVisitor(ParallelRowVisitor<?> rowVisitor) {
+            super(rowVisitor);
+        }
+
+        @Override
+        public ParallelRowVisitorAsRecordVisitor fork() {
+            ParallelRowVisitor<?> fork = ((ParallelRowVisitor<?>) _rowVisitor).fork();
+            return fork != null ? new ParallelRowVisitorAsRecordVisitor(fork) : null;
+        }
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        @Override
+        public void combine(ParallelRowVisitorAsRecordVisitor fork) {
+            ((ParallelRowVisitor) _rowVisitor).combine((ParallelRowVisitor) fork._rowVisitor);
+        }
     }
 
 }
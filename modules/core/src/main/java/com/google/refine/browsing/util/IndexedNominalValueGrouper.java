@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.google.refine.browsing.DecoratedValue;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+import com.google.refine.util.StringUtils;
+
+/**
+ * Groups the matched rows or records into facet choices like {@link ExpressionNominalValueGrouper}, by counting the
+ * codes of a {@link NominalValueIndex} instead of evaluating the expression.
+ */
+public class IndexedNominalValueGrouper extends ExpressionNominalValueGrouper {
+
+    final protected NominalValueIndex _index;
+
+    // the number of rows counted in each group, and the position in the index of the first value counted in it
+    final protected int[] _counts;
+    final protected int[] _firstPositions;
+
+    public IndexedNominalValueGrouper(Evaluable evaluable, String columnName, int cellIndex, NominalValueIndex index) {
+        super(evaluable, columnName, cellIndex);
+        _index = index;
+        _counts = new int[index.getGroupCount()];
+        _firstPositions = new int[index.getGroupCount()];
+        Arrays.fill(_firstPositions, -1);
+    }
+
+    @Override
+    public void end(Project project) {
+        List<Integer> groups = new ArrayList<>();
+        for (int group = 0; group < _counts.length; group++) {
+            if (_counts[group] > 0) {
+                groups.add(group);
+            }
+        }
+        // choices are added in the order their values were met, as the expression-based grouper does
+        groups.sort(Comparator.comparingInt(group -> _firstPositions[group]));
+
+        choices.clear();
+        for (int group : groups) {
+            Object value = _index.getValue(_firstPositions[group]);
+            String valueString = StringUtils.toString(value);
+            IndexedNominalFacetChoice choice = new IndexedNominalFacetChoice(new DecoratedValue(value, valueString), -1);
+            choice.count = _counts[group];
+            choices.put(valueString, choice);
+        }
+    }
+
+    @Override
+    public IndexedNominalValueGrouper fork() {
+        if (getClass() != IndexedNominalValueGrouper.class) {
+            return null;
+        }
+        return new IndexedNominalValueGrouper(_evaluable, _columnName, _cellIndex, _index);
+    }
+
+    @Override
+    public void combine(ExpressionNominalValueGrouper fork) {
+        IndexedNominalValueGrouper other = (IndexedNominalValueGrouper) fork;
+        for (int group = 0; group < _counts.length; group++) {
+            // forks are combined in the order of the rows they visited
+            if (_counts[group] == 0) {
+                _firstPositions[group] = other._firstPositions[group];
+            }
+            _counts[group] += other._counts[group];
+        }
+        blankCount += other.blankCount;
+        errorCount += other.errorCount;
+    }
+
+    @Override
+    public boolean visit(Project project, int rowIndex, Row row) {
+        countRow(rowIndex);
+        return false;
+    }
+
+    @Override
+    public boolean visit(Project project, Record record) {
+        for (int r = record.fromRowIndex; r < record.toRowIndex; r++) {
+            countRow(r);
+        }
+        return false;
+    }
+
+    protected void countRow(int rowIndex) {
+        int end = _index.getRowEnd(rowIndex);
+        for (int position = _index.getRowStart(rowIndex); position < end; position++) {
+            int group = _index.getGroup(position);
+            if (_counts[group]++ == 0) {
+                _firstPositions[group] = position;
+            }
+        }
+        if (_index.hasError(rowIndex)) {
+            errorCount++;
+        }
+        if (_index.hasBlank(rowIndex)) {
+            blankCount++;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.Cell;
+import com.google.refine.model.MemoryEstimator;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.util.StringUtils;
+
+/**
+ * The values of an expression on all the rows of a project, so that a list facet can count them over the filtered rows
+ * without evaluating the expression again. Each distinct value gets a code, and the values of each row are stored as
+ * codes. Values with the same string form, which the facet counts as one choice, share a group.
+ * <p>
+ * Like {@link NumericBinIndex}, it is cached as a precompute of the column the expression is based on, so it must only
+ * be used for expressions which do not read other columns.
+ */
+public class NominalValueIndex implements MemoryEstimator.Sized {
+
+    // the distinct values and their groups, by code
+    final protected List<Object> _values = new ArrayList<>();
+    protected int[] _groups = new int[16];
+    protected int _groupCount;
+
+    // the codes of the values of row r are stored from _rowOffsets[r] to _rowOffsets[r + 1], one per group
+    final protected int[] _rowOffsets;
+    protected int[] _codes;
+    final protected BitSet _blankRows = new BitSet();
+    final protected BitSet _errorRows = new BitSet();
+
+    public NominalValueIndex(Project project, Evaluable evaluable, String columnName, int cellIndex) {
+        Map<Object, Integer> codes = new HashMap<>();
+        Map<String, Integer> groups = new HashMap<>();
+        int rowCount = project.rows.size();
+        _rowOffsets = new int[rowCount + 1];
+        _codes = new int[Math.max(16, rowCount)];
+
+        Properties bindings = ExpressionUtils.createBindings(project);
+        for (int r = 0; r < rowCount; r++) {
+            Row row = project.rows.get(r);
+            Cell cell = cellIndex < 0 ? null : row.getCell(cellIndex);
+            ExpressionUtils.bind(bindings, row, r, columnName, cell);
+
+            Object value = evaluable.evaluate(bindings);
+            _rowOffsets[r + 1] = _rowOffsets[r];
+            if (value != null && value.getClass().isArray()) {
+                for (Object v : (Object[]) value) {
+                    add(r, v, codes, groups);
+                }
+            } else if (value instanceof Collection<?>) {
+                for (Object v : ExpressionUtils.toObjectCollection(value)) {
+                    add(r, v, codes, groups);
+                }
+            } else {
+                add(r, value, codes, groups);
+            }
+        }
+        _groupCount = groups.size();
+    }
+
+    private void add(int r, Object value, Map<Object, Integer> codes, Map<String, Integer> groups) {
+        if (ExpressionUtils.isError(value)) {
+            _errorRows.set(r);
+        } else if (ExpressionUtils.isNonBlankData(value)) {
+            Integer group = groups.get(StringUtils.toString(value));
+            if (group == null) {
+                group = groups.size();
+                groups.put(StringUtils.toString(value), group);
+            }
+            // a row is counted once per choice, with the first of its values of that choice
+            for (int k = _rowOffsets[r]; k < _rowOffsets[r + 1]; k++) {
+                if (_groups[_codes[k]] == group) {
+                    return;
+                }
+            }
+
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = _values.size();
+                codes.put(value, code);
+                _values.add(value);
+                if (code >= _groups.length) {
+                    _groups = Arrays.copyOf(_groups, _groups.length * 2);
+                }
+                _groups[code] = group;
+            }
+            int k = _rowOffsets[r + 1]++;
+            if (k >= _codes.length) {
+                _codes = Arrays.copyOf(_codes, _codes.length * 2);
+            }
+            _codes[k] = code;
+        } else {
+            _blankRows.set(r);
+        }
+    }
+
+    /**
+     * @return true if the index holds the values of all the rows of the project
+     */
+    public boolean covers(Project project) {
+        return _rowOffsets.length == project.rows.size() + 1;
+    }
+
+    public int getGroupCount() {
+        return _groupCount;
+    }
+
+    /**
+     * @return the first position of the values of a row, see {@link #getGroup(int)} and {@link #getValue(int)}
+     */
+    public int getRowStart(int rowIndex) {
+        return _rowOffsets[rowIndex];
+    }
+
+    /**
+     * @return the position after the last value of a row
+     */
+    public int getRowEnd(int rowIndex) {
+        return _rowOffsets[rowIndex + 1];
+    }
+
+    public int getGroup(int position) {
+        return _groups[_codes[position]];
+    }
+
+    public Object getValue(int position) {
+        return _values.get(_codes[position]);
+    }
+
+    public boolean hasBlank(int rowIndex) {
+        return _blankRows.get(rowIndex);
+    }
+
+    public boolean hasError(int rowIndex) {
+        return _errorRows.get(rowIndex);
+    }
+
+    @Override
+    public long estimateBytes() {
+        long bytes = 128 + 4L * (_rowOffsets.length + _codes.length + _groups.length)
+                + (_blankRows.size() + _errorRows.size()) / 8;
+        for (Object value : _values) {
+            bytes += 4 + (value instanceof Serializable ? MemoryEstimator.estimateValue((Serializable) value) : 64);
+        }
+        return bytes;
+    }
+}
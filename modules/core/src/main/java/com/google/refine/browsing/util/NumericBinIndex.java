@@ -33,14 +33,16 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.ColumnarRowList;
+import com.google.refine.model.MemoryEstimator;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
+import com.google.refine.util.DoubleArrayList;
 
 /**
  * A utility class for computing the base bins that form the base histograms of numeric range facets. It evaluates an
@@ -50,7 +52,7 @@ import com.google.refine.model.Row;
  * This class processes all rows rather than just the filtered rows because it needs to compute the base bins of a
  * numeric range facet, which remain unchanged as the user interacts with the facet.
  */
-abstract public class NumericBinIndex {
+abstract public class NumericBinIndex implements MemoryEstimator.Sized {
 
     protected int _totalValueCount;
     protected int _numbericValueCount;
@@ -75,8 +77,8 @@ abstract public class NumericBinIndex {
         _min = Double.POSITIVE_INFINITY;
         _max = Double.NEGATIVE_INFINITY;
 
-        // TODO: An array of doubles would be more memmory efficient - double[] allValues
-        List<Double> allValues = new ArrayList<Double>();
+        // values are kept unboxed, see processValue
+        DoubleArrayList allValues = new DoubleArrayList();
 
         iterate(project, rowEvaluable, allValues);
 
@@ -120,7 +122,8 @@ abstract public class NumericBinIndex {
         }
 
         _bins = new int[(int) Math.round(binCount)];
-        for (double d : allValues) {
+        for (int i = 0; i < _numbericValueCount; i++) {
+            double d = allValues.getDouble(i);
             int bin = Math.max((int) Math.floor((d - _min) / _step), 0);
             _bins[bin]++;
         }
@@ -142,6 +145,12 @@ abstract public class NumericBinIndex {
         return _step;
     }
 
+    @Override
+    public long estimateBytes() {
+        // the fields and the bins
+        return 128 + 4L * _bins.length;
+    }
+
     public int[] getBins() {
         return _bins;
     }
@@ -233,6 +242,26 @@ abstract public class NumericBinIndex {
         }
     }
 
+    /**
+     * Processes the cell of a row in a column of numbers, as {@link #processRow} processes the value of an expression
+     * returning that cell value, but without evaluating the expression nor boxing the number.
+     *
+     * @param rows
+     *            the rows of the project, in which the cell index is {@link ColumnarRowList#isNumeric(int) numeric}
+     */
+    protected void processNumericCell(ColumnarRowList rows, int cellIndex, List<Double> allValues, int rowIndex) {
+        if (rows.hasNumber(rowIndex, cellIndex)) {
+            _totalValueCount++;
+            if (processValue(rows.getDouble(rowIndex, cellIndex), allValues)) {
+                _hasNumeric = true;
+            } else {
+                _hasError = true;
+            }
+        } else {
+            _hasBlank = true;
+        }
+    }
+
     protected void preprocessing() {
         _hasBlank = false;
         _hasError = false;
@@ -259,7 +288,11 @@ abstract public class NumericBinIndex {
         if (!Double.isInfinite(v) && !Double.isNaN(v)) {
             _min = Math.min(_min, v);
             _max = Math.max(_max, v);
-            allValues.add(v);
+            if (allValues instanceof DoubleArrayList) {
+                ((DoubleArrayList) allValues).add(v);
+            } else {
+                allValues.add(v);
+            }
             return true;
         } else {
             return false;
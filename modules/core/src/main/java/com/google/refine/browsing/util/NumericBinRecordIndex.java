@@ -37,6 +37,7 @@ import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.ColumnarRowList;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 import com.google.refine.model.Row;
@@ -53,6 +54,10 @@ public class NumericBinRecordIndex extends NumericBinIndex {
 
         Properties bindings = ExpressionUtils.createBindings(project);
         int count = project.recordModel.getRecordCount();
+        ColumnarRowList numericRows = rowEvaluable instanceof ExpressionBasedRowEvaluable
+                ? ((ExpressionBasedRowEvaluable) rowEvaluable).getNumericRows(project)
+                : null;
+        int cellIndex = numericRows != null ? ((ExpressionBasedRowEvaluable) rowEvaluable).getCellIndex() : -1;
 
         for (int r = 0; r < count; r++) {
             Record record = project.recordModel.getRecord(r);
@@ -60,6 +65,11 @@ public class NumericBinRecordIndex extends NumericBinIndex {
             preprocessing();
 
             for (int i = record.fromRowIndex; i < record.toRowIndex; i++) {
+                if (numericRows != null) {
+                    processNumericCell(numericRows, cellIndex, allValues, i);
+                    continue;
+                }
+
                 Row row = project.rows.get(i);
 
                 processRow(project, rowEvaluable, allValues, i, row, bindings);
@@ -37,6 +37,7 @@ import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.ColumnarRowList;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 
@@ -51,6 +52,19 @@ public class NumericBinRowIndex extends NumericBinIndex {
     protected void iterate(
             Project project, RowEvaluable rowEvaluable, List<Double> allValues) {
 
+        ColumnarRowList numericRows = rowEvaluable instanceof ExpressionBasedRowEvaluable
+                ? ((ExpressionBasedRowEvaluable) rowEvaluable).getNumericRows(project)
+                : null;
+        if (numericRows != null) {
+            int cellIndex = ((ExpressionBasedRowEvaluable) rowEvaluable).getCellIndex();
+            for (int i = 0; i < numericRows.size(); i++) {
+                preprocessing();
+                processNumericCell(numericRows, cellIndex, allValues, i);
+                postprocessing();
+            }
+            return;
+        }
+
         Properties bindings = ExpressionUtils.createBindings(project);
 
         for (int i = 0; i < project.rows.size(); i++) {
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.google.refine.browsing.ParallelRecordVisitor;
+import com.google.refine.browsing.ParallelRowVisitor;
+import com.google.refine.browsing.RecordFilter;
+import com.google.refine.browsing.RecordVisitor;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+import com.google.refine.util.ParallelDecoder;
+
+/**
+ * Visits the rows or records of large projects on the shared fork-join pool, for visitors which can be split. The rows
+ * are partitioned into contiguous ranges, each visited by a fork of the visitor, and the forks are combined back in
+ * order.
+ */
+public class ParallelTraversal {
+
+    /**
+     * System property holding the number of rows (or records) from which visitors are run in parallel. Setting it to 0
+     * disables parallel traversals.
+     */
+    public static final String MIN_ROWS_PROPERTY = "refine.browsing.parallel_min_rows";
+    public static final int DEFAULT_MIN_ROWS = 20000;
+
+    static final private int MIN_PARTITION_SIZE = 1024;
+
+    static public int getMinRows() {
+        return Integer.getInteger(MIN_ROWS_PROPERTY, DEFAULT_MIN_ROWS);
+    }
+
+    /**
+     * Visits the rows matching the filter in parallel, if the visitor supports it and the project is large enough.
+     * {@link RowVisitor#start} and {@link RowVisitor#end} are left to the caller.
+     *
+     * @param filter
+     *            the filter rows must match, or null to visit all rows. Rows are only visited in parallel if it is
+     *            thread-safe.
+     * @return false if no row was visited, in which case the caller should visit them sequentially
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static public boolean visitRows(Project project, RowVisitor visitor, RowFilter filter) {
+        int count = project.rows.size();
+        int partitionCount = getPartitionCount(count);
+        if (!(visitor instanceof ParallelRowVisitor) || partitionCount < 2 || (filter != null && !filter.isThreadSafe())) {
+            return false;
+        }
+        ParallelRowVisitor parent = (ParallelRowVisitor) visitor;
+        List<ParallelRowVisitor> forks = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            ParallelRowVisitor fork = parent.fork();
+            if (fork == null) {
+                return false;
+            }
+            forks.add(fork);
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            RowVisitor fork = forks.get(i);
+            int from = (int) ((long) count * i / partitionCount);
+            int to = (int) ((long) count * (i + 1) / partitionCount);
+            tasks.add(() -> {
+                for (int rowIndex = from; rowIndex < to; rowIndex++) {
+                    Row row = project.rows.get(rowIndex);
+                    if (filter == null || filter.filterRow(project, rowIndex, row)) {
+                        if (fork.visit(project, rowIndex, rowIndex, row)) {
+                            break;
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        invokeAll(tasks);
+
+        for (ParallelRowVisitor fork : forks) {
+            parent.combine(fork);
+        }
+        return true;
+    }
+
+    /**
+     * Visits the records matching the filter in parallel, if the visitor supports it and the project is large enough.
+     * {@link RecordVisitor#start} and {@link RecordVisitor#end} are left to the caller.
+     *
+     * @param filter
+     *            the filter records must match, or null to visit all records. Records are only visited in parallel if
+     *            it is thread-safe.
+     * @return false if no record was visited, in which case the caller should visit them sequentially
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static public boolean visitRecords(Project project, RecordVisitor visitor, RecordFilter filter) {
+        int count = project.recordModel.getRecordCount();
+        int partitionCount = getPartitionCount(count);
+        if (!(visitor instanceof ParallelRecordVisitor) || partitionCount < 2
+                || (filter != null && !filter.isThreadSafe())) {
+            return false;
+        }
+        ParallelRecordVisitor parent = (ParallelRecordVisitor) visitor;
+        List<ParallelRecordVisitor> forks = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            ParallelRecordVisitor fork = parent.fork();
+            if (fork == null) {
+                return false;
+            }
+            forks.add(fork);
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            RecordVisitor fork = forks.get(i);
+            int from = (int) ((long) count * i / partitionCount);
+            int to = (int) ((long) count * (i + 1) / partitionCount);
+            tasks.add(() -> {
+                for (int r = from; r < to; r++) {
+                    Record record = project.recordModel.getRecord(r);
+                    if (filter == null || filter.filterRecord(project, record)) {
+                        if (fork.visit(project, record.fromRowIndex, record)) {
+                            break;
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        invokeAll(tasks);
+
+        for (ParallelRecordVisitor fork : forks) {
+            parent.combine(fork);
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of ranges to split the given number of rows (or records) into, 1 to visit them sequentially
+     */
+    static int getPartitionCount(int count) {
+        int minRows = getMinRows();
+        int parallelism = ParallelDecoder.getPool().getParallelism();
+        if (minRows <= 0 || count < minRows) {
+            return 1;
+        }
+        // a few partitions per worker, so that uneven ones balance out
+        return Math.min(4 * parallelism, Math.max(1, count / MIN_PARTITION_SIZE));
+    }
+
+    /**
+     * Runs the tasks on the shared pool and waits for them, rethrowing what any of them threw.
+     */
+    static void invokeAll(List<Callable<Void>> tasks) {
+        for (Future<Void> future : ParallelDecoder.getPool().invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while visiting rows", e);
+            } catch (ExecutionException e) {
+                // rethrow what the visitor or filter threw, as a sequential traversal would
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+        }
+    }
+}
@@ -41,4 +41,11 @@ import com.google.refine.model.Row;
 public interface RowEvaluable {
 
     public Object eval(Project project, int rowIndex, Row row, Properties bindings);
+
+    /**
+     * Whether this can be evaluated concurrently from several threads, each with its own bindings.
+     */
+    public default boolean isThreadSafe() {
+        return false;
+    }
 }
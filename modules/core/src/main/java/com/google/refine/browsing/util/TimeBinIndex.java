@@ -40,6 +40,7 @@ import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.MemoryEstimator;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 
@@ -51,7 +52,7 @@ import com.google.refine.model.Row;
  * This class processes all rows rather than just the filtered rows because it needs to compute the base bins of a
  * temporal range facet, which remain unchanged as the user interacts with the facet.
  */
-abstract public class TimeBinIndex {
+abstract public class TimeBinIndex implements MemoryEstimator.Sized {
 
     protected int _totalValueCount;
     protected int _timeValueCount;
@@ -137,6 +138,12 @@ abstract public class TimeBinIndex {
         return _step;
     }
 
+    @Override
+    public long estimateBytes() {
+        // the fields and the bins
+        return 128 + 4L * _bins.length;
+    }
+
     public int[] getBins() {
         return _bins;
     }
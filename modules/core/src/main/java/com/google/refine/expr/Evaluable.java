@@ -66,4 +66,13 @@ public interface Evaluable {
         return Optional.empty();
     }
 
+    /**
+     * Whether this expression can be evaluated concurrently from several threads, each with its own bindings. Facets
+     * are only computed in parallel over expressions which are thread-safe, so implementations must opt in once they
+     * are known not to touch shared state.
+     */
+    public default boolean isThreadSafe() {
+        return false;
+    }
+
 }
@@ -38,6 +38,7 @@ import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 
@@ -114,6 +115,31 @@ public class ExpressionUtils {
                 (!(o instanceof String) || ((String) o).length() > 0);
     }
 
+    /**
+     * @return whether the expression evaluates to the value of the cell of its base column, so that it can be bypassed
+     */
+    static public boolean isCellValueExpression(String expression) {
+        String trimmed = expression == null ? null : expression.trim();
+        return "value".equals(trimmed) || "grel:value".equals(trimmed);
+    }
+
+    /**
+     * @param eval
+     *            the parsed expression, or null if it could not be parsed
+     * @param baseColumnName
+     *            the column the expression is evaluated on, or an empty string if none
+     * @return the columns the expression reads, or {@link Optional#empty()} if they cannot be isolated
+     * @see Evaluable#getColumnDependencies(Optional)
+     */
+    static public Optional<Set<String>> getColumnDependencies(Evaluable eval, String baseColumnName) {
+        if (eval == null) {
+            return Optional.empty();
+        }
+        return eval.getColumnDependencies(baseColumnName == null || baseColumnName.isEmpty()
+                ? Optional.empty()
+                : Optional.of(baseColumnName));
+    }
+
     static public boolean isTrue(Object o) {
         return o != null &&
                 (o instanceof Boolean ? ((Boolean) o).booleanValue() : Boolean.parseBoolean(o.toString()));
@@ -35,7 +35,9 @@ package com.google.refine.history;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.model.Project;
 
@@ -51,4 +53,16 @@ public interface Change {
     public void revert(Project project);
 
     public void save(Writer writer, Properties options) throws IOException;
+
+    /**
+     * Returns the names of the columns whose cells this change modifies, when it leaves the rows, their order and all
+     * other columns untouched. This lets caches which only depend on some columns survive the change.
+     *
+     * @param project
+     *            the project the change was just applied to or reverted from
+     * @return {@link Optional#empty()} if the change might modify anything in the project
+     */
+    public default Optional<Set<String>> getModifiedColumns(Project project) {
+        return Optional.empty();
+    }
 }
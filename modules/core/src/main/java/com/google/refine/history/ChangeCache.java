@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.history;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of the {@link Change}s which are loaded in memory, across all projects, and unloads the least recently
+ * used ones when their estimated size exceeds a budget. Only changes which are stored on disk are registered here, so
+ * that an evicted change can always be loaded again by the {@link HistoryEntryManager}.
+ */
+public class ChangeCache {
+
+    /**
+     * System property setting how much heap, in megabytes, the loaded changes may use.
+     */
+    static public final String BUDGET_PROPERTY = "refine.history.change_cache_mb";
+    static public final long DEFAULT_BUDGET_MB = 256;
+
+    final static Logger logger = LoggerFactory.getLogger("change_cache");
+
+    static public ChangeCache singleton = new ChangeCache(
+            Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET_MB) * 1024 * 1024);
+
+    protected final long _budget;
+    // access-ordered, least recently used first
+    protected final LinkedHashMap<HistoryEntry, Long> _sizes = new LinkedHashMap<>(16, 0.75f, true);
+    protected long _size = 0;
+    protected long _hits = 0;
+    protected long _misses = 0;
+    protected long _evictions = 0;
+
+    public ChangeCache(long budget) {
+        _budget = budget;
+    }
+
+    /**
+     * Registers the change of an entry, which has just been loaded from or saved to disk. Other changes are unloaded if
+     * this makes the cache exceed its budget, but never the one of this entry.
+     *
+     * @param entry
+     *            the entry whose change is loaded
+     * @param estimatedSize
+     *            the number of bytes the change is estimated to use on the heap
+     */
+    synchronized public void put(HistoryEntry entry, long estimatedSize) {
+        Long previous = _sizes.put(entry, estimatedSize);
+        _size += estimatedSize - (previous == null ? 0 : previous);
+
+        Iterator<Map.Entry<HistoryEntry, Long>> it = _sizes.entrySet().iterator();
+        while (_size > _budget && it.hasNext()) {
+            Map.Entry<HistoryEntry, Long> eldest = it.next();
+            if (eldest.getKey() == entry) {
+                break;
+            }
+            it.remove();
+            _size -= eldest.getValue();
+            _evictions++;
+            eldest.getKey().setChange(null);
+            logger.debug("Unloaded change of history entry {} ({} bytes)", eldest.getKey().id, eldest.getValue());
+        }
+    }
+
+    /**
+     * Records that the change of an entry was found in memory. Changes which have not been saved yet are not counted.
+     */
+    synchronized public void recordHit(HistoryEntry entry) {
+        // also moves the entry to the most recently used end
+        if (_sizes.get(entry) != null) {
+            _hits++;
+        }
+    }
+
+    /**
+     * Records that the change of an entry had to be loaded from disk.
+     */
+    synchronized public void recordMiss() {
+        _misses++;
+    }
+
+    synchronized public void remove(HistoryEntry entry) {
+        Long size = _sizes.remove(entry);
+        if (size != null) {
+            _size -= size;
+        }
+    }
+
+    /**
+     * Forgets the changes of a project which is unloaded, without unloading them: they will be garbage collected with
+     * the project.
+     */
+    synchronized public void removeProject(long projectID) {
+        for (Iterator<Map.Entry<HistoryEntry, Long>> it = _sizes.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<HistoryEntry, Long> entry = it.next();
+            if (entry.getKey().projectID == projectID) {
+                it.remove();
+                _size -= entry.getValue();
+            }
+        }
+    }
+
+    public long getBudget() {
+        return _budget;
+    }
+
+    synchronized public long getSize() {
+        return _size;
+    }
+
+    /**
+     * @return the estimated size of the loaded changes of a project
+     */
+    synchronized public long getProjectSize(long projectID) {
+        long size = 0;
+        for (Map.Entry<HistoryEntry, Long> entry : _sizes.entrySet()) {
+            if (entry.getKey().projectID == projectID) {
+                size += entry.getValue();
+            }
+        }
+        return size;
+    }
+
+    synchronized public int getCount() {
+        return _sizes.size();
+    }
+
+    synchronized public long getHits() {
+        return _hits;
+    }
+
+    synchronized public long getMisses() {
+        return _misses;
+    }
+
+    synchronized public long getEvictions() {
+        return _evictions;
+    }
+}
@@ -45,7 +45,9 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.ProjectManager;
@@ -113,6 +115,19 @@ public class History {
         return (Class<? extends Change>) RefineServlet.getClass(className);
     }
 
+    /**
+     * System property setting every how many history entries the state of the project is checkpointed, so that
+     * {@link #undoRedo(long)} only replays the changes between the target entry and the nearest checkpoint. Set it to 0
+     * to disable checkpoints.
+     */
+    static public final String CHECKPOINT_INTERVAL_PROPERTY = "refine.history.checkpoint_interval";
+    static public final int DEFAULT_CHECKPOINT_INTERVAL = 20;
+    /**
+     * System property setting how many rows a checkpoint copies at a time while holding the project lock.
+     */
+    static public final String CHECKPOINT_CHUNK_PROPERTY = "refine.history.checkpoint_chunk_rows";
+    static public final int DEFAULT_CHECKPOINT_CHUNK = 4096;
+
     protected long _projectID;
     @JsonProperty("past")
     protected List<HistoryEntry> _pastEntries; // done changes, can be undone
@@ -141,6 +156,14 @@ public class History {
 
                 setModified();
 
+                int interval = Integer.getInteger(CHECKPOINT_INTERVAL_PROPERTY, DEFAULT_CHECKPOINT_INTERVAL);
+                if (interval > 0 && _pastEntries.size() % interval == 0) {
+                    HistoryEntryManager manager = ProjectManager.singleton.getHistoryEntryManager();
+                    if (manager != null) {
+                        manager.saveCheckpoint(project, entry);
+                    }
+                }
+
                 // Any new change will clear all future entries.
                 List<HistoryEntry> futureEntries = _futureEntries;
                 _futureEntries = new ArrayList<HistoryEntry>();
@@ -163,6 +186,7 @@ public class History {
         ProjectMetadata projectMetadata = ProjectManager.singleton.getProjectMetadata(_projectID);
         projectMetadata.setRowCount(rowCount);
         projectMetadata.updateModified(); // Redundant, but for safety in case setRowCount implementation changes
+        ProjectManager.singleton.invalidateMemoryEstimate(_projectID);
     }
 
     synchronized public List<HistoryEntry> getLastPastEntries(int count) {
@@ -173,25 +197,91 @@ public class History {
         }
     }
 
+    /**
+     * @return the id of the last done entry, or 0 if no entry is done
+     */
+    @JsonIgnore
+    synchronized public long getLastEntryID() {
+        return _pastEntries.isEmpty() ? 0 : _pastEntries.get(_pastEntries.size() - 1).id;
+    }
+
+    @JsonIgnore
+    synchronized public List<HistoryEntry> getFutureEntries() {
+        return new ArrayList<HistoryEntry>(_futureEntries);
+    }
+
     synchronized public void undoRedo(long lastDoneEntryID) {
+        int target = -1;
         if (lastDoneEntryID == 0) {
             // undo all the way back to the start of the project
-            undo(_pastEntries.size());
+            target = 0;
         } else {
             for (int i = 0; i < _pastEntries.size(); i++) {
                 if (_pastEntries.get(i).id == lastDoneEntryID) {
-                    undo(_pastEntries.size() - i - 1);
-                    return;
+                    target = i + 1;
                 }
             }
 
             for (int i = 0; i < _futureEntries.size(); i++) {
                 if (_futureEntries.get(i).id == lastDoneEntryID) {
-                    redo(i + 1);
-                    return;
+                    target = _pastEntries.size() + i + 1;
                 }
             }
         }
+        if (target < 0) {
+            return;
+        }
+
+        restoreNearestCheckpoint(target);
+        if (target < _pastEntries.size()) {
+            undo(_pastEntries.size() - target);
+        } else {
+            redo(target - _pastEntries.size());
+        }
+    }
+
+    /**
+     * Jumps to the checkpoint which is the closest to the target, if replaying the changes from there is shorter than
+     * from the current entry. Restoring a checkpoint reads the whole project, so it counts as many changes as there are
+     * between two checkpoints: undoing or redoing fewer changes than that never restores a checkpoint.
+     * 
+     * @param target
+     *            the number of entries which should be done
+     */
+    protected void restoreNearestCheckpoint(int target) {
+        HistoryEntryManager manager = ProjectManager.singleton.getHistoryEntryManager();
+        Set<Long> checkpoints = manager == null ? null : manager.getCheckpoints(_projectID);
+        if (checkpoints == null || checkpoints.isEmpty()) {
+            return;
+        }
+
+        int interval = Integer.getInteger(CHECKPOINT_INTERVAL_PROPERTY, DEFAULT_CHECKPOINT_INTERVAL);
+        int restoreCost = interval > 0 ? interval : DEFAULT_CHECKPOINT_INTERVAL;
+        int bestDistance = Math.abs(_pastEntries.size() - target);
+        if (bestDistance <= restoreCost) {
+            return;
+        }
+
+        List<HistoryEntry> entries = new ArrayList<HistoryEntry>(_pastEntries);
+        entries.addAll(_futureEntries);
+        int best = -1;
+        for (int i = 0; i < entries.size(); i++) {
+            int distance = restoreCost + Math.abs(i + 1 - target);
+            if (distance < bestDistance && checkpoints.contains(entries.get(i).id)) {
+                best = i + 1;
+                bestDistance = distance;
+            }
+        }
+        if (best < 0) {
+            return;
+        }
+
+        Project project = ProjectManager.singleton.getProject(_projectID);
+        if (manager.restoreCheckpoint(project, entries.get(best - 1).id)) {
+            _pastEntries = new ArrayList<HistoryEntry>(entries.subList(0, best));
+            _futureEntries = new ArrayList<HistoryEntry>(entries.subList(best, entries.size()));
+            setModified();
+        }
     }
 
     synchronized public long getPrecedingEntryID(long entryID) {
@@ -266,6 +356,36 @@ public class History {
         }
     }
 
+    /**
+     * Brings the history to the given state, reverting the done entries which are not part of the new past and applying
+     * the missing ones. Unlike {@link #undoRedo(long)}, this does not go through the project manager, so it can be used
+     * while the project is being loaded.
+     * 
+     * @param project
+     *            the project this history belongs to
+     * @param past
+     *            the entries which should be done, in order
+     * @param future
+     *            the entries which should be undone, in order
+     */
+    synchronized public void restore(Project project, List<HistoryEntry> past, List<HistoryEntry> future) {
+        int common = 0;
+        while (common < _pastEntries.size() && common < past.size() && _pastEntries.get(common).id == past.get(common).id) {
+            common++;
+        }
+        while (_pastEntries.size() > common) {
+            HistoryEntry entry = _pastEntries.get(_pastEntries.size() - 1);
+            entry.revert(project);
+            _pastEntries.remove(_pastEntries.size() - 1);
+        }
+        for (int i = common; i < past.size(); i++) {
+            HistoryEntry entry = past.get(i);
+            entry.apply(project);
+            _pastEntries.add(entry);
+        }
+        _futureEntries = new ArrayList<HistoryEntry>(future);
+    }
+
     /*
      * NOTE: This method is called from the autosave thread with the Project lock already held, so no other synchronized
      * method here can acquire that lock or a deadlock will result. Be careful of thread synchronization to avoid
@@ -146,12 +146,11 @@ public class HistoryEntry {
      *            the project the change should be applied to
      */
     public void apply(Project project) {
-        if (getChange() == null) {
-            ProjectManager.singleton.getHistoryEntryManager().loadChange(this);
-        }
+        Change change = loadedChange();
 
         synchronized (project) {
-            getChange().apply(project);
+            long previousEntryID = project.history.getLastEntryID();
+            change.apply(project);
 
             // When a change is applied, it can hang on to old data (in order to be able
             // to revert later). Hence, we need to save the change out.
@@ -161,18 +160,50 @@ public class HistoryEntry {
             } catch (Exception e) {
                 e.printStackTrace();
 
-                getChange().revert(project);
+                change.revert(project);
 
                 throw new RuntimeException("Failed to apply change", e);
             }
+            changed(project, change, previousEntryID, id);
         }
     }
 
     public void revert(Project project) {
-        if (getChange() == null) {
+        Change change = loadedChange();
+        change.revert(project);
+        long previousEntryID = project.history.getPrecedingEntryID(id);
+        changed(project, change, id, previousEntryID);
+    }
+
+    static protected void changed(Project project, Change change, long fromHistoryEntryID, long toHistoryEntryID) {
+        project.filterMaskCache.changed(project, change, fromHistoryEntryID, toHistoryEntryID);
+        project.facetCache.changed(project, change, fromHistoryEntryID, toHistoryEntryID);
+        if (change.getModifiedColumns(project).isEmpty()) {
+            // changes to known columns clear their precomputes, but others can move rows, which indexes by row rely on
+            project.columnModel.clearPrecomputes();
+        }
+    }
+
+    /**
+     * Returns the change, loading it if needed. The {@link ChangeCache} may unload it again at any time, so callers
+     * should hold on to the returned change rather than call {@link #getChange()} again.
+     */
+    protected Change loadedChange() {
+        Change change = _change;
+        if (change != null) {
+            ChangeCache.singleton.recordHit(this);
+            return change;
+        }
+        ChangeCache.singleton.recordMiss();
+        // another thread loading a change could unload this one before we get hold of it
+        for (int attempt = 0; change == null && attempt < 2; attempt++) {
             _manager.loadChange(this);
+            change = _change;
+        }
+        if (change == null) {
+            throw new IllegalStateException("Failed to load the change of history entry " + id);
         }
-        getChange().revert(project);
+        return change;
     }
 
     static public HistoryEntry load(Project project, String s) throws IOException {
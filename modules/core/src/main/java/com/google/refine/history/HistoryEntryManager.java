@@ -34,7 +34,11 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.history;
 
 import java.io.Writer;
+import java.util.Collections;
 import java.util.Properties;
+import java.util.Set;
+
+import com.google.refine.model.Project;
 
 public interface HistoryEntryManager {
 
@@ -45,4 +49,30 @@ public interface HistoryEntryManager {
     public void save(HistoryEntry historyEntry, Writer writer, Properties options);
 
     public void delete(HistoryEntry historyEntry);
+
+    /**
+     * Records the state of the project after the entry was applied, so that {@link History#undoRedo(long)} can jump
+     * close to a far away entry without replaying all the changes in between. Called with the project lock held, so the
+     * state should be captured later, from another thread: the checkpoint may then be of a later entry. Managers which
+     * do not support checkpoints ignore this.
+     */
+    default public void saveCheckpoint(Project project, HistoryEntry historyEntry) {
+    }
+
+    /**
+     * @return the ids of the entries of the project which have a checkpoint that can be restored
+     */
+    default public Set<Long> getCheckpoints(long projectID) {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Brings the rows, columns and overlay models of the project back to the given checkpoint, leaving the history
+     * untouched.
+     *
+     * @return whether the checkpoint could be restored. If not, the project is left unchanged.
+     */
+    default public boolean restoreCheckpoint(Project project, long entryID) {
+        return false;
+    }
 }
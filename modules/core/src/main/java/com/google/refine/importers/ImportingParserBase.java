@@ -153,13 +153,16 @@ abstract public class ImportingParserBase implements ImportingParser {
 
                 // Fill in filename and archive name column for all rows added from this file
                 int endingRowCount = project.rows.size();
+                // cells are immutable, so all the rows of the file can share them
+                Cell archiveCell = new Cell(archiveFileName, null);
+                Cell fileSourceCell = new Cell(fileSource, null);
                 for (int i = startingRowCount; i < endingRowCount; i++) {
                     Row row = project.rows.get(i);
                     if (archiveColumnIndex >= 0) {
-                        row.setCell(archiveColumnIndex, new Cell(archiveFileName, null));
+                        row.setCell(archiveColumnIndex, archiveCell);
                     }
                     if (filenameColumnIndex >= 0) {
-                        row.setCell(filenameColumnIndex, new Cell(fileSource, null));
+                        row.setCell(filenameColumnIndex, fileSourceCell);
                     }
                 }
 
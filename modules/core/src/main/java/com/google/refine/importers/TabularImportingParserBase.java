@@ -49,7 +49,9 @@ import com.google.refine.model.Column;
 import com.google.refine.model.ModelException;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
+import com.google.refine.util.CellInterner;
 import com.google.refine.util.JSONUtilities;
+import com.google.refine.util.StringDictionary;
 
 abstract public class TabularImportingParserBase extends ImportingParserBase {
 
@@ -137,6 +139,8 @@ abstract public class TabularImportingParserBase extends ImportingParserBase {
         boolean hasOurOwnColumnNames = headerLines > 0;
 
         List<Boolean> columnsHasData = new ArrayList<>(); // Determine if there is data in each column,def = false
+        List<StringDictionary> dictionaries = new ArrayList<>(); // so that repeated values share their storage
+        CellInterner cellInterner = new CellInterner(); // and so do cells of the same value
 
         List<Object> cells = null;
         int rowsWithData = 0;
@@ -187,6 +191,7 @@ abstract public class TabularImportingParserBase extends ImportingParserBase {
                             // have an extra unexpected cell in a row
                             while (cellIndex >= columnsHasData.size()) {
                                 columnsHasData.add(false);
+                                dictionaries.add(new StringDictionary());
                             }
 
                             Object value = cells.get(c);
@@ -201,16 +206,19 @@ abstract public class TabularImportingParserBase extends ImportingParserBase {
                                         value = CharMatcher.whitespace().trimFrom(((String) value));
                                     }
                                     storedValue = guessCellValueTypes ? ImporterUtilities.parseCellValue((String) value) : (String) value;
+                                    if (storedValue instanceof String) {
+                                        storedValue = dictionaries.get(cellIndex).intern((String) storedValue);
+                                    }
 
                                 } else {
                                     storedValue = ExpressionUtils.wrapStorable(value);
                                 }
 
-                                row.setCell(cellIndex, new Cell(storedValue, null));
+                                row.setCell(cellIndex, cellInterner.intern(storedValue, null));
                                 rowHasData = true;
                                 columnsHasData.set(cellIndex, true);
                             } else if (!storeBlankCellsAsNulls) {
-                                row.setCell(cellIndex, new Cell("", null));
+                                row.setCell(cellIndex, cellInterner.intern("", null));
                             } else {
                                 row.setCell(cellIndex, null);
                             }
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import com.google.refine.RefineServlet;
+import com.google.refine.history.BinaryChange;
+import com.google.refine.history.Change;
+import com.google.refine.history.History;
+import com.google.refine.util.Pool;
+
+/**
+ * Versioned binary encoding of the data of a {@link BinaryChange}, stored as the change.bin entry of history change
+ * files instead of change.txt. Change files holding a change.txt entry, written by earlier versions or for changes
+ * without a binary form, are still read by {@link History#readOneChange(InputStream, Pool)}.
+ */
+public class BinaryChangeCodec {
+
+    public static final String CHANGE_ENTRY = "change.bin";
+    public static final int VERSION = 1;
+
+    static final byte[] MAGIC = { 'O', 'R', 'C', 'H' };
+
+    /**
+     * @return whether the change can be saved in binary form, which requires its own class to read it back
+     */
+    static public boolean supports(Change change) {
+        if (!(change instanceof BinaryChange)) {
+            return false;
+        }
+        try {
+            Method load = change.getClass().getMethod("load", ChangeInput.class);
+            return load.getDeclaringClass() == change.getClass();
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    static public void write(OutputStream os, BinaryChange change, Pool pool) throws IOException {
+        os.write(MAGIC);
+        ChangeOutput out = new ChangeOutput(os, pool);
+        out.writeInt(VERSION);
+        out.writeString(RefineServlet.VERSION);
+        out.writeString(change.getClass().getName());
+        change.save(out);
+        out.flush();
+    }
+
+    static public Change read(InputStream is, Pool pool) throws Exception {
+        byte[] magic = is.readNBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a binary change file");
+        }
+        ChangeInput in = new ChangeInput(is, pool);
+        int version = in.readInt();
+        if (version > VERSION) {
+            throw new IOException("Unsupported binary change format version " + version);
+        }
+        /* String refineVersion = */ in.readString();
+        Class<? extends Change> klass = History.getChangeClass(in.readString());
+
+        Method load = klass.getMethod("load", ChangeInput.class);
+
+        return (Change) load.invoke(null, in);
+    }
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Row;
+import com.google.refine.util.Pool;
+
+/**
+ * Reads back the values written to a {@link ChangeOutput}, resolving recons from a pool loaded beforehand.
+ */
+public class ChangeInput {
+
+    final protected DataInputStream in;
+    final protected Pool pool;
+    final private List<String> dictionary = new ArrayList<>();
+    private int lastRowIndex;
+
+    public ChangeInput(InputStream is, Pool pool) {
+        this.in = new DataInputStream(new BufferedInputStream(is));
+        this.pool = pool;
+    }
+
+    public long readLong() throws IOException {
+        return ColumnarRowCodec.unZigZag(ColumnarRowCodec.readVarLong(in));
+    }
+
+    public int readInt() throws IOException {
+        long value = readLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IOException("Integer out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    public boolean readBoolean() throws IOException {
+        return in.readBoolean();
+    }
+
+    public int readRowIndex() throws IOException {
+        long rowIndex = lastRowIndex + readLong();
+        if (rowIndex < Integer.MIN_VALUE || rowIndex > Integer.MAX_VALUE) {
+            throw new IOException("Row index out of range: " + rowIndex);
+        }
+        lastRowIndex = (int) rowIndex;
+        return lastRowIndex;
+    }
+
+    public String readString() throws IOException {
+        int code = ColumnarRowCodec.readVarInt(in);
+        if (code == ChangeOutput.STRING_NULL) {
+            return null;
+        } else if (code == ChangeOutput.STRING_LITERAL) {
+            String s = ColumnarRowCodec.readString(in);
+            dictionary.add(s);
+            return s;
+        } else if (code - 2 < dictionary.size()) {
+            return dictionary.get(code - 2);
+        } else {
+            throw new IOException("Unknown string code " + code);
+        }
+    }
+
+    /**
+     * @return the JSON written by {@link ChangeOutput#writeJson(Object)}, or null
+     */
+    public String readJson() throws IOException {
+        return in.readBoolean() ? ColumnarRowCodec.readString(in) : null;
+    }
+
+    public Cell readCell() throws IOException {
+        int tag = in.readUnsignedByte();
+        if (tag == ChangeOutput.CELL_NULL) {
+            return null;
+        }
+        Serializable value;
+        switch (tag & ~ChangeOutput.RECON_FLAG) {
+            case ChangeOutput.VALUE_NULL:
+                value = null;
+                break;
+            case ChangeOutput.VALUE_STRING:
+                value = readString();
+                break;
+            case ChangeOutput.VALUE_ERROR:
+                value = new EvalError(readString());
+                break;
+            case ChangeOutput.VALUE_LONG:
+                value = readLong();
+                break;
+            case ChangeOutput.VALUE_INTEGER:
+                value = readInt();
+                break;
+            case ChangeOutput.VALUE_DOUBLE:
+                value = in.readDouble();
+                break;
+            case ChangeOutput.VALUE_TRUE:
+                value = Boolean.TRUE;
+                break;
+            case ChangeOutput.VALUE_FALSE:
+                value = Boolean.FALSE;
+                break;
+            case ChangeOutput.VALUE_DATE:
+                long seconds = readLong();
+                value = OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, readLong()), ZoneOffset.UTC);
+                break;
+            default:
+                throw new IOException("Unknown cell type tag " + tag);
+        }
+        if ((tag & ChangeOutput.RECON_FLAG) != 0) {
+            return new Cell(value, pool.getRecon(in.readLong()));
+        }
+        return new Cell(value, null);
+    }
+
+    public Row readRow() throws IOException {
+        int flags = in.readUnsignedByte();
+        if ((flags & ChangeOutput.ROW_NULL) != 0) {
+            return null;
+        }
+        int cellCount = readInt();
+        Row row = new Row(cellCount);
+        row.flagged = (flags & ChangeOutput.ROW_FLAGGED) != 0;
+        row.starred = (flags & ChangeOutput.ROW_STARRED) != 0;
+        for (int i = 0; i < cellCount; i++) {
+            row.cells.add(readCell());
+        }
+        return row;
+    }
+
+    public List<Row> readRows() throws IOException {
+        int count = readInt();
+        List<Row> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(readRow());
+        }
+        return rows;
+    }
+
+    public List<Integer> readRowIndices() throws IOException {
+        int count = readInt();
+        List<Integer> rowIndices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rowIndices.add(readRowIndex());
+        }
+        return rowIndices;
+    }
+}
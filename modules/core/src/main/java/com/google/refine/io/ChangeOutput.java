@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Row;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.Pool;
+
+/**
+ * Stream to which a {@link com.google.refine.history.BinaryChange} saves itself. Integers are written as variable
+ * length numbers, row indices as differences to the previous row index written, strings are dictionary-coded over the
+ * whole change, and recons are referred to by id, the recons themselves going to the {@link Pool}. Values are read back
+ * from a {@link ChangeInput} in the same order.
+ */
+public class ChangeOutput {
+
+    static final int CELL_NULL = 0;
+    static final int VALUE_NULL = 1;
+    static final int VALUE_STRING = 2;
+    static final int VALUE_LONG = 3;
+    static final int VALUE_INTEGER = 4;
+    static final int VALUE_DOUBLE = 5;
+    static final int VALUE_TRUE = 6;
+    static final int VALUE_FALSE = 7;
+    static final int VALUE_DATE = 8;
+    static final int VALUE_ERROR = 9;
+    static final int RECON_FLAG = 0x10;
+
+    static final int ROW_NULL = 1;
+    static final int ROW_FLAGGED = 2;
+    static final int ROW_STARRED = 4;
+
+    // codes of strings: 0 for null, 1 for a new string written right after it, then 2 + the dictionary index
+    static final int STRING_NULL = 0;
+    static final int STRING_LITERAL = 1;
+
+    final protected DataOutputStream out;
+    final protected Pool pool;
+    final private Map<String, Integer> dictionary = new HashMap<>();
+    private int lastRowIndex;
+
+    public ChangeOutput(OutputStream os, Pool pool) {
+        this.out = new DataOutputStream(new BufferedOutputStream(os));
+        this.pool = pool;
+    }
+
+    public void writeLong(long value) throws IOException {
+        ColumnarRowCodec.writeVarLong(out, ColumnarRowCodec.zigZag(value));
+    }
+
+    public void writeInt(int value) throws IOException {
+        writeLong(value);
+    }
+
+    public void writeBoolean(boolean value) throws IOException {
+        out.writeBoolean(value);
+    }
+
+    /**
+     * Writes a row index, which is cheapest when row indices are written in increasing order.
+     */
+    public void writeRowIndex(int rowIndex) throws IOException {
+        writeLong((long) rowIndex - lastRowIndex);
+        lastRowIndex = rowIndex;
+    }
+
+    /**
+     * Writes a string, which may be null. Repeated strings are only written once.
+     */
+    public void writeString(String s) throws IOException {
+        if (s == null) {
+            ColumnarRowCodec.writeVarLong(out, STRING_NULL);
+            return;
+        }
+        Integer code = dictionary.get(s);
+        if (code != null) {
+            ColumnarRowCodec.writeVarLong(out, code + 2L);
+        } else {
+            dictionary.put(s, dictionary.size());
+            ColumnarRowCodec.writeVarLong(out, STRING_LITERAL);
+            ColumnarRowCodec.writeString(out, s);
+        }
+    }
+
+    /**
+     * Writes the JSON serialization of an object, which may be null, as done by the save methods of small parts of
+     * changes such as columns or recon configurations.
+     */
+    public void writeJson(Object value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            ColumnarRowCodec.writeString(out, ParsingUtilities.defaultWriter.writeValueAsString(value));
+        }
+    }
+
+    public void writeCell(Cell cell) throws IOException {
+        if (cell == null) {
+            out.writeByte(CELL_NULL);
+            return;
+        }
+        int reconFlag = cell.recon != null ? RECON_FLAG : 0;
+        Serializable value = cell.value;
+        if (value == null) {
+            out.writeByte(VALUE_NULL | reconFlag);
+        } else if (value instanceof EvalError) {
+            out.writeByte(VALUE_ERROR | reconFlag);
+            writeString(((EvalError) value).message);
+        } else if (value instanceof Long) {
+            out.writeByte(VALUE_LONG | reconFlag);
+            writeLong((Long) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(VALUE_INTEGER | reconFlag);
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            // like the JSON serialization, other numbers are read back as doubles
+            out.writeByte(VALUE_DOUBLE | reconFlag);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            out.writeByte(((Boolean) value ? VALUE_TRUE : VALUE_FALSE) | reconFlag);
+        } else if (value instanceof OffsetDateTime || value instanceof LocalDateTime) {
+            Instant instant = value instanceof OffsetDateTime ? ((OffsetDateTime) value).toInstant()
+                    : ((LocalDateTime) value).toInstant(ZoneOffset.UTC);
+            out.writeByte(VALUE_DATE | reconFlag);
+            writeLong(instant.getEpochSecond());
+            writeInt(instant.getNano());
+        } else {
+            out.writeByte(VALUE_STRING | reconFlag);
+            writeString(value.toString());
+        }
+        if (cell.recon != null) {
+            pool.pool(cell.recon);
+            out.writeLong(cell.recon.id);
+        }
+    }
+
+    public void writeRow(Row row) throws IOException {
+        if (row == null) {
+            out.writeByte(ROW_NULL);
+            return;
+        }
+        out.writeByte((row.flagged ? ROW_FLAGGED : 0) | (row.starred ? ROW_STARRED : 0));
+        writeInt(row.cells.size());
+        for (Cell cell : row.cells) {
+            writeCell(cell);
+        }
+    }
+
+    public void writeRows(List<Row> rows) throws IOException {
+        writeInt(rows.size());
+        for (Row row : rows) {
+            writeRow(row);
+        }
+    }
+
+    public void writeRowIndices(List<Integer> rowIndices) throws IOException {
+        writeInt(rowIndices.size());
+        for (int rowIndex : rowIndices) {
+            writeRowIndex(rowIndex);
+        }
+    }
+
+    public void writeRowIndices(int[] rowIndices) throws IOException {
+        writeInt(rowIndices.length);
+        for (int rowIndex : rowIndices) {
+            writeRowIndex(rowIndex);
+        }
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+}
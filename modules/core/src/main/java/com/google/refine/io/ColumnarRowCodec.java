@@ -0,0 +1,476 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Recon;
+import com.google.refine.model.Row;
+import com.google.refine.util.ParallelDecoder;
+import com.google.refine.util.Pool;
+
+/**
+ * Versioned, column-oriented binary encoding of the rows of a project. It is stored as a separate entry of data.zip,
+ * next to a data.txt which then only holds the column model, history and overlay models.
+ * <p>
+ * The file starts with a header (magic bytes, format version, row and column counts, flagged and starred bitmaps and
+ * the number of cells of each row), followed by one length-prefixed section per cell index. Each section holds a bitmap
+ * of non-null cells, one type tag per cell, a bitmap of reconciled cells with their recon ids (the recons themselves go
+ * to the {@link Pool}), a dictionary of the distinct strings of the column and finally the typed value vectors
+ * (dictionary codes, integers, doubles and dates).
+ */
+public class ColumnarRowCodec {
+
+    public static final String ROWS_ENTRY = "rows.bin";
+    public static final String FORMAT_NAME = "columnar";
+    public static final int VERSION = 1;
+
+    static final byte[] MAGIC = { 'O', 'R', 'C', 'R' };
+
+    static final byte TAG_NULL = 0;
+    static final byte TAG_STRING = 1;
+    static final byte TAG_LONG = 2;
+    static final byte TAG_INTEGER = 3;
+    static final byte TAG_DOUBLE = 4;
+    static final byte TAG_TRUE = 5;
+    static final byte TAG_FALSE = 6;
+    static final byte TAG_DATE = 7;
+    static final byte TAG_ERROR = 8;
+
+    /**
+     * Writes the rows to the stream, pooling their recons in the supplied pool. The stream is flushed but not closed.
+     */
+    public static void write(List<Row> rows, Pool pool, OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+
+        int rowCount = rows.size();
+        int columnCount = 0;
+        BitSet flagged = new BitSet(rowCount);
+        BitSet starred = new BitSet(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            Row row = rows.get(i);
+            if (row != null) {
+                flagged.set(i, row.flagged);
+                starred.set(i, row.starred);
+                columnCount = Math.max(columnCount, row.cells.size());
+            }
+        }
+
+        out.write(MAGIC);
+        writeVarLong(out, VERSION);
+        writeVarLong(out, rowCount);
+        writeVarLong(out, columnCount);
+        writeBitSet(out, flagged);
+        writeBitSet(out, starred);
+        for (Row row : rows) {
+            writeVarLong(out, row == null ? 0 : row.cells.size());
+        }
+
+        ByteArrayOutputStream section = new ByteArrayOutputStream();
+        for (int c = 0; c < columnCount; c++) {
+            section.reset();
+            writeColumn(rows, c, pool, new DataOutputStream(section));
+            writeVarLong(out, section.size());
+            section.writeTo(out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads rows written by {@link #write(List, Pool, OutputStream)}, resolving recons from the supplied pool, which
+     * must have been loaded beforehand. The stream may hold several consecutive blocks, as written for projects with
+     * paged rows: their rows are concatenated.
+     */
+    public static List<Row> read(InputStream is, Pool pool) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        read(is, pool, rows);
+        return rows;
+    }
+
+    /**
+     * Reads all the blocks of the stream, adding their rows to the target list one block at a time.
+     */
+    public static void read(InputStream is, Pool pool, List<Row> target) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        List<Row> block;
+        while ((block = readBlock(in, pool, true)) != null) {
+            target.addAll(block);
+        }
+    }
+
+    /**
+     * Reads a single block of rows.
+     *
+     * @param parallel
+     *            whether columns get decoded on the {@link ParallelDecoder} pool, or on the calling thread
+     */
+    public static List<Row> read(InputStream is, Pool pool, boolean parallel) throws IOException {
+        List<Row> rows = readBlock(new DataInputStream(new BufferedInputStream(is)), pool, parallel);
+        if (rows == null) {
+            throw new EOFException("Missing columnar row block");
+        }
+        return rows;
+    }
+
+    /**
+     * @return the rows of the next block, or null at the end of the stream
+     */
+    static private List<Row> readBlock(DataInputStream in, Pool pool, boolean parallel) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        byte[] magic = new byte[MAGIC.length];
+        magic[0] = (byte) first;
+        in.readFully(magic, 1, magic.length - 1);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a columnar row file");
+        }
+        int version = readVarInt(in);
+        if (version > VERSION) {
+            throw new IOException("Unsupported columnar row format version " + version);
+        }
+        int rowCount = readVarInt(in);
+        int columnCount = readVarInt(in);
+        BitSet flagged = readBitSet(in);
+        BitSet starred = readBitSet(in);
+
+        int[] widths = new int[rowCount];
+        List<Row> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            widths[i] = readVarInt(in);
+            Row row = new Row(widths[i]);
+            row.flagged = flagged.get(i);
+            row.starred = starred.get(i);
+            rows.add(row);
+        }
+
+        // sections are read sequentially but decoded in parallel, one task per column
+        List<Future<Cell[]>> columns = new ArrayList<>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            byte[] section = new byte[readVarInt(in)];
+            in.readFully(section);
+            if (parallel) {
+                columns.add(ParallelDecoder.getPool().submit(() -> readColumn(section, rowCount, pool)));
+            } else {
+                columns.add(CompletableFuture.completedFuture(readColumn(section, rowCount, pool)));
+            }
+        }
+        for (int c = 0; c < columnCount; c++) {
+            Cell[] cells = ParallelDecoder.join(columns.get(c));
+            columns.set(c, null);
+            for (int i = 0; i < rowCount; i++) {
+                if (c < widths[i]) {
+                    rows.get(i).cells.add(cells[i]);
+                }
+            }
+        }
+        return rows;
+    }
+
+    static protected void writeColumn(List<Row> rows, int cellIndex, Pool pool, DataOutputStream out) throws IOException {
+        int rowCount = rows.size();
+        BitSet present = new BitSet(rowCount);
+        BitSet reconciled = new BitSet();
+        List<Long> reconIds = new ArrayList<>();
+        ByteArrayOutputStream tags = new ByteArrayOutputStream();
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+
+        ByteArrayOutputStream codeBytes = new ByteArrayOutputStream();
+        DataOutputStream codes = new DataOutputStream(codeBytes);
+        ByteArrayOutputStream longBytes = new ByteArrayOutputStream();
+        DataOutputStream longs = new DataOutputStream(longBytes);
+        ByteArrayOutputStream doubleBytes = new ByteArrayOutputStream();
+        DataOutputStream doubles = new DataOutputStream(doubleBytes);
+        ByteArrayOutputStream dateBytes = new ByteArrayOutputStream();
+        DataOutputStream dates = new DataOutputStream(dateBytes);
+
+        int ordinal = 0;
+        for (int i = 0; i < rowCount; i++) {
+            Row row = rows.get(i);
+            Cell cell = row == null ? null : row.getCell(cellIndex);
+            if (cell == null) {
+                continue;
+            }
+            present.set(i);
+            if (cell.recon != null) {
+                pool.pool(cell.recon);
+                reconciled.set(ordinal);
+                reconIds.add(cell.recon.id);
+            }
+            ordinal++;
+
+            Serializable value = cell.value;
+            if (value == null) {
+                tags.write(TAG_NULL);
+            } else if (value instanceof EvalError) {
+                tags.write(TAG_ERROR);
+                writeVarLong(codes, encode(((EvalError) value).message, dictionary, strings));
+            } else if (value instanceof Long) {
+                tags.write(TAG_LONG);
+                writeVarLong(longs, zigZag((Long) value));
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                tags.write(TAG_INTEGER);
+                writeVarLong(longs, zigZag(((Number) value).longValue()));
+            } else if (value instanceof Number) {
+                // like the JSON serialization, other numbers are read back as doubles
+                tags.write(TAG_DOUBLE);
+                doubles.writeDouble(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                tags.write((Boolean) value ? TAG_TRUE : TAG_FALSE);
+            } else if (value instanceof OffsetDateTime || value instanceof LocalDateTime) {
+                Instant instant = value instanceof OffsetDateTime ? ((OffsetDateTime) value).toInstant()
+                        : ((LocalDateTime) value).toInstant(ZoneOffset.UTC);
+                tags.write(TAG_DATE);
+                writeVarLong(dates, zigZag(instant.getEpochSecond()));
+                writeVarLong(dates, instant.getNano());
+            } else {
+                tags.write(TAG_STRING);
+                writeVarLong(codes, encode(value.toString(), dictionary, strings));
+            }
+        }
+
+        writeBitSet(out, present);
+        tags.writeTo(out);
+        writeBitSet(out, reconciled);
+        for (long id : reconIds) {
+            out.writeLong(id);
+        }
+        writeVarLong(out, strings.size());
+        for (String s : strings) {
+            writeString(out, s);
+        }
+        codeBytes.writeTo(out);
+        longBytes.writeTo(out);
+        doubleBytes.writeTo(out);
+        dateBytes.writeTo(out);
+        out.flush();
+    }
+
+    static protected Cell[] readColumn(byte[] section, int rowCount, Pool pool) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(section));
+
+        BitSet present = readBitSet(in);
+        int presentCount = present.cardinality();
+        byte[] tags = new byte[presentCount];
+        in.readFully(tags);
+        BitSet reconciled = readBitSet(in);
+        Recon[] recons = new Recon[presentCount];
+        for (int j = reconciled.nextSetBit(0); j >= 0; j = reconciled.nextSetBit(j + 1)) {
+            recons[j] = pool.getRecon(in.readLong());
+        }
+        String[] strings = new String[readVarInt(in)];
+        for (int k = 0; k < strings.length; k++) {
+            strings[k] = readString(in);
+        }
+
+        // the value vectors are stored one after the other, so count how many values each of them holds first
+        int codeCount = 0, longCount = 0, doubleCount = 0, dateCount = 0;
+        for (byte tag : tags) {
+            switch (tag) {
+                case TAG_STRING:
+                case TAG_ERROR:
+                    codeCount++;
+                    break;
+                case TAG_LONG:
+                case TAG_INTEGER:
+                    longCount++;
+                    break;
+                case TAG_DOUBLE:
+                    doubleCount++;
+                    break;
+                case TAG_DATE:
+                    dateCount++;
+                    break;
+                default:
+            }
+        }
+        int[] codes = new int[codeCount];
+        for (int k = 0; k < codeCount; k++) {
+            codes[k] = readVarInt(in);
+        }
+        long[] longs = new long[longCount];
+        for (int k = 0; k < longCount; k++) {
+            longs[k] = unZigZag(readVarLong(in));
+        }
+        double[] doubles = new double[doubleCount];
+        for (int k = 0; k < doubleCount; k++) {
+            doubles[k] = in.readDouble();
+        }
+        Instant[] instants = new Instant[dateCount];
+        for (int k = 0; k < dateCount; k++) {
+            long seconds = unZigZag(readVarLong(in));
+            instants[k] = Instant.ofEpochSecond(seconds, readVarLong(in));
+        }
+
+        Cell[] cells = new Cell[rowCount];
+        int ordinal = 0, code = 0, longIndex = 0, doubleIndex = 0, dateIndex = 0;
+        for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+            Serializable value;
+            switch (tags[ordinal]) {
+                case TAG_NULL:
+                    value = null;
+                    break;
+                case TAG_STRING:
+                    value = strings[codes[code++]];
+                    break;
+                case TAG_ERROR:
+                    value = new EvalError(strings[codes[code++]]);
+                    break;
+                case TAG_LONG:
+                    value = longs[longIndex++];
+                    break;
+                case TAG_INTEGER:
+                    value = (int) longs[longIndex++];
+                    break;
+                case TAG_DOUBLE:
+                    value = doubles[doubleIndex++];
+                    break;
+                case TAG_TRUE:
+                    value = Boolean.TRUE;
+                    break;
+                case TAG_FALSE:
+                    value = Boolean.FALSE;
+                    break;
+                case TAG_DATE:
+                    value = OffsetDateTime.ofInstant(instants[dateIndex++], ZoneOffset.UTC);
+                    break;
+                default:
+                    throw new IOException("Unknown cell type tag " + tags[ordinal]);
+            }
+            cells[i] = new Cell(value, recons[ordinal]);
+            ordinal++;
+        }
+        return cells;
+    }
+
+    static private int encode(String s, Map<String, Integer> dictionary, List<String> strings) {
+        Integer code = dictionary.get(s);
+        if (code == null) {
+            code = strings.size();
+            dictionary.put(s, code);
+            strings.add(s);
+        }
+        return code;
+    }
+
+    static protected long zigZag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    static protected long unZigZag(long n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    static protected void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static protected long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IOException("Malformed variable-length integer");
+            }
+            b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    static protected int readVarInt(DataInput in) throws IOException {
+        long value = readVarLong(in);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Variable-length integer out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    static protected void writeString(DataOutput out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static protected String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static protected void writeBitSet(DataOutput out, BitSet bits) throws IOException {
+        long[] words = bits.toLongArray();
+        writeVarLong(out, words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    static protected BitSet readBitSet(DataInput in) throws IOException {
+        long[] words = new long[readVarInt(in)];
+        for (int k = 0; k < words.length; k++) {
+            words[k] = in.readLong();
+        }
+        return BitSet.valueOf(words);
+    }
+}
@@ -38,28 +38,73 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.google.refine.ProjectManager;
+import com.google.refine.history.BinaryChange;
+import com.google.refine.history.Change;
+import com.google.refine.history.ChangeCache;
 import com.google.refine.history.History;
 import com.google.refine.history.HistoryEntry;
 import com.google.refine.history.HistoryEntryManager;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSnapshot;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.Pool;
 
 public class FileHistoryEntryManager implements HistoryEntryManager {
 
     public static final String HISTORY_DIR = "history";
+    public static final String CHECKPOINT_DIR = "checkpoints";
+    public static final String CHECKPOINT_SUFFIX = ".checkpoint.zip";
+    /**
+     * System property setting how much disk space, in megabytes, the checkpoints of a project may use. The checkpoints
+     * which are the closest to another one are deleted first when it is exceeded.
+     */
+    public static final String CHECKPOINT_BUDGET_PROPERTY = "refine.history.checkpoint_budget_mb";
+    public static final long DEFAULT_CHECKPOINT_BUDGET_MB = 1024;
+    /**
+     * Rough ratio between the heap used by a loaded change and the size of its serialized form, used to account for
+     * changes in the {@link ChangeCache}.
+     */
+    public static final int HEAP_BYTES_PER_SERIALIZED_BYTE = 4;
+
+    final static Logger logger = LoggerFactory.getLogger("file_history_entry_manager");
+
+    // checkpoints are written one at a time, off the thread which applied the change
+    final static private ExecutorService s_checkpointWriter = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "history-checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Override
     public void delete(HistoryEntry historyEntry) {
+        ChangeCache.singleton.remove(historyEntry);
         File file = getChangeFile(historyEntry);
-        if (file.exists()) {
+        if (file.exists() && !ProjectJournal.deferDeletion(historyEntry.projectID, historyEntry.id, file)) {
             file.delete();
         }
+        File checkpoint = getCheckpointFile(getCheckpointDir(historyEntry.projectID), historyEntry.id);
+        if (checkpoint.exists()) {
+            checkpoint.delete();
+        }
     }
 
     @Override
@@ -81,6 +126,7 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
 
         try {
             loadChange(historyEntry, changeFile);
+            ChangeCache.singleton.put(historyEntry, estimateChangeSize(changeFile));
         } catch (Exception e) {
             throw new RuntimeException("Failed to load change file " + changeFile.getAbsolutePath(), e);
         }
@@ -96,8 +142,13 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
                         zipFile.getInputStream(poolEntry)));
             } // else, it's a legacy project file
 
-            historyEntry.setChange(History.readOneChange(
-                    zipFile.getInputStream(zipFile.getEntry("change.txt")), pool));
+            ZipEntry binaryEntry = zipFile.getEntry(BinaryChangeCodec.CHANGE_ENTRY);
+            if (binaryEntry != null) {
+                historyEntry.setChange(BinaryChangeCodec.read(zipFile.getInputStream(binaryEntry), pool));
+            } else {
+                historyEntry.setChange(History.readOneChange(
+                        zipFile.getInputStream(zipFile.getEntry("change.txt")), pool));
+            }
         } finally {
             zipFile.close();
         }
@@ -109,16 +160,38 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
         if (!(changeFile.exists())) {
             saveChange(historyEntry, changeFile);
         }
+        // now that the change can be loaded again, it may be unloaded
+        ChangeCache.singleton.put(historyEntry, estimateChangeSize(changeFile));
+    }
+
+    /**
+     * Estimates how much heap the change stored in a file uses once loaded, from the uncompressed size of its entries.
+     */
+    static protected long estimateChangeSize(File file) throws IOException {
+        long size = 0;
+        try (ZipFile zipFile = new ZipFile(file)) {
+            for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements();) {
+                size += Math.max(0, entries.nextElement().getSize());
+            }
+        }
+        return size * HEAP_BYTES_PER_SERIALIZED_BYTE;
     }
 
     protected void saveChange(HistoryEntry historyEntry, File file) throws Exception {
         ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
         try {
             Pool pool = new Pool();
+            Change change = historyEntry.getChange();
+            boolean binary = BinaryChangeCodec.supports(change)
+                    && !"legacy".equals(System.getProperty(ProjectUtilities.PROJECT_FORMAT_PROPERTY));
 
-            out.putNextEntry(new ZipEntry("change.txt"));
+            out.putNextEntry(new ZipEntry(binary ? BinaryChangeCodec.CHANGE_ENTRY : "change.txt"));
             try {
-                History.writeOneChange(out, historyEntry.getChange(), pool);
+                if (binary) {
+                    BinaryChangeCodec.write(out, (BinaryChange) change, pool);
+                } else {
+                    History.writeOneChange(out, change, pool);
+                }
             } catch (Exception e) {
                 e.printStackTrace();
             } finally {
@@ -136,6 +209,145 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
         }
     }
 
+    @Override
+    public void saveCheckpoint(Project project, HistoryEntry historyEntry) {
+        File dir = getCheckpointDir(project.id);
+        // captured by the writer, so that the project lock is not held for the copy of all rows
+        s_checkpointWriter.submit(() -> {
+            ProjectSnapshot snapshot;
+            try {
+                snapshot = project.snapshot(
+                        Math.max(1, Integer.getInteger(History.CHECKPOINT_CHUNK_PROPERTY, History.DEFAULT_CHECKPOINT_CHUNK)));
+            } catch (IOException e) {
+                logger.warn("Failed to capture checkpoint of project {}", project.id, e);
+                return;
+            } catch (IllegalStateException e) {
+                // the paged rows of a project which was unloaded in the meantime
+                logger.debug("Skipped checkpoint of project {}, which was unloaded", project.id);
+                return;
+            }
+            if (snapshot == null) {
+                logger.debug("Skipped checkpoint of project {}, which was edited while it was captured", project.id);
+                return;
+            }
+            // the project may have been edited since the entry was applied: the checkpoint is of its current entry
+            if (snapshot.lastEntryId == 0 || getCheckpointFile(dir, snapshot.lastEntryId).exists()) {
+                snapshot.release();
+                return;
+            }
+            File tempFile = new File(dir, snapshot.lastEntryId + ".checkpoint.temp.zip");
+            try {
+                ProjectUtilities.saveToFile(snapshot, tempFile, null);
+                tempFile.renameTo(getCheckpointFile(dir, snapshot.lastEntryId));
+                enforceCheckpointBudget(project, dir,
+                        Long.getLong(CHECKPOINT_BUDGET_PROPERTY, DEFAULT_CHECKPOINT_BUDGET_MB) * 1024 * 1024);
+            } catch (IOException e) {
+                logger.warn("Failed to write checkpoint of project {}", project.id, e);
+                tempFile.delete();
+            } finally {
+                snapshot.release();
+            }
+        });
+    }
+
+    @Override
+    public Set<Long> getCheckpoints(long projectID) {
+        return listCheckpoints(getCheckpointDir(projectID));
+    }
+
+    static protected Set<Long> listCheckpoints(File dir) {
+        Set<Long> entryIDs = new HashSet<>();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(CHECKPOINT_SUFFIX)) {
+                    try {
+                        entryIDs.add(Long.parseLong(name.substring(0, name.length() - CHECKPOINT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // not a checkpoint
+                    }
+                }
+            }
+        }
+        return entryIDs;
+    }
+
+    @Override
+    public boolean restoreCheckpoint(Project project, long entryID) {
+        File file = getCheckpointFile(getCheckpointDir(project.id), entryID);
+        try {
+            ProjectUtilities.restoreFromFile(project, file);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Failed to restore checkpoint {} of project {}", file.getAbsolutePath(), project.id, e);
+            file.delete();
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the checkpoints of entries which are not part of the history anymore, then thins out the others until
+     * they fit in the budget: the checkpoint the closest to the previous one goes first, as it saves the least replay.
+     */
+    static protected void enforceCheckpointBudget(Project project, File dir, long budget) {
+        List<HistoryEntry> entries = new ArrayList<>(project.history.getLastPastEntries(0));
+        entries.addAll(project.history.getFutureEntries());
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            positions.put(entries.get(i).id, i + 1);
+        }
+
+        TreeMap<Integer, File> checkpoints = new TreeMap<>();
+        long total = 0;
+        for (long entryID : listCheckpoints(dir)) {
+            File file = getCheckpointFile(dir, entryID);
+            Integer position = positions.get(entryID);
+            if (position == null) {
+                file.delete();
+            } else {
+                checkpoints.put(position, file);
+                total += file.length();
+            }
+        }
+
+        while (total > budget && !checkpoints.isEmpty()) {
+            int drop = -1;
+            int smallestGap = Integer.MAX_VALUE;
+            int previous = 0;
+            for (int position : checkpoints.keySet()) {
+                if (position - previous < smallestGap) {
+                    smallestGap = position - previous;
+                    drop = position;
+                }
+                previous = position;
+            }
+            File file = checkpoints.remove(drop);
+            total -= file.length();
+            file.delete();
+        }
+    }
+
+    /**
+     * Waits for the checkpoints submitted so far to be written.
+     */
+    static protected void flushCheckpoints() throws Exception {
+        s_checkpointWriter.submit(() -> {
+        }).get();
+    }
+
+    static protected File getCheckpointFile(File dir, long entryID) {
+        return new File(dir, entryID + CHECKPOINT_SUFFIX);
+    }
+
+    protected File getCheckpointDir(long projectID) {
+        File dir = new File(new File(((FileProjectManager) ProjectManager.singleton).getProjectDir(projectID), HISTORY_DIR),
+                CHECKPOINT_DIR);
+        dir.mkdirs();
+
+        return dir;
+    }
+
     protected File getChangeFile(HistoryEntry historyEntry) {
         return new File(getHistoryDir(historyEntry), historyEntry.id + ".change.zip");
     }
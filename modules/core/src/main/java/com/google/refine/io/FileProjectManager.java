@@ -33,6 +33,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.io;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -41,12 +42,14 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -63,7 +66,9 @@ import com.google.refine.model.Project;
 import com.google.refine.preference.PreferenceStore;
 import com.google.refine.preference.TopList;
 import com.google.refine.util.LocaleUtils;
+import com.google.refine.util.ParallelGZIPOutputStream;
 import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.ReadAheadInputStream;
 
 public class FileProjectManager extends ProjectManager {
 
@@ -73,6 +78,7 @@ public class FileProjectManager extends ProjectManager {
     public static final String WORKSPACE_TEMP_JSON = "workspace.temp.json";
 
     protected File _workspaceDir;
+    protected WorkspaceIndex _index;
 
     protected static boolean projectRemoved = false;
 
@@ -91,6 +97,9 @@ public class FileProjectManager extends ProjectManager {
     protected FileProjectManager(File dir) {
         super();
         _workspaceDir = dir;
+        // the metadata of the projects listed in the index is only read when it is first needed
+        _index = WorkspaceIndex.load(dir);
+        _projectsMetadata = new LazyProjectMetadataMap(this::readProjectMetadata);
         if (!_workspaceDir.exists() && !_workspaceDir.mkdirs()) {
             logger.error("Failed to create directory : " + _workspaceDir);
             return;
@@ -104,6 +113,11 @@ public class FileProjectManager extends ProjectManager {
         return _workspaceDir;
     }
 
+    @JsonIgnore
+    public WorkspaceIndex getWorkspaceIndex() {
+        return _index;
+    }
+
     static public File getProjectDir(File workspaceDir, long projectID) {
         return getProjectDir(workspaceDir, projectID, true);
     }
@@ -149,6 +163,7 @@ public class FileProjectManager extends ProjectManager {
             if (metadata != null) {
                 _projectsMetadata.put(projectID, metadata);
                 addProjectTags(metadata.getTags());
+                _index.put(projectID, metadata, getProjectDir(projectID));
                 return true;
             } else {
                 return false;
@@ -162,8 +177,14 @@ public class FileProjectManager extends ProjectManager {
         destDir.mkdirs();
 
         if (gziped) {
-            GZIPInputStream gis = new GZIPInputStream(inputStream);
-            untar(destDir, gis);
+            // decompress on another thread, while the files are written on this one
+            InputStream gis = new ReadAheadInputStream(
+                    new GZIPInputStream(new BufferedInputStream(inputStream, 64 * 1024), 64 * 1024));
+            try {
+                untar(destDir, gis);
+            } finally {
+                gis.close();
+            }
         } else {
             untar(destDir, inputStream);
         }
@@ -257,11 +278,13 @@ public class FileProjectManager extends ProjectManager {
     public void saveMetadata(ProjectMetadata metadata, long projectId) throws Exception {
         File projectDir = getProjectDir(projectId);
         ProjectMetadataUtilities.save(metadata, projectDir);
+        _index.put(projectId, metadata, projectDir);
     }
 
     @Override
     protected void saveProject(Project project) throws IOException {
         ProjectUtilities.save(project);
+        invalidateMemoryEstimate(project.id);
     }
 
     @Override
@@ -322,7 +345,11 @@ public class FileProjectManager extends ProjectManager {
     }
 
     protected List<Long> getModifiedProjectIds() {
-        List<Long> modified = _projectsMetadata.entrySet().stream()
+        // metadata which has not been read cannot have been modified
+        Map<Long, ProjectMetadata> metadataMap = _projectsMetadata instanceof LazyProjectMetadataMap
+                ? ((LazyProjectMetadataMap) _projectsMetadata).getLoaded()
+                : _projectsMetadata;
+        List<Long> modified = metadataMap.entrySet().stream()
                 .filter(e -> {
                     ProjectMetadata metadata = e.getValue();
                     if (metadata == null) {
@@ -338,7 +365,9 @@ public class FileProjectManager extends ProjectManager {
         for (Long id : modified) {
             ProjectMetadata metadata = _projectsMetadata.get(id);
             if (metadata != null) {
-                ProjectMetadataUtilities.save(metadata, getProjectDir(id));
+                File projectDir = getProjectDir(id);
+                ProjectMetadataUtilities.save(metadata, projectDir);
+                _index.put(id, metadata, projectDir);
             } else {
                 logger.error("Missing metadata on save for project ID {}", id);
             }
@@ -367,6 +396,9 @@ public class FileProjectManager extends ProjectManager {
             }
 
             removeProject(projectID);
+            ProjectJournal.forget(projectID);
+            ProjectUtilities.forget(projectID);
+            _index.remove(projectID);
 
             File dir = getProjectDir(projectID);
             if (dir.exists()) {
@@ -460,7 +492,7 @@ public class FileProjectManager extends ProjectManager {
     }
 
     public static void gzipTarToOutputStream(Project project, OutputStream os) throws IOException {
-        GZIPOutputStream gos = new GZIPOutputStream(os);
+        ParallelGZIPOutputStream gos = new ParallelGZIPOutputStream(os);
         TarArchiveOutputStream tos = new TarArchiveOutputStream(gos);
         try {
             ProjectManager.singleton.exportProject(project.id, tos);
@@ -477,6 +509,9 @@ public class FileProjectManager extends ProjectManager {
 
     @JsonProperty("projectIDs")
     protected void loadProjects(List<Long> projectIDs) {
+        LazyProjectMetadataMap metadataMap = (LazyProjectMetadataMap) _projectsMetadata;
+        Set<Long> ids = new HashSet<>();
+        List<Long> unindexed = new ArrayList<>();
         for (Long id : projectIDs) {
 
             File projectDir = getProjectDir(id, false);
@@ -484,18 +519,58 @@ public class FileProjectManager extends ProjectManager {
                 logger.error("Missing project directory for project {}", id);
                 continue;
             }
-            ProjectMetadata metadata = ProjectMetadataUtilities.load(projectDir);
-
-            mergeEmptyUserMetadata(metadata);
+            ids.add(id);
+            metadataMap.addUnloaded(id);
 
-            _projectsMetadata.put(id, metadata);
+            WorkspaceIndex.Entry entry = _index.get(id);
+            if (entry != null && entry.isCurrent(projectDir)) {
+                addProjectTags(entry.tags);
+            } else {
+                unindexed.add(id);
+            }
+        }
 
+        // projects missing from the index are read right away, to know their tags
+        metadataMap.load(unindexed);
+        for (Long id : unindexed) {
+            ProjectMetadata metadata = _projectsMetadata.get(id);
             if (metadata != null) {
                 addProjectTags(metadata.getTags());
+                _index.record(id, metadata, getProjectDir(id));
+            }
+        }
+        int indexed = _index.getEntries().size();
+        _index.retain(ids);
+        if (!unindexed.isEmpty() || _index.getEntries().size() != indexed) {
+            try {
+                _index.rewrite();
+            } catch (IOException e) {
+                logger.warn("Failed to save workspace index", e);
             }
         }
     }
 
+    /**
+     * @return whether the metadata of the project has been read from its directory
+     */
+    protected boolean isMetadataLoaded(long id) {
+        return !(_projectsMetadata instanceof LazyProjectMetadataMap)
+                || ((LazyProjectMetadataMap) _projectsMetadata).isLoaded(id);
+    }
+
+    /**
+     * Reads the metadata of a project from its directory.
+     */
+    protected ProjectMetadata readProjectMetadata(long id) {
+        File projectDir = getProjectDir(id, false);
+        if (projectDir == null) {
+            return null;
+        }
+        ProjectMetadata metadata = ProjectMetadataUtilities.load(projectDir);
+        mergeEmptyUserMetadata(metadata);
+        return metadata;
+    }
+
     @JsonProperty("preferences")
     protected void setPreferences(PreferenceStore preferences) {
         if (preferences != null) {
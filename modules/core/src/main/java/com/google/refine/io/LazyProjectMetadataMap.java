@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.ProjectMetadata;
+import com.google.refine.util.ParallelDecoder;
+
+/**
+ * Map of the metadata of the projects of a workspace, in which the metadata of a project is only read from disk the
+ * first time it is requested. Iterating over the values or entries loads all the missing metadata, in parallel.
+ * <p>
+ * The key set and the entry set are snapshots, so that callers can load metadata while iterating over them.
+ */
+public class LazyProjectMetadataMap extends AbstractMap<Long, ProjectMetadata> {
+
+    final static Logger logger = LoggerFactory.getLogger("lazy_project_metadata_map");
+
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * @return the metadata of the project, or null if it cannot be read
+         */
+        ProjectMetadata load(long projectID);
+    }
+
+    final protected Loader loader;
+    final protected Map<Long, ProjectMetadata> loaded = new HashMap<>();
+    final protected Set<Long> unloaded = new HashSet<>();
+
+    public LazyProjectMetadataMap(Loader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Registers a project whose metadata will be read when first requested.
+     */
+    synchronized public void addUnloaded(long projectID) {
+        if (!loaded.containsKey(projectID)) {
+            unloaded.add(projectID);
+        }
+    }
+
+    synchronized public boolean isLoaded(long projectID) {
+        return loaded.containsKey(projectID);
+    }
+
+    /**
+     * @return a snapshot of the metadata which has been read so far
+     */
+    synchronized public Map<Long, ProjectMetadata> getLoaded() {
+        return new HashMap<>(loaded);
+    }
+
+    /**
+     * Reads the metadata of the given projects, which are not loaded yet, in parallel.
+     */
+    synchronized public void load(Collection<Long> projectIDs) {
+        List<Long> ids = new ArrayList<>();
+        for (Long id : projectIDs) {
+            if (unloaded.contains(id)) {
+                ids.add(id);
+            }
+        }
+        if (ids.size() == 1) {
+            get(ids.get(0));
+            return;
+        }
+        List<Callable<ProjectMetadata>> tasks = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            tasks.add(() -> loader.load(id));
+        }
+        List<Future<ProjectMetadata>> results = ParallelDecoder.getPool().invokeAll(tasks);
+        for (int i = 0; i < ids.size(); i++) {
+            ProjectMetadata metadata = null;
+            try {
+                metadata = results.get(i).get();
+            } catch (Exception e) {
+                logger.error("Failed to load metadata of project {}", ids.get(i), e);
+            }
+            unloaded.remove(ids.get(i));
+            loaded.put(ids.get(i), metadata);
+        }
+    }
+
+    synchronized public void loadAll() {
+        if (!unloaded.isEmpty()) {
+            load(new ArrayList<>(unloaded));
+        }
+    }
+
+    @Override
+    synchronized public ProjectMetadata get(Object key) {
+        if (unloaded.remove(key)) {
+            long id = (Long) key;
+            loaded.put(id, loader.load(id));
+        }
+        return loaded.get(key);
+    }
+
+    @Override
+    synchronized public boolean containsKey(Object key) {
+        return loaded.containsKey(key) || unloaded.contains(key);
+    }
+
+    @Override
+    synchronized public ProjectMetadata put(Long key, ProjectMetadata value) {
+        unloaded.remove(key);
+        return loaded.put(key, value);
+    }
+
+    @Override
+    synchronized public ProjectMetadata remove(Object key) {
+        unloaded.remove(key);
+        return loaded.remove(key);
+    }
+
+    @Override
+    synchronized public void clear() {
+        loaded.clear();
+        unloaded.clear();
+    }
+
+    @Override
+    synchronized public int size() {
+        return loaded.size() + unloaded.size();
+    }
+
+    @Override
+    synchronized public Set<Long> keySet() {
+        Set<Long> keys = new HashSet<>(loaded.keySet());
+        keys.addAll(unloaded);
+        return Collections.unmodifiableSet(keys);
+    }
+
+    @Override
+    synchronized public Set<Map.Entry<Long, ProjectMetadata>> entrySet() {
+        loadAll();
+        return Collections.unmodifiableMap(new HashMap<>(loaded)).entrySet();
+    }
+}
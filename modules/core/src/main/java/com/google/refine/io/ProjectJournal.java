@@ -0,0 +1,343 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.RefineServlet;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Project;
+
+/**
+ * Append-only journal of the history of a project, kept next to its data.zip (the base snapshot).
+ * <p>
+ * The data of each change is already written to the history directory when the change is applied, so saving a project
+ * only needs to record which history entries are done and undone. Each save appends one record with the ids of the past
+ * and future entries and the metadata of the entries which were not recorded yet. When a project is loaded, the last
+ * complete record is replayed on top of the base snapshot. Once the journal holds {@link #getMaxRecords()} records, the
+ * next save writes a fresh base snapshot and truncates the journal.
+ * <p>
+ * The journal starts with the token of the base snapshot it applies to (stored as the comment of data.zip), so that a
+ * journal is never replayed over another snapshot, such as a backup restored after a failed save.
+ * <p>
+ * Replaying can revert entries of the base snapshot, so the change files of the entries dropped from the history while
+ * a journal is in use are only deleted once a new base snapshot no longer refers to them. A save following such a drop
+ * writes a new base snapshot.
+ */
+public class ProjectJournal {
+
+    final static Logger logger = LoggerFactory.getLogger("project_journal");
+
+    public static final String JOURNAL_FILE = "journal.txt";
+
+    /**
+     * System property holding the number of journal records after which a new base snapshot is written. Setting it to 0
+     * disables the journal, so that every save writes a full snapshot.
+     */
+    public static final String MAX_RECORDS_PROPERTY = "refine.journal.max_records";
+    public static final int DEFAULT_MAX_RECORDS = 50;
+
+    static final private Map<Long, ProjectJournal> s_journals = new ConcurrentHashMap<>();
+
+    final protected String baseToken;
+    final protected Set<Long> recordedEntryIds;
+    protected int recordCount;
+    // the change files of dropped entries, by entry id, deleted once no base snapshot refers to them
+    final protected Map<Long, File> pendingDeletions = new HashMap<>();
+
+    protected ProjectJournal(String baseToken, Set<Long> recordedEntryIds, int recordCount) {
+        this.baseToken = baseToken;
+        this.recordedEntryIds = recordedEntryIds;
+        this.recordCount = recordCount;
+    }
+
+    static public int getMaxRecords() {
+        return Integer.getInteger(MAX_RECORDS_PROPERTY, DEFAULT_MAX_RECORDS);
+    }
+
+    static public String newBaseToken() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Appends the current state of the history of the project to its journal.
+     *
+     * @return false if the journal cannot be used, in which case the caller must write a full snapshot instead
+     */
+    static public boolean append(Project project, File dir) throws IOException {
+        ProjectJournal journal = s_journals.get(project.id);
+        if (journal == null || journal.recordCount >= getMaxRecords()
+                || !new File(dir, ProjectUtilities.DATA_ZIP).exists()) {
+            return false;
+        }
+
+        List<HistoryEntry> past = project.history.getLastPastEntries(0);
+        List<HistoryEntry> future = project.history.getFutureEntries();
+        List<HistoryEntry> newEntries = new ArrayList<>();
+        Set<Long> entryIds = new HashSet<>();
+        for (List<HistoryEntry> entries : List.of(past, future)) {
+            for (HistoryEntry entry : entries) {
+                entryIds.add(entry.id);
+                if (!journal.recordedEntryIds.contains(entry.id)) {
+                    newEntries.add(entry);
+                }
+            }
+        }
+        if (!entryIds.containsAll(journal.recordedEntryIds)) {
+            // entries were dropped, so write a new base snapshot rather than keep their changes around
+            return false;
+        }
+
+        Properties options = new Properties();
+        options.setProperty("mode", "save");
+
+        File file = new File(dir, JOURNAL_FILE);
+        boolean header = !file.exists();
+        try (FileOutputStream stream = new FileOutputStream(file, true)) {
+            Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+            if (header) {
+                writer.write(RefineServlet.VERSION);
+                writer.write('\n');
+                writer.write("base=" + journal.baseToken + "\n");
+            }
+            writer.write("past=" + joinIds(past) + "\n");
+            writer.write("future=" + joinIds(future) + "\n");
+            writer.write("entryCount=" + newEntries.size() + "\n");
+            for (HistoryEntry entry : newEntries) {
+                entry.save(writer, options);
+                writer.write('\n');
+            }
+            writer.write("/e/\n");
+            writer.flush();
+            // the journal replaces a full save, so make sure it reaches the disk
+            stream.getFD().sync();
+        }
+
+        for (HistoryEntry entry : newEntries) {
+            journal.recordedEntryIds.add(entry.id);
+        }
+        journal.recordCount++;
+        return true;
+    }
+
+    /**
+     * Starts a new, empty journal for a project which was just saved as a full snapshot with the given token.
+     *
+     * @param entryIds
+     *            the ids of the history entries recorded in the snapshot
+     */
+    static public void reset(long projectId, File dir, String baseToken, Set<Long> entryIds) {
+        File file = new File(dir, JOURNAL_FILE);
+        if (file.exists() && !file.delete()) {
+            logger.warn("Failed to delete journal {}, it will be ignored on load", file.getAbsolutePath());
+        }
+        ProjectJournal journal = new ProjectJournal(baseToken, new HashSet<>(entryIds), 0);
+        ProjectJournal previous = s_journals.put(projectId, journal);
+        if (previous != null) {
+            synchronized (previous.pendingDeletions) {
+                for (Map.Entry<Long, File> deletion : previous.pendingDeletions.entrySet()) {
+                    if (entryIds.contains(deletion.getKey())) {
+                        // dropped after the snapshot was captured
+                        journal.deferDeletion(deletion.getKey(), deletion.getValue());
+                    } else {
+                        deletion.getValue().delete();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Defers the deletion of the change file of an entry dropped from the history of a project until a base snapshot
+     * which does not refer to it is written, as replaying the journal may need it.
+     *
+     * @return false if the project has no journal, in which case the file can be deleted right away
+     */
+    static public boolean deferDeletion(long projectId, long entryId, File changeFile) {
+        ProjectJournal journal = s_journals.get(projectId);
+        if (journal == null) {
+            return false;
+        }
+        journal.deferDeletion(entryId, changeFile);
+        return true;
+    }
+
+    protected void deferDeletion(long entryId, File changeFile) {
+        synchronized (pendingDeletions) {
+            pendingDeletions.put(entryId, changeFile);
+        }
+    }
+
+    /**
+     * Replays the journal of a project freshly loaded from the base snapshot with the given token, if any.
+     *
+     * @param baseToken
+     *            the token of the base snapshot, or null if it predates journals
+     */
+    static public void replay(Project project, File dir, String baseToken) {
+        s_journals.remove(project.id);
+        if (baseToken == null) {
+            // legacy snapshot: the next save will write a full one
+            return;
+        }
+
+        File file = new File(dir, JOURNAL_FILE);
+        if (!file.exists()) {
+            s_journals.put(project.id, new ProjectJournal(baseToken, collectEntryIds(project), 0));
+            return;
+        }
+
+        Map<Long, HistoryEntry> entries = new HashMap<>();
+        for (HistoryEntry entry : project.history.getLastPastEntries(0)) {
+            entries.put(entry.id, entry);
+        }
+        for (HistoryEntry entry : project.history.getFutureEntries()) {
+            entries.put(entry.id, entry);
+        }
+
+        String pastIds = null;
+        String futureIds = null;
+        int recordCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            /* String version = */ reader.readLine();
+            String base = reader.readLine();
+            if (base == null || !base.equals("base=" + baseToken)) {
+                logger.warn("Ignoring journal of project {} which does not match its data file", project.id);
+                return;
+            }
+
+            String past = null;
+            String future = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if ("/e/".equals(line)) {
+                    // only complete records are taken into account
+                    pastIds = past;
+                    futureIds = future;
+                    recordCount++;
+                    continue;
+                }
+                int equal = line.indexOf('=');
+                if (equal < 0) {
+                    break;
+                }
+                String field = line.substring(0, equal);
+                String value = line.substring(equal + 1);
+                if ("past".equals(field)) {
+                    past = value;
+                } else if ("future".equals(field)) {
+                    future = value;
+                } else if ("entryCount".equals(field)) {
+                    int count = Integer.parseInt(value);
+                    for (int i = 0; i < count; i++) {
+                        HistoryEntry entry = HistoryEntry.load(project, reader.readLine());
+                        entries.put(entry.id, entry);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // a record interrupted by a crash: use the last complete one
+            logger.warn("Stopped reading truncated journal of project {}", project.id, e);
+        }
+
+        if (pastIds != null) {
+            try {
+                project.history.restore(project, resolve(pastIds, entries), resolve(futureIds, entries));
+                project.update();
+                logger.info("Replayed {} journal record(s) of project {}", recordCount, project.id);
+            } catch (IOException | RuntimeException e) {
+                // the history is left at the last entry which could be applied
+                logger.error("Failed to replay journal of project {}", project.id, e);
+                return;
+            }
+        }
+        s_journals.put(project.id, new ProjectJournal(baseToken, new HashSet<>(entries.keySet()), recordCount));
+    }
+
+    /**
+     * Forgets the journal state of a project, for instance because it was deleted.
+     */
+    static public void forget(long projectId) {
+        s_journals.remove(projectId);
+    }
+
+    static private Set<Long> collectEntryIds(Project project) {
+        Set<Long> ids = new HashSet<>();
+        for (HistoryEntry entry : project.history.getLastPastEntries(0)) {
+            ids.add(entry.id);
+        }
+        for (HistoryEntry entry : project.history.getFutureEntries()) {
+            ids.add(entry.id);
+        }
+        return ids;
+    }
+
+    static private String joinIds(List<HistoryEntry> entries) {
+        StringBuilder sb = new StringBuilder();
+        for (HistoryEntry entry : entries) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(entry.id);
+        }
+        return sb.toString();
+    }
+
+    static private List<HistoryEntry> resolve(String ids, Map<Long, HistoryEntry> entries) throws IOException {
+        List<HistoryEntry> result = new ArrayList<>();
+        if (ids != null && !ids.isEmpty()) {
+            for (String id : ids.split(",")) {
+                HistoryEntry entry = entries.get(Long.parseLong(id));
+                if (entry == null) {
+                    throw new IOException("Journal refers to unknown history entry " + id);
+                }
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+}
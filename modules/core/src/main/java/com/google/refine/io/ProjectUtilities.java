@@ -36,6 +36,10 @@ package com.google.refine.io;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -44,7 +48,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.model.PagedRowList;
 import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSnapshot;
+import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
 public class ProjectUtilities {
@@ -54,54 +61,149 @@ public class ProjectUtilities {
     public static final String DATA_TEMP_ZIP = "data.temp.zip";
     public static final String DATA_OLD_ZIP = "data.old.zip";
 
-    synchronized public static void save(Project project) throws IOException {
-        synchronized (project) {
-            long id = project.id;
-            File dir = ((FileProjectManager) ProjectManager.singleton).getProjectDir(id);
+    /**
+     * Set this system property to "legacy" to keep writing rows as JSON lines inside data.txt and history changes as
+     * change.txt, which versions of OpenRefine predating {@link ColumnarRowCodec} and {@link BinaryChangeCodec} can
+     * read.
+     */
+    public static final String PROJECT_FORMAT_PROPERTY = "refine.project.format";
 
-            File tempFile = new File(dir, DATA_TEMP_ZIP);
-            try {
-                saveToFile(project, tempFile);
-            } catch (IOException e) {
-                logger.warn("Failed to save project {}", id, e);
-                try {
-                    tempFile.delete();
-                } catch (Exception e2) {
-                    // just ignore - file probably was never created.
-                }
-                throw e;
-            }
+    static final private Map<Long, SaveStatistics> s_saveStatistics = new ConcurrentHashMap<>();
+    /**
+     * One lock per project, so that saves of the same project do not overlap while different projects are saved in
+     * parallel.
+     */
+    static final private Map<Long, Object> s_saveLocks = new ConcurrentHashMap<>();
 
-            File file = new File(dir, DATA_ZIP);
-            File oldFile = new File(dir, DATA_OLD_ZIP);
+    /**
+     * Saves a project. The project lock is only held while the journal is appended to or while a snapshot of the
+     * project is captured: the snapshot is then written out without blocking readers and operations.
+     */
+    public static void save(Project project) throws IOException {
+        synchronized (s_saveLocks.computeIfAbsent(project.id, id -> new Object())) {
+            doSave(project);
+        }
+    }
+
+    static private void doSave(Project project) throws IOException {
+        long id = project.id;
+        File dir = ((FileProjectManager) ProjectManager.singleton).getProjectDir(id);
 
-            if (file.exists()) {
-                file.renameTo(oldFile);
+        long start = System.nanoTime();
+        ProjectSnapshot snapshot;
+        synchronized (project) {
+            if (ProjectJournal.append(project, dir)) {
+                project.setLastSave();
+                long millis = (System.nanoTime() - start) / 1000000;
+                s_saveStatistics.put(id, new SaveStatistics(Instant.now(), true, millis, millis));
+                logger.info("Saved project '{}' to its journal in {} ms", id, millis);
+                return;
             }
+            snapshot = project.snapshot();
+        }
+        long lockMillis = (System.nanoTime() - start) / 1000000;
 
-            tempFile.renameTo(file);
-            if (oldFile.exists()) {
-                oldFile.delete();
+        String baseToken = ProjectJournal.newBaseToken();
+        File tempFile = new File(dir, DATA_TEMP_ZIP);
+        try {
+            saveToFile(snapshot, tempFile, baseToken);
+        } catch (IOException e) {
+            snapshot.release();
+            logger.warn("Failed to save project {}", id, e);
+            try {
+                tempFile.delete();
+            } catch (Exception e2) {
+                // just ignore - file probably was never created.
             }
+            throw e;
+        }
+        snapshot.release();
+
+        File file = new File(dir, DATA_ZIP);
+        File oldFile = new File(dir, DATA_OLD_ZIP);
 
-            project.setLastSave();
+        if (file.exists()) {
+            file.renameTo(oldFile);
+        }
 
-            logger.info("Saved project '{}'", id);
+        tempFile.renameTo(file);
+        if (oldFile.exists()) {
+            oldFile.delete();
         }
+        ProjectJournal.reset(id, dir, baseToken, snapshot.entryIds);
+
+        // changes made while the snapshot was written still need saving
+        project.setLastSave(snapshot.capturedAt);
+
+        long totalMillis = (System.nanoTime() - start) / 1000000;
+        s_saveStatistics.put(id, new SaveStatistics(Instant.now(), false, lockMillis, totalMillis));
+        logger.info("Saved project '{}' in {} ms, holding its lock for {} ms", id, totalMillis, lockMillis);
+    }
+
+    /**
+     * @return the timings of the last save of the project in this session, or null if it was not saved yet
+     */
+    static public SaveStatistics getSaveStatistics(long projectId) {
+        return s_saveStatistics.get(projectId);
+    }
+
+    /**
+     * Drops what is kept about a deleted project.
+     */
+    static public void forget(long projectId) {
+        s_saveStatistics.remove(projectId);
+        s_saveLocks.remove(projectId);
     }
 
     protected static void saveToFile(Project project, File file) throws IOException {
+        saveToFile(project, file, null);
+    }
+
+    protected static void saveToFile(Project project, File file, String baseToken) throws IOException {
+        ProjectSnapshot snapshot = project.snapshot();
+        try {
+            saveToFile(snapshot, file, baseToken);
+        } finally {
+            snapshot.release();
+        }
+    }
+
+    /**
+     * @param baseToken
+     *            if not null, stored as the comment of the zip file to identify the snapshot which the project journal
+     *            applies to
+     */
+    protected static void saveToFile(ProjectSnapshot snapshot, File file, String baseToken) throws IOException {
         ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
         try {
+            if (baseToken != null) {
+                out.setComment(baseToken);
+            }
             Pool pool = new Pool();
+            boolean columnar = !"legacy".equals(System.getProperty(PROJECT_FORMAT_PROPERTY));
 
+            // projects loaded from the legacy format are migrated to the columnar one here, on their next save
             out.putNextEntry(new ZipEntry("data.txt"));
             try {
-                project.saveToOutputStream(out, pool);
+                snapshot.saveToOutputStream(out, pool, columnar ? ColumnarRowCodec.FORMAT_NAME : null);
             } finally {
                 out.closeEntry();
             }
 
+            if (columnar) {
+                out.putNextEntry(new ZipEntry(ColumnarRowCodec.ROWS_ENTRY));
+                try {
+                    if (snapshot.rows instanceof PagedRowList.Snapshot) {
+                        // pages are already encoded, so they are copied as consecutive blocks
+                        ((PagedRowList.Snapshot) snapshot.rows).writeTo(out, pool);
+                    } else {
+                        ColumnarRowCodec.write(snapshot.rows, pool, out);
+                    }
+                } finally {
+                    out.closeEntry();
+                }
+            }
+
             out.putNextEntry(new ZipEntry("pool.txt"));
             try {
                 pool.save(out);
@@ -118,7 +220,13 @@ public class ProjectUtilities {
             try {
                 File file = new File(dir, filename);
                 if (file.exists()) {
-                    return loadFromFile(file, id);
+                    Project project = loadFromFile(file, id);
+                    String baseToken;
+                    try (ZipFile zipFile = new ZipFile(file)) {
+                        baseToken = zipFile.getComment();
+                    }
+                    ProjectJournal.replay(project, dir, baseToken);
+                    return project;
                 }
             } catch (IOException e) {
                 logger.warn("Failed to load from data file {} / {}", dir, filename, e);
@@ -139,12 +247,55 @@ public class ProjectUtilities {
                 pool.load(zipFile.getInputStream(poolEntry));
             } // else, it's a legacy project file
 
+            List<Row> rows = null;
+            ZipEntry rowsEntry = zipFile.getEntry(ColumnarRowCodec.ROWS_ENTRY);
+            if (rowsEntry != null) {
+                // blocks are decoded one at a time, straight into the row store of the project
+                rows = Project.createRowList(id, Project.getRowStore(id));
+                ColumnarRowCodec.read(zipFile.getInputStream(rowsEntry), pool, rows);
+            } // else, rows are stored as JSON lines in data.txt
+
             return Project.loadFromInputStream(
                     zipFile.getInputStream(zipFile.getEntry("data.txt")),
                     id,
-                    pool);
+                    pool,
+                    rows);
         } finally {
             zipFile.close();
         }
     }
+
+    /**
+     * Replaces the rows, columns and overlay models of the project by those saved in a file written by
+     * {@link #saveToFile(ProjectSnapshot, File, String)}, keeping its history. The file is fully read before the
+     * project is modified.
+     */
+    static protected void restoreFromFile(Project project, File file) throws IOException {
+        List<Row> rows = Project.createRowList(project.id, Project.getRowStore(project.id));
+        Project saved = null;
+        try (ZipFile zipFile = new ZipFile(file)) {
+            Pool pool = new Pool();
+            pool.load(zipFile.getInputStream(zipFile.getEntry("pool.txt")));
+
+            ZipEntry rowsEntry = zipFile.getEntry(ColumnarRowCodec.ROWS_ENTRY);
+            if (rowsEntry != null) {
+                ColumnarRowCodec.read(zipFile.getInputStream(rowsEntry), pool, rows);
+            }
+            saved = Project.loadFromInputStream(
+                    zipFile.getInputStream(zipFile.getEntry("data.txt")),
+                    project.id,
+                    pool,
+                    rowsEntry != null ? rows : null);
+
+            project.restoreState(saved);
+        } finally {
+            // the saved rows were copied to the project
+            if (rows instanceof PagedRowList) {
+                ((PagedRowList) rows).close();
+            }
+            if (saved != null && saved.rows != rows && saved.rows instanceof PagedRowList) {
+                ((PagedRowList) saved.rows).close();
+            }
+        }
+    }
 }
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.ProjectMetadata;
+import com.google.refine.RefineServlet;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * Compact summary of the metadata of all the projects of a workspace, so that the workspace can be loaded without
+ * parsing the metadata.json of every project. The full metadata of a project is only read when it is needed.
+ * <p>
+ * The index is an append-only file: each save or deletion of project metadata appends one line, and the file is
+ * rewritten once most of its lines are superseded. Each entry records the size and modification time of the
+ * metadata.json it summarizes, so that entries made stale by changes outside of OpenRefine (such as a project directory
+ * copied into the workspace) are detected and ignored.
+ */
+public class WorkspaceIndex {
+
+    final static Logger logger = LoggerFactory.getLogger("workspace_index");
+
+    public static final String INDEX_FILE = "workspace.index";
+
+    static public class Entry {
+
+        @JsonProperty("id")
+        final public long id;
+        @JsonProperty("name")
+        final public String name;
+        @JsonProperty("tags")
+        final public String[] tags;
+        @JsonProperty("modified")
+        final public long modified;
+        @JsonProperty("rowCount")
+        final public int rowCount;
+        @JsonProperty("fileModified")
+        final public long fileModified;
+        @JsonProperty("fileLength")
+        final public long fileLength;
+
+        @JsonCreator
+        public Entry(
+                @JsonProperty("id") long id,
+                @JsonProperty("name") String name,
+                @JsonProperty("tags") String[] tags,
+                @JsonProperty("modified") long modified,
+                @JsonProperty("rowCount") int rowCount,
+                @JsonProperty("fileModified") long fileModified,
+                @JsonProperty("fileLength") long fileLength) {
+            this.id = id;
+            this.name = name;
+            this.tags = tags == null ? new String[0] : tags;
+            this.modified = modified;
+            this.rowCount = rowCount;
+            this.fileModified = fileModified;
+            this.fileLength = fileLength;
+        }
+
+        /**
+         * @return whether this entry still describes the metadata file of the project
+         */
+        public boolean isCurrent(File projectDir) {
+            File file = new File(projectDir, ProjectMetadata.DEFAULT_FILE_NAME);
+            return file.lastModified() == fileModified && file.length() == fileLength;
+        }
+    }
+
+    final protected File file;
+    final protected Map<Long, Entry> entries = new HashMap<>();
+    protected int lineCount = 0;
+
+    protected WorkspaceIndex(File workspaceDir) {
+        file = new File(workspaceDir, INDEX_FILE);
+    }
+
+    /**
+     * Reads the index of a workspace. A missing or unreadable index yields an empty one.
+     */
+    static public WorkspaceIndex load(File workspaceDir) {
+        WorkspaceIndex index = new WorkspaceIndex(workspaceDir);
+        if (!index.file.exists()) {
+            return index;
+        }
+        try (LineNumberReader reader = new LineNumberReader(
+                new InputStreamReader(new FileInputStream(index.file), StandardCharsets.UTF_8))) {
+            /* String version = */ reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int equal = line.indexOf('=');
+                if (equal < 0) {
+                    // an incomplete line left by an interrupted write
+                    break;
+                }
+                String field = line.substring(0, equal);
+                String value = line.substring(equal + 1);
+                if ("put".equals(field)) {
+                    Entry entry = ParsingUtilities.mapper.readValue(value, Entry.class);
+                    index.entries.put(entry.id, entry);
+                } else if ("remove".equals(field)) {
+                    index.entries.remove(Long.parseLong(value));
+                }
+                index.lineCount++;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read workspace index {}, ignoring it", index.file.getAbsolutePath(), e);
+            index.entries.clear();
+            index.lineCount = 0;
+        }
+        return index;
+    }
+
+    synchronized public Entry get(long projectID) {
+        return entries.get(projectID);
+    }
+
+    synchronized public List<Entry> getEntries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Records the metadata of a project, which has just been written to its directory.
+     */
+    synchronized public void put(long projectID, ProjectMetadata metadata, File projectDir) {
+        Entry entry = record(projectID, metadata, projectDir);
+        try {
+            append("put=" + ParsingUtilities.defaultWriter.writeValueAsString(entry));
+        } catch (IOException e) {
+            logger.warn("Failed to update workspace index", e);
+        }
+    }
+
+    /**
+     * Records the metadata of a project in memory only. The change is written by the next {@link #rewrite()}.
+     */
+    synchronized public Entry record(long projectID, ProjectMetadata metadata, File projectDir) {
+        File metadataFile = new File(projectDir, ProjectMetadata.DEFAULT_FILE_NAME);
+        Entry entry = new Entry(projectID, metadata.getName(), metadata.getTags(),
+                metadata.getModified() == null ? 0 : metadata.getModified().toEpochMilli(), metadata.getRowCount(),
+                metadataFile.lastModified(), metadataFile.length());
+        entries.put(projectID, entry);
+        return entry;
+    }
+
+    /**
+     * Keeps only the entries of the given projects, in memory only. The change is written by the next
+     * {@link #rewrite()}.
+     */
+    synchronized public void retain(Collection<Long> projectIDs) {
+        entries.keySet().retainAll(projectIDs);
+    }
+
+    synchronized public void remove(long projectID) {
+        if (entries.remove(projectID) != null) {
+            try {
+                append("remove=" + projectID);
+            } catch (IOException e) {
+                logger.warn("Failed to update workspace index", e);
+            }
+        }
+    }
+
+    protected void append(String line) throws IOException {
+        if (lineCount >= 2 * entries.size() + 16) {
+            rewrite();
+            return;
+        }
+        boolean header = !file.exists();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            if (header) {
+                writer.write(RefineServlet.VERSION);
+                writer.write('\n');
+            }
+            writer.write(line);
+            writer.write('\n');
+        }
+        lineCount++;
+    }
+
+    /**
+     * Writes a fresh index holding only the current entries, replacing the existing file.
+     */
+    synchronized public void rewrite() throws IOException {
+        File tempFile = new File(file.getParentFile(), INDEX_FILE + ".temp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+            writer.write(RefineServlet.VERSION);
+            writer.write('\n');
+            for (Entry entry : entries.values()) {
+                writer.write("put=");
+                writer.write(ParsingUtilities.defaultWriter.writeValueAsString(entry));
+                writer.write('\n');
+            }
+        }
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Failed to replace workspace index " + file.getAbsolutePath());
+        }
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Failed to rename workspace index " + tempFile.getAbsolutePath());
+        }
+        lineCount = entries.size();
+    }
+}
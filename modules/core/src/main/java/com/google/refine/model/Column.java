@@ -35,10 +35,12 @@ package com.google.refine.model;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -138,6 +140,14 @@ public class Column {
         return null;
     }
 
+    /**
+     * @return the precomputed values cached by this column, by key
+     */
+    @JsonIgnore
+    public Map<String, Object> getPrecomputes() {
+        return _precomputes == null ? Collections.emptyMap() : Collections.unmodifiableMap(_precomputes);
+    }
+
     public void setPrecompute(String key, Object value) {
         if (_precomputes == null) {
             _precomputes = new HashMap<String, Object>();
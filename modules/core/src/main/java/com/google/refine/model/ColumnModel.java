@@ -265,6 +265,21 @@ public class ColumnModel {
         internalInitialize();
     }
 
+    /**
+     * Replaces the columns and column groups by those of another column model. Cell indices allocated so far are never
+     * handed out again.
+     */
+    synchronized public void restore(ColumnModel other) {
+        columns.clear();
+        columns.addAll(other.columns);
+        columnGroups.clear();
+        columnGroups.addAll(other.columnGroups);
+        _maxCellIndex = Math.max(_maxCellIndex, other.getMaxCellIndex());
+        _keyColumnIndex = other.getKeyColumnIndex();
+
+        internalInitialize();
+    }
+
     synchronized protected void internalInitialize() {
         generateMaps();
 
@@ -0,0 +1,1120 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import com.google.refine.util.OffHeapText;
+import com.google.refine.util.StringDictionary;
+
+/**
+ * Column-major row store. Instead of a {@link Row} object with its own list of {@link Cell}s per row, the values and
+ * recons of each cell index are kept in one array per column, and the flags and stars of all rows in two bitsets, so
+ * that scans over a column touch contiguous memory and cells cost no object of their own. Columns of strings with few
+ * distinct values are dictionary-encoded: each row stores the code of its value, so that equal values share storage and
+ * can be compared by code, see {@link #getCode(Row, int)}. Columns of numbers are stored as primitive longs and
+ * doubles, which can be read without boxing them, see {@link #getDouble(int, int)}. Strings of at least
+ * {@link OffHeapText#getMinLength()} characters are kept off-heap, and decoded whenever their cell is read.
+ * <p>
+ * The rows returned by this list are views: changes to their cells are written to the columns. Views are created on
+ * demand, and the last {@link #TRACKED_VIEWS} of them are tracked: {@link #get(int)} returns the same view again, the
+ * {@link Row#flagged} and {@link Row#starred} fields of the view hold the flags of its row, and the view follows its
+ * row when rows are inserted or removed before it. Once a view stops being tracked, its flags are written to the list,
+ * so later changes to the flags of a row held across many accesses to other rows must be written back with
+ * {@link #set(int, Row)}. Such a view throws {@link ConcurrentModificationException} once rows are inserted, removed or
+ * replaced before or at its position, instead of reading another row.
+ * <p>
+ * A tracked view whose row is replaced or removed is detached from the list with a copy of the row, which
+ * {@link #set(int, Row)} and {@link #remove(int)} return. Rows added to the list are copied into its columns. Clearing
+ * the list leaves the rows which were in it readable, so that changes can keep them to restore them later.
+ */
+public class ColumnarRowList extends AbstractList<Row> implements RandomAccess {
+
+    // value of a cell which holds no value, as opposed to a missing cell
+    static final private Serializable EMPTY = new Empty();
+
+    static final private class Empty implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Number of the views most recently returned by {@link #get(int)} which are tracked.
+     */
+    static final public int TRACKED_VIEWS = 1024;
+
+    private Store store = new Store(16);
+
+    public ColumnarRowList() {
+    }
+
+    private ColumnarRowList(Store store) {
+        this.store = store;
+    }
+
+    /**
+     * The columns of a list. A store is replaced rather than emptied when the list is cleared.
+     */
+    static private class Store {
+
+        int size;
+        int capacity;
+        // number of cells of each row, or -1 for a null row
+        int[] cellCounts;
+        // flags of the rows without a tracked view, the tracked views holding those of their rows
+        final BitSet flagged;
+        final BitSet starred;
+        // tracked views by position, and in the order they were created
+        final Map<Integer, RowView> views = new HashMap<>();
+        final ArrayDeque<RowView> recent = new ArrayDeque<>();
+        // incremented when rows move or are replaced, which invalidates the views which are not tracked
+        int moves;
+        // by cell index, allocated once a row has a cell at that index
+        Vector[] columns = new Vector[0];
+        final int offHeapMinLength = OffHeapText.getMinLength();
+        // held by the off-heap strings of the rows
+        long offHeapBytes;
+
+        Store(int capacity) {
+            this.capacity = capacity;
+            this.cellCounts = new int[capacity];
+            this.flagged = new BitSet();
+            this.starred = new BitSet();
+        }
+
+        Store(Store other) {
+            other.syncFlags();
+            size = other.size;
+            capacity = other.size;
+            cellCounts = Arrays.copyOf(other.cellCounts, size);
+            flagged = (BitSet) other.flagged.clone();
+            starred = (BitSet) other.starred.clone();
+            offHeapBytes = other.offHeapBytes;
+            columns = new Vector[other.columns.length];
+            for (int c = 0; c < columns.length; c++) {
+                if (other.columns[c] != null) {
+                    columns[c] = other.columns[c].copy(size);
+                }
+            }
+        }
+
+        void ensureCapacity(int minCapacity) {
+            if (minCapacity <= capacity) {
+                return;
+            }
+            capacity = Math.max(minCapacity, capacity + (capacity >> 1));
+            cellCounts = Arrays.copyOf(cellCounts, capacity);
+            for (Vector column : columns) {
+                if (column != null) {
+                    column.resize(capacity);
+                }
+            }
+        }
+
+        Serializable rawValue(int row, int cellIndex) {
+            return cellIndex < columns.length && columns[cellIndex] != null ? columns[cellIndex].get(row) : null;
+        }
+
+        Recon recon(int row, int cellIndex) {
+            return cellIndex < columns.length && columns[cellIndex] != null && columns[cellIndex].recons != null
+                    ? columns[cellIndex].recons[row]
+                    : null;
+        }
+
+        Serializable getValue(int row, int cellIndex) {
+            return materialize(rawValue(row, cellIndex));
+        }
+
+        Cell getCell(int row, int cellIndex) {
+            return cellIndex < columns.length && columns[cellIndex] != null ? columns[cellIndex].getCell(row) : null;
+        }
+
+        void setRaw(int row, int cellIndex, Serializable value, Recon recon) {
+            if (value instanceof String && offHeapMinLength > 0 && ((String) value).length() >= offHeapMinLength) {
+                value = OffHeapText.of((String) value);
+            }
+            countOffHeap(rawValue(row, cellIndex), -1);
+            countOffHeap(value, 1);
+            if (value != null) {
+                if (cellIndex >= columns.length) {
+                    columns = Arrays.copyOf(columns, cellIndex + 1);
+                }
+                Vector column = columns[cellIndex];
+                if (column == null) {
+                    if (DictionaryVector.isEncodable(value)) {
+                        column = new DictionaryVector(capacity);
+                    } else if (NumberVector.isEncodable(value)) {
+                        column = new NumberVector(capacity);
+                    } else {
+                        column = new ObjectVector(capacity);
+                    }
+                    columns[cellIndex] = column;
+                } else if (!column.accepts(value)) {
+                    // a column of cells without value can still become a column of numbers
+                    column = column.isBlank() && NumberVector.isEncodable(value) ? new NumberVector(column, capacity)
+                            : new ObjectVector(column, capacity);
+                    columns[cellIndex] = column;
+                }
+                if (recon != null && column.recons == null) {
+                    column.recons = new Recon[capacity];
+                }
+            } else if (cellIndex >= columns.length || columns[cellIndex] == null) {
+                return;
+            }
+            columns[cellIndex].set(row, value);
+            if (columns[cellIndex].recons != null) {
+                columns[cellIndex].recons[row] = recon;
+            }
+        }
+
+        void setCell(int row, int cellIndex, Cell cell) {
+            if (cell == null) {
+                setRaw(row, cellIndex, null, null);
+            } else {
+                setRaw(row, cellIndex, cell.value == null ? EMPTY : cell.value, cell.recon);
+            }
+        }
+
+        synchronized boolean isFlagged(int index) {
+            RowView view = views.get(index);
+            return view != null ? view.flagged : flagged.get(index);
+        }
+
+        synchronized boolean isStarred(int index) {
+            RowView view = views.get(index);
+            return view != null ? view.starred : starred.get(index);
+        }
+
+        /**
+         * Copies the flags of the tracked views to the bitsets.
+         */
+        synchronized void syncFlags() {
+            for (RowView view : views.values()) {
+                flagged.set(view.index, view.flagged);
+                starred.set(view.index, view.starred);
+            }
+        }
+
+        // parallel traversals read rows from several threads
+        synchronized RowView view(int index) {
+            RowView view = views.get(index);
+            if (view == null) {
+                view = new RowView(this, index);
+                views.put(index, view);
+                recent.addLast(view);
+                if (recent.size() > TRACKED_VIEWS) {
+                    untrack(recent.removeFirst());
+                }
+            }
+            return view;
+        }
+
+        synchronized boolean isTracked(RowView view) {
+            return views.get(view.index) == view;
+        }
+
+        /**
+         * Writes the flags of a row to the row at the given position.
+         */
+        synchronized void writeFlags(int index, Row row) {
+            RowView view = views.get(index);
+            if (view != null) {
+                view.flagged = row.flagged;
+                view.starred = row.starred;
+            }
+            flagged.set(index, row.flagged);
+            starred.set(index, row.starred);
+        }
+
+        /**
+         * Stops tracking a view, writing its flags to the bitsets.
+         */
+        void untrack(RowView view) {
+            if (view.store == this && views.get(view.index) == view) {
+                flagged.set(view.index, view.flagged);
+                starred.set(view.index, view.starred);
+                views.remove(view.index);
+            }
+        }
+
+        /**
+         * Detaches the tracked view of the row at the given position, if it has one, so that it keeps the current
+         * content of the row.
+         *
+         * @return the detached view, or null if the row had no tracked view
+         */
+        synchronized RowView release(int index) {
+            RowView view = views.get(index);
+            if (view == null) {
+                return null;
+            }
+            Row copy = detach(index);
+            views.remove(index);
+            Store own = new Store(1);
+            own.size = 1;
+            own.write(0, copy);
+            own.views.put(0, view);
+            view.store = own;
+            view.index = 0;
+            view.moves = own.moves;
+            return view;
+        }
+
+        void countOffHeap(Serializable value, int sign) {
+            if (value instanceof OffHeapText) {
+                offHeapBytes += sign * ((OffHeapText) value).getStoredBytes();
+            }
+        }
+
+        /**
+         * Overwrites the row at the given position, which must not be a view of that same position.
+         */
+        void write(int index, Row row) {
+            int count = row == null ? -1 : row.cells.size();
+            for (int c = Math.max(0, count); c < columns.length; c++) {
+                setRaw(index, c, null, null);
+            }
+            if (row instanceof RowView) {
+                // copy the columns of the view, without going through cells
+                RowView view = (RowView) row;
+                int position = view.position();
+                for (int c = 0; c < count; c++) {
+                    setRaw(index, c, view.store.rawValue(position, c), view.store.recon(position, c));
+                }
+            } else {
+                for (int c = 0; c < count; c++) {
+                    setCell(index, c, row.cells.get(c));
+                }
+            }
+            cellCounts[index] = count;
+            flagged.set(index, row != null && row.flagged);
+            starred.set(index, row != null && row.starred);
+        }
+
+        /**
+         * @return a copy of the row at the given position, which does not depend on this store
+         */
+        Row detach(int index) {
+            int count = cellCounts[index];
+            if (count < 0) {
+                return null;
+            }
+            Row row = new Row(count);
+            for (int c = 0; c < count; c++) {
+                row.cells.add(getCell(index, c));
+            }
+            row.flagged = isFlagged(index);
+            row.starred = isStarred(index);
+            return row;
+        }
+
+        /**
+         * Moves the rows from the given position to the end of the list by the given (possibly negative) offset.
+         */
+        void shift(int from, int offset) {
+            int length = size - from;
+            int to = from + offset;
+            System.arraycopy(cellCounts, from, cellCounts, to, length);
+            synchronized (this) {
+                moves++;
+                List<RowView> tracked = new ArrayList<>(views.values());
+                views.clear();
+                for (RowView view : tracked) {
+                    if (view.index >= from) {
+                        view.index += offset;
+                    }
+                    view.moves = moves;
+                    views.put(view.index, view);
+                }
+            }
+            for (Vector column : columns) {
+                if (column != null) {
+                    column.move(from, to, length);
+                    if (offset < 0) {
+                        // release the values past the new end
+                        column.clear(size + offset, size);
+                    } else {
+                        // the rows inserted in the gap are written to empty slots
+                        column.clear(from, to);
+                    }
+                }
+            }
+            moveBits(flagged, from, to, length);
+            moveBits(starred, from, to, length);
+        }
+    }
+
+    // the value of a cell as stored by a vector, to the value of the cell
+    static private Serializable materialize(Serializable value) {
+        if (value == EMPTY) {
+            return null;
+        }
+        return value instanceof OffHeapText ? value.toString() : value;
+    }
+
+    /**
+     * Moves a range of bits, clearing the bits it leaves behind.
+     */
+    static private void moveBits(BitSet bits, int from, int to, int length) {
+        BitSet moved = bits.get(from, from + length);
+        bits.clear(Math.min(from, to), Math.max(from, to) + length);
+        for (int b = moved.nextSetBit(0); b >= 0; b = moved.nextSetBit(b + 1)) {
+            bits.set(to + b);
+        }
+    }
+
+    /**
+     * The values of one cell index, and their recons once one of them is reconciled.
+     */
+    static abstract private class Vector {
+
+        Recon[] recons;
+
+        /**
+         * @return the value of the cell of a row, {@link #EMPTY} for a cell without value or null for no cell
+         */
+        abstract Serializable get(int row);
+
+        /**
+         * @return whether the vector can store the given value, or must be converted to an {@link ObjectVector} first
+         */
+        abstract boolean accepts(Serializable value);
+
+        abstract void set(int row, Serializable value);
+
+        abstract Vector copy(int size);
+
+        Cell getCell(int row) {
+            Serializable value = get(row);
+            return value == null ? null : new Cell(materialize(value), recons == null ? null : recons[row]);
+        }
+
+        /**
+         * @return whether no cell of the vector has a value
+         */
+        boolean isBlank() {
+            return false;
+        }
+
+        void resize(int capacity) {
+            if (recons != null) {
+                recons = Arrays.copyOf(recons, capacity);
+            }
+        }
+
+        void move(int from, int to, int length) {
+            if (recons != null) {
+                System.arraycopy(recons, from, recons, to, length);
+            }
+        }
+
+        void clear(int from, int to) {
+            if (recons != null) {
+                Arrays.fill(recons, from, to, null);
+            }
+        }
+    }
+
+    static private final class ObjectVector extends Vector {
+
+        Serializable[] values;
+
+        ObjectVector(int capacity) {
+            values = new Serializable[capacity];
+        }
+
+        ObjectVector(Vector other, int capacity) {
+            values = new Serializable[capacity];
+            for (int i = 0; i < capacity; i++) {
+                values[i] = other.get(i);
+            }
+            recons = other.recons;
+        }
+
+        @Override
+        Serializable get(int row) {
+            return values[row];
+        }
+
+        @Override
+        boolean accepts(Serializable value) {
+            return true;
+        }
+
+        @Override
+        void set(int row, Serializable value) {
+            values[row] = value;
+        }
+
+        @Override
+        Vector copy(int size) {
+            ObjectVector copy = new ObjectVector(0);
+            copy.values = Arrays.copyOf(values, size);
+            copy.recons = recons == null ? null : Arrays.copyOf(recons, size);
+            return copy;
+        }
+
+        @Override
+        void resize(int capacity) {
+            super.resize(capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void move(int from, int to, int length) {
+            super.move(from, to, length);
+            System.arraycopy(values, from, values, to, length);
+        }
+
+        @Override
+        void clear(int from, int to) {
+            super.clear(from, to);
+            Arrays.fill(values, from, to, null);
+        }
+    }
+
+    /**
+     * Strings of a column with few distinct values, stored as codes into a {@link Dictionary}. The vector is converted
+     * to an {@link ObjectVector} when the column gets a value which is not a string, or too many distinct strings.
+     */
+    static private final class DictionaryVector extends Vector {
+
+        // code of the value of each row, 0 for no cell
+        int[] codes;
+        Dictionary dictionary = new Dictionary();
+        // number of values written, to find out whether they repeat
+        long encoded;
+        // the cell of each code, for the cells which are not reconciled, created when first read
+        Cell[] cells = new Cell[0];
+
+        DictionaryVector(int capacity) {
+            codes = new int[capacity];
+        }
+
+        static boolean isEncodable(Serializable value) {
+            return value instanceof String || value == EMPTY;
+        }
+
+        @Override
+        Serializable get(int row) {
+            int code = codes[row];
+            return code == 0 ? null : dictionary.values.get(code - 1);
+        }
+
+        @Override
+        Cell getCell(int row) {
+            int code = codes[row];
+            if (code == 0) {
+                return null;
+            } else if (recons != null && recons[row] != null) {
+                return new Cell(materialize(dictionary.values.get(code - 1)), recons[row]);
+            }
+            // concurrent readers may both create the cell, which is harmless
+            Cell[] cells = this.cells;
+            if (code > cells.length) {
+                cells = Arrays.copyOf(cells, dictionary.size());
+                this.cells = cells;
+            }
+            Cell cell = cells[code - 1];
+            if (cell == null) {
+                cell = new Cell(materialize(dictionary.values.get(code - 1)), null);
+                cells[code - 1] = cell;
+            }
+            return cell;
+        }
+
+        @Override
+        boolean accepts(Serializable value) {
+            if (value == null || dictionary.codes.containsKey(value)) {
+                return true;
+            }
+            // same rule as importers use to decide whether a column repeats its values enough
+            int size = dictionary.size();
+            return isEncodable(value) && size < StringDictionary.getMaxSize()
+                    && (encoded < StringDictionary.SAMPLE_SIZE || encoded >= (long) size * StringDictionary.MIN_REPETITION);
+        }
+
+        @Override
+        boolean isBlank() {
+            return dictionary.values.stream().allMatch(value -> value == EMPTY);
+        }
+
+        @Override
+        void set(int row, Serializable value) {
+            if (value != null) {
+                encoded++;
+            }
+            codes[row] = value == null ? 0 : dictionary.encode(value);
+        }
+
+        @Override
+        Vector copy(int size) {
+            DictionaryVector copy = new DictionaryVector(0);
+            copy.codes = Arrays.copyOf(codes, size);
+            copy.dictionary = new Dictionary(dictionary);
+            copy.encoded = encoded;
+            copy.recons = recons == null ? null : Arrays.copyOf(recons, size);
+            return copy;
+        }
+
+        @Override
+        void resize(int capacity) {
+            super.resize(capacity);
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        @Override
+        void move(int from, int to, int length) {
+            super.move(from, to, length);
+            System.arraycopy(codes, from, codes, to, length);
+        }
+
+        @Override
+        void clear(int from, int to) {
+            super.clear(from, to);
+            Arrays.fill(codes, from, to, 0);
+        }
+    }
+
+    /**
+     * Numbers of a column, stored as the bits of a long or of a double per row, with bitmaps telling which rows have a
+     * number, which of those are doubles and which rows have a cell without value. The vector is converted to an
+     * {@link ObjectVector} when the column gets a value which is neither a Long nor a Double.
+     */
+    static private final class NumberVector extends Vector {
+
+        long[] bits;
+        BitSet present = new BitSet();
+        BitSet doubles = new BitSet();
+        BitSet empty = new BitSet();
+
+        NumberVector(int capacity) {
+            bits = new long[capacity];
+        }
+
+        NumberVector(Vector other, int capacity) {
+            bits = new long[capacity];
+            for (int i = 0; i < capacity; i++) {
+                set(i, other.get(i));
+            }
+            recons = other.recons;
+        }
+
+        static boolean isEncodable(Serializable value) {
+            return value instanceof Long || value instanceof Double;
+        }
+
+        double getDouble(int row) {
+            return doubles.get(row) ? Double.longBitsToDouble(bits[row]) : (double) bits[row];
+        }
+
+        @Override
+        Serializable get(int row) {
+            if (!present.get(row)) {
+                return empty.get(row) ? EMPTY : null;
+            } else if (doubles.get(row)) {
+                return Double.longBitsToDouble(bits[row]);
+            } else {
+                return bits[row];
+            }
+        }
+
+        @Override
+        boolean accepts(Serializable value) {
+            return value == null || value == EMPTY || isEncodable(value);
+        }
+
+        @Override
+        void set(int row, Serializable value) {
+            present.set(row, value instanceof Number);
+            doubles.set(row, value instanceof Double);
+            empty.set(row, value == EMPTY);
+            if (value instanceof Double) {
+                bits[row] = Double.doubleToRawLongBits((Double) value);
+            } else {
+                bits[row] = value instanceof Long ? (Long) value : 0;
+            }
+        }
+
+        @Override
+        Vector copy(int size) {
+            NumberVector copy = new NumberVector(0);
+            copy.bits = Arrays.copyOf(bits, size);
+            copy.present = (BitSet) present.clone();
+            copy.doubles = (BitSet) doubles.clone();
+            copy.empty = (BitSet) empty.clone();
+            copy.recons = recons == null ? null : Arrays.copyOf(recons, size);
+            return copy;
+        }
+
+        @Override
+        void resize(int capacity) {
+            super.resize(capacity);
+            bits = Arrays.copyOf(bits, capacity);
+        }
+
+        @Override
+        void move(int from, int to, int length) {
+            super.move(from, to, length);
+            System.arraycopy(bits, from, bits, to, length);
+            moveBits(present, from, to, length);
+            moveBits(doubles, from, to, length);
+            moveBits(empty, from, to, length);
+        }
+
+        @Override
+        void clear(int from, int to) {
+            super.clear(from, to);
+            Arrays.fill(bits, from, to, 0);
+            present.clear(from, to);
+            doubles.clear(from, to);
+            empty.clear(from, to);
+        }
+    }
+
+    /**
+     * The distinct strings of a dictionary-encoded column. Codes start at 1, code 0 standing for a missing cell, and
+     * are never reassigned: the dictionary only grows, so that a code read from a row keeps its meaning.
+     */
+    static public final class Dictionary {
+
+        /**
+         * System property setting the number of distinct strings above which a column stops being dictionary-encoded.
+         */
+        static public final String MAX_SIZE_PROPERTY = "refine.columns.dictionary_max_size";
+        static public final int DEFAULT_MAX_SIZE = 1 << 16;
+
+        private final List<Serializable> values;
+        private final Map<Serializable, Integer> codes;
+
+        private Dictionary() {
+            values = new ArrayList<>();
+            codes = new HashMap<>();
+        }
+
+        private Dictionary(Dictionary other) {
+            values = new ArrayList<>(other.values);
+            codes = new HashMap<>(other.codes);
+        }
+
+        private int encode(Serializable value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                values.add(value);
+                code = values.size();
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        /**
+         * @return the number of codes in use, not counting code 0
+         */
+        public int size() {
+            return values.size();
+        }
+
+        /**
+         * @return the value of the cells with the given code, which is null for code 0 and for cells without value
+         */
+        public Serializable getValue(int code) {
+            if (code == 0) {
+                return null;
+            }
+            Serializable value = values.get(code - 1);
+            return value == EMPTY ? null : value;
+        }
+    }
+
+    /**
+     * A row of the list, reading and writing its cells in the columns. Its position changes as rows are inserted or
+     * removed before it, and its store once it is detached from the list.
+     */
+    static private final class RowView extends Row {
+
+        Store store;
+        int index;
+        // value of the moves of the store when the view was last known to be at its index
+        int moves;
+
+        RowView(Store store, int index) {
+            super(new CellView(), store.flagged.get(index), store.starred.get(index));
+            this.store = store;
+            this.index = index;
+            this.moves = store.moves;
+            ((CellView) cells).row = this;
+        }
+
+        /**
+         * @return the position of the row in its store, checking that the row is still there
+         */
+        int position() {
+            if (!isCurrent()) {
+                throw new ConcurrentModificationException("Row was moved or replaced since it was read");
+            }
+            return index;
+        }
+
+        /**
+         * @return whether the view is still at its index: either no row was moved or replaced since it was read, or it
+         *         is tracked
+         */
+        boolean isCurrent() {
+            if (moves != store.moves) {
+                if (!store.isTracked(this)) {
+                    return false;
+                }
+                moves = store.moves;
+            }
+            return true;
+        }
+
+        @Override
+        public Cell getCell(int cellIndex) {
+            int index = position();
+            return cellIndex >= 0 && cellIndex < store.cellCounts[index] ? store.getCell(index, cellIndex) : null;
+        }
+
+        @Override
+        public Object getCellValue(int cellIndex) {
+            int index = position();
+            return cellIndex >= 0 && cellIndex < store.cellCounts[index] ? store.getValue(index, cellIndex) : null;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            int index = position();
+            for (int c = 0; c < store.cellCounts[index]; c++) {
+                Serializable value = store.rawValue(index, c);
+                // off-heap strings are long, so they are not blank
+                if (value instanceof OffHeapText || !isValueBlank(materialize(value))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The cells of a {@link RowView}, read and written at its current position.
+     */
+    static private final class CellView extends AbstractList<Cell> implements RandomAccess {
+
+        RowView row;
+
+        @Override
+        public int size() {
+            return row.store.cellCounts[row.position()];
+        }
+
+        @Override
+        public Cell get(int cellIndex) {
+            checkIndex(cellIndex, size());
+            return row.store.getCell(row.position(), cellIndex);
+        }
+
+        @Override
+        public Cell set(int cellIndex, Cell cell) {
+            checkIndex(cellIndex, size());
+            Store store = row.store;
+            int index = row.position();
+            Cell old = store.getCell(index, cellIndex);
+            store.setCell(index, cellIndex, cell);
+            return old;
+        }
+
+        @Override
+        public void add(int cellIndex, Cell cell) {
+            int count = size();
+            checkIndex(cellIndex, count + 1);
+            Store store = row.store;
+            int index = row.position();
+            for (int c = count; c > cellIndex; c--) {
+                store.setRaw(index, c, store.rawValue(index, c - 1), store.recon(index, c - 1));
+            }
+            store.setCell(index, cellIndex, cell);
+            store.cellCounts[index] = count + 1;
+            modCount++;
+        }
+
+        @Override
+        public Cell remove(int cellIndex) {
+            int count = size();
+            checkIndex(cellIndex, count);
+            Store store = row.store;
+            int index = row.position();
+            Cell old = store.getCell(index, cellIndex);
+            for (int c = cellIndex; c < count - 1; c++) {
+                store.setRaw(index, c, store.rawValue(index, c + 1), store.recon(index, c + 1));
+            }
+            store.setRaw(index, count - 1, null, null);
+            store.cellCounts[index] = count - 1;
+            modCount++;
+            return old;
+        }
+    }
+
+    static private void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+
+    @Override
+    public int size() {
+        return store.size;
+    }
+
+    @Override
+    public Row get(int index) {
+        checkIndex(index, store.size);
+        return store.cellCounts[index] < 0 ? null : store.view(index);
+    }
+
+    @Override
+    public Row set(int index, Row row) {
+        checkIndex(index, store.size);
+        if (getPosition(row) == index) {
+            // a view of this row, whose flags are written back
+            store.writeFlags(index, row);
+            return row;
+        }
+        Row old = store.release(index);
+        if (old == null) {
+            old = store.detach(index);
+        }
+        store.write(index, row);
+        // the views of the replaced row which are not tracked must not read the new one
+        store.moves++;
+        return old;
+    }
+
+    @Override
+    public void add(int index, Row row) {
+        checkIndex(index, store.size + 1);
+        Row added = movable(index, row);
+        store.ensureCapacity(store.size + 1);
+        if (index < store.size) {
+            store.shift(index, 1);
+        }
+        store.size++;
+        store.write(index, added);
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Row> rows) {
+        checkIndex(index, store.size + 1);
+        List<Row> added = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            added.add(movable(index, row));
+        }
+        int count = added.size();
+        store.ensureCapacity(store.size + count);
+        if (index < store.size) {
+            store.shift(index, count);
+        }
+        store.size += count;
+        for (int i = 0; i < count; i++) {
+            store.write(index + i, added.get(i));
+        }
+        modCount++;
+        return count > 0;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Row> rows) {
+        return addAll(store.size, rows);
+    }
+
+    // views of this list which are not tracked do not follow a shift, so they are copied first
+    private Row movable(int index, Row row) {
+        return index < store.size && row instanceof RowView && ((RowView) row).store == store
+                && !store.isTracked((RowView) row) ? row.dup() : row;
+    }
+
+    @Override
+    public Row remove(int index) {
+        checkIndex(index, store.size);
+        Row old = store.release(index);
+        if (old == null) {
+            old = store.detach(index);
+        }
+        for (int c = 0; c < store.columns.length; c++) {
+            store.countOffHeap(store.rawValue(index, c), -1);
+        }
+        store.shift(index + 1, -1);
+        store.size--;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        // rows obtained before remain readable from the previous store
+        store = new Store(16);
+        modCount++;
+    }
+
+    /**
+     * @return a copy of this list, which is not affected by later changes to it. Cells are shared, so copying only
+     *         costs one array copy per column.
+     */
+    public ColumnarRowList copy() {
+        return new ColumnarRowList(new Store(store));
+    }
+
+    /**
+     * @return the number of tracked views, at most {@link #TRACKED_VIEWS}
+     */
+    public int getViewCount() {
+        synchronized (store) {
+            return store.views.size();
+        }
+    }
+
+    /**
+     * @return the number of rows the columns have room for
+     */
+    public int getCapacity() {
+        return store.capacity;
+    }
+
+    /**
+     * @return the number of bytes held off-heap by the strings of this list
+     */
+    public long getOffHeapBytes() {
+        return store.offHeapBytes;
+    }
+
+    /**
+     * @return whether the value of a cell of the row at the given position is a string stored off-heap
+     */
+    public boolean isOffHeap(int index, int cellIndex) {
+        checkIndex(index, store.size);
+        return store.rawValue(index, cellIndex) instanceof OffHeapText;
+    }
+
+    /**
+     * @return the number of cell indices which have values
+     */
+    public int getCellIndexCount() {
+        return store.columns.length;
+    }
+
+    /**
+     * @return whether some cells of the given cell index are reconciled
+     */
+    public boolean hasRecons(int cellIndex) {
+        return cellIndex < store.columns.length && store.columns[cellIndex] != null
+                && store.columns[cellIndex].recons != null;
+    }
+
+    /**
+     * @return the dictionary of the given cell index if its values are dictionary-encoded, or null
+     */
+    public Dictionary getDictionary(int cellIndex) {
+        Vector column = cellIndex < store.columns.length ? store.columns[cellIndex] : null;
+        return column instanceof DictionaryVector ? ((DictionaryVector) column).dictionary : null;
+    }
+
+    /**
+     * Returns the code of a cell in the {@link #getDictionary(int) dictionary} of its cell index, so that the value of
+     * many rows can be tested by testing each distinct value once.
+     *
+     * @param row
+     *            a row obtained from this list, since it was last cleared
+     * @return the code of the value of the cell, 0 if there is no cell, or -1 if the row is not a row of this list or
+     *         the cell index is not dictionary-encoded
+     */
+    public int getCode(Row row, int cellIndex) {
+        int index = getPosition(row);
+        Vector column = cellIndex < store.columns.length ? store.columns[cellIndex] : null;
+        if (index < 0 || !(column instanceof DictionaryVector)) {
+            return -1;
+        }
+        return cellIndex < store.cellCounts[index] ? ((DictionaryVector) column).codes[index] : 0;
+    }
+
+    /**
+     * @param row
+     *            a row obtained from this list, since it was last cleared
+     * @return the position of the row in this list, or -1 if it is not a row of this list
+     */
+    public int getPosition(Row row) {
+        return row instanceof RowView && ((RowView) row).store == store && ((RowView) row).isCurrent()
+                ? ((RowView) row).index
+                : -1;
+    }
+
+    /**
+     * @return whether the cells of the given cell index all hold numbers or no value, stored as primitives which can be
+     *         read with {@link #hasNumber(int, int)} and {@link #getDouble(int, int)}
+     */
+    public boolean isNumeric(int cellIndex) {
+        return cellIndex >= 0 && cellIndex < store.columns.length && store.columns[cellIndex] instanceof NumberVector;
+    }
+
+    /**
+     * @return the cell of the row at the given position, or null. Unlike {@link #get(int)}, this creates no view of the
+     *         row.
+     */
+    public Cell getCell(int index, int cellIndex) {
+        checkIndex(index, store.size);
+        return cellIndex < store.cellCounts[index] ? store.getCell(index, cellIndex) : null;
+    }
+
+    /**
+     * @return whether the row at the given position has a number in a {@link #isNumeric(int) numeric} cell index.
+     *         Otherwise the row has no cell or a cell without value at that index.
+     */
+    public boolean hasNumber(int index, int cellIndex) {
+        checkIndex(index, store.size);
+        return cellIndex < store.cellCounts[index] && ((NumberVector) store.columns[cellIndex]).present.get(index);
+    }
+
+    /**
+     * @return the number of the row at the given position in a {@link #isNumeric(int) numeric} cell index, which must
+     *         {@link #hasNumber(int, int) have one}
+     */
+    public double getDouble(int index, int cellIndex) {
+        checkIndex(index, store.size);
+        return ((NumberVector) store.columns[cellIndex]).getDouble(index);
+    }
+}
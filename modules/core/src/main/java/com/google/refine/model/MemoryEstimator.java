@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.io.Serializable;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.refine.LookupCacheManager;
+import com.google.refine.LookupCacheManager.ProjectLookup;
+import com.google.refine.history.ChangeCache;
+
+/**
+ * Rough estimates of the heap used by projects, for memory budgets and capacity planning. Large row lists are sampled
+ * rather than walked, so that estimating stays cheap. The estimates assume a 64-bit JVM with compressed references.
+ */
+public class MemoryEstimator {
+
+    /**
+     * Maximum number of rows looked at to estimate the size of a list of rows.
+     */
+    static final public int SAMPLE_SIZE = 1000;
+
+    static final protected int OBJECT_HEADER = 16;
+    static final protected int REFERENCE = 4;
+    static final protected int ROW_BYTES = OBJECT_HEADER + 8 + 24 + OBJECT_HEADER; // row, its cell list and array
+    static final protected int CELL_BYTES = OBJECT_HEADER + 2 * REFERENCE;
+    static final protected int ROW_VIEW_BYTES = 2 * OBJECT_HEADER + 24; // row view and its cell list
+    static final protected int STRING_BYTES = OBJECT_HEADER + 8 + OBJECT_HEADER; // string and its byte array
+    static final protected int BOXED_BYTES = OBJECT_HEADER + 8;
+    static final protected int TEMPORAL_BYTES = 80;
+    static final protected int OTHER_VALUE_BYTES = 64;
+    static final protected int RECON_BYTES = 120;
+    static final protected int CANDIDATE_BYTES = 80;
+    static final protected int COLUMN_BYTES = 200;
+    static final protected int ROW_DEPENDENCY_BYTES = OBJECT_HEADER + 4 + 2 * REFERENCE;
+    static final protected int CELL_DEPENDENCY_BYTES = OBJECT_HEADER + 8;
+    static final protected int RECORD_BYTES = OBJECT_HEADER + 12;
+    static final protected int LIST_BYTES = OBJECT_HEADER + 8 + OBJECT_HEADER; // array list and its array
+    static final protected int MAP_ENTRY_BYTES = OBJECT_HEADER + 4 + 3 * REFERENCE + REFERENCE; // and its table slot
+
+    /**
+     * Implemented by objects kept alongside a project, such as column precomputes, which can estimate their own size.
+     */
+    public interface Sized {
+
+        /**
+         * @return the number of bytes used on the heap
+         */
+        long estimateBytes();
+    }
+
+    /**
+     * Estimates the heap used by the rows and columns of a project. Only the rows which are in memory are counted: for
+     * a {@link PagedRowList}, those of the resident pages.
+     */
+    static public long estimate(Project project) {
+        long bytes = estimateRowStore(project);
+        if (project.columnModel != null) {
+            bytes += (long) project.columnModel.columns.size() * COLUMN_BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimates the memory used by a project, item by item. Unlike {@link #estimate(Project)}, this also walks the
+     * precomputes of its columns, its record model, the lookups other projects made on it and its loaded changes.
+     *
+     * @param lookupCacheManager
+     *            the manager holding the lookups, or null to leave them out
+     */
+    static public MemoryFootprint itemise(Project project, LookupCacheManager lookupCacheManager) {
+        MemoryFootprint footprint = new MemoryFootprint();
+        footprint.rows = estimateRowStore(project);
+        footprint.offHeap = estimateOffHeap(project);
+        if (project.columnModel != null) {
+            footprint.columns = (long) project.columnModel.columns.size() * COLUMN_BYTES;
+            for (Column column : project.columnModel.columns) {
+                long bytes = 0;
+                for (Object precompute : new ArrayList<>(column.getPrecomputes().values())) {
+                    bytes += estimatePrecompute(precompute);
+                }
+                if (bytes > 0) {
+                    footprint.precomputes.put(column.getName(), bytes);
+                }
+            }
+        }
+        footprint.recordModel = estimateRecordModel(project.recordModel, project.rows.size());
+        if (lookupCacheManager != null) {
+            for (ProjectLookup lookup : lookupCacheManager.getLookupsInvolvingProject(project.id)) {
+                footprint.lookups += estimateLookup(lookup);
+            }
+        }
+        footprint.changes = ChangeCache.singleton.getProjectSize(project.id);
+        return footprint;
+    }
+
+    /**
+     * Estimates the heap used by the rows of a project, whichever store holds them.
+     */
+    static public long estimateRowStore(Project project) {
+        if (project.rows instanceof ColumnarRowList) {
+            return estimateColumnarRows((ColumnarRowList) project.rows);
+        }
+        return estimateRows(project.rows instanceof PagedRowList ? ((PagedRowList) project.rows).getResidentRows()
+                : project.rows);
+    }
+
+    /**
+     * Estimates the heap used by a list of rows, from an evenly spread sample of at most {@link #SAMPLE_SIZE} of them.
+     */
+    static public long estimateRows(List<Row> rows) {
+        int size = rows.size();
+        if (size == 0) {
+            return 0;
+        }
+        int step = Math.max(1, size / SAMPLE_SIZE);
+        long sampled = 0;
+        int count = 0;
+        for (int i = 0; i < size; i += step) {
+            sampled += estimateRow(rows.get(i));
+            count++;
+        }
+        return (long) (sampled * ((double) size / count)) + (long) size * REFERENCE;
+    }
+
+    /**
+     * Estimates the heap used by a {@link ColumnarRowList}: its arrays, the distinct values of its dictionary-encoded
+     * columns, and the values and recons of a sample of the rows of its other columns. Cells cost no object, and rows
+     * only the views which were created.
+     */
+    static public long estimateColumnarRows(ColumnarRowList rows) {
+        long capacity = rows.getCapacity();
+        long bytes = capacity * (Integer.BYTES + REFERENCE) + (long) rows.getViewCount() * ROW_VIEW_BYTES;
+        int size = rows.size();
+        int step = Math.max(1, size / SAMPLE_SIZE);
+        for (int c = 0; c < rows.getCellIndexCount(); c++) {
+            boolean reconciled = rows.hasRecons(c);
+            bytes += capacity * REFERENCE * (reconciled ? 1 : 0);
+            ColumnarRowList.Dictionary dictionary = rows.getDictionary(c);
+            // whether the values are already counted, so that only recons are left to sample
+            boolean counted = dictionary != null || rows.isNumeric(c);
+            if (dictionary != null) {
+                bytes += capacity * Integer.BYTES;
+                for (int code = 1; code <= dictionary.size(); code++) {
+                    bytes += estimateValue(dictionary.getValue(code));
+                }
+            } else if (rows.isNumeric(c)) {
+                // one long and three bits per row
+                bytes += capacity * Long.BYTES + capacity * 3 / Byte.SIZE;
+            } else {
+                bytes += capacity * REFERENCE;
+            }
+            if (counted && !reconciled) {
+                continue;
+            }
+            long sampled = 0;
+            int count = 0;
+            for (int i = 0; i < size; i += step) {
+                if (rows.isOffHeap(i, c)) {
+                    // only the handle of the string is on the heap
+                    sampled += OTHER_VALUE_BYTES;
+                    count++;
+                    continue;
+                }
+                Cell cell = rows.getCell(i, c);
+                if (cell != null) {
+                    sampled += estimateCell(cell) - CELL_BYTES - (counted ? estimateValue(cell.value) : 0);
+                }
+                count++;
+            }
+            if (count > 0) {
+                bytes += (long) (sampled * ((double) size / count));
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the number of bytes held outside of the heap by the rows of a project
+     */
+    static public long estimateOffHeap(Project project) {
+        return project.rows instanceof ColumnarRowList ? ((ColumnarRowList) project.rows).getOffHeapBytes() : 0;
+    }
+
+    static public long estimatePrecompute(Object precompute) {
+        return precompute instanceof Sized ? ((Sized) precompute).estimateBytes() : OTHER_VALUE_BYTES;
+    }
+
+    /**
+     * Estimates the heap used by the row dependencies and records of a record model, from a sample of its rows.
+     */
+    static public long estimateRecordModel(RecordModel recordModel, int rowCount) {
+        long bytes = (long) recordModel.getRecordCount() * (RECORD_BYTES + REFERENCE);
+        if (rowCount == 0) {
+            return bytes;
+        }
+        int step = Math.max(1, rowCount / SAMPLE_SIZE);
+        long sampled = 0;
+        int count = 0;
+        for (int i = 0; i < rowCount; i += step) {
+            RecordModel.RowDependency dependency = recordModel.getRowDependency(i);
+            if (dependency != null) {
+                sampled += ROW_DEPENDENCY_BYTES;
+                if (dependency.cellDependencies != null) {
+                    sampled += OBJECT_HEADER
+                            + (long) dependency.cellDependencies.length * (REFERENCE + CELL_DEPENDENCY_BYTES);
+                }
+                if (dependency.contextRows != null) {
+                    sampled += LIST_BYTES + (long) dependency.contextRows.size() * (REFERENCE + OBJECT_HEADER);
+                }
+            }
+            count++;
+        }
+        return bytes + (long) (sampled * ((double) rowCount / count)) + (long) rowCount * REFERENCE;
+    }
+
+    /**
+     * Estimates the heap used by a lookup of values to row indices, from a sample of its values.
+     */
+    static public long estimateLookup(ProjectLookup lookup) {
+        int size = lookup.valueToRowIndices.size();
+        long sampled = 0;
+        int count = 0;
+        for (Iterator<Map.Entry<Object, List<Integer>>> it = lookup.valueToRowIndices.entrySet().iterator(); it.hasNext()
+                && count < SAMPLE_SIZE;) {
+            Map.Entry<Object, List<Integer>> entry = it.next();
+            sampled += MAP_ENTRY_BYTES + LIST_BYTES + (long) entry.getValue().size() * (REFERENCE + OBJECT_HEADER);
+            if (entry.getKey() instanceof Serializable) {
+                sampled += estimateValue((Serializable) entry.getKey());
+            }
+            count++;
+        }
+        return count == 0 ? 0 : (long) (sampled * ((double) size / count));
+    }
+
+    static public long estimateRow(Row row) {
+        if (row == null) {
+            return 0;
+        }
+        long bytes = ROW_BYTES + (long) row.cells.size() * REFERENCE;
+        for (Cell cell : row.cells) {
+            bytes += estimateCell(cell);
+        }
+        return bytes;
+    }
+
+    static public long estimateCell(Cell cell) {
+        if (cell == null) {
+            return 0;
+        }
+        long bytes = CELL_BYTES + estimateValue(cell.value);
+        if (cell.recon != null) {
+            bytes += RECON_BYTES;
+            if (cell.recon.candidates != null) {
+                bytes += (long) cell.recon.candidates.size() * CANDIDATE_BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    static public long estimateValue(Serializable value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof String) {
+            // compact strings use one byte per character when they can
+            return STRING_BYTES + ((String) value).length();
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return BOXED_BYTES;
+        } else if (value instanceof Temporal) {
+            return TEMPORAL_BYTES;
+        } else {
+            return OTHER_VALUE_BYTES;
+        }
+    }
+}
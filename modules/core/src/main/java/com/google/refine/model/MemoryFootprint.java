@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The memory used by a loaded project, item by item, as estimated by {@link MemoryEstimator#itemise}. All sizes are in
+ * bytes, and all but {@link #getOffHeap()} are on the heap.
+ */
+public class MemoryFootprint {
+
+    protected long rows;
+    protected long offHeap;
+    protected long columns;
+    protected final Map<String, Long> precomputes = new LinkedHashMap<>();
+    protected long recordModel;
+    protected long lookups;
+    protected long changes;
+
+    /**
+     * @return the rows and cells, including their values and recons
+     */
+    @JsonProperty("rows")
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the values of the rows stored outside of the heap
+     */
+    @JsonProperty("offHeap")
+    public long getOffHeap() {
+        return offHeap;
+    }
+
+    @JsonProperty("columns")
+    public long getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the values cached by the columns, such as the bins of range facets, by column name
+     */
+    @JsonProperty("precomputes")
+    public Map<String, Long> getPrecomputes() {
+        return Collections.unmodifiableMap(precomputes);
+    }
+
+    /**
+     * @return the row dependencies and records of the {@link RecordModel}
+     */
+    @JsonProperty("recordModel")
+    public long getRecordModel() {
+        return recordModel;
+    }
+
+    /**
+     * @return the lookups computed on this project by other projects, for the cross() function
+     */
+    @JsonProperty("lookups")
+    public long getLookups() {
+        return lookups;
+    }
+
+    /**
+     * @return the history changes which are loaded in memory
+     */
+    @JsonProperty("changes")
+    public long getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return the sum of all items on the heap
+     */
+    @JsonProperty("total")
+    public long getTotal() {
+        long total = rows + columns + recordModel + lookups + changes;
+        for (long bytes : precomputes.values()) {
+            total += bytes;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,1046 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.lang.ref.Cleaner.Cleanable;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.io.ColumnarRowCodec;
+import com.google.refine.util.Pool;
+
+/**
+ * Row store for projects which do not fit in the heap. Rows are split in pages of a few thousand rows, encoded with
+ * {@link ColumnarRowCodec} and kept in memory-mapped segment files, while only a bounded number of pages is decoded at
+ * any time. Decoded pages are evicted in least recently used order: a page is only encoded again if its rows changed
+ * since it was decoded.
+ * <p>
+ * Rows returned by this list stay part of it as long as they are referenced: when their page is evicted, they are
+ * weakly held and take the place of the decoded rows when the page is decoded again. A row whose cells change after its
+ * page was evicted is strongly held from then on, until its page is encoded again, so that the change is kept even if
+ * the caller drops the row before the page is decoded. Flags are only tracked that way for rows which are written back
+ * with {@link #set(int, Row)}, as RowFlagChange and RowStarChange do. Rows added to the list are copied, so changing a
+ * row after adding it does not change the list. Indexed access, as done by FilteredRows and GetRowsCommand, is cheap
+ * when it is mostly sequential.
+ * <p>
+ * Segment files are append-only: rewritten pages go to the end of the current segment, and a segment is deleted once
+ * none of its pages are live anymore and no {@link Snapshot} refers to it. The live pages of a segment made mostly of
+ * rewritten pages are copied to the current segment, so that it can be deleted.
+ */
+public class PagedRowList extends AbstractList<Row> implements RandomAccess {
+
+    /**
+     * System property setting the number of rows per page.
+     */
+    public static final String PAGE_SIZE_PROPERTY = "refine.rows.page_size";
+    /**
+     * System property setting the maximum number of decoded pages per project.
+     */
+    public static final String RESIDENT_PAGES_PROPERTY = "refine.rows.resident_pages";
+
+    public static final int DEFAULT_PAGE_SIZE = 2048;
+    public static final int DEFAULT_RESIDENT_PAGES = 128;
+    static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    final static Logger logger = LoggerFactory.getLogger("paged-row-list");
+
+    // releases the snapshots which are not referenced anymore
+    static final private Cleaner cleaner = Cleaner.create();
+
+    private final String prefix;
+    private final int pageSize;
+    private final int maxResidentPages;
+    private final int segmentSize;
+
+    // read by pages without recons
+    static final private Pool EMPTY_POOL = new Pool();
+
+    private final List<Page> pages = new ArrayList<>();
+    // index of the first row of each page, valid for the first pages.size() elements when startsValid is set
+    private int[] starts = new int[16];
+    private boolean startsValid = true;
+    private int lastPage = -1;
+    private int size;
+    // decoded pages, in access order
+    private final LinkedHashMap<Page, Page> resident = new LinkedHashMap<>(16, 0.75f, true);
+    // rows of evicted pages which are not referenced anymore
+    private final ReferenceQueue<Row> unreferenced = new ReferenceQueue<>();
+
+    // pages written by reorder(int[]) which are not part of the list yet
+    private final List<Page> reordered = new ArrayList<>();
+
+    private File dir;
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment current;
+    private int segmentCount;
+    private boolean closed;
+
+    public PagedRowList(long projectId) {
+        this("refine-rows-" + projectId + "-",
+                Math.max(1, Integer.getInteger(PAGE_SIZE_PROPERTY, DEFAULT_PAGE_SIZE)),
+                Math.max(2, Integer.getInteger(RESIDENT_PAGES_PROPERTY, DEFAULT_RESIDENT_PAGES)),
+                DEFAULT_SEGMENT_SIZE);
+    }
+
+    protected PagedRowList(String prefix, int pageSize, int maxResidentPages, int segmentSize) {
+        this.prefix = prefix;
+        this.pageSize = pageSize;
+        this.maxResidentPages = maxResidentPages;
+        this.segmentSize = segmentSize;
+    }
+
+    static private class Page {
+
+        int size;
+        // decoded rows, or null if the page is not resident
+        List<Row> rows;
+        // cells and flags of the rows when they were decoded, to find out whether the page needs to be encoded again
+        Cell[][] loadedCells;
+        boolean[] loadedFlags;
+        // rows which were decoded before the page was evicted, by position, or null if none is referenced anymore
+        HeldRow[] held;
+        int heldCount;
+        // rows of the evicted page whose cells changed since it was evicted, until it is encoded again
+        Set<Row> pinned;
+        // whether cells of the rows changed since the page was encoded
+        boolean dirty;
+        // set once the page is not part of the list anymore
+        boolean removed;
+
+        Segment segment;
+        int offset;
+        int length;
+        // recons of the encoded rows, which they refer to by id, or null if they have none. It is rebuilt each time
+        // the page is encoded, so that it only holds the recons of the current rows.
+        Pool pool;
+
+        void capture() {
+            dirty = false;
+            loadedCells = new Cell[rows.size()][];
+            loadedFlags = new boolean[rows.size() * 2];
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = rows.get(i);
+                if (row != null) {
+                    loadedCells[i] = row.cells.toArray(new Cell[row.cells.size()]);
+                    loadedFlags[2 * i] = row.flagged;
+                    loadedFlags[2 * i + 1] = row.starred;
+                }
+            }
+        }
+
+        boolean isModified() {
+            if (dirty || segment == null || loadedCells == null || loadedCells.length != rows.size()) {
+                return true;
+            }
+            for (int i = 0; i < loadedCells.length; i++) {
+                Row row = rows.get(i);
+                Cell[] cells = loadedCells[i];
+                if (row == null || cells == null) {
+                    if (row != null || cells != null) {
+                        return true;
+                    }
+                    continue;
+                }
+                if (row.flagged != loadedFlags[2 * i] || row.starred != loadedFlags[2 * i + 1]
+                        || row.cells.size() != cells.length) {
+                    return true;
+                }
+                for (int j = 0; j < cells.length; j++) {
+                    // held rows have the cells of an earlier decoding
+                    if (row.cells.get(j) != cells[j] && !Objects.equals(row.cells.get(j), cells[j])) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Replaces the decoded rows by the held ones, which the page holds strongly from then on.
+         */
+        void attach() {
+            for (int i = 0; held != null && i < held.length; i++) {
+                Row row = held[i] == null ? null : held[i].get();
+                if (row != null) {
+                    rows.set(i, row);
+                }
+            }
+            if (pinned != null) {
+                dirty = true;
+                pinned = null;
+            }
+        }
+    }
+
+    /**
+     * Row of this list, which tells the list when its cells change.
+     */
+    private class PagedRow extends Row {
+
+        // page the row is part of, or null once it was removed from it
+        Page page;
+
+        PagedRow(TrackedCells cells, boolean flagged, boolean starred, Page page) {
+            super(cells, flagged, starred);
+            cells.row = this;
+            this.page = page;
+        }
+
+        PagedRowList getList() {
+            return PagedRowList.this;
+        }
+    }
+
+    private class TrackedCells extends AbstractList<Cell> implements RandomAccess {
+
+        final List<Cell> cells;
+        PagedRow row;
+
+        TrackedCells(List<Cell> cells) {
+            this.cells = cells;
+        }
+
+        @Override
+        public Cell get(int index) {
+            return cells.get(index);
+        }
+
+        @Override
+        public int size() {
+            return cells.size();
+        }
+
+        @Override
+        public Cell set(int index, Cell cell) {
+            Cell old = cells.set(index, cell);
+            touch(row);
+            return old;
+        }
+
+        @Override
+        public void add(int index, Cell cell) {
+            cells.add(index, cell);
+            touch(row);
+        }
+
+        @Override
+        public Cell remove(int index) {
+            Cell old = cells.remove(index);
+            touch(row);
+            return old;
+        }
+    }
+
+    static private class HeldRow extends WeakReference<Row> {
+
+        final Page page;
+        final int position;
+
+        HeldRow(Row row, Page page, int position, ReferenceQueue<Row> queue) {
+            super(row, queue);
+            this.page = page;
+            this.position = position;
+        }
+    }
+
+    static private class Segment {
+
+        final File file;
+        final RandomAccessFile raf;
+        final MappedByteBuffer buffer;
+        int used;
+        int live;
+        // number of unreleased snapshots reading from this segment
+        int retainers;
+
+        Segment(File file, int capacity) throws IOException {
+            this.file = file;
+            this.raf = new RandomAccessFile(file, "rw");
+            this.buffer = raf.getChannel().map(MapMode.READ_WRITE, 0, capacity);
+        }
+
+        byte[] read(int offset, int length) {
+            byte[] bytes = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset);
+            view.get(bytes);
+            return bytes;
+        }
+    }
+
+    @Override
+    synchronized public int size() {
+        return size;
+    }
+
+    @Override
+    synchronized public Row get(int index) {
+        checkIndex(index, size);
+        int k = locate(index);
+        return load(pages.get(k)).get(index - starts[k]);
+    }
+
+    @Override
+    synchronized public Row set(int index, Row row) {
+        checkIndex(index, size);
+        int k = locate(index);
+        Page page = pages.get(k);
+        List<Row> rows = load(page);
+        Row old = rows.get(index - starts[k]);
+        if (old != row) {
+            rows.set(index - starts[k], adopt(row, page));
+            detach(old);
+        }
+        return old;
+    }
+
+    @Override
+    synchronized public void add(int index, Row row) {
+        checkIndex(index, size + 1);
+        if (index == size) {
+            Page page = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+            if (page == null || page.size >= pageSize) {
+                page = new Page();
+                page.rows = new ArrayList<>(pageSize);
+                pages.add(page);
+                if (startsValid) {
+                    if (starts.length < pages.size()) {
+                        starts = Arrays.copyOf(starts, starts.length * 2);
+                    }
+                    starts[pages.size() - 1] = size;
+                }
+                resident.put(page, page);
+                evict(page);
+            }
+            load(page).add(adopt(row, page));
+            page.size++;
+        } else {
+            int k = locate(index);
+            Page page = pages.get(k);
+            load(page).add(index - starts[k], adopt(row, page));
+            page.size++;
+            startsValid = false;
+            if (page.size > 2 * pageSize) {
+                split(k);
+            }
+        }
+        size++;
+        modCount++;
+    }
+
+    @Override
+    synchronized public Row remove(int index) {
+        checkIndex(index, size);
+        int k = locate(index);
+        Page page = pages.get(k);
+        Row row = load(page).remove(index - starts[k]);
+        detach(row);
+        page.size--;
+        if (page.size == 0) {
+            pages.remove(k);
+            resident.remove(page);
+            page.removed = true;
+            free(page);
+        }
+        startsValid = false;
+        size--;
+        modCount++;
+        return row;
+    }
+
+    @Override
+    synchronized public void clear() {
+        for (Page page : pages) {
+            page.removed = true;
+        }
+        pages.clear();
+        resident.clear();
+        current = null;
+        for (Segment segment : new ArrayList<>(segments)) {
+            segment.live = 0;
+            releaseIfUnused(segment);
+        }
+        startsValid = true;
+        lastPage = -1;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Captures the current rows, so that they can be read or written out while this list keeps changing. Resident pages
+     * which were modified get encoded, so this costs at most the encoding of the resident pages.
+     */
+    synchronized public Snapshot snapshot() throws IOException {
+        ensureOpen();
+        for (Page page : resident.keySet()) {
+            store(page);
+        }
+        expunge();
+        for (Page page : pages) {
+            if (page.rows == null && page.held != null) {
+                // rows of an evicted page may have changed since
+                page.rows = decode(page);
+                page.capture();
+                page.attach();
+                store(page);
+                // the rows are written, so they only need to be held weakly again
+                page.rows = null;
+                page.loadedCells = null;
+                page.loadedFlags = null;
+            }
+        }
+        Snapshot snapshot = new Snapshot(pages.size(), size);
+        Set<Segment> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+        int start = 0;
+        for (int k = 0; k < pages.size(); k++) {
+            Page page = pages.get(k);
+            snapshot.segments[k] = page.segment;
+            snapshot.offsets[k] = page.offset;
+            snapshot.lengths[k] = page.length;
+            snapshot.pools[k] = page.pool;
+            snapshot.starts[k] = start;
+            start += page.size;
+            if (retained.add(page.segment)) {
+                page.segment.retainers++;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reorders the rows, so that the row at index {@code i} is the one which was at index {@code order[i]}. The new
+     * pages are written by chunks of as many rows as half of the resident pages hold, each chunk decoding once every
+     * page which has some of its rows. Rows are thus never all decoded at once, at the cost of decoding pages several
+     * times when rows are shuffled across the whole list. Rows which callers may still hold keep being part of the
+     * list.
+     *
+     * @param order
+     *            the former index of each row, which must be a permutation of the indices of the list
+     */
+    synchronized public void reorder(int[] order) {
+        ensureOpen();
+        if (order.length != size) {
+            throw new IllegalArgumentException("Expected " + size + " row indices, got " + order.length);
+        }
+        BitSet seen = new BitSet(size);
+        for (int index : order) {
+            if (index < 0 || index >= size || seen.get(index)) {
+                throw new IllegalArgumentException("Not a permutation of the row indices: " + index);
+            }
+            seen.set(index);
+        }
+        if (size == 0) {
+            return;
+        }
+        expunge();
+        locate(0);
+        List<Page> sources = new ArrayList<>(pages);
+        int[] sourceStarts = Arrays.copyOf(starts, pages.size());
+        int chunkSize = Math.max(1, maxResidentPages / 2) * pageSize;
+        try {
+            for (int from = 0; from < size; from += chunkSize) {
+                int to = Math.min(size, from + chunkSize);
+                // former index and position in the chunk of each row, sorted so that each page is read once
+                long[] moves = new long[to - from];
+                for (int i = from; i < to; i++) {
+                    moves[i - from] = ((long) order[i] << 32) | (i - from);
+                }
+                Arrays.sort(moves);
+
+                Row[] rows = new Row[to - from];
+                boolean[] held = new boolean[to - from];
+                int k = -1;
+                Page source = null;
+                List<Row> sourceRows = null;
+                for (long move : moves) {
+                    int index = (int) (move >>> 32);
+                    int position = (int) move;
+                    if (k < 0 || index >= sourceStarts[k] + source.size) {
+                        do {
+                            source = sources.get(++k);
+                        } while (index >= sourceStarts[k] + source.size);
+                        sourceRows = source.rows != null ? source.rows : decodeHeld(source);
+                    }
+                    int i = index - sourceStarts[k];
+                    rows[position] = sourceRows.get(i);
+                    // callers may hold the rows of resident pages and the held rows of evicted ones
+                    held[position] = source.rows != null
+                            || (source.held != null && source.held[i] != null && source.held[i].get() == rows[position]);
+                }
+
+                for (int start = 0; start < rows.length; start += pageSize) {
+                    int end = Math.min(rows.length, start + pageSize);
+                    Page page = new Page();
+                    page.rows = new ArrayList<>(Arrays.asList(rows).subList(start, end));
+                    page.size = end - start;
+                    rehome(page);
+                    reordered.add(page);
+                    store(page);
+                    page.held = new HeldRow[page.size];
+                    for (int i = start; i < end; i++) {
+                        if (held[i]) {
+                            page.held[i - start] = new HeldRow(rows[i], page, i - start, unreferenced);
+                            page.heldCount++;
+                        }
+                    }
+                    if (page.heldCount == 0) {
+                        page.held = null;
+                    }
+                    page.rows = null;
+                    page.loadedCells = null;
+                    page.loadedFlags = null;
+                }
+            }
+        } catch (IOException e) {
+            for (Page page : reordered) {
+                page.removed = true;
+                free(page);
+            }
+            reordered.clear();
+            for (Page page : sources) {
+                rehome(page);
+            }
+            throw new UncheckedIOException(e);
+        }
+
+        for (Page page : sources) {
+            page.removed = true;
+            free(page);
+        }
+        pages.clear();
+        pages.addAll(reordered);
+        reordered.clear();
+        resident.clear();
+        startsValid = false;
+        lastPage = -1;
+        modCount++;
+    }
+
+    /**
+     * @return the number of pages currently decoded in memory
+     */
+    synchronized public int getResidentPageCount() {
+        return resident.size();
+    }
+
+    /**
+     * @return the rows of the pages currently decoded in memory, without decoding any other page
+     */
+    synchronized public List<Row> getResidentRows() {
+        List<Row> rows = new ArrayList<>();
+        for (Page page : resident.keySet()) {
+            rows.addAll(page.rows);
+        }
+        return rows;
+    }
+
+    /**
+     * @return the number of recons the encoded pages refer to, counted once per page
+     */
+    synchronized public int getReconCount() {
+        int count = 0;
+        for (Page page : pages) {
+            count += page.pool == null ? 0 : page.pool.getReconCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of segment files currently in use
+     */
+    synchronized public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Deletes the segment files. The list must not be used anymore afterwards.
+     */
+    synchronized public void close() {
+        closed = true;
+        for (Page page : pages) {
+            page.removed = true;
+        }
+        pages.clear();
+        resident.clear();
+        size = 0;
+        current = null;
+        for (Segment segment : new ArrayList<>(segments)) {
+            release(segment);
+        }
+        if (dir != null) {
+            dir.delete();
+        }
+    }
+
+    private void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Paged row list was closed");
+        }
+    }
+
+    private int locate(int index) {
+        if (!startsValid) {
+            if (starts.length < pages.size()) {
+                starts = new int[Math.max(pages.size(), starts.length * 2)];
+            }
+            int start = 0;
+            for (int k = 0; k < pages.size(); k++) {
+                starts[k] = start;
+                start += pages.get(k).size;
+            }
+            startsValid = true;
+        }
+        // most accesses are sequential, so try the page of the previous access first
+        if (lastPage >= 0 && lastPage < pages.size() && starts[lastPage] <= index
+                && index < starts[lastPage] + pages.get(lastPage).size) {
+            return lastPage;
+        }
+        int low = 0;
+        int high = pages.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (starts[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        lastPage = low;
+        return low;
+    }
+
+    private List<Row> load(Page page) {
+        ensureOpen();
+        if (page.rows != null) {
+            resident.get(page);
+            return page.rows;
+        }
+        expunge();
+        try {
+            page.rows = decode(page);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        page.capture();
+        page.attach();
+        page.held = null;
+        page.heldCount = 0;
+        resident.put(page, page);
+        evict(page);
+        return page.rows;
+    }
+
+    private List<Row> decode(Page page) throws IOException {
+        List<Row> rows = ColumnarRowCodec.read(new ByteArrayInputStream(page.segment.read(page.offset, page.length)),
+                page.pool == null ? EMPTY_POOL : page.pool, false);
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            if (row != null) {
+                rows.set(i, new PagedRow(new TrackedCells(row.cells), row.flagged, row.starred, page));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return the rows of an evicted page, the held ones in place of the decoded ones
+     */
+    private List<Row> decodeHeld(Page page) throws IOException {
+        List<Row> rows = decode(page);
+        for (int i = 0; page.held != null && i < page.held.length; i++) {
+            Row row = page.held[i] == null ? null : page.held[i].get();
+            if (row != null) {
+                rows.set(i, row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Makes the rows of a page, or its held rows if it is evicted, point to it.
+     */
+    private void rehome(Page page) {
+        if (page.rows != null) {
+            for (Row row : page.rows) {
+                if (row != null) {
+                    ((PagedRow) row).page = page;
+                }
+            }
+        }
+        for (int i = 0; page.held != null && i < page.held.length; i++) {
+            Row row = page.held[i] == null ? null : page.held[i].get();
+            if (row != null) {
+                ((PagedRow) row).page = page;
+            }
+        }
+    }
+
+    /**
+     * @return the row to store in a page in place of the supplied one, which is a copy unless it is a row of this list
+     *         which was removed from it
+     */
+    private Row adopt(Row row, Page page) {
+        if (row == null) {
+            return null;
+        }
+        if (row instanceof PagedRow) {
+            PagedRow paged = (PagedRow) row;
+            if (paged.getList() == this && (paged.page == null || paged.page.removed)) {
+                paged.page = page;
+                return paged;
+            }
+        }
+        return new PagedRow(new TrackedCells(new ArrayList<>(row.cells)), row.flagged, row.starred, page);
+    }
+
+    private void detach(Row row) {
+        if (row instanceof PagedRow) {
+            ((PagedRow) row).page = null;
+        }
+    }
+
+    /**
+     * Called when cells of a row change. If its page is evicted, the row is held strongly until the page is encoded
+     * again, since the caller may not hold it anymore by then.
+     */
+    synchronized private void touch(PagedRow row) {
+        Page page = row.page;
+        if (page == null || page.removed) {
+            return;
+        }
+        page.dirty = true;
+        if (page.rows == null) {
+            if (page.pinned == null) {
+                page.pinned = Collections.newSetFromMap(new IdentityHashMap<>());
+            }
+            page.pinned.add(row);
+        }
+    }
+
+    private void evict(Page keep) {
+        Iterator<Page> iterator = resident.keySet().iterator();
+        while (resident.size() > maxResidentPages && iterator.hasNext()) {
+            Page page = iterator.next();
+            if (page != keep) {
+                try {
+                    store(page);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                hold(page);
+                page.rows = null;
+                page.loadedCells = null;
+                page.loadedFlags = null;
+                iterator.remove();
+            }
+        }
+        expunge();
+    }
+
+    /**
+     * Keeps weak references to the rows of a page which gets evicted, since callers may still hold some of them.
+     */
+    private void hold(Page page) {
+        page.held = new HeldRow[page.rows.size()];
+        page.heldCount = 0;
+        for (int i = 0; i < page.held.length; i++) {
+            Row row = page.rows.get(i);
+            if (row != null) {
+                page.held[i] = new HeldRow(row, page, i, unreferenced);
+                page.heldCount++;
+            }
+        }
+        if (page.heldCount == 0) {
+            page.held = null;
+        }
+    }
+
+    /**
+     * Forgets the held rows which are not referenced anymore.
+     */
+    private void expunge() {
+        HeldRow ref;
+        while ((ref = (HeldRow) unreferenced.poll()) != null) {
+            Page page = ref.page;
+            // the page may have been decoded and evicted again since
+            if (page.held != null && ref.position < page.held.length && page.held[ref.position] == ref) {
+                page.held[ref.position] = null;
+                if (--page.heldCount == 0) {
+                    page.held = null;
+                }
+            }
+        }
+    }
+
+    private void split(int k) {
+        Page page = pages.get(k);
+        Page next = new Page();
+        List<Row> tail = page.rows.subList(page.size / 2, page.size);
+        next.rows = new ArrayList<>(tail);
+        next.size = next.rows.size();
+        tail.clear();
+        rehome(next);
+        page.size = page.rows.size();
+        pages.add(k + 1, next);
+        resident.put(next, next);
+        evict(next);
+    }
+
+    private void store(Page page) throws IOException {
+        if (!page.isModified()) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Pool pool = new Pool();
+        ColumnarRowCodec.write(page.rows, pool, bytes);
+        free(page);
+        page.pool = pool.getReconCount() == 0 ? null : pool;
+        append(page, bytes.toByteArray());
+        page.capture();
+        compact();
+    }
+
+    private void append(Page page, byte[] bytes) throws IOException {
+        int length = bytes.length;
+        if (current == null || current.buffer.capacity() - current.used < length) {
+            Segment previous = current;
+            current = newSegment(Math.max(segmentSize, length));
+            if (previous != null) {
+                releaseIfUnused(previous);
+            }
+        }
+        ByteBuffer view = current.buffer.duplicate();
+        view.position(current.used);
+        view.put(bytes);
+        page.segment = current;
+        page.offset = current.used;
+        page.length = length;
+        current.used += length;
+        current.live += length;
+    }
+
+    /**
+     * Copies the live pages of the segments which are mostly made of rewritten pages to the current segment, so that
+     * these segments can be deleted. This copies fewer bytes than it frees, and does not decode the pages.
+     */
+    private void compact() throws IOException {
+        for (Segment segment : new ArrayList<>(segments)) {
+            if (segment != current && segment.live > 0 && segment.live < segment.used - segment.live) {
+                for (List<Page> list : Arrays.asList(pages, reordered)) {
+                    for (Page page : list) {
+                        if (page.segment == segment) {
+                            byte[] bytes = segment.read(page.offset, page.length);
+                            segment.live -= page.length;
+                            append(page, bytes);
+                        }
+                    }
+                }
+                releaseIfUnused(segment);
+            }
+        }
+    }
+
+    private void free(Page page) {
+        Segment segment = page.segment;
+        if (segment != null) {
+            page.segment = null;
+            segment.live -= page.length;
+            releaseIfUnused(segment);
+        }
+    }
+
+    private Segment newSegment(int capacity) throws IOException {
+        if (dir == null) {
+            dir = Files.createTempDirectory(prefix).toFile();
+            dir.deleteOnExit();
+        }
+        File file = new File(dir, "segment-" + (segmentCount++) + ".bin");
+        file.deleteOnExit();
+        Segment segment = new Segment(file, capacity);
+        segments.add(segment);
+        return segment;
+    }
+
+    private void releaseIfUnused(Segment segment) {
+        if (segment.live == 0 && segment.retainers == 0 && segment != current) {
+            release(segment);
+        }
+    }
+
+    private void release(Segment segment) {
+        segments.remove(segment);
+        try {
+            segment.raf.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close row segment {}", segment.file, e);
+        }
+        // the mapping itself goes away once the buffer is garbage collected
+        if (!segment.file.delete()) {
+            logger.warn("Failed to delete row segment {}", segment.file);
+        }
+    }
+
+    /**
+     * Read-only view of the rows of a {@link PagedRowList} at the time {@link PagedRowList#snapshot()} was called. It
+     * must be released once it is not needed anymore, so that the segments it refers to can be deleted.
+     */
+    public class Snapshot extends AbstractList<Row> implements RandomAccess {
+
+        private final Segment[] segments;
+        private final int[] offsets;
+        private final int[] lengths;
+        private final Pool[] pools;
+        private final int[] starts;
+        private final int size;
+        private int cachedPage = -1;
+        private List<Row> cachedRows;
+        private final Cleanable cleanable;
+
+        private Snapshot(int pageCount, int size) {
+            this.segments = new Segment[pageCount];
+            this.offsets = new int[pageCount];
+            this.lengths = new int[pageCount];
+            this.pools = new Pool[pageCount];
+            this.starts = new int[pageCount];
+            this.size = size;
+            this.cleanable = cleaner.register(this, new Retention(PagedRowList.this, segments));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        synchronized public Row get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            int k = Arrays.binarySearch(starts, index);
+            if (k < 0) {
+                k = -k - 2;
+            }
+            if (k != cachedPage) {
+                try {
+                    // the pool of a page is not modified once the page is encoded
+                    cachedRows = ColumnarRowCodec.read(
+                            new ByteArrayInputStream(segments[k].read(offsets[k], lengths[k])),
+                            pools[k] == null ? EMPTY_POOL : pools[k], false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                cachedPage = k;
+            }
+            return cachedRows.get(index - starts[k]);
+        }
+
+        /**
+         * Writes the encoded pages one after the other, as consecutive blocks which
+         * {@link ColumnarRowCodec#read(java.io.InputStream, Pool)} concatenates, and pools their recons in the supplied
+         * pool.
+         */
+        public void writeTo(OutputStream out, Pool target) throws IOException {
+            for (int k = 0; k < segments.length; k++) {
+                out.write(segments[k].read(offsets[k], lengths[k]));
+            }
+            out.flush();
+            for (Pool pool : pools) {
+                if (pool != null) {
+                    target.poolAll(pool);
+                }
+            }
+        }
+
+        /**
+         * Lets the segments this snapshot reads from be deleted. This is also done once the snapshot is garbage
+         * collected, for snapshots which are kept as long as something else is, such as the rows a change restores.
+         */
+        public void release() {
+            cleanable.clean();
+        }
+    }
+
+    static private class Retention implements Runnable {
+
+        final PagedRowList list;
+        final Segment[] segments;
+
+        Retention(PagedRowList list, Segment[] segments) {
+            this.list = list;
+            this.segments = segments;
+        }
+
+        @Override
+        public void run() {
+            synchronized (list) {
+                Set<Segment> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (Segment segment : segments) {
+                    if (retained.add(segment)) {
+                        segment.retainers--;
+                        if (!list.closed) {
+                            list.releaseIfUnused(segment);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -39,25 +39,34 @@ import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.InjectableValues;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.refine.ProjectManager;
 import com.google.refine.ProjectMetadata;
 import com.google.refine.RefineServlet;
+import com.google.refine.browsing.util.FacetCache;
+import com.google.refine.browsing.util.FilterMaskCache;
+import com.google.refine.history.ChangeCache;
 import com.google.refine.history.History;
+import com.google.refine.history.HistoryEntry;
 import com.google.refine.process.ProcessManager;
+import com.google.refine.util.ParallelDecoder;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.Pool;
 
@@ -69,17 +78,40 @@ public class Project {
     final static protected Map<String, Class<? extends OverlayModel>> s_overlayModelClasses = new HashMap<String, Class<? extends OverlayModel>>();
 
     final public long id;
-    final public List<Row> rows = new ArrayList<>();
+    final public List<Row> rows;
     final public ColumnModel columnModel = new ColumnModel();
     final public RecordModel recordModel = new RecordModel();
     final public Map<String, OverlayModel> overlayModels = new HashMap<String, OverlayModel>();
     final public History history;
 
     transient public ProcessManager processManager = new ProcessManager();
+    transient final public FilterMaskCache filterMaskCache = new FilterMaskCache();
+    transient final public FacetCache facetCache = new FacetCache();
     transient private Instant _lastSave = Instant.now();
 
     final static Logger logger = LoggerFactory.getLogger(Project.class);
 
+    /**
+     * Preference, either of a project or of the workspace, choosing how the rows of projects are stored.
+     */
+    static public final String ROW_STORE_PREFERENCE = "rows.store";
+    /**
+     * System property choosing how the rows of projects are stored, taking precedence over the workspace preference.
+     */
+    static public final String ROW_STORE_PROPERTY = "refine.rows.store";
+    /**
+     * Rows are kept on the heap.
+     */
+    static public final String MEMORY_ROW_STORE = "memory";
+    /**
+     * Rows are kept in memory-mapped files, see {@link PagedRowList}.
+     */
+    static public final String PAGED_ROW_STORE = "paged";
+    /**
+     * Rows are kept on the heap, one array per column, see {@link ColumnarRowList}.
+     */
+    static public final String COLUMNAR_ROW_STORE = "columnar";
+
     static public long generateID() {
         return System.currentTimeMillis() + Math.round(Math.random() * 1000000000000L);
     }
@@ -88,7 +120,7 @@ public class Project {
      * Create a new project with a generated unique ID
      */
     public Project() {
-        this(generateID());
+        this(generateID(), getDefaultRowStore());
     }
 
     /**
@@ -98,10 +130,63 @@ public class Project {
      *            long ID to be assigned the new project
      */
     protected Project(long id) {
+        this(id, MEMORY_ROW_STORE);
+    }
+
+    protected Project(long id, String rowStore) {
+        this(id, createRowList(id, rowStore));
+    }
+
+    protected Project(long id, List<Row> rows) {
         this.id = id;
+        this.rows = rows;
         this.history = new History(this);
     }
 
+    /**
+     * @param rowStore
+     *            {@link #PAGED_ROW_STORE} for rows kept in memory-mapped files, {@link #COLUMNAR_ROW_STORE} for rows
+     *            kept in columns on the heap, or any other value to keep them on the heap as row objects
+     * @return an empty list of rows for the project
+     */
+    static public List<Row> createRowList(long projectId, String rowStore) {
+        if (PAGED_ROW_STORE.equals(rowStore)) {
+            return new PagedRowList(projectId);
+        } else if (COLUMNAR_ROW_STORE.equals(rowStore)) {
+            return new ColumnarRowList();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * @return the row store set in the preferences of the project, or the default one
+     */
+    static public String getRowStore(long projectId) {
+        ProjectMetadata metadata = ProjectManager.singleton == null ? null
+                : ProjectManager.singleton.getProjectMetadata(projectId);
+        if (metadata != null) {
+            Object rowStore = metadata.getPreferenceStore().get(ROW_STORE_PREFERENCE);
+            if (rowStore instanceof String) {
+                return (String) rowStore;
+            }
+        }
+        return getDefaultRowStore();
+    }
+
+    /**
+     * @return the row store of new projects, set by system property or in the preferences of the workspace
+     */
+    static public String getDefaultRowStore() {
+        String rowStore = System.getProperty(ROW_STORE_PROPERTY);
+        if (rowStore == null && ProjectManager.singleton != null && ProjectManager.singleton.getPreferenceStore() != null) {
+            Object preference = ProjectManager.singleton.getPreferenceStore().get(ROW_STORE_PREFERENCE);
+            if (preference instanceof String) {
+                rowStore = (String) preference;
+            }
+        }
+        return rowStore == null ? MEMORY_ROW_STORE : rowStore;
+    }
+
     static public void registerOverlayModel(String modelName, Class<? extends OverlayModel> klass) {
         s_overlayModelClasses.put(modelName, klass);
     }
@@ -118,9 +203,29 @@ public class Project {
             }
         }
         ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProject(this.id);
+        ChangeCache.singleton.removeProject(this.id);
+        if (rows instanceof PagedRowList) {
+            ((PagedRowList) rows).close();
+        }
         // The rest of the project should get garbage collected when we return.
     }
 
+    /**
+     * Replaces the rows, columns and overlay models of this project by those of another instance of it, such as one
+     * loaded from a history checkpoint. The history is left untouched.
+     */
+    public void restoreState(Project saved) {
+        synchronized (this) {
+            rows.clear();
+            rows.addAll(saved.rows);
+            columnModel.restore(saved.columnModel);
+            overlayModels.clear();
+            overlayModels.putAll(saved.overlayModels);
+            ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProject(id);
+            update();
+        }
+    }
+
     public Instant getLastSave() {
         return this._lastSave;
     }
@@ -132,30 +237,153 @@ public class Project {
         this._lastSave = Instant.now();
     }
 
+    /**
+     * Sets the lastSave time to the moment the saved state was captured, so that changes made while a snapshot was
+     * being written still count as unsaved.
+     */
+    public void setLastSave(Instant lastSave) {
+        this._lastSave = lastSave;
+    }
+
     public ProjectMetadata getMetadata() {
         return ProjectManager.singleton.getProjectMetadata(id);
     }
 
     public void saveToOutputStream(OutputStream out, Pool pool) throws IOException {
-        for (OverlayModel overlayModel : overlayModels.values()) {
-            try {
-                overlayModel.onBeforeSave(this);
-            } catch (Exception e) {
-                logger.warn("Error signaling overlay model before saving", e);
-            }
-        }
+        saveToOutputStream(out, pool, null);
+    }
+
+    /**
+     * Saves the project, optionally leaving out its rows.
+     *
+     * @param rowStore
+     *            if not null, the name of the format in which the rows are stored separately by the caller. Only this
+     *            name is recorded in place of the rows.
+     */
+    public void saveToOutputStream(OutputStream out, Pool pool, String rowStore) throws IOException {
+        notifyBeforeSave();
 
         Writer writer = new OutputStreamWriter(out, "UTF-8");
         try {
             Properties options = new Properties();
             options.setProperty("mode", "save");
             options.put("pool", pool);
+            if (rowStore != null) {
+                options.setProperty("rowStore", rowStore);
+            }
 
             saveToWriter(writer, options);
         } finally {
             writer.flush();
         }
 
+        notifyAfterSave();
+    }
+
+    /**
+     * Captures the state of the project which gets saved, so that it can be written out without holding the project
+     * lock. The column model, history and overlay models are serialized right away, while rows are copied (sharing
+     * their immutable cells), or captured as encoded pages for a {@link PagedRowList}. Overlay models are notified of
+     * the save around the capture.
+     *
+     * @return a snapshot of the project at its current history entry
+     */
+    public ProjectSnapshot snapshot() throws IOException {
+        synchronized (this) {
+            notifyBeforeSave();
+            String header = saveHeader();
+
+            List<Row> rowCopies;
+            if (rows instanceof PagedRowList) {
+                // pages are encoded, so they are not affected by later changes
+                rowCopies = ((PagedRowList) rows).snapshot();
+            } else if (rows instanceof ColumnarRowList) {
+                rowCopies = ((ColumnarRowList) rows).copy();
+            } else {
+                rowCopies = new ArrayList<>(rows.size());
+                copyRows(rowCopies, 0, rows.size());
+            }
+
+            notifyAfterSave();
+            return newSnapshot(header, rowCopies);
+        }
+    }
+
+    /**
+     * Captures the state of the project like {@link #snapshot()}, without holding the project lock while all rows are
+     * copied: rows which are not paged or columnar are copied a chunk at a time, each chunk under the project lock, so
+     * that edits are not blocked for the whole copy.
+     *
+     * @param chunkSize
+     *            the number of rows copied under the lock at a time
+     * @return a snapshot of the project at its current history entry, or null if the project was edited during the copy
+     */
+    public ProjectSnapshot snapshot(int chunkSize) throws IOException {
+        ProjectSnapshot snapshot;
+        List<Row> rowCopies;
+        int count;
+        synchronized (this) {
+            if (rows instanceof PagedRowList || rows instanceof ColumnarRowList) {
+                // capturing those is already cheap
+                return snapshot();
+            }
+            notifyBeforeSave();
+            count = rows.size();
+            rowCopies = new ArrayList<>(count);
+            snapshot = newSnapshot(saveHeader(), rowCopies);
+            notifyAfterSave();
+        }
+        for (int start = 0; start < count; start += chunkSize) {
+            synchronized (this) {
+                if (history.getLastEntryID() != snapshot.lastEntryId || rows.size() != count) {
+                    return null;
+                }
+                copyRows(rowCopies, start, Math.min(count, start + chunkSize));
+            }
+        }
+        return snapshot;
+    }
+
+    private String saveHeader() throws IOException {
+        Properties options = new Properties();
+        options.setProperty("mode", "save");
+        StringWriter header = new StringWriter();
+        saveHeader(header, options);
+        return header.toString();
+    }
+
+    private void copyRows(List<Row> rowCopies, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Row row = rows.get(i);
+            rowCopies.add(row == null ? null : row.dup());
+        }
+    }
+
+    // rows may still be added to the copies, which the snapshot only wraps
+    private ProjectSnapshot newSnapshot(String header, List<Row> rowCopies) {
+        List<HistoryEntry> pastEntries = history.getLastPastEntries(0);
+        Set<Long> entryIds = new HashSet<>();
+        for (HistoryEntry entry : pastEntries) {
+            entryIds.add(entry.id);
+        }
+        for (HistoryEntry entry : history.getFutureEntries()) {
+            entryIds.add(entry.id);
+        }
+        long lastEntryId = pastEntries.isEmpty() ? 0 : pastEntries.get(pastEntries.size() - 1).id;
+        return new ProjectSnapshot(id, lastEntryId, entryIds, header, rowCopies);
+    }
+
+    private void notifyBeforeSave() {
+        for (OverlayModel overlayModel : overlayModels.values()) {
+            try {
+                overlayModel.onBeforeSave(this);
+            } catch (Exception e) {
+                logger.warn("Error signaling overlay model before saving", e);
+            }
+        }
+    }
+
+    private void notifyAfterSave() {
         for (OverlayModel overlayModel : overlayModels.values()) {
             try {
                 overlayModel.onAfterSave(this);
@@ -166,6 +394,11 @@ public class Project {
     }
 
     protected void saveToWriter(Writer writer, Properties options) throws IOException {
+        saveHeader(writer, options);
+        saveRows(writer, rows, options);
+    }
+
+    protected void saveHeader(Writer writer, Properties options) throws IOException {
         writer.write(RefineServlet.VERSION);
         writer.write('\n');
 
@@ -182,32 +415,59 @@ public class Project {
             ParsingUtilities.saveWriter.writeValue(writer, overlayModels.get(modelName));
             writer.write('\n');
         }
+    }
 
-        writer.write("rowCount=");
-        writer.write(Integer.toString(rows.size()));
-        writer.write('\n');
-        for (Row row : rows) {
-            row.save(writer, options);
+    static protected void saveRows(Writer writer, List<Row> rows, Properties options) throws IOException {
+        String rowStore = options.getProperty("rowStore");
+        if (rowStore != null) {
+            writer.write("rowStore=");
+            writer.write(rowStore);
             writer.write('\n');
+        } else {
+            writer.write("rowCount=");
+            writer.write(Integer.toString(rows.size()));
+            writer.write('\n');
+            for (Row row : rows) {
+                row.save(writer, options);
+                writer.write('\n');
+            }
         }
     }
 
     static public Project loadFromInputStream(InputStream is, long id, Pool pool) throws IOException {
-        return loadFromReader(new LineNumberReader(new InputStreamReader(is, StandardCharsets.UTF_8)), id, pool);
+        return loadFromInputStream(is, id, pool, null);
+    }
+
+    /**
+     * Loads a project whose rows may have been decoded separately.
+     *
+     * @param rows
+     *            the rows of the project if they were saved outside of the data stream, or null if they are stored
+     *            inline. The list becomes the row list of the project.
+     */
+    static public Project loadFromInputStream(InputStream is, long id, Pool pool, List<Row> rows) throws IOException {
+        return loadFromReader(new LineNumberReader(new InputStreamReader(is, StandardCharsets.UTF_8)), id, pool, rows);
     }
 
     static private Project loadFromReader(
             LineNumberReader reader,
             long id,
-            Pool pool) throws IOException {
+            Pool pool,
+            List<Row> rows) throws IOException {
         long start = System.currentTimeMillis();
 
         // version of Refine which wrote the file
         /* String version = */ reader.readLine();
 
-        Project project = new Project(id);
+        Project project = new Project(id, rows != null ? rows : createRowList(id, getRowStore(id)));
         int maxCellCount = 0;
 
+        if (rows != null) {
+            for (Row row : rows) {
+                maxCellCount = Math.max(maxCellCount, row.cells.size());
+            }
+        }
+
         ObjectMapper mapper = ParsingUtilities.mapper.copy();
         InjectableValues injections = new InjectableValues.Std().addValue("project", project);
         mapper.setInjectableValues(injections);
@@ -227,14 +487,18 @@ public class Project {
                 project.columnModel.load(reader);
             } else if ("history".equals(field)) {
                 project.history.load(project, reader);
+            } else if ("rowStore".equals(field)) {
+                if (rows == null) {
+                    throw new IOException("Rows of project " + id + " are stored as '" + value + "' but were not supplied");
+                }
             } else if ("rowCount".equals(field)) {
                 int count = Integer.parseInt(value);
 
-                for (int i = 0; i < count; i++) {
-                    line = reader.readLine();
-                    if (line != null) {
-                        Row row = Row.load(line, pool);
-                        project.rows.add(row);
+                // rows are decoded in chunks on several cores, but added in file order
+                ObjectReader rowReader = Row.reader(pool);
+                ParallelDecoder.decodeLines(reader, count, l -> Row.load(l, rowReader), project.rows::add);
+                for (Row row : project.rows) {
+                    if (row != null) {
                         maxCellCount = Math.max(maxCellCount, row.cells.size());
                     }
                 }
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import com.google.refine.util.Pool;
+
+/**
+ * State of a project captured at a given history entry by {@link Project#snapshot()}. It is not affected by later
+ * changes to the project, so it can be saved without holding the project lock.
+ */
+public class ProjectSnapshot {
+
+    final public long projectId;
+    /**
+     * Id of the last done history entry, or 0 if no entry was done.
+     */
+    final public long lastEntryId;
+    /**
+     * Ids of all the past and future history entries of the project.
+     */
+    final public Set<Long> entryIds;
+    final public Instant capturedAt;
+    /**
+     * Copies of the rows of the project. They share their cells with the project, as cells are immutable. For paged
+     * rows, this is a {@link PagedRowList.Snapshot}.
+     */
+    final public List<Row> rows;
+
+    // version, column model, history and overlay models, as saved in data.txt
+    final protected String header;
+
+    protected ProjectSnapshot(long projectId, long lastEntryId, Set<Long> entryIds, String header, List<Row> rows) {
+        this.projectId = projectId;
+        this.lastEntryId = lastEntryId;
+        this.entryIds = Collections.unmodifiableSet(entryIds);
+        this.header = header;
+        this.rows = rows instanceof PagedRowList.Snapshot ? rows : Collections.unmodifiableList(rows);
+        this.capturedAt = Instant.now();
+    }
+
+    /**
+     * Writes the snapshot in the same format as {@link Project#saveToOutputStream(OutputStream, Pool, String)}.
+     */
+    public void saveToOutputStream(OutputStream out, Pool pool, String rowStore) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        try {
+            Properties options = new Properties();
+            options.setProperty("mode", "save");
+            options.put("pool", pool);
+            if (rowStore != null) {
+                options.setProperty("rowStore", rowStore);
+            }
+
+            writer.write(header);
+            Project.saveRows(writer, rows, options);
+        } finally {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Releases the resources held by the snapshot, once it was written out.
+     */
+    public void release() {
+        if (rows instanceof PagedRowList.Snapshot) {
+            ((PagedRowList.Snapshot) rows).release();
+        }
+    }
+}
@@ -87,7 +87,7 @@ public class RecordModel {
 
     @JsonIgnore
     public int getRecordCount() {
-        return _records.size();
+        return _records == null ? 0 : _records.size();
     }
 
     public Record getRecord(int recordIndex) {
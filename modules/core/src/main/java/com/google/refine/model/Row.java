@@ -43,6 +43,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.InjectableValues;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.google.common.base.CharMatcher;
 
 import com.google.refine.expr.CellTuple;
@@ -225,6 +226,20 @@ public class Row implements HasFields {
                 .readValue(s, Row.class);
     }
 
+    /**
+     * Returns a reader resolving recons against the given pool. Unlike {@link #loadStreaming(String, Pool)}, it leaves
+     * the shared mapper untouched, so it can be used by several threads at once.
+     */
+    static public ObjectReader reader(Pool pool) {
+        InjectableValues injectableValues = new InjectableValues.Std()
+                .addValue("pool", pool);
+        return ParsingUtilities.mapper.readerFor(Row.class).with(injectableValues);
+    }
+
+    static public Row load(String s, ObjectReader reader) throws IOException {
+        return s.length() == 0 ? null : reader.readValue(s);
+    }
+
     @Override
     public String toString() {
         StringBuffer result = new StringBuffer();
@@ -38,6 +38,8 @@ import java.io.Writer;
 import java.util.Objects;
 import java.util.Properties;
 
+import com.google.refine.io.ChangeInput;
+import com.google.refine.io.ChangeOutput;
 import com.google.refine.model.Cell;
 import com.google.refine.util.Pool;
 
@@ -67,6 +69,16 @@ public class CellAtRow {
         return new CellAtRow(row, cell);
     }
 
+    public void save(ChangeOutput out) throws IOException {
+        out.writeRowIndex(row);
+        out.writeCell(cell);
+    }
+
+    static public CellAtRow load(ChangeInput in) throws IOException {
+        int row = in.readRowIndex();
+        return new CellAtRow(row, in.readCell());
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(cell, row);
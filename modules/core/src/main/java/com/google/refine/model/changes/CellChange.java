@@ -36,16 +36,20 @@ package com.google.refine.model.changes;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.ProjectManager;
-import com.google.refine.history.Change;
+import com.google.refine.history.BinaryChange;
+import com.google.refine.io.ChangeInput;
+import com.google.refine.io.ChangeOutput;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.util.Pool;
 
-public class CellChange implements Change {
+public class CellChange implements BinaryChange {
 
     final public int row;
     final public int cellIndex;
@@ -77,6 +81,12 @@ public class CellChange implements Change {
         ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, column.getName());
     }
 
+    @Override
+    public Optional<Set<String>> getModifiedColumns(Project project) {
+        Column column = project.columnModel.getColumnByCellIndex(cellIndex);
+        return column != null ? Optional.of(Set.of(column.getName())) : Optional.empty();
+    }
+
     @Override
     public void save(Writer writer, Properties options) throws IOException {
         writer.write("row=");
@@ -101,6 +111,14 @@ public class CellChange implements Change {
         writer.write("/ec/\n"); // end of change marker
     }
 
+    @Override
+    public void save(ChangeOutput out) throws IOException {
+        out.writeRowIndex(row);
+        out.writeInt(cellIndex);
+        out.writeCell(oldCell);
+        out.writeCell(newCell);
+    }
+
     static public CellChange load(LineNumberReader reader, Pool pool) throws Exception {
         int row = -1;
         int cellIndex = -1;
@@ -126,4 +144,12 @@ public class CellChange implements Change {
 
         return new CellChange(row, cellIndex, oldCell, newCell);
     }
+
+    static public CellChange load(ChangeInput in) throws IOException {
+        int row = in.readRowIndex();
+        int cellIndex = in.readInt();
+        Cell oldCell = in.readCell();
+        Cell newCell = in.readCell();
+        return new CellChange(row, cellIndex, oldCell, newCell);
+    }
 }
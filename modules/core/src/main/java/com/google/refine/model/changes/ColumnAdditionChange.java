@@ -41,14 +41,17 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.io.ChangeInput;
+import com.google.refine.io.ChangeOutput;
 import com.google.refine.model.Column;
 import com.google.refine.model.ColumnGroup;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class ColumnAdditionChange extends ColumnChange {
+public class ColumnAdditionChange extends ColumnChange implements BinaryChange {
 
     final protected String _columnName;
     final protected int _columnIndex;
@@ -147,6 +150,18 @@ public class ColumnAdditionChange extends ColumnChange {
         writer.write("/ec/\n"); // end of change marker
     }
 
+    @Override
+    public void save(ChangeOutput out) throws IOException {
+        out.writeString(_columnName);
+        out.writeInt(_columnIndex);
+        out.writeInt(_newCellIndex);
+        out.writeInt(_newCells.length);
+        for (CellAtRow c : _newCells) {
+            c.save(out);
+        }
+        writeOldColumnGroups(out, _oldColumnGroups);
+    }
+
     static public Change load(LineNumberReader reader, Pool pool) throws Exception {
         String columnName = null;
         int columnIndex = -1;
@@ -188,4 +203,20 @@ public class ColumnAdditionChange extends ColumnChange {
 
         return change;
     }
+
+    static public Change load(ChangeInput in) throws Exception {
+        String columnName = in.readString();
+        int columnIndex = in.readInt();
+        int newCellIndex = in.readInt();
+        int newCellCount = in.readInt();
+        List<CellAtRow> newCells = new ArrayList<CellAtRow>(newCellCount);
+        for (int i = 0; i < newCellCount; i++) {
+            newCells.add(CellAtRow.load(in));
+        }
+
+        ColumnAdditionChange change = new ColumnAdditionChange(columnName, columnIndex, newCells);
+        change._newCellIndex = newCellIndex;
+        change._oldColumnGroups = readOldColumnGroups(in);
+        return change;
+    }
 }
@@ -41,6 +41,8 @@ import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.history.Change;
+import com.google.refine.io.ChangeInput;
+import com.google.refine.io.ChangeOutput;
 import com.google.refine.model.ColumnGroup;
 import com.google.refine.util.ParsingUtilities;
 
@@ -68,4 +70,24 @@ abstract public class ColumnChange implements Change {
         }
         return oldColumnGroups;
     }
+
+    static public void writeOldColumnGroups(ChangeOutput out, List<ColumnGroup> oldColumnGroups) throws IOException {
+        out.writeInt(oldColumnGroups.size());
+        for (ColumnGroup cg : oldColumnGroups) {
+            out.writeInt(cg.startColumnIndex);
+            out.writeInt(cg.columnSpan);
+            out.writeInt(cg.keyColumnIndex);
+        }
+    }
+
+    static public List<ColumnGroup> readOldColumnGroups(ChangeInput in) throws IOException {
+        int oldColumnGroupCount = in.readInt();
+        List<ColumnGroup> oldColumnGroups = new ArrayList<ColumnGroup>(oldColumnGroupCount);
+        for (int i = 0; i < oldColumnGroupCount; i++) {
+            int startColumnIndex = in.readInt();
+            int columnSpan = in.readInt();
+            oldColumnGroups.add(new ColumnGroup(startColumnIndex, columnSpan, in.readInt()));
+        }
+        return oldColumnGroups;
+    }
 }
@@ -41,7 +41,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.io.ChangeInput;
+import com.google.refine.io.ChangeOutput;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.ColumnGroup;
@@ -49,7 +52,7 @@ import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class ColumnRemovalChange extends ColumnChange {
+public class ColumnRemovalChange extends ColumnChange implements BinaryChange {
 
     final protected int _oldColumnIndex;
     protected Column _oldColumn;
@@ -152,6 +155,17 @@ public class ColumnRemovalChange extends ColumnChange {
         writer.write("/ec/\n"); // end of change marker
     }
 
+    @Override
+    public void save(ChangeOutput out) throws IOException {
+        out.writeInt(_oldColumnIndex);
+        out.writeJson(_oldColumn);
+        out.writeInt(_oldCells.length);
+        for (CellAtRow c : _oldCells) {
+            c.save(out);
+        }
+        writeOldColumnGroups(out, _oldColumnGroups);
+    }
+
     static public Change load(LineNumberReader reader, Pool pool) throws Exception {
         int oldColumnIndex = -1;
         Column oldColumn = null;
@@ -191,4 +205,15 @@ public class ColumnRemovalChange extends ColumnChange {
 
         return change;
     }
+
+    static public Change load(ChangeInput in) throws Exception {
+        ColumnRemovalChange change = new ColumnRemovalChange(in.readInt());
+        change._oldColumn = Column.load(in.readJson());
+        change._oldCells = new CellAtRow[in.readInt()];
+        for (int i = 0; i < change._oldCells.length; i++) {
+            change._oldCells[i] = CellAtRow.load(in);
+        }
+        change._oldColumnGroups = readOldColumnGroups(in);
+        return change;
+    }
 }
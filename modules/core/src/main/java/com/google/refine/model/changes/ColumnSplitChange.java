@@ -199,7 +199,8 @@ public class ColumnSplitChange implements Change {
                 int r = _rowIndices.get(i);
                 Row newRow = _newRows.get(i);
 
-                project.rows.set(r, newRow);
+                // keep the row which was actually replaced, as a row store may only hand out views of its rows
+                _oldRows.set(i, project.rows.set(r, newRow));
             }
 
             for (int i = 0; i < _columnNames.size(); i++) {
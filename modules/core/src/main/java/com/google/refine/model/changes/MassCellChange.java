@@ -36,17 +36,23 @@ package com.google.refine.model.changes;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.io.ChangeInput;
+import com.google.refine.io.ChangeOutput;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class MassCellChange implements Change {
+public class MassCellChange implements BinaryChange {
 
     final protected CellChange[] _cellChanges;
     final protected String _commonColumnName;
@@ -125,6 +131,22 @@ public class MassCellChange implements Change {
         }
     }
 
+    @Override
+    public Optional<Set<String>> getModifiedColumns(Project project) {
+        if (_commonColumnName != null) {
+            return Optional.of(Set.of(_commonColumnName));
+        }
+        Set<String> columnNames = new HashSet<>();
+        for (CellChange cellChange : _cellChanges) {
+            Optional<Set<String>> modified = cellChange.getModifiedColumns(project);
+            if (modified.isEmpty()) {
+                return Optional.empty();
+            }
+            columnNames.addAll(modified.get());
+        }
+        return Optional.of(columnNames);
+    }
+
     @Override
     public void save(Writer writer, Properties options) throws IOException {
         if (_commonColumnName != null) {
@@ -144,6 +166,28 @@ public class MassCellChange implements Change {
         writer.write("/ec/\n"); // end of change marker
     }
 
+    @Override
+    public void save(ChangeOutput out) throws IOException {
+        out.writeString(_commonColumnName);
+        out.writeBoolean(_updateRowContextDependencies);
+        saveCellChanges(out);
+    }
+
+    protected void saveCellChanges(ChangeOutput out) throws IOException {
+        out.writeInt(_cellChanges.length);
+        for (CellChange c : _cellChanges) {
+            c.save(out);
+        }
+    }
+
+    static protected CellChange[] loadCellChanges(ChangeInput in) throws IOException {
+        CellChange[] cellChanges = new CellChange[in.readInt()];
+        for (int i = 0; i < cellChanges.length; i++) {
+            cellChanges[i] = CellChange.load(in);
+        }
+        return cellChanges;
+    }
+
     static public Change load(LineNumberReader reader, Pool pool) throws Exception {
         String commonColumnName = null;
         boolean updateRowContextDependencies = false;
@@ -172,4 +216,11 @@ public class MassCellChange implements Change {
 
         return change;
     }
+
+    static public Change load(ChangeInput in) throws Exception {
+        String commonColumnName = in.readString();
+        boolean updateRowContextDependencies = in.readBoolean();
+        CellChange[] cellChanges = loadCellChanges(in);
+        return new MassCellChange(cellChanges, commonColumnName, updateRowContextDependencies);
+    }
 }
@@ -35,20 +35,25 @@ package com.google.refine.model.changes;
 
 import java.io.IOException;
 import java.io.LineNumberReader;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.io.ChangeInput;
+import com.google.refine.io.ChangeOutput;
+import com.google.refine.model.PagedRowList;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
 // TODO: This replaces all rows in the project with a new set of rows, but if only a small percentage of the rows
 // are being changed, it'd be much more efficient to apply a change list of new/modified rows.
-public class MassRowChange implements Change {
+public class MassRowChange implements BinaryChange {
 
     final protected List<Row> _newRows;
     protected List<Row> _oldRows;
@@ -60,7 +65,19 @@ public class MassRowChange implements Change {
     @Override
     public void apply(Project project) {
         synchronized (project) {
-            _oldRows = new ArrayList<Row>(project.rows);
+            if (_oldRows instanceof PagedRowList.Snapshot) {
+                ((PagedRowList.Snapshot) _oldRows).release();
+            }
+            if (project.rows instanceof PagedRowList) {
+                // keeps the encoded pages rather than decoding all rows
+                try {
+                    _oldRows = ((PagedRowList) project.rows).snapshot();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                _oldRows = new ArrayList<Row>(project.rows);
+            }
             project.rows.clear();
             project.rows.addAll(_newRows);
 
@@ -103,6 +120,12 @@ public class MassRowChange implements Change {
         writer.write("/ec/\n"); // end of change marker
     }
 
+    @Override
+    public void save(ChangeOutput out) throws IOException {
+        out.writeRows(_newRows);
+        out.writeRows(_oldRows);
+    }
+
     static public Change load(LineNumberReader reader, Pool pool) throws Exception {
         List<Row> oldRows = null;
         List<Row> newRows = null;
@@ -140,4 +163,10 @@ public class MassRowChange implements Change {
 
         return change;
     }
+
+    static public Change load(ChangeInput in) throws Exception {
+        MassRowChange change = new MassRowChange(in.readRows());
+        change._oldRows = in.readRows();
+        return change;
+    }
 }
@@ -42,14 +42,17 @@ import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.io.ChangeInput;
+import com.google.refine.io.ChangeOutput;
 import com.google.refine.model.Column;
 import com.google.refine.model.ColumnGroup;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class MassRowColumnChange implements Change {
+public class MassRowColumnChange implements BinaryChange {
 
     final protected List<Column> _newColumns;
     final protected List<Row> _newRows;
@@ -140,6 +143,30 @@ public class MassRowColumnChange implements Change {
         writer.write("/ec/\n"); // end of change marker
     }
 
+    @Override
+    public void save(ChangeOutput out) throws IOException {
+        out.writeInt(_newColumns.size());
+        for (Column column : _newColumns) {
+            out.writeJson(column);
+        }
+        out.writeInt(_oldColumns.size());
+        for (Column column : _oldColumns) {
+            out.writeJson(column);
+        }
+        out.writeRows(_newRows);
+        out.writeRows(_oldRows);
+        ColumnChange.writeOldColumnGroups(out, _oldColumnGroups);
+    }
+
+    static protected List<Column> readColumns(ChangeInput in) throws IOException {
+        int count = in.readInt();
+        List<Column> columns = new ArrayList<Column>(count);
+        for (int i = 0; i < count; i++) {
+            columns.add(Column.load(in.readJson()));
+        }
+        return columns;
+    }
+
     static public Change load(LineNumberReader reader, Pool pool) throws Exception {
         List<Column> oldColumns = null;
         List<Column> newColumns = null;
@@ -207,4 +234,18 @@ public class MassRowColumnChange implements Change {
 
         return change;
     }
+
+    static public Change load(ChangeInput in) throws Exception {
+        List<Column> newColumns = readColumns(in);
+        List<Column> oldColumns = readColumns(in);
+        List<Row> newRows = in.readRows();
+        List<Row> oldRows = in.readRows();
+
+        MassRowColumnChange change = new MassRowColumnChange(newColumns, newRows);
+        change._oldColumns = oldColumns;
+        change._oldRows = oldRows;
+        change._oldColumnGroups = ColumnChange.readOldColumnGroups(in);
+
+        return change;
+    }
 }
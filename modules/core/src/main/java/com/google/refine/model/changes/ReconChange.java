@@ -45,6 +45,8 @@ import java.util.Properties;
 
 import com.google.refine.ProjectManager;
 import com.google.refine.history.Change;
+import com.google.refine.io.ChangeInput;
+import com.google.refine.io.ChangeOutput;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.model.ReconStats;
@@ -158,6 +160,16 @@ public class ReconChange extends MassCellChange {
         super.save(writer, options);
     }
 
+    @Override
+    public void save(ChangeOutput out) throws IOException {
+        out.writeJson(_newReconConfig);
+        out.writeJson(_newReconStats);
+        out.writeJson(_oldReconConfig);
+        out.writeJson(_oldReconStats);
+        out.writeString(_commonColumnName);
+        saveCellChanges(out);
+    }
+
     static public Change load(LineNumberReader reader, Pool pool) throws Exception {
         ReconConfig newReconConfig = null;
         ReconStats newReconStats = null;
@@ -210,4 +222,25 @@ public class ReconChange extends MassCellChange {
 
         return change;
     }
+
+    static public Change load(ChangeInput in) throws Exception {
+        String newReconConfig = in.readJson();
+        String newReconStats = in.readJson();
+        String oldReconConfig = in.readJson();
+        String oldReconStats = in.readJson();
+        String commonColumnName = in.readString();
+        CellChange[] cellChanges = loadCellChanges(in);
+
+        ReconChange change = new ReconChange(
+                cellChanges,
+                commonColumnName,
+                newReconConfig != null ? ReconConfig.reconstruct(newReconConfig) : null,
+                newReconStats != null ? ParsingUtilities.mapper.readValue(newReconStats, ReconStats.class) : null);
+
+        change._oldReconConfig = oldReconConfig != null ? ReconConfig.reconstruct(oldReconConfig) : null;
+        change._oldReconStats = oldReconStats != null ? ParsingUtilities.mapper.readValue(oldReconStats, ReconStats.class)
+                : null;
+
+        return change;
+    }
 }
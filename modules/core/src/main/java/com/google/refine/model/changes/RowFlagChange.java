@@ -61,6 +61,7 @@ public class RowFlagChange implements Change {
             oldFlagged = row.flagged;
         }
         row.flagged = newFlagged;
+        project.rows.set(rowIndex, row);
     }
 
     @Override
@@ -68,6 +69,7 @@ public class RowFlagChange implements Change {
         Row row = project.rows.get(rowIndex);
 
         row.flagged = oldFlagged;
+        project.rows.set(rowIndex, row);
     }
 
     @Override
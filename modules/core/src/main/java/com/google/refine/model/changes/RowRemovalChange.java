@@ -41,12 +41,15 @@ import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.io.ChangeInput;
+import com.google.refine.io.ChangeOutput;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class RowRemovalChange implements Change {
+public class RowRemovalChange implements BinaryChange {
 
     final protected List<Integer> _rowIndices;
     protected List<Row> _rows;
@@ -117,6 +120,12 @@ public class RowRemovalChange implements Change {
         writer.write("/ec/\n"); // end of change marker
     }
 
+    @Override
+    public void save(ChangeOutput out) throws IOException {
+        out.writeRowIndices(_rowIndices);
+        out.writeRows(_rows);
+    }
+
     static public Change load(LineNumberReader reader, Pool pool) throws Exception {
         List<Integer> rowIndices = null;
         List<Row> rows = null;
@@ -154,4 +163,10 @@ public class RowRemovalChange implements Change {
 
         return change;
     }
+
+    static public Change load(ChangeInput in) throws Exception {
+        RowRemovalChange change = new RowRemovalChange(in.readRowIndices());
+        change._rows = in.readRows();
+        return change;
+    }
 }
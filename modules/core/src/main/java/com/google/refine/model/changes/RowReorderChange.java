@@ -40,31 +40,31 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.io.ChangeInput;
+import com.google.refine.io.ChangeOutput;
+import com.google.refine.model.PagedRowList;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class RowReorderChange implements Change {
+public class RowReorderChange implements BinaryChange {
 
-    final protected List<Integer> _rowIndices;
+    // former index of each row
+    final protected int[] _rowIndices;
 
     public RowReorderChange(List<Integer> rowIndices) {
-        _rowIndices = rowIndices;
+        _rowIndices = new int[rowIndices.size()];
+        for (int i = 0; i < _rowIndices.length; i++) {
+            _rowIndices[i] = rowIndices.get(i);
+        }
     }
 
     @Override
     public void apply(Project project) {
         synchronized (project) {
-            List<Row> oldRows = project.rows;
-            List<Row> newRows = new ArrayList<Row>(oldRows.size());
-
-            for (Integer oldIndex : _rowIndices) {
-                newRows.add(oldRows.get(oldIndex));
-            }
-
-            project.rows.clear();
-            project.rows.addAll(newRows);
+            reorder(project.rows, _rowIndices);
             project.update();
         }
     }
@@ -72,39 +72,47 @@ public class RowReorderChange implements Change {
     @Override
     public void revert(Project project) {
         synchronized (project) {
-            int count = project.rows.size();
-
-            List<Row> newRows = project.rows;
-            List<Row> oldRows = new ArrayList<Row>(count);
-
-            for (int r = 0; r < count; r++) {
-                oldRows.add(null);
-            }
-
-            for (int newIndex = 0; newIndex < count; newIndex++) {
-                int oldIndex = _rowIndices.get(newIndex);
-                Row row = newRows.get(newIndex);
-                oldRows.set(oldIndex, row);
+            int[] order = new int[_rowIndices.length];
+            for (int newIndex = 0; newIndex < _rowIndices.length; newIndex++) {
+                order[_rowIndices[newIndex]] = newIndex;
             }
-
-            project.rows.clear();
-            project.rows.addAll(oldRows);
+            reorder(project.rows, order);
             project.update();
         }
     }
 
+    static private void reorder(List<Row> rows, int[] order) {
+        if (rows instanceof PagedRowList) {
+            // moves the rows without decoding them all at once
+            ((PagedRowList) rows).reorder(order);
+            return;
+        }
+        List<Row> newRows = new ArrayList<Row>(order.length);
+        for (int oldIndex : order) {
+            newRows.add(rows.get(oldIndex));
+        }
+
+        rows.clear();
+        rows.addAll(newRows);
+    }
+
     @Override
     public void save(Writer writer, Properties options) throws IOException {
         writer.write("rowIndexCount=");
-        writer.write(Integer.toString(_rowIndices.size()));
+        writer.write(Integer.toString(_rowIndices.length));
         writer.write('\n');
-        for (Integer index : _rowIndices) {
-            writer.write(index.toString());
+        for (int index : _rowIndices) {
+            writer.write(Integer.toString(index));
             writer.write('\n');
         }
         writer.write("/ec/\n"); // end of change marker
     }
 
+    @Override
+    public void save(ChangeOutput out) throws IOException {
+        out.writeRowIndices(_rowIndices);
+    }
+
     static public Change load(LineNumberReader reader, Pool pool) throws Exception {
         List<Integer> rowIndices = null;
 
@@ -130,4 +138,8 @@ public class RowReorderChange implements Change {
 
         return change;
     }
+
+    static public Change load(ChangeInput in) throws Exception {
+        return new RowReorderChange(in.readRowIndices());
+    }
 }
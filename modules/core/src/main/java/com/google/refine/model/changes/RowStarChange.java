@@ -61,6 +61,7 @@ public class RowStarChange implements Change {
             oldStarred = row.starred;
         }
         row.starred = newStarred;
+        project.rows.set(rowIndex, row);
     }
 
     @Override
@@ -68,6 +69,7 @@ public class RowStarChange implements Change {
         Row row = project.rows.get(rowIndex);
 
         row.starred = oldStarred;
+        project.rows.set(rowIndex, row);
     }
 
     @Override
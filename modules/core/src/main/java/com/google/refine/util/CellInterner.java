@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.refine.model.Cell;
+import com.google.refine.model.MemoryEstimator;
+import com.google.refine.model.Recon;
+
+/**
+ * Shares one instance among the cells without recon which hold equal values, as created by an importer or an operation.
+ * Cells are immutable, so a project where many rows hold the same value needs a single cell object (and a single
+ * instance of the value) for all of them. An interner remembers at most {@link #getMaxSize()} distinct values, after
+ * which values it has not seen yet get cells of their own.
+ * <p>
+ * The cells shared by all interners, and the heap this saved, are counted in {@link #getTotalSharedCells()} and
+ * {@link #getTotalSavedBytes()}.
+ */
+public class CellInterner {
+
+    /**
+     * System property setting the number of distinct values an interner remembers.
+     */
+    static public final String MAX_SIZE_PROPERTY = "refine.cells.interner_max_size";
+    static public final int DEFAULT_MAX_SIZE = 1 << 16;
+
+    static private final AtomicLong s_sharedCells = new AtomicLong();
+    static private final AtomicLong s_savedBytes = new AtomicLong();
+
+    protected final Map<Serializable, Cell> _cells = new HashMap<>();
+    protected final int _maxSize = getMaxSize();
+    protected long _sharedCells = 0;
+    protected long _savedBytes = 0;
+
+    static public int getMaxSize() {
+        return Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @return the number of cells shared by all interners since startup
+     */
+    static public long getTotalSharedCells() {
+        return s_sharedCells.get();
+    }
+
+    /**
+     * @return an estimate of the heap saved by sharing cells, in bytes, by all interners since startup
+     */
+    static public long getTotalSavedBytes() {
+        return s_savedBytes.get();
+    }
+
+    /**
+     * @return a cell with the given value and recon, shared with other cells of the same value if it has no recon
+     */
+    public Cell intern(Serializable value, Recon recon) {
+        if (recon != null || !isInternable(value)) {
+            return new Cell(value, recon);
+        }
+        Cell existing = _cells.get(value);
+        if (existing != null) {
+            // neither the cell nor, if it is a distinct instance, the value needs to be kept
+            recordShared(existing, value != existing.value);
+            return existing;
+        }
+        Cell cell = new Cell(value, null);
+        remember(cell);
+        return cell;
+    }
+
+    /**
+     * @return the cell seen before with the same value as the given cell, or the given cell itself
+     */
+    public Cell intern(Cell cell) {
+        if (cell == null || cell.recon != null || !isInternable(cell.value)) {
+            return cell;
+        }
+        Cell existing = _cells.get(cell.value);
+        if (existing == null) {
+            remember(cell);
+            return cell;
+        } else if (existing != cell) {
+            recordShared(existing, cell.value != existing.value);
+        }
+        return existing;
+    }
+
+    /**
+     * @return the number of distinct values remembered by this interner
+     */
+    public int size() {
+        return _cells.size();
+    }
+
+    public long getSharedCells() {
+        return _sharedCells;
+    }
+
+    public long getSavedBytes() {
+        return _savedBytes;
+    }
+
+    // values whose equality is equality of content, so that cells holding them can be told apart by value
+    static protected boolean isInternable(Serializable value) {
+        return value == null || value instanceof String || value instanceof Long || value instanceof Double
+                || value instanceof Boolean || value instanceof OffsetDateTime;
+    }
+
+    protected void remember(Cell cell) {
+        if (_cells.size() < _maxSize) {
+            _cells.put(cell.value, cell);
+        }
+    }
+
+    protected void recordShared(Cell cell, boolean valueShared) {
+        long bytes = MemoryEstimator.estimateCell(cell) - (valueShared ? 0 : MemoryEstimator.estimateValue(cell.value));
+        _sharedCells++;
+        _savedBytes += bytes;
+        s_sharedCells.incrementAndGet();
+        s_savedBytes.addAndGet(bytes);
+    }
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A long string kept outside of the Java heap, as UTF-8 bytes compressed with deflate when this makes them smaller.
+ * Projects holding long texts, such as abstracts or fetched HTML pages, would otherwise fill the heap with large arrays
+ * which the garbage collector keeps copying. The text is decoded again by {@link #toString()}, and its memory is
+ * released once the object is garbage collected.
+ */
+public final class OffHeapText implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * System property setting the length from which strings are stored off-heap, 0 keeping all of them on the heap.
+     */
+    static public final String MIN_LENGTH_PROPERTY = "refine.columns.offheap_min_length";
+    static public final int DEFAULT_MIN_LENGTH = 1024;
+
+    /**
+     * System property telling whether off-heap strings are compressed.
+     */
+    static public final String COMPRESS_PROPERTY = "refine.columns.offheap_compress";
+
+    static private final Cleaner s_cleaner = Cleaner.create();
+    static private final AtomicLong s_bytes = new AtomicLong();
+
+    private final transient ByteBuffer bytes;
+    private final int length;
+    private final int byteCount;
+    private final boolean compressed;
+
+    private OffHeapText(ByteBuffer bytes, int length, int byteCount, boolean compressed) {
+        this.bytes = bytes;
+        this.length = length;
+        this.byteCount = byteCount;
+        this.compressed = compressed;
+        int capacity = bytes.capacity();
+        s_bytes.addAndGet(capacity);
+        // the cleaning action must not refer to this object, or it would never become unreachable
+        s_cleaner.register(this, () -> s_bytes.addAndGet(-capacity));
+    }
+
+    static public int getMinLength() {
+        return Integer.getInteger(MIN_LENGTH_PROPERTY, DEFAULT_MIN_LENGTH);
+    }
+
+    static public boolean isCompressing() {
+        return Boolean.parseBoolean(System.getProperty(COMPRESS_PROPERTY, "true"));
+    }
+
+    /**
+     * @return whether the given string is long enough to be stored off-heap
+     */
+    static public boolean isEligible(String s) {
+        int minLength = getMinLength();
+        return minLength > 0 && s.length() >= minLength;
+    }
+
+    /**
+     * @return the number of bytes held off-heap by all the texts which were not garbage collected yet
+     */
+    static public long getTotalBytes() {
+        return s_bytes.get();
+    }
+
+    static public OffHeapText of(String s) {
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        byte[] stored = utf8;
+        boolean compressed = false;
+        if (isCompressing()) {
+            byte[] deflated = deflate(utf8);
+            if (deflated.length < utf8.length) {
+                stored = deflated;
+                compressed = true;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(stored.length);
+        buffer.put(stored);
+        return new OffHeapText(buffer, s.length(), utf8.length, compressed);
+    }
+
+    /**
+     * @return the number of characters of the text, without decoding it
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return the number of bytes held off-heap
+     */
+    public int getStoredBytes() {
+        return bytes.capacity();
+    }
+
+    @Override
+    public String toString() {
+        byte[] utf8 = new byte[byteCount];
+        if (compressed) {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(bytes.duplicate().clear());
+                int read = 0;
+                while (read < utf8.length && !inflater.finished()) {
+                    read += inflater.inflate(utf8, read, utf8.length - read);
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupted off-heap text", e);
+            } finally {
+                inflater.end();
+            }
+        } else {
+            bytes.duplicate().clear().get(utf8);
+        }
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    // serialized as the plain string
+    private Object writeReplace() {
+        return toString();
+    }
+
+    static private byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
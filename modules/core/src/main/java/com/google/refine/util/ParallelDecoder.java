@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Decodes sections of project files on a shared fork-join pool, so that loading large projects is not bound to a single
+ * core. Results are always handed back in the order in which they appear in the file.
+ */
+public class ParallelDecoder {
+
+    /**
+     * Number of lines decoded by a single task.
+     */
+    static final public int CHUNK_SIZE = 4096;
+
+    static final private ForkJoinPool s_pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @FunctionalInterface
+    public interface LineDecoder<T> {
+
+        T decode(String line) throws IOException;
+    }
+
+    static public ForkJoinPool getPool() {
+        return s_pool;
+    }
+
+    /**
+     * Reads up to count lines from the reader and decodes them in parallel, passing the decoded values to the consumer
+     * in file order. Reading stops early at the end of the stream.
+     */
+    static public <T> void decodeLines(LineNumberReader reader, int count, LineDecoder<T> decoder, Consumer<T> consumer)
+            throws IOException {
+        if (count <= CHUNK_SIZE) {
+            for (int i = 0; i < count; i++) {
+                String line = reader.readLine();
+                if (line == null) {
+                    return;
+                }
+                consumer.accept(decoder.decode(line));
+            }
+            return;
+        }
+
+        // bound the number of chunks held in memory while the consumer catches up
+        int maxPending = 2 * s_pool.getParallelism();
+        Deque<Future<List<T>>> pending = new ArrayDeque<>();
+        boolean eof = false;
+        int remaining = count;
+        while (remaining > 0 && !eof) {
+            List<String> lines = new ArrayList<>(Math.min(remaining, CHUNK_SIZE));
+            while (lines.size() < CHUNK_SIZE && remaining > 0) {
+                String line = reader.readLine();
+                if (line == null) {
+                    eof = true;
+                    break;
+                }
+                lines.add(line);
+                remaining--;
+            }
+            pending.add(s_pool.submit(decodeChunk(lines, decoder)));
+            if (pending.size() >= maxPending) {
+                drain(pending.poll(), consumer);
+            }
+        }
+        while (!pending.isEmpty()) {
+            drain(pending.poll(), consumer);
+        }
+    }
+
+    /**
+     * Waits for the result of a task submitted to {@link #getPool()}, unwrapping any {@link IOException} it threw.
+     */
+    static public <T> T join(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while decoding", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    static private <T> Callable<List<T>> decodeChunk(List<String> lines, LineDecoder<T> decoder) {
+        return () -> {
+            List<T> results = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                results.add(decoder.decode(line));
+            }
+            return results;
+        };
+    }
+
+    static private <T> void drain(Future<List<T>> future, Consumer<T> consumer) throws IOException {
+        for (T result : join(future)) {
+            consumer.accept(result);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip output stream which compresses blocks of its input in parallel, in the manner of pigz. The result is a single
+ * standard gzip member, readable by {@link java.util.zip.GZIPInputStream} and any other gzip decoder.
+ * <p>
+ * Each block is deflated independently, using the last 32KB of the previous block as preset dictionary so that little
+ * compression is lost at block boundaries, and is ended with a sync flush so that the compressed blocks can simply be
+ * concatenated. The checksum is computed on the calling thread.
+ */
+public class ParallelGZIPOutputStream extends FilterOutputStream {
+
+    static final public int BLOCK_SIZE = 128 * 1024;
+    static final private int DICTIONARY_SIZE = 32 * 1024;
+    static final private byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    protected final int level;
+    protected final ExecutorService executor;
+    protected final int maxPending;
+    protected final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    protected final CRC32 crc = new CRC32();
+    protected long length = 0;
+    protected byte[] block = new byte[BLOCK_SIZE];
+    protected int blockLength = 0;
+    protected byte[] dictionary = null;
+    protected boolean finished = false;
+    protected boolean closed = false;
+
+    public ParallelGZIPOutputStream(OutputStream out) throws IOException {
+        this(out, Deflater.DEFAULT_COMPRESSION, ParallelDecoder.getPool(), 2 * ParallelDecoder.getPool().getParallelism());
+    }
+
+    /**
+     * @param level
+     *            the deflate compression level
+     * @param executor
+     *            where the blocks are compressed
+     * @param maxPending
+     *            the number of blocks which can be compressed at the same time, bounding the memory used
+     */
+    public ParallelGZIPOutputStream(OutputStream out, int level, ExecutorService executor, int maxPending)
+            throws IOException {
+        super(out);
+        this.level = level;
+        this.executor = executor;
+        this.maxPending = Math.max(1, maxPending);
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        block[blockLength++] = (byte) b;
+        if (blockLength == BLOCK_SIZE) {
+            submit(false);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = Math.min(len, BLOCK_SIZE - blockLength);
+            System.arraycopy(b, off, block, blockLength, n);
+            blockLength += n;
+            off += n;
+            len -= n;
+            if (blockLength == BLOCK_SIZE) {
+                submit(false);
+            }
+        }
+    }
+
+    /**
+     * Writes the blocks which are already compressed. Like {@link java.util.zip.GZIPOutputStream}, this does not force
+     * the compression of the current block, which would degrade the compression ratio.
+     */
+    @Override
+    public void flush() throws IOException {
+        while (!pending.isEmpty() && pending.peek().isDone()) {
+            out.write(ParallelDecoder.join(pending.poll()));
+        }
+        out.flush();
+    }
+
+    /**
+     * Compresses the remaining data and writes the gzip trailer, without closing the underlying stream.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        submit(true);
+        while (!pending.isEmpty()) {
+            out.write(ParallelDecoder.join(pending.poll()));
+        }
+        writeInt((int) crc.getValue());
+        writeInt((int) length);
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            finish();
+        } finally {
+            for (Future<byte[]> future : pending) {
+                future.cancel(false);
+            }
+            out.close();
+        }
+    }
+
+    protected void submit(boolean last) throws IOException {
+        byte[] data = block;
+        int dataLength = blockLength;
+        byte[] previous = dictionary;
+
+        crc.update(data, 0, dataLength);
+        length += dataLength;
+        dictionary = nextDictionary(previous, data, dataLength);
+        pending.add(executor.submit(() -> deflate(data, dataLength, previous, last)));
+
+        block = new byte[BLOCK_SIZE];
+        blockLength = 0;
+        while (pending.size() >= maxPending) {
+            out.write(ParallelDecoder.join(pending.poll()));
+        }
+    }
+
+    protected byte[] deflate(byte[] data, int dataLength, byte[] preset, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (preset != null) {
+                deflater.setDictionary(preset);
+            }
+            deflater.setInput(data, 0, dataLength);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(dataLength / 2 + 64);
+            byte[] buffer = new byte[64 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                // a sync flush ends the block on a byte boundary, without marking it as the final one
+                int n;
+                do {
+                    n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, n);
+                } while (n == buffer.length);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static private byte[] nextDictionary(byte[] previous, byte[] data, int dataLength) {
+        if (dataLength >= DICTIONARY_SIZE || previous == null) {
+            return dataLength == 0 ? previous : Arrays.copyOfRange(data, Math.max(0, dataLength - DICTIONARY_SIZE), dataLength);
+        }
+        int kept = Math.min(previous.length, DICTIONARY_SIZE - dataLength);
+        byte[] next = new byte[kept + dataLength];
+        System.arraycopy(previous, previous.length - kept, next, 0, kept);
+        System.arraycopy(data, 0, next, kept, dataLength);
+        return next;
+    }
+
+    private void writeInt(int v) throws IOException {
+        out.write(v & 0xff);
+        out.write((v >> 8) & 0xff);
+        out.write((v >> 16) & 0xff);
+        out.write((v >> 24) & 0xff);
+    }
+}
@@ -42,10 +42,10 @@ import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.RefineServlet;
@@ -55,11 +55,18 @@ import com.google.refine.model.ReconCandidate;
 /**
  * A serializable pool of ReconCandidates indexed by ID.
  *
+ * Recons are kept in an open-addressing table keyed by their numeric id, rather than in a map keyed by its string form,
+ * as a reconciled project can have millions of them. When loading, identical candidates and the strings shared by
+ * recons are deduplicated.
  */
 public class Pool {
 
-    @JsonProperty("recons")
-    final protected Map<String, Recon> recons = new HashMap<String, Recon>();
+    static final private int INITIAL_CAPACITY = 16;
+
+    // open-addressing table of recons, by id. A null slot is empty.
+    protected long[] _reconIds = new long[INITIAL_CAPACITY];
+    protected Recon[] _recons = new Recon[INITIAL_CAPACITY];
+    protected int _reconCount = 0;
 
     // This is only for backward compatibility while loading old project files
     final protected Map<String, ReconCandidate> candidates = new HashMap<String, ReconCandidate>();
@@ -69,7 +76,7 @@ public class Pool {
     }
 
     public void pool(Recon recon) {
-        recons.put(Long.toString(recon.id), recon);
+        put(recon);
         poolReconCandidates(recon);
     }
 
@@ -84,14 +91,90 @@ public class Pool {
         }
     }
 
+    /**
+     * Pools all the recons and candidates of another pool in this one.
+     */
+    public void poolAll(Pool other) {
+        for (Recon recon : other._recons) {
+            if (recon != null) {
+                put(recon);
+            }
+        }
+        candidates.putAll(other.candidates);
+    }
+
     public Recon getRecon(String id) {
-        return recons.get(id);
+        try {
+            return getRecon(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public Recon getRecon(long id) {
+        int mask = _recons.length - 1;
+        for (int slot = slot(id, mask); _recons[slot] != null; slot = (slot + 1) & mask) {
+            if (_reconIds[slot] == id) {
+                return _recons[slot];
+            }
+        }
+        return null;
     }
 
     public ReconCandidate getReconCandidate(String topicID) {
         return candidates.get(topicID);
     }
 
+    @JsonIgnore
+    public int getReconCount() {
+        return _reconCount;
+    }
+
+    @JsonProperty("recons")
+    protected Map<String, Recon> getRecons() {
+        Map<String, Recon> map = new HashMap<String, Recon>();
+        for (Recon recon : _recons) {
+            if (recon != null) {
+                map.put(Long.toString(recon.id), recon);
+            }
+        }
+        return map;
+    }
+
+    protected void put(Recon recon) {
+        if ((_reconCount + 1) * 2 > _recons.length) {
+            grow();
+        }
+        int mask = _recons.length - 1;
+        int slot = slot(recon.id, mask);
+        while (_recons[slot] != null && _reconIds[slot] != recon.id) {
+            slot = (slot + 1) & mask;
+        }
+        if (_recons[slot] == null) {
+            _reconCount++;
+        }
+        _reconIds[slot] = recon.id;
+        _recons[slot] = recon;
+    }
+
+    private void grow() {
+        long[] ids = _reconIds;
+        Recon[] recons = _recons;
+        _reconIds = new long[ids.length * 2];
+        _recons = new Recon[recons.length * 2];
+        _reconCount = 0;
+        for (Recon recon : recons) {
+            if (recon != null) {
+                put(recon);
+            }
+        }
+    }
+
+    static private int slot(long id, int mask) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
     public void save(OutputStream out) throws IOException {
         Writer writer = new OutputStreamWriter(out, "UTF-8");
         try {
@@ -105,13 +188,14 @@ public class Pool {
         writer.write(RefineServlet.VERSION);
         writer.write('\n');
 
-        Collection<Recon> recons2 = recons.values();
-        writer.write("reconCount=" + recons2.size());
+        writer.write("reconCount=" + _reconCount);
         writer.write('\n');
 
-        for (Recon recon : recons2) {
-            ParsingUtilities.saveWriter.writeValue(writer, recon);
-            writer.write('\n');
+        for (Recon recon : _recons) {
+            if (recon != null) {
+                ParsingUtilities.saveWriter.writeValue(writer, recon);
+                writer.write('\n');
+            }
         }
     }
 
@@ -145,16 +229,15 @@ public class Pool {
                 }
             } else if ("reconCount".equals(field)) {
                 int count = Integer.parseInt(value);
+                ReconInterner interner = new ReconInterner();
 
-                for (int i = 0; i < count; i++) {
-                    line = reader2.readLine();
-                    if (line != null) {
-                        Recon recon = Recon.loadStreaming(line);
-                        if (recon != null) {
-                            pool(recon);
-                        }
+                // recons are parsed in parallel and pooled on this thread, as the maps are not thread-safe
+                ParallelDecoder.decodeLines(reader2, count, Recon::loadStreaming, recon -> {
+                    if (recon != null) {
+                        interner.intern(recon);
+                        pool(recon);
                     }
-                }
+                });
             }
         }
     }
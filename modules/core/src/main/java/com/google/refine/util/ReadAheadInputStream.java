@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Input stream which reads its source on a background thread, a few chunks ahead of the consumer. Wrapping a
+ * decompressing stream in it lets decompression overlap with whatever the consumer does with the data, such as writing
+ * files.
+ */
+public class ReadAheadInputStream extends InputStream {
+
+    static final public int CHUNK_SIZE = 256 * 1024;
+    static final public int MAX_CHUNKS = 8;
+    static final private byte[] EOF = new byte[0];
+
+    protected final InputStream source;
+    protected final BlockingQueue<Object> chunks = new ArrayBlockingQueue<>(MAX_CHUNKS);
+    protected final Thread reader;
+    protected byte[] current = null;
+    protected int position = 0;
+    protected volatile boolean closed = false;
+
+    public ReadAheadInputStream(InputStream source) {
+        this.source = source;
+        reader = new Thread(this::readSource, "read-ahead");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void readSource() {
+        try {
+            try {
+                while (!closed) {
+                    byte[] chunk = new byte[CHUNK_SIZE];
+                    int n = source.readNBytes(chunk, 0, CHUNK_SIZE);
+                    if (n > 0) {
+                        chunks.put(n == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, n));
+                    }
+                    if (n < CHUNK_SIZE) {
+                        chunks.put(EOF);
+                        return;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                chunks.put(e);
+            }
+        } catch (InterruptedException e) {
+            // closed by the consumer
+        }
+    }
+
+    /**
+     * @return false at the end of the stream
+     */
+    protected boolean fill() throws IOException {
+        if (current == EOF) {
+            return false;
+        }
+        if (current != null && position < current.length) {
+            return true;
+        }
+        Object next;
+        try {
+            next = chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading", e);
+        }
+        if (next instanceof IOException) {
+            current = EOF;
+            throw (IOException) next;
+        } else if (next instanceof RuntimeException) {
+            current = EOF;
+            throw new IOException((RuntimeException) next);
+        }
+        current = (byte[]) next;
+        position = 0;
+        return current != EOF;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return current[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current == null || current == EOF ? 0 : current.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        reader.interrupt();
+        source.close();
+    }
+}
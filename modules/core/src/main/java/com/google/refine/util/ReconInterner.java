@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.refine.model.Recon;
+import com.google.refine.model.ReconCandidate;
+
+/**
+ * Deduplicates the candidates and strings of recons as they are loaded. Reconciling a column typically yields the same
+ * candidates and the same service and space URLs for many cells, which would otherwise be stored once per recon.
+ * ReconCandidates are immutable, so they can safely be shared by several recons.
+ */
+public class ReconInterner {
+
+    protected final Map<ReconCandidate, ReconCandidate> _candidates = new HashMap<>();
+    protected final Map<String, String> _strings = new HashMap<>();
+
+    /**
+     * Replaces, in place, the candidates and strings of a recon by the equal instances seen before.
+     */
+    public void intern(Recon recon) {
+        recon.service = intern(recon.service);
+        recon.identifierSpace = intern(recon.identifierSpace);
+        recon.schemaSpace = intern(recon.schemaSpace);
+        recon.judgmentAction = intern(recon.judgmentAction);
+        if (recon.match != null) {
+            recon.match = intern(recon.match);
+        }
+        if (recon.candidates != null) {
+            List<ReconCandidate> candidates = new ArrayList<ReconCandidate>(recon.candidates.size());
+            for (ReconCandidate candidate : recon.candidates) {
+                candidates.add(intern(candidate));
+            }
+            recon.candidates = candidates;
+        }
+    }
+
+    public ReconCandidate intern(ReconCandidate candidate) {
+        ReconCandidate existing = _candidates.get(candidate);
+        if (existing != null) {
+            return existing;
+        }
+        String[] types = new String[candidate.types.length];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = intern(candidate.types[i]);
+        }
+        ReconCandidate interned = new ReconCandidate(intern(candidate.id), intern(candidate.name), types, candidate.score);
+        _candidates.put(interned, interned);
+        return interned;
+    }
+
+    public String intern(String s) {
+        if (s == null) {
+            return null;
+        }
+        String existing = _strings.putIfAbsent(s, s);
+        return existing != null ? existing : s;
+    }
+
+    public int getCandidateCount() {
+        return _candidates.size();
+    }
+}
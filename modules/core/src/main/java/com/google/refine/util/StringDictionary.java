@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary of the strings of one column being imported, so that equal values share a single String instance. Columns
+ * such as countries, statuses or categories repeat a few values over and over, while others (identifiers, free text)
+ * hardly ever do: the dictionary switches itself off once it has seen {@link #SAMPLE_SIZE} values repeating less than
+ * {@link #MIN_REPETITION} times on average, or more than {@link #getMaxSize()} distinct values.
+ */
+public class StringDictionary {
+
+    /**
+     * System property setting the number of distinct strings above which a column stops being dictionary-encoded.
+     */
+    static public final String MAX_SIZE_PROPERTY = "refine.columns.dictionary_max_size";
+    static public final int DEFAULT_MAX_SIZE = 1 << 16;
+
+    static public final int SAMPLE_SIZE = 1000;
+    static public final int MIN_REPETITION = 2;
+
+    protected Map<String, String> _strings = new HashMap<>();
+    protected final int _maxSize = getMaxSize();
+    protected long _seen = 0;
+
+    static public int getMaxSize() {
+        return Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @return the instance of the given string held by the dictionary, or the string itself if it is not in the
+     *         dictionary or the dictionary is switched off
+     */
+    public String intern(String s) {
+        if (_strings == null || s == null) {
+            return s;
+        }
+        _seen++;
+        String existing = _strings.putIfAbsent(s, s);
+        int size = _strings.size();
+        if (size > _maxSize || (_seen >= SAMPLE_SIZE && _seen < (long) size * MIN_REPETITION)) {
+            // not repetitive enough to be worth it
+            _strings = null;
+        }
+        return existing != null ? existing : s;
+    }
+
+    /**
+     * @return false if the column turned out not to repeat its values enough
+     */
+    public boolean isEnabled() {
+        return _strings != null;
+    }
+
+    public int size() {
+        return _strings == null ? 0 : _strings.size();
+    }
+}
@@ -33,7 +33,10 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -46,6 +49,7 @@ import static org.testng.Assert.assertEquals;
 import java.lang.reflect.Field;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import org.mockito.Mockito;
@@ -56,6 +60,8 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.model.Cell;
+import com.google.refine.model.MemoryEstimator;
 import com.google.refine.model.Project;
 import com.google.refine.model.ProjectStub;
 import com.google.refine.model.Row;
@@ -259,6 +265,189 @@ public class ProjectManagerTests extends RefineTest {
         when(meta.getModified()).thenReturn(BASE_DATE.plusSeconds(secondsDifference));
     }
 
+    protected Project largeProject(long id) {
+        Project project = new ProjectStub(id);
+        for (int i = 0; i < 20000; i++) {
+            Row row = new Row(1);
+            row.setCell(0, new Cell("a value which takes some room on the heap, number " + i, null));
+            project.rows.add(row);
+        }
+        return project;
+    }
+
+    protected ProjectMetadata metadataSavedAt(Project project, Instant modified) {
+        ProjectMetadata metadata = mock(ProjectMetadata.class);
+        when(metadata.getModified()).thenReturn(modified);
+        project.setLastSave();
+        return metadata;
+    }
+
+    @Test
+    public void canUnloadLeastRecentlyUsedProjectsOverMemoryBudget() {
+        Project project1 = spy(largeProject(1));
+        Project project2 = spy(largeProject(2));
+        Project project3 = spy(largeProject(3));
+        long projectSize = MemoryEstimator.estimate(project1);
+        System.setProperty(ProjectManager.MEMORY_BUDGET_PROPERTY, Long.toString((2 * projectSize >> 20) + 1));
+        try {
+            // project 1 has unsaved changes, project 2 does not
+            SUT.registerProject(project1, metadataSavedAt(project1, Instant.now().plusSeconds(60)));
+            SUT.registerProject(project2, metadataSavedAt(project2, Instant.EPOCH));
+            SUT._lastAccess.put(1L, Instant.EPOCH);
+            SUT._lastAccess.put(2L, Instant.EPOCH.plusSeconds(1));
+            assertEquals(SUT.getMemoryUsage().get(1L).longValue(), projectSize);
+
+            SUT.registerProject(project3, metadataSavedAt(project3, Instant.EPOCH));
+
+            // the least recently used project is saved, then unloaded
+            verify(SUT, times(1)).saveProject(project1);
+            verify(project1, times(1)).dispose();
+            assertEquals(SUT.getMemoryUsage().keySet(), Set.of(2L, 3L));
+            verify(SUT, never()).saveProject(project2);
+        } finally {
+            System.clearProperty(ProjectManager.MEMORY_BUDGET_PROPERTY);
+        }
+    }
+
+    @Test
+    public void savesProjectsToUnloadOutsideOfTheLock() throws Exception {
+        Project project1 = spy(largeProject(1));
+        Project project2 = spy(largeProject(2));
+        List<Boolean> lockHeld = new ArrayList<>();
+        doAnswer(invocation -> {
+            lockHeld.add(Thread.holdsLock(SUT));
+            return null;
+        }).when(SUT).saveProject(project1);
+        System.setProperty(ProjectManager.MEMORY_BUDGET_PROPERTY, "1");
+        try {
+            SUT.registerProject(project1, metadataSavedAt(project1, Instant.now().plusSeconds(60)));
+            SUT._lastAccess.put(1L, Instant.EPOCH);
+            SUT.registerProject(project2, metadataSavedAt(project2, Instant.EPOCH));
+
+            assertEquals(lockHeld, List.of(false));
+            verify(project1, times(1)).dispose();
+            assertEquals(SUT.getMemoryUsage().keySet(), Set.of(2L));
+            assertEquals(SUT._memoryEstimates.keySet(), Set.of(2L));
+        } finally {
+            System.clearProperty(ProjectManager.MEMORY_BUDGET_PROPERTY);
+        }
+    }
+
+    @Test
+    public void estimatesProjectsOutsideOfTheLock() {
+        Project project1 = largeProject(1);
+        Project project2 = largeProject(2);
+        List<Boolean> lockHeld = new ArrayList<>();
+        doAnswer(invocation -> {
+            lockHeld.add(Thread.holdsLock(SUT));
+            return invocation.callRealMethod();
+        }).when(SUT).estimateMemory(any(Project.class));
+        System.setProperty(ProjectManager.MEMORY_BUDGET_PROPERTY, "1");
+        try {
+            // project 1 has unsaved changes, so autosave estimates it to order the saves
+            SUT.registerProject(project1, metadataSavedAt(project1, Instant.now().plusSeconds(60)));
+            SUT.registerProject(project2, metadataSavedAt(project2, Instant.EPOCH));
+            SUT.saveProjects(false);
+
+            Assert.assertFalse(lockHeld.isEmpty());
+            Assert.assertFalse(lockHeld.contains(true));
+        } finally {
+            System.clearProperty(ProjectManager.MEMORY_BUDGET_PROPERTY);
+        }
+    }
+
+    @Test
+    public void reusesMemoryEstimatesUntilInvalidated() {
+        Project project1 = largeProject(1);
+        SUT.registerProject(project1, metadataSavedAt(project1, Instant.EPOCH));
+        long estimate = SUT.getMemoryUsage().get(1L);
+
+        addRows(project1);
+        assertEquals(SUT.getMemoryUsage().get(1L).longValue(), estimate);
+
+        SUT.invalidateMemoryEstimate(1L);
+        Assert.assertNotEquals(SUT.getMemoryUsage().get(1L).longValue(), estimate);
+    }
+
+    @Test
+    public void keepsRecentlyUsedProjectsOverMemoryBudget() {
+        Project project1 = spy(largeProject(1));
+        Project project2 = spy(largeProject(2));
+        System.setProperty(ProjectManager.MEMORY_BUDGET_PROPERTY, "1");
+        try {
+            SUT.registerProject(project1, metadataSavedAt(project1, Instant.EPOCH));
+            SUT.registerProject(project2, metadataSavedAt(project2, Instant.EPOCH));
+
+            // project 1 was requested too recently to be unloaded
+            verify(project1, never()).dispose();
+            assertEquals(SUT.getMemoryUsage().keySet(), Set.of(1L, 2L));
+
+            SUT._lastAccess.put(1L, Instant.EPOCH);
+            SUT.saveProjects(false);
+            verify(project1, times(1)).dispose();
+            verify(project2, never()).dispose();
+        } finally {
+            System.clearProperty(ProjectManager.MEMORY_BUDGET_PROPERTY);
+        }
+    }
+
+    @Test
+    public void savesModifiedProjectsInParallel() throws Exception {
+        System.setProperty(ProjectManager.SAVE_THREADS_PROPERTY, "3");
+        try {
+            doAnswer(invocation -> {
+                Thread.sleep(500);
+                return null;
+            }).when(SUT).saveProject(any(Project.class));
+            for (long id = 1; id <= 3; id++) {
+                Project project = new ProjectStub(id);
+                SUT.registerProject(project, metadataSavedAt(project, Instant.now().plusSeconds(60)));
+            }
+
+            long start = System.nanoTime();
+            SUT.saveProjects(false);
+            long elapsed = (System.nanoTime() - start) / 1000000;
+
+            verify(SUT, times(3)).saveProject(any(Project.class));
+            Assert.assertTrue(elapsed < 1400, "projects were saved one after the other: " + elapsed + " ms");
+            SaveMetrics metrics = SUT.getSaveMetrics();
+            assertEquals(metrics.getCycles(), 1);
+            assertEquals(metrics.getSaved(), 3);
+            assertEquals(metrics.getLastCycleSaved(), 3);
+            assertEquals(metrics.getBacklog(), 0);
+            Assert.assertTrue(metrics.getMaxSaveMillis() >= 500);
+        } finally {
+            System.clearProperty(ProjectManager.SAVE_THREADS_PROPERTY);
+        }
+    }
+
+    @Test
+    public void recordsFailedSaves() throws Exception {
+        doThrow(new IllegalStateException("disk full")).when(SUT).saveProject(any(Project.class));
+        Project project = new ProjectStub(1);
+        SUT.registerProject(project, metadataSavedAt(project, Instant.now().plusSeconds(60)));
+
+        SUT.saveProjects(true);
+
+        SaveMetrics metrics = SUT.getSaveMetrics();
+        assertEquals(metrics.getFailed(), 1);
+        assertEquals(metrics.getSaved(), 0);
+        assertEquals(metrics.getBacklog(), 1);
+    }
+
+    @Test
+    public void ordersSavesByAgeThenSize() {
+        Project project = new ProjectStub(1);
+        ProjectManager.SaveRecord recentSmall = new ProjectManager.SaveRecord(project, 1000, 10);
+        ProjectManager.SaveRecord oldLarge = new ProjectManager.SaveRecord(project, 600000, 1000);
+        ProjectManager.SaveRecord oldSmall = new ProjectManager.SaveRecord(project, 610000, 100);
+        List<ProjectManager.SaveRecord> records = new ArrayList<>(List.of(recentSmall, oldLarge, oldSmall));
+
+        records.sort(ProjectManager.SAVE_ORDER);
+
+        assertEquals(records, List.of(oldSmall, oldLarge, recentSmall));
+    }
+
     protected void verifySaveTimeCompared(int times) {
         verifySaveTimeCompared(project, metadata, times);
     }
@@ -27,14 +27,26 @@
 
 package com.google.refine.browsing;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.annotations.Test;
 
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.facets.Facet;
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
 import com.google.refine.util.TestUtils;
 
-public class EngineTests {
+public class EngineTests extends RefineTest {
 
     @Test
     public void serializeEngine() {
@@ -42,4 +54,100 @@ public class EngineTests {
         Engine engine = new Engine(project);
         TestUtils.isSerializedTo(engine, "{\"engine-mode\":\"row-based\",\"facets\":[]}");
     }
+
+    /**
+     * A facet keeping the rows divisible by the given number, which records the rows its choices are computed on.
+     */
+    protected Facet divisibleBy(int divisor, AtomicInteger evaluations, List<Integer> visited) {
+        Facet facet = mock(Facet.class);
+        when(facet.getRowFilter(any())).thenReturn((project, rowIndex, row) -> {
+            evaluations.incrementAndGet();
+            return rowIndex % divisor == 0;
+        });
+        doAnswer(invocation -> {
+            FilteredRows filteredRows = invocation.getArgument(1);
+            filteredRows.accept(invocation.getArgument(0), new RowVisitor() {
+
+                @Override
+                public void start(Project project) {
+                }
+
+                @Override
+                public boolean visit(Project project, int rowIndex, Row row) {
+                    visited.add(rowIndex);
+                    return false;
+                }
+
+                @Override
+                public void end(Project project) {
+                }
+            });
+            return null;
+        }).when(facet).computeChoices(any(), any(FilteredRows.class));
+        return facet;
+    }
+
+    @Test
+    public void testComputeFacetsEvaluatesFiltersOnce() {
+        Serializable[][] grid = new Serializable[30][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { i };
+        }
+        Project project = createProject(new String[] { "number" }, grid);
+        AtomicInteger evaluations = new AtomicInteger();
+        List<Integer> byTwo = new ArrayList<>();
+        List<Integer> byThree = new ArrayList<>();
+        List<Integer> byFive = new ArrayList<>();
+        Engine engine = new Engine(project);
+        engine._facets = List.of(
+                divisibleBy(2, evaluations, byTwo),
+                divisibleBy(3, evaluations, byThree),
+                divisibleBy(5, evaluations, byFive));
+
+        engine.computeFacets();
+
+        assertEquals(evaluations.get(), 3 * 30);
+        // each facet sees the rows matched by the other facets
+        assertEquals(byTwo, List.of(0, 15));
+        assertEquals(byThree, List.of(0, 10, 20));
+        assertEquals(byFive, List.of(0, 6, 12, 18, 24));
+    }
+
+    @Test
+    public void testFilteredRowsShortCircuit() {
+        Serializable[][] grid = new Serializable[30][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { i };
+        }
+        Project project = createProject(new String[] { "number" }, grid);
+        AtomicInteger byTwoEvaluations = new AtomicInteger();
+        AtomicInteger byThreeEvaluations = new AtomicInteger();
+        Engine engine = new Engine(project);
+        engine._facets = List.of(
+                divisibleBy(2, byTwoEvaluations, new ArrayList<>()),
+                divisibleBy(3, byThreeEvaluations, new ArrayList<>()));
+        List<Integer> visited = new ArrayList<>();
+
+        engine.getAllFilteredRows().accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                visited.add(rowIndex);
+                return rowIndex == 12;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+
+        assertEquals(visited, List.of(0, 6, 12));
+        // the traversal stops with the visitor, and the second filter is only evaluated on rows kept by the first
+        assertEquals(byTwoEvaluations.get(), 13);
+        assertEquals(byThreeEvaluations.get(), 7);
+    }
 }
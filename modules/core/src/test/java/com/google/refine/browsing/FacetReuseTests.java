@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.changes.CellChange;
+
+public class FacetReuseTests extends RefineTest {
+
+    static final String CONFIG = "{\"mode\":\"row-based\",\"facets\":["
+            + "{\"type\":\"list\",\"name\":\"name\",\"columnName\":\"name\",\"expression\":\"value\","
+            + "\"omitBlank\":false,\"omitError\":false,\"selection\":[],\"selectBlank\":false,\"selectError\":false,"
+            + "\"invert\":false},"
+            + "{\"type\":\"text\",\"name\":\"city\",\"columnName\":\"city\",\"query\":\"paris\",\"mode\":\"text\","
+            + "\"caseSensitive\":false,\"invert\":false}]}";
+
+    Project project;
+
+    @BeforeMethod
+    public void setUpProject() {
+        project = createProject(new String[] { "name", "city" },
+                new Serializable[][] {
+                        { "alice", "paris" },
+                        { "bob", "berlin" },
+                        { "carol", "paris" },
+                        { "dave", "rome" },
+                });
+    }
+
+    protected Engine computeFacets() {
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(EngineConfig.reconstruct(CONFIG));
+        engine.computeFacets();
+        return engine;
+    }
+
+    protected void edit(int rowIndex, int cellIndex, String value) {
+        Cell oldCell = project.rows.get(rowIndex).getCell(cellIndex);
+        HistoryEntry entry = new HistoryEntry(HistoryEntry.allocateID(), project, "Edit", null,
+                new CellChange(rowIndex, cellIndex, oldCell, new Cell(value, null)));
+        project.history.addEntry(entry);
+    }
+
+    @Test
+    public void testFacetsAreNotReportedBeforeComputing() {
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(EngineConfig.reconstruct(CONFIG));
+
+        assertNull(engine.getRecomputedFacets());
+    }
+
+    @Test
+    public void testUnchangedFacetsAreReused() {
+        Engine first = computeFacets();
+        assertEquals(first.getRecomputedFacets(), List.of(0, 1));
+
+        Engine second = computeFacets();
+        assertEquals(second.getRecomputedFacets(), List.of());
+        assertSame(second._facets.get(0), first._facets.get(0));
+        assertSame(second._facets.get(1), first._facets.get(1));
+    }
+
+    @Test
+    public void testOnlyFacetsReadingModifiedColumnsAreRecomputed() {
+        Engine first = computeFacets();
+
+        // the name facet is filtered by the city facet, so it also depends on the city column
+        edit(1, 0, "bobby");
+        Engine second = computeFacets();
+        assertEquals(second.getRecomputedFacets(), List.of(0));
+        assertNotSame(second._facets.get(0), first._facets.get(0));
+        assertSame(second._facets.get(1), first._facets.get(1));
+
+        edit(1, 1, "paris");
+        Engine third = computeFacets();
+        assertEquals(third.getRecomputedFacets(), List.of(0, 1));
+    }
+
+    @Test
+    public void testFacetsAreRecomputedAfterUndo() {
+        computeFacets();
+        edit(1, 1, "paris");
+        Engine edited = computeFacets();
+        assertEquals(edited.getRecomputedFacets(), List.of(0, 1));
+
+        project.history.undoRedo(0);
+        Engine undone = computeFacets();
+        assertEquals(undone.getRecomputedFacets(), List.of(0, 1));
+    }
+
+    @Test
+    public void testFacetsWithOtherSelectionsAreNotShared() {
+        Engine paris = computeFacets();
+
+        Engine rome = new Engine(project);
+        rome.initializeFromConfig(EngineConfig.reconstruct(CONFIG.replace("paris", "rome")));
+        rome.computeFacets();
+        assertEquals(rome.getRecomputedFacets(), List.of(0, 1));
+        assertNotSame(rome._facets.get(0), paris._facets.get(0));
+
+        Engine again = computeFacets();
+        assertEquals(again.getRecomputedFacets(), List.of());
+        assertSame(again._facets.get(0), paris._facets.get(0));
+    }
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.filters;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Properties;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class ExpressionEqualRowFilterTests extends RefineTest {
+
+    Project project = new Project();
+
+    protected boolean matches(Object value, Object... matches) {
+        ExpressionEqualRowFilter filter = new ExpressionEqualRowFilter(
+                (Properties bindings) -> value, "column", -1, matches, true, false, false);
+        return filter.filterRow(project, 0, new Row(0));
+    }
+
+    @Test
+    public void testStrings() {
+        assertTrue(matches("b", "a", "b", "c"));
+        assertFalse(matches("d", "a", "b", "c"));
+        assertFalse(matches("1", 1L));
+    }
+
+    @Test
+    public void testNumbersOfDifferentTypes() {
+        assertTrue(matches(1L, 1.0));
+        assertTrue(matches(1.0, 1));
+        assertTrue(matches(2.5f, "x", 2.5));
+        assertTrue(matches(-0.0, 0L));
+        assertFalse(matches(1L, "1"));
+        assertFalse(matches(Double.NaN, Double.NaN));
+    }
+
+    @Test
+    public void testBlanksAndErrors() {
+        assertTrue(matches("", "a"));
+        assertTrue(matches(null, "a"));
+        assertFalse(matches(new EvalError("error"), "a"));
+    }
+
+    @Test
+    public void testArrays() {
+        assertTrue(matches(new Object[] { "x", 3L }, 3.0));
+        assertFalse(matches(new Object[] { "x", "y" }, "z"));
+    }
+
+    @Test
+    public void testInvert() {
+        ExpressionEqualRowFilter filter = new ExpressionEqualRowFilter(
+                (Properties bindings) -> "a", "column", -1, new Object[] { "a" }, false, false, true);
+        assertFalse(filter.filterRow(project, 0, new Row(0)));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testOverriddenMatchTestIsCalled() {
+        ExpressionEqualRowFilter filter = new ExpressionEqualRowFilter(
+                (Properties bindings) -> "A", "column", -1, new Object[] { "a" }, false, false, false) {
+
+            @Override
+            protected boolean testValue(Object v, Object match) {
+                return match.toString().equalsIgnoreCase(v.toString());
+            }
+        };
+        assertTrue(filter.filterRow(project, 0, new Row(0)));
+    }
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.RowStarChange;
+
+public class FilterMaskCacheTests extends RefineTest {
+
+    Project project;
+    FilterMaskCache cache;
+
+    @BeforeMethod
+    public void setUpProject() {
+        project = createProject(new String[] { "name", "city" },
+                new Serializable[][] {
+                        { "alice", "paris" },
+                        { "bob", "berlin" },
+                        { "carol", "paris" },
+                        { "dave", "rome" },
+                });
+        cache = project.filterMaskCache;
+    }
+
+    @AfterMethod
+    public void clearProperty() {
+        System.clearProperty(FilterMaskCache.MAX_SIZE_PROPERTY);
+    }
+
+    protected BitSet mask(int... indices) {
+        BitSet mask = new BitSet();
+        for (int index : indices) {
+            mask.set(index);
+        }
+        return mask;
+    }
+
+    @Test
+    public void testMasksAreTiedToHistoryEntry() {
+        BitSet mask = mask(0, 2);
+        cache.put("city", mask, 4, Optional.of(Set.of("city")), 12L);
+
+        assertSame(cache.get("city", 12L, 4), mask);
+        assertNull(cache.get("city", 12L, 5));
+        assertNull(cache.get("city", 12L, 4));
+        cache.put("city", mask, 4, Optional.of(Set.of("city")), 12L);
+        assertNull(cache.get("city", 13L, 4));
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testChangesToOtherColumnsKeepMasks() {
+        cache.put("city", mask(0, 2), 4, Optional.of(Set.of("city")), 12L);
+        cache.put("name", mask(1), 4, Optional.of(Set.of("name")), 12L);
+        cache.put("any", mask(3), 4, Optional.empty(), 12L);
+
+        CellChange change = new CellChange(1, 0, new Cell("bob", null), new Cell("bobby", null));
+        cache.changed(project, change, 12L, 13L);
+
+        assertNotNull(cache.get("city", 13L, 4));
+        assertNull(cache.get("name", 13L, 4));
+        assertNull(cache.get("any", 13L, 4));
+    }
+
+    @Test
+    public void testChangesToRowsDropAllMasks() {
+        cache.put("city", mask(0, 2), 4, Optional.of(Set.of("city")), 12L);
+
+        cache.changed(project, new RowStarChange(0, true), 12L, 13L);
+
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testChangesFromOtherStatesDropMasks() {
+        cache.put("city", mask(0, 2), 4, Optional.of(Set.of("city")), 11L);
+
+        CellChange change = new CellChange(1, 0, new Cell("bob", null), new Cell("bobby", null));
+        cache.changed(project, change, 12L, 13L);
+
+        assertNull(cache.get("city", 13L, 4));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedMasksAreEvicted() {
+        System.setProperty(FilterMaskCache.MAX_SIZE_PROPERTY, "2");
+        cache.put("a", mask(0), 4, Optional.empty(), 0L);
+        cache.put("b", mask(1), 4, Optional.empty(), 0L);
+        cache.get("a", 0L, 4);
+        cache.put("c", mask(2), 4, Optional.empty(), 0L);
+
+        assertEquals(cache.size(), 2);
+        assertNotNull(cache.get("a", 0L, 4));
+        assertNull(cache.get("b", 0L, 4));
+    }
+
+    @Test
+    public void testEngineReusesMasks() {
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(EngineConfig.reconstruct("{\"mode\":\"row-based\",\"facets\":["
+                + "{\"type\":\"text\",\"name\":\"city\",\"columnName\":\"city\",\"query\":\"paris\",\"mode\":\"text\","
+                + "\"caseSensitive\":false,\"invert\":false}]}"));
+
+        // plain traversals evaluate the filters lazily, only computing the facets fills the cache
+        assertEquals(visit(engine), List.of(0, 2));
+        assertEquals(cache.size(), 0);
+        engine.computeFacets();
+        assertEquals(cache.size(), 1);
+        BitSet mask = cache._entries.values().iterator().next().value;
+
+        // a new engine with the same configuration reuses the mask
+        Engine other = new Engine(project);
+        other.initializeFromConfig(EngineConfig.reconstruct("{\"mode\":\"row-based\",\"facets\":["
+                + "{\"type\":\"text\",\"name\":\"city\",\"columnName\":\"city\",\"query\":\"paris\",\"mode\":\"text\","
+                + "\"caseSensitive\":false,\"invert\":false}]}"));
+        other.computeFacets();
+        assertEquals(visit(other), List.of(0, 2));
+        assertEquals(cache.size(), 1);
+        assertSame(cache._entries.values().iterator().next().value, mask);
+    }
+
+    protected List<Integer> visit(Engine engine) {
+        List<Integer> visited = new ArrayList<>();
+        engine.getAllFilteredRows().accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                visited.add(rowIndex);
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+        return visited;
+    }
+}
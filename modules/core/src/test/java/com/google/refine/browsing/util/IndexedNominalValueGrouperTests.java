@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.util.ExpressionNominalValueGrouper.IndexedNominalFacetChoice;
+import com.google.refine.expr.EvalError;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.model.Project;
+
+public class IndexedNominalValueGrouperTests extends RefineTest {
+
+    // splits values on commas, and turns "!" into an error
+    static final Evaluable EVALUABLE = (Properties bindings) -> {
+        Object value = bindings.get("value");
+        if ("!".equals(value)) {
+            return new EvalError("error");
+        } else if (value instanceof String && ((String) value).contains(",")) {
+            return ((String) value).split(",", -1);
+        }
+        return value;
+    };
+
+    Project project;
+    NominalValueIndex index;
+
+    @BeforeMethod
+    public void setUpProject() {
+        project = createProject(new String[] { "column" },
+                new Serializable[][] {
+                        { "a" },
+                        { 1L },
+                        { "1" },
+                        { "a,b,a" },
+                        { null },
+                        { "!" },
+                        { "b," },
+                        { 1L },
+                        { "c" },
+                });
+        index = new NominalValueIndex(project, EVALUABLE, "column", 0);
+    }
+
+    protected void assertSameChoices(BitSet mask) {
+        ExpressionNominalValueGrouper expected = new ExpressionNominalValueGrouper(EVALUABLE, "column", 0);
+        FilterMasks.rows(mask).accept(project, expected);
+        IndexedNominalValueGrouper actual = new IndexedNominalValueGrouper(EVALUABLE, "column", 0, index);
+        FilterMasks.rows(mask).accept(project, actual);
+
+        assertChoices(actual.choices, expected.choices);
+        assertEquals(actual.blankCount, expected.blankCount);
+        assertEquals(actual.errorCount, expected.errorCount);
+    }
+
+    protected void assertChoices(Map<Object, IndexedNominalFacetChoice> actual, Map<Object, IndexedNominalFacetChoice> expected) {
+        assertEquals(actual.keySet(), expected.keySet());
+        for (Object key : expected.keySet()) {
+            assertEquals(actual.get(key).count, expected.get(key).count, key.toString());
+            assertEquals(actual.get(key).decoratedValue.value, expected.get(key).decoratedValue.value, key.toString());
+        }
+    }
+
+    protected BitSet mask(int... indices) {
+        BitSet mask = new BitSet();
+        for (int index : indices) {
+            mask.set(index);
+        }
+        return mask;
+    }
+
+    @Test
+    public void testAllRows() {
+        assertTrue(index.covers(project));
+        assertEquals(index.getGroupCount(), 4);
+        assertSameChoices(null);
+    }
+
+    @Test
+    public void testFilteredRows() {
+        assertSameChoices(mask(2, 3, 7));
+        assertSameChoices(mask(4, 5, 6));
+        assertSameChoices(new BitSet());
+    }
+
+    @Test
+    public void testRecords() {
+        ExpressionNominalValueGrouper expected = new ExpressionNominalValueGrouper(EVALUABLE, "column", 0);
+        FilterMasks.records(null).accept(project, expected);
+        IndexedNominalValueGrouper actual = new IndexedNominalValueGrouper(EVALUABLE, "column", 0, index);
+        FilterMasks.records(null).accept(project, actual);
+
+        assertChoices(actual.choices, expected.choices);
+        assertEquals(actual.blankCount, expected.blankCount);
+        assertEquals(actual.errorCount, expected.errorCount);
+    }
+
+    @Test
+    public void testCombineKeepsFirstValues() {
+        // the first fork sees the string "1" before the second fork sees the number
+        IndexedNominalValueGrouper grouper = new IndexedNominalValueGrouper(EVALUABLE, "column", 0, index);
+        List<IndexedNominalValueGrouper> forks = List.of(grouper.fork(), grouper.fork());
+        for (int r = 0; r < project.rows.size(); r++) {
+            if (r != 1) {
+                forks.get(r < 5 ? 0 : 1).visit(project, r, project.rows.get(r));
+            }
+        }
+        grouper.start(project);
+        grouper.combine(forks.get(0));
+        grouper.combine(forks.get(1));
+        grouper.end(project);
+
+        assertEquals(grouper.choices.get("1").count, 2);
+        assertEquals(grouper.choices.get("1").decoratedValue.value, "1");
+        assertEquals(grouper.choices.get("b").count, 2);
+        assertEquals(grouper.blankCount, 2);
+        assertEquals(grouper.errorCount, 1);
+    }
+}
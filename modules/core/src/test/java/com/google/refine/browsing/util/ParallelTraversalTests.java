@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Properties;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class ParallelTraversalTests extends RefineTest {
+
+    static final int ROW_COUNT = 10000;
+
+    Project project;
+    Evaluable value = new Evaluable() {
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            return bindings.get("value");
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+    };
+
+    /**
+     * Wraps a lambda in a filter which declares itself thread-safe, since lambdas cannot override
+     * {@link RowFilter#isThreadSafe()}.
+     */
+    static RowFilter threadSafe(RowFilter filter) {
+        return new RowFilter() {
+
+            @Override
+            public boolean filterRow(Project project, int rowIndex, Row row) {
+                return filter.filterRow(project, rowIndex, row);
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return true;
+            }
+        };
+    }
+
+    @BeforeMethod
+    public void setUpProject() {
+        Serializable[][] grid = new Serializable[ROW_COUNT][];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            // records of three rows, the last of which has a blank key
+            grid[i] = new Serializable[] { i % 3 == 2 ? null : "key" + i, "v" + (i % 7), i % 5 == 0 ? null : i };
+        }
+        project = createProject(new String[] { "key", "value", "number" }, grid);
+        System.setProperty(ParallelTraversal.MIN_ROWS_PROPERTY, "1000");
+    }
+
+    @AfterMethod
+    public void clearProperty() {
+        System.clearProperty(ParallelTraversal.MIN_ROWS_PROPERTY);
+    }
+
+    protected ExpressionNominalValueGrouper group(boolean parallel, boolean records) {
+        System.setProperty(ParallelTraversal.MIN_ROWS_PROPERTY, parallel ? "1000" : "0");
+        ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(value, "value", 1);
+        ConjunctiveFilteredRows filteredRows = new ConjunctiveFilteredRows();
+        filteredRows.add(threadSafe((project, rowIndex, row) -> rowIndex % 2 == 0));
+        if (records) {
+            new FilteredRecordsAsFilteredRows(new ConjunctiveFilteredRecords()).accept(project, grouper);
+        } else {
+            filteredRows.accept(project, grouper);
+        }
+        return grouper;
+    }
+
+    @Test
+    public void testGroupRowsInParallel() {
+        ExpressionNominalValueGrouper sequential = group(false, false);
+        ExpressionNominalValueGrouper parallel = group(true, false);
+
+        assertEquals(parallel.choices.keySet(), sequential.choices.keySet());
+        for (Object key : sequential.choices.keySet()) {
+            assertEquals(parallel.choices.get(key).count, sequential.choices.get(key).count);
+        }
+        assertEquals(parallel.blankCount, sequential.blankCount);
+        assertEquals(parallel.errorCount, sequential.errorCount);
+    }
+
+    @Test
+    public void testGroupRecordsInParallel() {
+        ExpressionNominalValueGrouper sequential = group(false, true);
+        ExpressionNominalValueGrouper parallel = group(true, true);
+
+        assertEquals(parallel.choices.keySet(), sequential.choices.keySet());
+        for (Object key : sequential.choices.keySet()) {
+            assertEquals(parallel.choices.get(key).count, sequential.choices.get(key).count);
+        }
+    }
+
+    @Test
+    public void testBinNumbersInParallel() {
+        ExpressionBasedRowEvaluable evaluable = new ExpressionBasedRowEvaluable("number", 2, value);
+        NumericBinIndex index = new NumericBinRowIndex(project, evaluable);
+
+        System.setProperty(ParallelTraversal.MIN_ROWS_PROPERTY, "0");
+        ExpressionNumericValueBinner sequential = new ExpressionNumericValueBinner(evaluable, index);
+        new ConjunctiveFilteredRows().accept(project, sequential);
+        System.setProperty(ParallelTraversal.MIN_ROWS_PROPERTY, "1000");
+        ExpressionNumericValueBinner parallel = new ExpressionNumericValueBinner(evaluable, index);
+        new ConjunctiveFilteredRows().accept(project, parallel);
+
+        assertEquals(parallel.bins, sequential.bins);
+        assertEquals(parallel.numericCount, ROW_COUNT - ROW_COUNT / 5);
+        assertEquals(parallel.blankCount, ROW_COUNT / 5);
+        assertEquals(parallel.nonNumericCount, 0);
+    }
+
+    @Test
+    public void testOtherVisitorsAreSequential() {
+        List<Integer> visited = new ArrayList<>();
+        List<String> threads = new ArrayList<>();
+        RowVisitor visitor = new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                visited.add(rowIndex);
+                threads.add(Thread.currentThread().getName());
+                return rowIndex == 5000;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        };
+
+        new ConjunctiveFilteredRows().accept(project, visitor);
+
+        assertEquals(visited.size(), 5001);
+        for (int i = 0; i < visited.size(); i++) {
+            assertEquals(visited.get(i).intValue(), i);
+        }
+        assertTrue(threads.stream().allMatch(Thread.currentThread().getName()::equals));
+    }
+
+    @Test
+    public void testThreadUnsafeExpressionsAreSequential() {
+        Evaluable unsafe = new Evaluable() {
+
+            @Override
+            public Object evaluate(Properties bindings) {
+                return bindings.get("value");
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return false;
+            }
+        };
+        ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(unsafe, "value", 1);
+
+        assertEquals(grouper.fork(), null);
+        assertFalse(ParallelTraversal.visitRows(project, grouper, null));
+    }
+
+    @Test
+    public void testThreadUnsafeFiltersAreSequential() {
+        ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(value, "value", 1);
+        RowFilter even = (project, rowIndex, row) -> rowIndex % 2 == 0;
+
+        assertTrue(ParallelTraversal.visitRows(project, grouper, threadSafe(even)));
+        assertFalse(ParallelTraversal.visitRows(project, grouper, even));
+
+        ConjunctiveFilteredRows filteredRows = new ConjunctiveFilteredRows();
+        filteredRows.add(threadSafe(even));
+        assertTrue(filteredRows.asRowFilter().isThreadSafe());
+        filteredRows.add(even);
+        assertFalse(filteredRows.asRowFilter().isThreadSafe());
+    }
+
+    @Test
+    public void testMatchRowsInParallel() {
+        List<RowFilter> filters = new ArrayList<>();
+        filters.add(threadSafe((project, rowIndex, row) -> rowIndex % 3 == 0));
+        filters.add(null);
+        filters.add(threadSafe((project, rowIndex, row) -> row.getCellValue(2) != null));
+
+        System.setProperty(ParallelTraversal.MIN_ROWS_PROPERTY, "0");
+        BitSet[] sequential = FilterMasks.matchRows(project, filters);
+        System.setProperty(ParallelTraversal.MIN_ROWS_PROPERTY, "1000");
+        BitSet[] parallel = FilterMasks.matchRows(project, filters);
+
+        assertEquals(parallel, sequential);
+        assertEquals(parallel[0].cardinality(), (ROW_COUNT + 2) / 3);
+        assertNull(parallel[1]);
+        assertEquals(parallel[2].cardinality(), ROW_COUNT - ROW_COUNT / 5);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testExceptionsArePropagated() {
+        ConjunctiveFilteredRows filteredRows = new ConjunctiveFilteredRows();
+        filteredRows.add(threadSafe((project, rowIndex, row) -> {
+            if (rowIndex == 7000) {
+                throw new IllegalStateException();
+            }
+            return true;
+        }));
+        filteredRows.accept(project, new ExpressionNominalValueGrouper(value, "value", 1));
+    }
+}
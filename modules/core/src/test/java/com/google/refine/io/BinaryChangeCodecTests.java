@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.expr.EvalError;
+import com.google.refine.history.BinaryChange;
+import com.google.refine.history.Change;
+import com.google.refine.history.History;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.ColumnRemovalChange;
+import com.google.refine.model.changes.MassCellChange;
+import com.google.refine.model.changes.RowRemovalChange;
+import com.google.refine.util.Pool;
+import com.google.refine.util.TestUtils;
+
+public class BinaryChangeCodecTests extends RefineTest {
+
+    File dir;
+    Project project;
+    Recon recon;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = TestUtils.createTempDirectory("openrefine-binary-change-test");
+        recon = new Recon(1234L, "http://www.wikidata.org/entity/", "http://www.wikidata.org/prop/direct/");
+        project = createProject(new String[] { "a", "b" },
+                new Serializable[][] {
+                        { "foo", 10000000000L },
+                        { "bar", new Cell("Paris", recon) },
+                        { null, 2.5 },
+                        { "foo", OffsetDateTime.of(2020, 1, 2, 3, 4, 5, 6, ZoneOffset.UTC) }
+                });
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        FileProjectManager.deleteDir(dir);
+    }
+
+    private Change roundTrip(Change change) throws Exception {
+        assertTrue(BinaryChangeCodec.supports(change));
+        Pool pool = new Pool();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryChangeCodec.write(out, (BinaryChange) change, pool);
+
+        // the recons are read back from the pool, as they would be from pool.txt
+        Pool loadedPool = new Pool();
+        ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        pool.save(poolBytes);
+        loadedPool.load(new ByteArrayInputStream(poolBytes.toByteArray()));
+        return BinaryChangeCodec.read(new ByteArrayInputStream(out.toByteArray()), loadedPool);
+    }
+
+    @Test
+    public void testMassCellChangeRoundTrip() throws Exception {
+        List<CellChange> cellChanges = new ArrayList<>();
+        Serializable[] values = { "foo", 10000000000L, 42, 2.5, true,
+                OffsetDateTime.of(2020, 1, 2, 3, 4, 5, 6, ZoneOffset.UTC), new EvalError("boom"), null };
+        for (int i = 0; i < values.length; i++) {
+            cellChanges.add(new CellChange(i, 0, new Cell("foo", i % 2 == 0 ? recon : null), new Cell(values[i], null)));
+        }
+        cellChanges.add(new CellChange(3, 1, null, null));
+
+        MassCellChange change = new MassCellChange(cellChanges, "a", false);
+        MassCellChange loaded = (MassCellChange) roundTrip(change);
+
+        Project other = createProject(new String[] { "a", "b" }, new Serializable[values.length][2]);
+        loaded.apply(other);
+        for (int i = 0; i < values.length; i++) {
+            Object value = other.rows.get(i).getCellValue(0);
+            if (values[i] instanceof EvalError) {
+                assertEquals(((EvalError) value).message, "boom");
+            } else {
+                assertEquals(value, values[i]);
+            }
+        }
+        loaded.revert(other);
+        assertEquals(other.rows.get(0).getCell(0).recon.id, recon.id);
+        assertNull(other.rows.get(1).getCell(0).recon);
+        assertEquals(other.rows.get(5).getCellValue(0), "foo");
+    }
+
+    @Test
+    public void testColumnRemovalChangeRoundTrip() throws Exception {
+        ColumnRemovalChange change = new ColumnRemovalChange(1);
+        change.apply(project);
+        assertEquals(project.columnModel.columns.size(), 1);
+
+        Change loaded = roundTrip(change);
+        loaded.revert(project);
+
+        assertEquals(project.columnModel.getColumnNames(), Arrays.asList("a", "b"));
+        assertEquals(project.rows.get(0).getCellValue(1), 10000000000L);
+        assertEquals(project.rows.get(1).getCell(1).recon.id, recon.id);
+        assertEquals(project.rows.get(3).getCellValue(1), OffsetDateTime.of(2020, 1, 2, 3, 4, 5, 6, ZoneOffset.UTC));
+    }
+
+    @Test
+    public void testRowRemovalChangeRoundTrip() throws Exception {
+        project.rows.get(2).flagged = true;
+        RowRemovalChange change = new RowRemovalChange(Arrays.asList(1, 2));
+        change.apply(project);
+        assertEquals(project.rows.size(), 2);
+
+        Change loaded = roundTrip(change);
+        loaded.revert(project);
+
+        assertEquals(project.rows.size(), 4);
+        assertEquals(project.rows.get(1).getCellValue(0), "bar");
+        assertTrue(project.rows.get(2).flagged);
+        assertEquals(project.rows.get(2).getCellValue(1), 2.5);
+    }
+
+    @Test
+    public void testSubclassesWithoutBinaryFormAreNotSupported() {
+        MassCellChange change = new MassCellChange(new ArrayList<CellChange>(), "a", false) {
+        };
+        assertFalse(BinaryChangeCodec.supports(change));
+    }
+
+    @Test
+    public void testChangeFilesKeepLoadingFromText() throws Exception {
+        FileHistoryEntryManager manager = new FileHistoryEntryManager();
+        CellChange cellChange = new CellChange(0, 0, new Cell("foo", null), new Cell("bar", recon));
+        HistoryEntry entry = new HistoryEntry(HistoryEntry.allocateID(), project, "edit", null,
+                new MassCellChange(cellChange, "a", false));
+
+        File binaryFile = new File(dir, "binary.change.zip");
+        manager.saveChange(entry, binaryFile);
+        File textFile = new File(dir, "text.change.zip");
+        System.setProperty(ProjectUtilities.PROJECT_FORMAT_PROPERTY, "legacy");
+        try {
+            manager.saveChange(entry, textFile);
+        } finally {
+            System.clearProperty(ProjectUtilities.PROJECT_FORMAT_PROPERTY);
+        }
+
+        try (ZipFile zip = new ZipFile(binaryFile)) {
+            assertNotNull(zip.getEntry(BinaryChangeCodec.CHANGE_ENTRY));
+            assertNull(zip.getEntry("change.txt"));
+        }
+        try (ZipFile zip = new ZipFile(textFile)) {
+            assertNull(zip.getEntry(BinaryChangeCodec.CHANGE_ENTRY));
+            assertNotNull(zip.getEntry("change.txt"));
+        }
+
+        for (File file : new File[] { binaryFile, textFile }) {
+            entry.setChange(null);
+            manager.loadChange(entry, file);
+            entry.getChange().apply(project);
+            assertEquals(project.rows.get(0).getCellValue(0), "bar");
+            assertEquals(project.rows.get(0).getCell(0).recon.id, recon.id);
+            entry.getChange().revert(project);
+            assertEquals(project.rows.get(0).getCellValue(0), "foo");
+        }
+    }
+
+    @Test
+    public void testBinaryFormIsSmallerThanText() throws Exception {
+        List<CellChange> cellChanges = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            cellChanges.add(new CellChange(i, 0, new Cell("value " + (i % 10), null), new Cell((long) i, null)));
+        }
+        MassCellChange change = new MassCellChange(cellChanges, "a", false);
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BinaryChangeCodec.write(binary, change, new Pool());
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        History.writeOneChange(text, change, new Pool());
+
+        assertTrue(binary.size() * 5 < text.size(), binary.size() + " bytes vs " + text.size());
+    }
+}
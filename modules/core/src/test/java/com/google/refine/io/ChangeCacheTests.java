@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.ProjectMetadata;
+import com.google.refine.history.ChangeCache;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.ModelException;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.util.TestUtils;
+
+public class ChangeCacheTests {
+
+    File workspaceDir;
+    Project project;
+    ChangeCache originalCache;
+
+    @BeforeMethod
+    public void setUp() throws IOException, ModelException {
+        originalCache = ChangeCache.singleton;
+        workspaceDir = TestUtils.createTempDirectory("openrefine-change-cache-test");
+        FileProjectManager manager = new FileProjectManager(workspaceDir);
+        ProjectManager.singleton = manager;
+
+        project = new Project();
+        ProjectMetadata metadata = new ProjectMetadata();
+        metadata.setName("change cache");
+        manager.registerProject(project, metadata);
+        project.columnModel.addColumn(0, new Column(0, "a"), true);
+        Row row = new Row(1);
+        row.setCell(0, new Cell("0", null));
+        project.rows.add(row);
+        project.update();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ChangeCache.singleton = originalCache;
+        FileProjectManager.deleteDir(workspaceDir);
+    }
+
+    protected HistoryEntry edit(String value) {
+        HistoryEntry entry = new HistoryEntry(HistoryEntry.allocateID(), project, "Set to " + value, null,
+                new CellChange(0, 0, project.rows.get(0).getCell(0), new Cell(value, null)));
+        project.history.addEntry(entry);
+        return entry;
+    }
+
+    @Test
+    public void testLeastRecentlyUsedChangesAreUnloaded() {
+        ChangeCache cache = new ChangeCache(1);
+        ChangeCache.singleton = cache;
+
+        HistoryEntry first = edit("1");
+        HistoryEntry second = edit("2");
+
+        // the budget only leaves room for the change which was last saved
+        assertNull(first.getChange());
+        assertNotNull(second.getChange());
+        assertEquals(cache.getCount(), 1);
+        assertEquals(cache.getEvictions(), 1);
+
+        // undoing reverts the second change, which is still loaded, and loads the first one back from disk
+        project.history.undoRedo(0);
+        assertEquals(project.rows.get(0).getCellValue(0), "0");
+        assertEquals(cache.getHits(), 1);
+        assertEquals(cache.getMisses(), 1);
+        assertNotNull(first.getChange());
+        assertNull(second.getChange());
+
+        project.history.undoRedo(second.id);
+        assertEquals(project.rows.get(0).getCellValue(0), "2");
+        assertEquals(cache.getMisses(), 2);
+    }
+
+    @Test
+    public void testChangesWithinBudgetStayLoaded() {
+        ChangeCache cache = new ChangeCache(1024 * 1024);
+        ChangeCache.singleton = cache;
+
+        HistoryEntry first = edit("1");
+        HistoryEntry second = edit("2");
+        project.history.undoRedo(0);
+
+        assertNotNull(first.getChange());
+        assertNotNull(second.getChange());
+        assertEquals(cache.getCount(), 2);
+        assertTrue(cache.getSize() > 0);
+        assertEquals(cache.getEvictions(), 0);
+        assertEquals(cache.getMisses(), 0);
+    }
+
+    @Test
+    public void testDisposedProjectIsForgotten() {
+        ChangeCache cache = new ChangeCache(1024 * 1024);
+        ChangeCache.singleton = cache;
+
+        edit("1");
+        project.dispose();
+
+        assertEquals(cache.getCount(), 0);
+        assertEquals(cache.getSize(), 0);
+    }
+}
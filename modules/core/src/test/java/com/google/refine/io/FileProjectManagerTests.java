@@ -33,6 +33,8 @@ import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertThrows;
 import static org.testng.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -45,6 +47,7 @@ import org.apache.commons.io.FileUtils;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.ProjectMetadata;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
@@ -161,6 +164,33 @@ public class FileProjectManagerTests {
         assertEquals(manager.getProjectID("B"), idB);
     }
 
+    @Test
+    public void exportAndImportProject() throws Exception {
+        FileProjectManager manager = new FileProjectManager(workspaceDir);
+        ProjectManager.singleton = manager;
+        Project project = new Project();
+        ProjectMetadata metadata = new ProjectMetadata();
+        metadata.setName("exported");
+        manager.registerProject(project, metadata);
+        manager.saveMetadata(metadata, project.id);
+        manager.ensureProjectSaved(project.id);
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        FileProjectManager.gzipTarToOutputStream(project, archive);
+
+        long importedID = Project.generateID();
+        manager.importProject(importedID, new ByteArrayInputStream(archive.toByteArray()), true);
+        for (String name : manager.getProjectDir(project.id).list()) {
+            File exported = new File(manager.getProjectDir(project.id), name);
+            if (exported.isFile()) {
+                assertEquals(FileUtils.readFileToByteArray(new File(manager.getProjectDir(importedID), name)),
+                        FileUtils.readFileToByteArray(exported));
+            }
+        }
+        assertTrue(manager.loadProjectMetadata(importedID));
+        assertEquals(manager.getProjectMetadata(importedID).getName(), "exported");
+    }
+
     @Test
     public void testUntarZipSlip() throws IOException {
         FileProjectManager manager = new FileProjectManagerStub(workspaceDir);
@@ -0,0 +1,302 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.ProjectMetadata;
+import com.google.refine.history.History;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.history.HistoryEntryManager;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.ModelException;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSnapshot;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellAtRow;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.ColumnAdditionChange;
+import com.google.refine.util.TestUtils;
+
+public class HistoryCheckpointTests {
+
+    File workspaceDir;
+    FileProjectManager manager;
+    FileHistoryEntryManager historyEntryManager = new FileHistoryEntryManager();
+    Project project;
+    List<HistoryEntry> entries = new ArrayList<>();
+    int restores;
+
+    @BeforeMethod
+    public void setUp() throws IOException, ModelException {
+        System.setProperty(History.CHECKPOINT_INTERVAL_PROPERTY, "2");
+        workspaceDir = TestUtils.createTempDirectory("openrefine-history-checkpoint-test");
+        restores = 0;
+        manager = new FileProjectManager(workspaceDir) {
+
+            @Override
+            public HistoryEntryManager getHistoryEntryManager() {
+                return new FileHistoryEntryManager() {
+
+                    @Override
+                    public boolean restoreCheckpoint(Project project, long entryID) {
+                        restores++;
+                        return super.restoreCheckpoint(project, entryID);
+                    }
+                };
+            }
+        };
+        ProjectManager.singleton = manager;
+
+        project = new Project();
+        ProjectMetadata metadata = new ProjectMetadata();
+        metadata.setName("checkpoints");
+        manager.registerProject(project, metadata);
+        project.columnModel.addColumn(0, new Column(0, "a"), true);
+        project.rows.add(row("0"));
+        project.update();
+        entries.clear();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        System.clearProperty(History.CHECKPOINT_INTERVAL_PROPERTY);
+        FileProjectManager.deleteDir(workspaceDir);
+    }
+
+    protected void edit(int step) throws Exception {
+        entries.add(edit(project, step));
+        // checkpoints are of the entry which is current when the writer gets to them
+        FileHistoryEntryManager.flushCheckpoints();
+    }
+
+    protected HistoryEntry edit(Project project, int step) {
+        Cell oldCell = project.rows.get(0).getCell(0);
+        HistoryEntry entry = new HistoryEntry(HistoryEntry.allocateID(), project, "Set to " + step, null,
+                new CellChange(0, 0, oldCell, new Cell(Integer.toString(step), null)));
+        project.history.addEntry(entry);
+        return entry;
+    }
+
+    /**
+     * @return a project whose rows are plain row objects, whatever the default row store is
+     */
+    protected Project memoryProject(Row... rows) throws ModelException {
+        String rowStore = System.getProperty(Project.ROW_STORE_PROPERTY);
+        System.setProperty(Project.ROW_STORE_PROPERTY, Project.MEMORY_ROW_STORE);
+        Project project = new Project();
+        if (rowStore == null) {
+            System.clearProperty(Project.ROW_STORE_PROPERTY);
+        } else {
+            System.setProperty(Project.ROW_STORE_PROPERTY, rowStore);
+        }
+        ProjectMetadata metadata = new ProjectMetadata();
+        metadata.setName("plain rows");
+        manager.registerProject(project, metadata);
+        project.columnModel.addColumn(0, new Column(0, "a"), true);
+        project.rows.addAll(List.of(rows));
+        project.update();
+        return project;
+    }
+
+    static protected Row row(String value) {
+        Row row = new Row(1);
+        row.setCell(0, new Cell(value, null));
+        return row;
+    }
+
+    @Test
+    public void testCheckpointsAreWrittenAtInterval() throws Exception {
+        for (int step = 1; step <= 5; step++) {
+            edit(step);
+        }
+        FileHistoryEntryManager.flushCheckpoints();
+
+        Set<Long> checkpoints = historyEntryManager.getCheckpoints(project.id);
+        assertEquals(checkpoints.size(), 2);
+        assertTrue(checkpoints.contains(entries.get(1).id));
+        assertTrue(checkpoints.contains(entries.get(3).id));
+    }
+
+    @Test
+    public void testUndoRedoRestoresNearestCheckpoint() throws Exception {
+        HistoryEntry column = new HistoryEntry(HistoryEntry.allocateID(), project, "Add column", null,
+                new ColumnAdditionChange("b", 1, Collections.singletonList(new CellAtRow(0, new Cell("x", null)))));
+        project.history.addEntry(column);
+        entries.add(column);
+        for (int step = 2; step <= 9; step++) {
+            edit(step);
+        }
+        FileHistoryEntryManager.flushCheckpoints();
+
+        // without a checkpoint, undoing to entry 3 would need the changes of entries 4 to 9: remove them
+        File historyDir = new File(manager.getProjectDir(project.id), FileHistoryEntryManager.HISTORY_DIR);
+        for (int i = 4; i < 9; i++) {
+            entries.get(i).setChange(null);
+            new File(historyDir, entries.get(i).id + ".change.zip").delete();
+        }
+
+        project.history.undoRedo(entries.get(2).id);
+
+        assertEquals(restores, 1);
+        assertEquals(project.rows.get(0).getCellValue(0), "3");
+        assertEquals(project.rows.get(0).getCellValue(1), "x");
+        assertEquals(project.columnModel.getColumnNames(), List.of("a", "b"));
+        assertEquals(project.history.getLastPastEntries(0).size(), 3);
+        assertEquals(project.history.getFutureEntries().size(), 6);
+
+        // back to the start, undoing the remaining entries
+        project.history.undoRedo(0);
+        assertEquals(project.rows.get(0).getCellValue(0), "0");
+        assertEquals(project.columnModel.getColumnNames(), List.of("a"));
+
+        // and forward again, straight to the checkpoint of entry 4
+        project.history.undoRedo(entries.get(3).id);
+        assertEquals(project.rows.get(0).getCellValue(0), "4");
+        assertEquals(project.rows.get(0).getCellValue(1), "x");
+        assertEquals(project.history.getLastPastEntries(0).size(), 4);
+    }
+
+    @Test
+    public void testShortUndoRedoDoesNotRestoreCheckpoints() throws Exception {
+        for (int step = 1; step <= 4; step++) {
+            edit(step);
+        }
+
+        project.history.undoRedo(entries.get(2).id);
+        project.history.undoRedo(entries.get(3).id);
+        // as far as the checkpoint interval, which replaying the changes is expected to be quicker than
+        project.history.undoRedo(entries.get(1).id);
+
+        assertEquals(project.rows.get(0).getCellValue(0), "2");
+        assertEquals(restores, 0);
+    }
+
+    @Test
+    public void testBudgetThinsOutCheckpoints() throws Exception {
+        for (int step = 1; step <= 8; step++) {
+            edit(step);
+        }
+        FileHistoryEntryManager.flushCheckpoints();
+        File dir = historyEntryManager.getCheckpointDir(project.id);
+        assertEquals(FileHistoryEntryManager.listCheckpoints(dir).size(), 4);
+
+        long total = 0;
+        for (long entryID : FileHistoryEntryManager.listCheckpoints(dir)) {
+            total += FileHistoryEntryManager.getCheckpointFile(dir, entryID).length();
+        }
+        FileHistoryEntryManager.enforceCheckpointBudget(project, dir, total - 1);
+
+        Set<Long> checkpoints = FileHistoryEntryManager.listCheckpoints(dir);
+        assertEquals(checkpoints.size(), 3);
+        assertFalse(checkpoints.contains(entries.get(1).id));
+    }
+
+    @Test
+    public void testCheckpointsOfDiscardedEntriesAreDeleted() throws Exception {
+        for (int step = 1; step <= 4; step++) {
+            edit(step);
+        }
+        project.history.undoRedo(entries.get(0).id);
+        edit(5);
+        FileHistoryEntryManager.flushCheckpoints();
+
+        Set<Long> checkpoints = historyEntryManager.getCheckpoints(project.id);
+        assertFalse(checkpoints.contains(entries.get(1).id));
+        assertFalse(checkpoints.contains(entries.get(3).id));
+        assertTrue(checkpoints.contains(entries.get(4).id));
+    }
+
+    @Test
+    public void testCheckpointsAreCapturedOffTheEditingThread() throws Exception {
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        Row recording = new Row(1) {
+
+            @Override
+            public Row dup() {
+                threads.add(Thread.currentThread().getName());
+                return super.dup();
+            }
+        };
+        recording.setCell(0, new Cell("0", null));
+        Project plain = memoryProject(recording, row("1"), row("2"));
+
+        edit(plain, 1);
+        HistoryEntry second = edit(plain, 2);
+        FileHistoryEntryManager.flushCheckpoints();
+
+        assertEquals(threads, List.of("history-checkpoint-writer"));
+        assertTrue(historyEntryManager.getCheckpoints(plain.id).contains(second.id));
+    }
+
+    @Test
+    public void testSnapshotCopiesRowsInChunks() throws Exception {
+        Project plain = memoryProject(row("0"), row("1"), row("2"), row("3"), row("4"));
+
+        ProjectSnapshot snapshot = plain.snapshot(2);
+
+        assertEquals(snapshot.rows.size(), 5);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(snapshot.rows.get(i).getCellValue(0), Integer.toString(i));
+        }
+    }
+
+    @Test
+    public void testSnapshotIsDroppedWhenEditedDuringTheCopy() throws Exception {
+        Project[] plain = new Project[1];
+        Row editing = new Row(1) {
+
+            @Override
+            public Row dup() {
+                // an edit between two chunks, which can only be done by this thread as it holds the lock
+                edit(plain[0], 1);
+                return super.dup();
+            }
+        };
+        editing.setCell(0, new Cell("0", null));
+        plain[0] = memoryProject(row("0"), editing, row("2"));
+
+        assertNull(plain[0].snapshot(1));
+    }
+}
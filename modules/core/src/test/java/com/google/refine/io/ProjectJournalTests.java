@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.ProjectMetadata;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.ModelException;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.util.TestUtils;
+
+public class ProjectJournalTests {
+
+    File workspaceDir;
+    FileProjectManager manager;
+    Project project;
+    File projectDir;
+
+    @BeforeMethod
+    public void setUp() throws IOException, ModelException {
+        workspaceDir = TestUtils.createTempDirectory("openrefine-project-journal-test");
+        manager = new FileProjectManager(workspaceDir);
+        ProjectManager.singleton = manager;
+
+        project = new Project();
+        ProjectMetadata metadata = new ProjectMetadata();
+        metadata.setName("journal");
+        manager.registerProject(project, metadata);
+        project.columnModel.addColumn(0, new Column(0, "a"), true);
+        Row row = new Row(1);
+        row.setCell(0, new Cell("initial", null));
+        project.rows.add(row);
+        project.update();
+        projectDir = manager.getProjectDir(project.id);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ProjectJournal.forget(project.id);
+        FileProjectManager.deleteDir(workspaceDir);
+    }
+
+    protected HistoryEntry edit(String newValue) {
+        Cell oldCell = project.rows.get(0).getCell(0);
+        HistoryEntry entry = new HistoryEntry(HistoryEntry.allocateID(), project, "Set to " + newValue, null,
+                new CellChange(0, 0, oldCell, new Cell(newValue, null)));
+        project.history.addEntry(entry);
+        return entry;
+    }
+
+    @Test
+    public void testSavesAreAppendedAndReplayed() throws IOException {
+        edit("first");
+        ProjectUtilities.save(project);
+        File journal = new File(projectDir, ProjectJournal.JOURNAL_FILE);
+        assertFalse(journal.exists());
+        assertFalse(ProjectUtilities.getSaveStatistics(project.id).journal);
+
+        long dataModified = new File(projectDir, ProjectUtilities.DATA_ZIP).lastModified();
+        HistoryEntry second = edit("second");
+        edit("third");
+        ProjectUtilities.save(project);
+        project.history.undoRedo(second.id);
+        ProjectUtilities.save(project);
+
+        assertTrue(journal.exists());
+        assertEquals(new File(projectDir, ProjectUtilities.DATA_ZIP).lastModified(), dataModified);
+        assertTrue(ProjectUtilities.getSaveStatistics(project.id).journal);
+
+        Project loaded = ProjectUtilities.load(projectDir, project.id);
+        assertEquals(loaded.rows.get(0).getCellValue(0), "second");
+        assertEquals(loaded.history.getLastPastEntries(0).size(), 2);
+        assertEquals(loaded.history.getFutureEntries().size(), 1);
+    }
+
+    @Test
+    public void testTruncatedRecordIsIgnored() throws IOException {
+        edit("first");
+        ProjectUtilities.save(project);
+        edit("second");
+        ProjectUtilities.save(project);
+
+        File journal = new File(projectDir, ProjectJournal.JOURNAL_FILE);
+        Files.write(journal.toPath(), "past=1,2,3\nentryCount=5\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        Project loaded = ProjectUtilities.load(projectDir, project.id);
+        assertEquals(loaded.rows.get(0).getCellValue(0), "second");
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        System.setProperty(ProjectJournal.MAX_RECORDS_PROPERTY, "1");
+        try {
+            edit("first");
+            ProjectUtilities.save(project);
+            edit("second");
+            ProjectUtilities.save(project);
+            File journal = new File(projectDir, ProjectJournal.JOURNAL_FILE);
+            assertTrue(journal.exists());
+
+            edit("third");
+            ProjectUtilities.save(project);
+            assertFalse(journal.exists());
+
+            Project loaded = ProjectUtilities.load(projectDir, project.id);
+            assertEquals(loaded.rows.get(0).getCellValue(0), "third");
+        } finally {
+            System.clearProperty(ProjectJournal.MAX_RECORDS_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testJournalOfAnotherSnapshotIsIgnored() throws IOException {
+        edit("first");
+        ProjectUtilities.save(project);
+        edit("second");
+        ProjectUtilities.save(project);
+
+        // simulate a data file restored from elsewhere
+        project.history.undoRedo(0);
+        ProjectUtilities.saveToFile(project, new File(projectDir, ProjectUtilities.DATA_ZIP), ProjectJournal.newBaseToken());
+
+        Project loaded = ProjectUtilities.load(projectDir, project.id);
+        assertEquals(loaded.rows.get(0).getCellValue(0), "initial");
+    }
+
+    @Test
+    public void testEditAfterJournaledUndo() throws IOException {
+        HistoryEntry first = edit("first");
+        ProjectUtilities.save(project);
+        project.history.undoRedo(0);
+        ProjectUtilities.save(project);
+        assertTrue(ProjectUtilities.getSaveStatistics(project.id).journal);
+
+        edit("second");
+        ProjectUtilities.save(project);
+        assertFalse(ProjectUtilities.getSaveStatistics(project.id).journal);
+        assertFalse(getChangeFile(first).exists());
+
+        Project loaded = ProjectUtilities.load(projectDir, project.id);
+        assertEquals(loaded.rows.get(0).getCellValue(0), "second");
+        assertEquals(loaded.history.getLastPastEntries(0).size(), 1);
+        assertEquals(loaded.history.getFutureEntries().size(), 0);
+    }
+
+    @Test
+    public void testDroppedChangesAreKeptForReplay() throws IOException {
+        HistoryEntry first = edit("first");
+        ProjectUtilities.save(project);
+        project.history.undoRedo(0);
+        ProjectUtilities.save(project);
+
+        // the undone entry is dropped, but replaying the journal still has to revert it from the base snapshot
+        edit("second");
+        assertTrue(getChangeFile(first).exists());
+
+        Project loaded = ProjectUtilities.load(projectDir, project.id);
+        assertEquals(loaded.rows.get(0).getCellValue(0), "initial");
+    }
+
+    protected File getChangeFile(HistoryEntry entry) {
+        return new File(new File(projectDir, FileHistoryEntryManager.HISTORY_DIR), entry.id + ".change.zip");
+    }
+
+    @Test
+    public void testProjectsAreSavedIndependently() throws Exception {
+        Project other = new Project();
+        ProjectMetadata metadata = new ProjectMetadata();
+        metadata.setName("other");
+        manager.registerProject(other, metadata);
+        other.columnModel.addColumn(0, new Column(0, "a"), true);
+        other.update();
+
+        Thread first = saveInBackground(project);
+        Thread second;
+        synchronized (project) {
+            // the save of the first project waits for its lock, in the middle of the save
+            first.start();
+            while (first.getState() != Thread.State.BLOCKED) {
+                Thread.sleep(1);
+            }
+            second = saveInBackground(other);
+            second.start();
+            second.join(5000);
+            assertFalse(second.isAlive());
+        }
+        first.join();
+        assertTrue(new File(projectDir, ProjectUtilities.DATA_ZIP).exists());
+        assertTrue(new File(manager.getProjectDir(other.id), ProjectUtilities.DATA_ZIP).exists());
+        ProjectJournal.forget(other.id);
+    }
+
+    protected Thread saveInBackground(Project project) {
+        Thread thread = new Thread(() -> {
+            try {
+                ProjectUtilities.save(project);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.ZipFile;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.PagedRowList;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSnapshot;
+import com.google.refine.model.Recon;
+import com.google.refine.util.TestUtils;
+
+public class ProjectUtilitiesTests extends RefineTest {
+
+    File dir;
+    Project project;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = TestUtils.createTempDirectory("openrefine-project-utilities-test");
+        Recon recon = new Recon(1234L, "http://www.wikidata.org/entity/", "http://www.wikidata.org/prop/direct/");
+        project = createProject(new String[] { "a", "b", "c" },
+                new Serializable[][] {
+                        { "foo", 10000000000L, new Cell("Paris", recon) },
+                        { "foo", 2.5, OffsetDateTime.of(2020, 1, 2, 3, 4, 5, 6, ZoneOffset.UTC) },
+                        { null, true, new EvalError("boom") },
+                        { "bar", -12, new Cell(null, recon) }
+                });
+        project.rows.get(1).flagged = true;
+        project.rows.get(2).starred = true;
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        FileProjectManager.deleteDir(dir);
+    }
+
+    @Test
+    public void testSaveAndLoadColumnar() throws IOException {
+        File file = new File(dir, ProjectUtilities.DATA_ZIP);
+        ProjectUtilities.saveToFile(project, file);
+
+        try (ZipFile zip = new ZipFile(file)) {
+            assertNotNull(zip.getEntry(ColumnarRowCodec.ROWS_ENTRY));
+        }
+
+        Project loaded = ProjectUtilities.loadFromFile(file, project.id);
+        assertSameGrid(loaded, project);
+        assertTrue(loaded.rows.get(1).flagged);
+        assertFalse(loaded.rows.get(1).starred);
+        assertTrue(loaded.rows.get(2).starred);
+        assertEquals(loaded.rows.get(3).getCellValue(1), -12);
+        assertTrue(loaded.rows.get(0).getCell(2).recon == loaded.rows.get(3).getCell(2).recon);
+    }
+
+    @Test
+    public void testLegacyFormatStillLoads() throws IOException {
+        File file = new File(dir, ProjectUtilities.DATA_ZIP);
+        System.setProperty(ProjectUtilities.PROJECT_FORMAT_PROPERTY, "legacy");
+        try {
+            ProjectUtilities.saveToFile(project, file);
+        } finally {
+            System.clearProperty(ProjectUtilities.PROJECT_FORMAT_PROPERTY);
+        }
+
+        try (ZipFile zip = new ZipFile(file)) {
+            assertNull(zip.getEntry(ColumnarRowCodec.ROWS_ENTRY));
+        }
+
+        Project loaded = ProjectUtilities.loadFromFile(file, project.id);
+        assertSameGrid(loaded, project);
+        assertTrue(loaded.rows.get(1).flagged);
+    }
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterChanges() throws IOException {
+        ProjectSnapshot snapshot = project.snapshot();
+        project.rows.get(0).setCell(0, new Cell("changed", null));
+        project.rows.get(0).flagged = true;
+        project.rows.remove(3);
+
+        File file = new File(dir, ProjectUtilities.DATA_ZIP);
+        ProjectUtilities.saveToFile(snapshot, file, null);
+
+        Project loaded = ProjectUtilities.loadFromFile(file, project.id);
+        assertEquals(loaded.rows.size(), 4);
+        assertEquals(loaded.rows.get(0).getCellValue(0), "foo");
+        assertFalse(loaded.rows.get(0).flagged);
+    }
+
+    @Test
+    public void testSaveAndLoadPaged() throws IOException {
+        File file = new File(dir, ProjectUtilities.DATA_ZIP);
+        ProjectUtilities.saveToFile(project, file);
+
+        System.setProperty(Project.ROW_STORE_PROPERTY, Project.PAGED_ROW_STORE);
+        Project paged;
+        try {
+            paged = ProjectUtilities.loadFromFile(file, project.id);
+        } finally {
+            System.clearProperty(Project.ROW_STORE_PROPERTY);
+        }
+        assertTrue(paged.rows instanceof PagedRowList);
+        assertSameGrid(paged, project);
+
+        // paged rows are written as their encoded pages, which load back into an in-memory project
+        File pagedFile = new File(dir, "paged.zip");
+        ProjectUtilities.saveToFile(paged, pagedFile);
+        paged.dispose();
+
+        Project loaded = ProjectUtilities.loadFromFile(pagedFile, project.id);
+        assertFalse(loaded.rows instanceof PagedRowList);
+        assertSameGrid(loaded, project);
+        assertTrue(loaded.rows.get(1).flagged);
+        assertTrue(loaded.rows.get(2).starred);
+    }
+
+    protected void assertSameGrid(Project actual, Project expected) {
+        assertEquals(actual.columnModel.getColumnNames(), expected.columnModel.getColumnNames());
+        assertEquals(actual.rows.size(), expected.rows.size());
+        for (int i = 0; i != expected.rows.size(); i++) {
+            for (int j = 0; j != expected.columnModel.columns.size(); j++) {
+                Cell actualCell = actual.rows.get(i).getCell(j);
+                Cell expectedCell = expected.rows.get(i).getCell(j);
+                assertEquals(actualCell == null ? null : actualCell.value, expectedCell == null ? null : expectedCell.value);
+                assertEquals(actualCell == null ? null : actualCell.getReconIdString(),
+                        expectedCell == null ? null : expectedCell.getReconIdString());
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectMetadata;
+import com.google.refine.model.Project;
+import com.google.refine.util.TestUtils;
+
+public class WorkspaceIndexTests {
+
+    File workspaceDir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        workspaceDir = TestUtils.createTempDirectory("openrefine-workspace-index-test");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        FileProjectManager.deleteDir(workspaceDir);
+    }
+
+    protected long createProject(FileProjectManager manager, String name, String... tags) {
+        Project project = new Project();
+        ProjectMetadata metadata = new ProjectMetadata();
+        metadata.setName(name);
+        metadata.setTags(tags);
+        manager.registerProject(project, metadata);
+        return project.id;
+    }
+
+    @Test
+    public void testMetadataIsReadOnDemand() {
+        FileProjectManager manager = new FileProjectManager(workspaceDir);
+        long idA = createProject(manager, "A", "red", "blue");
+        long idB = createProject(manager, "B", "red");
+        long idC = createProject(manager, "C");
+        manager.saveWorkspace();
+
+        manager = new FileProjectManager(workspaceDir);
+        assertEquals(manager.getProjectIds().size(), 3);
+        assertFalse(manager.isMetadataLoaded(idA));
+        assertFalse(manager.isMetadataLoaded(idB));
+        // tags are known from the index
+        assertEquals(manager.getAllProjectsTags(), Map.of("red", 2, "blue", 1));
+        assertEquals(manager.getWorkspaceIndex().get(idB).name, "B");
+
+        assertEquals(manager.getProjectMetadata(idB).getName(), "B");
+        assertTrue(manager.isMetadataLoaded(idB));
+        assertFalse(manager.isMetadataLoaded(idA));
+
+        // listing all the projects reads the remaining metadata
+        Map<Long, ProjectMetadata> all = manager.getAllProjectMetadata();
+        assertEquals(all.size(), 3);
+        for (ProjectMetadata metadata : all.values()) {
+            assertTrue(metadata.getName().length() == 1);
+        }
+        assertTrue(manager.isMetadataLoaded(idA));
+        assertTrue(manager.isMetadataLoaded(idC));
+    }
+
+    @Test
+    public void testIndexFollowsMetadataChanges() {
+        FileProjectManager manager = new FileProjectManager(workspaceDir);
+        long idA = createProject(manager, "A", "red");
+        long idB = createProject(manager, "B");
+        manager.saveWorkspace();
+
+        manager.getProjectMetadata(idA).setTags(new String[] { "green" });
+        manager.getProjectMetadata(idA).updateModified();
+        manager.deleteProject(idB);
+        manager.saveWorkspace();
+
+        WorkspaceIndex index = WorkspaceIndex.load(workspaceDir);
+        assertEquals(index.get(idA).tags, new String[] { "green" });
+        assertNull(index.get(idB));
+
+        manager = new FileProjectManager(workspaceDir);
+        assertEquals(manager.getAllProjectsTags(), Map.of("green", 1));
+    }
+
+    @Test
+    public void testStaleEntriesAreIgnored() throws IOException {
+        FileProjectManager manager = new FileProjectManager(workspaceDir);
+        long id = createProject(manager, "A", "red");
+        manager.saveWorkspace();
+
+        // the metadata is changed behind the back of the workspace
+        ProjectMetadata metadata = manager.getProjectMetadata(id);
+        metadata.setTags(new String[] { "yellow", "orange" });
+        File projectDir = manager.getProjectDir(id);
+        ProjectMetadataUtilities.saveToFile(metadata, new File(projectDir, ProjectMetadata.DEFAULT_FILE_NAME));
+
+        manager = new FileProjectManager(workspaceDir);
+        assertTrue(manager.isMetadataLoaded(id));
+        assertEquals(manager.getAllProjectsTags(), Map.of("yellow", 1, "orange", 1));
+        assertEquals(WorkspaceIndex.load(workspaceDir).get(id).tags, new String[] { "yellow", "orange" });
+    }
+
+    @Test
+    public void testIndexIsCompacted() throws IOException {
+        FileProjectManager manager = new FileProjectManager(workspaceDir);
+        long id = createProject(manager, "A");
+        manager.saveWorkspace();
+        ProjectMetadata metadata = manager.getProjectMetadata(id);
+        File projectDir = manager.getProjectDir(id);
+
+        WorkspaceIndex index = manager.getWorkspaceIndex();
+        for (int i = 0; i < 100; i++) {
+            metadata.setName("A" + i);
+            index.put(id, metadata, projectDir);
+        }
+
+        File file = new File(workspaceDir, WorkspaceIndex.INDEX_FILE);
+        assertTrue(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size() < 30);
+        assertEquals(WorkspaceIndex.load(workspaceDir).get(id).name, "A99");
+    }
+}
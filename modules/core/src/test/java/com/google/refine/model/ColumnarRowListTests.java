@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.model.changes.RowFlagChange;
+import com.google.refine.util.OffHeapText;
+
+public class ColumnarRowListTests {
+
+    ColumnarRowList rows;
+
+    @BeforeMethod
+    public void setUp() {
+        rows = new ColumnarRowList();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        System.clearProperty(OffHeapText.MIN_LENGTH_PROPERTY);
+    }
+
+    private Row row(Object value) {
+        Row row = new Row(2);
+        row.setCell(0, new Cell((Serializable) value, null));
+        row.setCell(1, new Cell("constant", null));
+        return row;
+    }
+
+    private void assertSameRow(Row actual, Row expected) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(actual.cells.size(), expected.cells.size());
+        for (int c = 0; c < expected.cells.size(); c++) {
+            Cell cell = expected.cells.get(c);
+            if (cell == null) {
+                assertNull(actual.cells.get(c));
+            } else {
+                assertEquals(actual.cells.get(c).value, cell.value);
+                assertEquals(actual.cells.get(c).recon, cell.recon);
+            }
+        }
+        assertEquals(actual.flagged, expected.flagged);
+        assertEquals(actual.starred, expected.starred);
+    }
+
+    @Test
+    public void testCellsAreWrittenThrough() {
+        for (int i = 0; i < 100; i++) {
+            rows.add(row(i));
+        }
+
+        Recon recon = new Recon(42L, null, null);
+        rows.get(5).setCell(0, new Cell("changed", null));
+        rows.get(7).setCell(1, new Cell("matched", recon));
+        rows.get(8).setCell(4, new Cell(null, null));
+        rows.get(9).cells.set(0, null);
+
+        assertEquals(rows.get(5).getCellValue(0), "changed");
+        assertEquals(rows.get(7).getCell(1).recon, recon);
+        assertNull(rows.get(6).getCell(1).recon);
+        // a cell without value is not the same as a missing cell
+        assertEquals(rows.get(8).cells.size(), 5);
+        assertNull(rows.get(8).cells.get(3));
+        assertNull(rows.get(8).cells.get(4).value);
+        assertNull(rows.get(9).getCell(0));
+        assertFalse(rows.get(9).isCellBlank(1));
+        assertTrue(rows.get(9).isCellBlank(0));
+    }
+
+    @Test
+    public void testFlagsAreWrittenBack() {
+        for (int i = 0; i < 10; i++) {
+            rows.add(row(i));
+        }
+        Project project = new Project(1L, rows);
+
+        new RowFlagChange(3, true).apply(project);
+        Row row = rows.get(4);
+        row.starred = true;
+        rows.set(4, row);
+
+        assertTrue(rows.get(3).flagged);
+        assertTrue(rows.get(4).starred);
+        assertFalse(rows.get(5).flagged || rows.get(5).starred);
+    }
+
+    @Test
+    public void testFlagsAreKeptByViews() {
+        for (int i = 0; i < 10; i++) {
+            rows.add(row(i));
+        }
+
+        rows.get(2).flagged = true;
+        rows.get(6).starred = true;
+        ColumnarRowList copy = rows.copy();
+
+        assertSame(rows.get(2), rows.get(2));
+        assertTrue(rows.get(2).flagged);
+        assertTrue(rows.get(6).starred);
+        assertTrue(copy.get(2).flagged);
+        assertTrue(copy.get(6).starred);
+        assertFalse(copy.get(3).flagged || copy.get(3).starred);
+    }
+
+    @Test
+    public void testViewsFollowTheirRows() {
+        for (int i = 0; i < 10; i++) {
+            rows.add(row(i));
+        }
+        Row fifth = rows.get(5);
+        Row seventh = rows.get(7);
+        fifth.flagged = true;
+
+        rows.add(0, row(-1));
+        rows.addAll(3, List.of(row(-2), row(-3)));
+        assertSame(rows.get(8), fifth);
+        assertEquals(fifth.getCellValue(0), 5);
+        assertEquals(rows.getPosition(seventh), 10);
+
+        Row removed = rows.remove(8);
+        assertSame(removed, fifth);
+        assertTrue(fifth.flagged);
+        assertEquals(fifth.getCellValue(0), 5);
+        assertEquals(rows.getPosition(fifth), -1);
+        assertEquals(rows.get(8).getCellValue(0), 6);
+        assertSame(rows.get(9), seventh);
+
+        Row replaced = rows.set(9, row("new"));
+        assertSame(replaced, seventh);
+        assertEquals(seventh.getCellValue(0), 7);
+        assertEquals(rows.get(9).getCellValue(0), "new");
+        // a detached view no longer writes to the list
+        seventh.setCell(0, new Cell("old", null));
+        assertEquals(rows.get(9).getCellValue(0), "new");
+    }
+
+    @Test
+    public void testViewsOfAFullScanAreNotKept() {
+        for (int i = 0; i < 3 * ColumnarRowList.TRACKED_VIEWS; i++) {
+            rows.add(row(i));
+        }
+        Row first = rows.get(0);
+        first.flagged = true;
+
+        for (Row row : rows) {
+            assertEquals(row.getCell(1).value, "constant");
+        }
+
+        assertTrue(rows.getViewCount() <= ColumnarRowList.TRACKED_VIEWS);
+        // the flag written to a view which is not tracked anymore is kept
+        assertTrue(rows.get(0).flagged);
+        // cells of dictionary-encoded values are shared
+        assertSame(rows.get(5).getCell(1), rows.get(6).getCell(1));
+
+        // a view which is not tracked does not read the row which took its place
+        rows.remove(0);
+        expectThrows(ConcurrentModificationException.class, () -> first.getCellValue(0));
+        assertEquals(rows.getPosition(first), -1);
+    }
+
+    @Test
+    public void testBehavesLikeArrayList() {
+        List<Row> expected = new ArrayList<>();
+        Random random = new Random(1234);
+        for (int n = 0; n < 2000; n++) {
+            int operation = random.nextInt(5);
+            Row row = random.nextInt(20) == 0 ? null : row(n);
+            if (row != null) {
+                row.flagged = random.nextBoolean();
+                row.starred = random.nextBoolean();
+            }
+            if (operation == 0 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertSameRow(rows.remove(index), expected.remove(index));
+            } else if (operation == 1 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertSameRow(rows.set(index, row), expected.set(index, row));
+            } else if (operation == 2 && !expected.isEmpty()) {
+                // moving a row of the list itself
+                int from = random.nextInt(expected.size());
+                int to = random.nextInt(expected.size() + 1);
+                expected.add(to, expected.get(from));
+                rows.add(to, rows.get(from));
+            } else {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, row);
+                rows.add(index, row == null ? null : row.dup());
+            }
+        }
+
+        assertEquals(rows.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameRow(rows.get(i), expected.get(i));
+        }
+    }
+
+    @Test
+    public void testRowsSurviveClear() {
+        for (int i = 0; i < 50; i++) {
+            rows.add(row(i));
+        }
+        List<Row> oldRows = new ArrayList<>(rows);
+        ColumnarRowList copy = rows.copy();
+
+        rows.clear();
+        for (int i = 0; i < 50; i++) {
+            rows.add(row(-i));
+        }
+        rows.get(0).setCell(0, new Cell("changed", null));
+
+        assertEquals(oldRows.get(49).getCellValue(0), 49);
+        assertEquals(copy.get(0).getCellValue(0), 0);
+        assertEquals(rows.get(49).getCellValue(0), -49);
+
+        // restoring them, as a change would on undo
+        rows.clear();
+        rows.addAll(oldRows);
+        assertEquals(rows.size(), 50);
+        assertEquals(rows.get(10).getCellValue(0), 10);
+    }
+
+    @Test
+    public void testUsesLessMemoryThanRowObjects() {
+        List<Row> plain = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Row row = row("value " + (i % 10));
+            plain.add(row);
+            rows.add(row);
+        }
+
+        // row and cell objects are gone, the values themselves are still counted
+        assertTrue(MemoryEstimator.estimateColumnarRows(rows) < MemoryEstimator.estimateRows(plain) * 3 / 4);
+    }
+
+    @Test
+    public void testRepeatedStringsAreDictionaryEncoded() {
+        for (int i = 0; i < 3000; i++) {
+            Row row = new Row(3);
+            row.setCell(0, new Cell(i % 5 == 0 ? null : "category " + (i % 4), null));
+            row.setCell(1, new Cell("id " + i, null));
+            row.setCell(2, new Cell("text", null));
+            rows.add(row);
+        }
+        rows.get(10).setCell(2, new Cell(42, null));
+
+        ColumnarRowList.Dictionary dictionary = rows.getDictionary(0);
+        assertEquals(dictionary.size(), 5);
+        assertEquals(dictionary.getValue(rows.getCode(rows.get(6), 0)), "category 2");
+        assertNull(dictionary.getValue(rows.getCode(rows.get(5), 0)));
+        assertEquals(rows.getCode(rows.get(5), 7), -1);
+        // unique values and values of other types are not encoded
+        assertNull(rows.getDictionary(1));
+        assertNull(rows.getDictionary(2));
+        assertEquals(rows.get(2999).getCellValue(1), "id 2999");
+        assertEquals(rows.get(10).getCellValue(2), 42);
+        assertEquals(rows.get(11).getCellValue(2), "text");
+        // codes only refer to rows of the list
+        assertEquals(rows.getCode(rows.get(6).dup(), 0), -1);
+        assertEquals(rows.copy().get(6).getCellValue(0), "category 2");
+    }
+
+    @Test
+    public void testNumbersAreStoredAsPrimitives() {
+        List<Row> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Serializable value = i % 10 == 0 ? null : (i % 3 == 0 ? (Serializable) (i + 0.5) : (Serializable) (long) i);
+            expected.add(row(value));
+            rows.add(row(value));
+        }
+        // rows shifted by insertions and removals keep their numbers
+        expected.add(5, row(7L));
+        rows.add(5, row(7L));
+        expected.remove(20);
+        rows.remove(20);
+        expected.add(row(Double.NaN));
+        rows.add(row(Double.NaN));
+
+        assertTrue(rows.isNumeric(0));
+        assertFalse(rows.isNumeric(1));
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameRow(rows.get(i), expected.get(i));
+            Object value = expected.get(i).getCellValue(0);
+            assertEquals(rows.hasNumber(i, 0), value != null);
+            if (value != null) {
+                assertEquals(rows.getDouble(i, 0), ((Number) value).doubleValue());
+            }
+        }
+        assertEquals(rows.get(3).getCellValue(0), 3.5);
+        assertEquals(rows.get(5).getCellValue(0), 7L);
+        assertEquals(rows.getPosition(rows.get(12)), 12);
+        assertEquals(rows.getPosition(rows.get(12).dup()), -1);
+
+        // a value of another type turns the column back into objects
+        ColumnarRowList copy = rows.copy();
+        rows.get(1).setCell(0, new Cell("one", null));
+        assertFalse(rows.isNumeric(0));
+        assertEquals(rows.get(1).getCellValue(0), "one");
+        assertEquals(rows.get(2).getCellValue(0), 2L);
+        assertTrue(copy.isNumeric(0));
+        assertEquals(copy.get(1).getCellValue(0), 1L);
+    }
+
+    @Test
+    public void testLongStringsAreKeptOffHeap() {
+        System.setProperty(OffHeapText.MIN_LENGTH_PROPERTY, "100");
+        rows = new ColumnarRowList();
+        String text = "Lorem ipsum dolor sit amet. ".repeat(20);
+        for (int i = 0; i < 10; i++) {
+            rows.add(row(i % 2 == 0 ? text + i : "short " + i));
+        }
+        assertTrue(rows.isOffHeap(0, 0));
+        assertFalse(rows.isOffHeap(1, 0));
+        assertEquals(rows.get(4).getCellValue(0), text + 4);
+        assertEquals(rows.get(4).getCell(0).value, text + 4);
+        assertFalse(rows.get(4).isEmpty());
+        long bytes = rows.getOffHeapBytes();
+        // the repetitive text is compressed
+        assertTrue(bytes > 0 && bytes < 5 * text.length());
+
+        // inserting, moving and removing rows keeps the count right
+        ColumnarRowList copy = rows.copy();
+        rows.add(3, row(text));
+        rows.add(0, rows.get(3));
+        assertEquals(rows.get(0).getCellValue(0), text);
+        rows.remove(0);
+        rows.remove(3);
+        assertEquals(rows.getOffHeapBytes(), bytes);
+        rows.get(0).setCell(0, new Cell("short", null));
+        rows.get(2).cells.remove(0);
+        assertEquals(rows.get(2).getCellValue(0), "constant");
+        assertTrue(rows.getOffHeapBytes() < bytes);
+        rows.clear();
+        assertEquals(rows.getOffHeapBytes(), 0);
+
+        assertEquals(copy.getOffHeapBytes(), bytes);
+        assertEquals(copy.get(8).getCellValue(0), text + 8);
+    }
+}
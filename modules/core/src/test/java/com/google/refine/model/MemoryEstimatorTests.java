@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.LookupCacheManager;
+import com.google.refine.LookupCacheManager.ProjectLookup;
+import com.google.refine.util.LookupException;
+
+public class MemoryEstimatorTests {
+
+    protected List<Row> rows(int count, String prefix) {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Row row = new Row(2);
+            row.setCell(0, new Cell(prefix + i, null));
+            row.setCell(1, new Cell(i, null));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Test
+    public void testEstimateGrowsWithContent() {
+        long small = MemoryEstimator.estimateRows(rows(100, "a"));
+        long longer = MemoryEstimator.estimateRows(rows(100, "a much longer value in the first column "));
+        long more = MemoryEstimator.estimateRows(rows(200, "a"));
+
+        assertTrue(small > 0);
+        assertTrue(longer > small);
+        assertTrue(more > 1.9 * small && more < 2.1 * small);
+        assertEquals(MemoryEstimator.estimateRows(new ArrayList<>()), 0);
+    }
+
+    @Test
+    public void testSampledEstimateIsCloseToFullEstimate() {
+        List<Row> rows = rows(50 * MemoryEstimator.SAMPLE_SIZE, "value ");
+        long full = 0;
+        for (Row row : rows) {
+            full += MemoryEstimator.estimateRow(row);
+        }
+        long estimate = MemoryEstimator.estimateRows(rows);
+        assertTrue(Math.abs(estimate - full) < 0.1 * full, estimate + " vs " + full);
+    }
+
+    @Test
+    public void testReconsAreCounted() {
+        Cell plain = new Cell("value", null);
+        Recon recon = new Recon(0L, null, null);
+        recon.addCandidate(new ReconCandidate("Q1", "one", new String[0], 100));
+        Cell reconciled = new Cell("value", recon);
+        assertTrue(MemoryEstimator.estimateCell(reconciled) > MemoryEstimator.estimateCell(plain));
+    }
+
+    @Test
+    public void testItemise() throws ModelException, LookupException {
+        Project project = new Project();
+        project.columnModel.addColumn(0, new Column(0, "name"), false);
+        project.columnModel.addColumn(1, new Column(1, "number"), false);
+        project.rows.addAll(rows(100, "a"));
+        project.recordModel.update(project);
+        MemoryEstimator.Sized bins = () -> 1000;
+        project.columnModel.getColumnByName("number").setPrecompute("numeric-bin", bins);
+
+        LookupCacheManager lookups = new LookupCacheManager() {
+
+            @Override
+            protected void computeLookup(ProjectLookup lookup) {
+                for (int r = 0; r < 10; r++) {
+                    lookup.valueToRowIndices.put("a" + r, List.of(r));
+                }
+            }
+        };
+        lookups.getLookup(project.id, "name");
+        lookups.getLookup(project.id + 1, "name");
+
+        MemoryFootprint footprint = MemoryEstimator.itemise(project, lookups);
+        assertEquals(footprint.getRows(), MemoryEstimator.estimateRowStore(project));
+        assertEquals(footprint.getOffHeap(), 0);
+        assertEquals(footprint.getPrecomputes().get("number").longValue(), 1000);
+        assertEquals(footprint.getPrecomputes().size(), 1);
+        assertTrue(footprint.getRecordModel() > 0);
+        assertTrue(footprint.getLookups() > 0);
+        assertEquals(footprint.getTotal(), footprint.getRows() + footprint.getColumns() + 1000 + footprint.getRecordModel()
+                + footprint.getLookups() + footprint.getChanges());
+    }
+}
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.io.ColumnarRowCodec;
+import com.google.refine.util.Pool;
+
+public class PagedRowListTests {
+
+    PagedRowList rows;
+
+    @BeforeMethod
+    public void setUp() {
+        // tiny pages and segments, so that pages get evicted and segments rolled over
+        rows = new PagedRowList("openrefine-paged-rows-test-", 4, 3, 256);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        rows.close();
+    }
+
+    private Row row(Object value) {
+        Row row = new Row(2);
+        row.setCell(0, new Cell((Serializable) value, null));
+        row.setCell(1, new Cell("constant", null));
+        return row;
+    }
+
+    @Test
+    public void testAppendAndRead() {
+        for (int i = 0; i < 100; i++) {
+            rows.add(row(i));
+        }
+
+        assertEquals(rows.size(), 100);
+        assertTrue(rows.getResidentPageCount() <= 3);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(rows.get(i).getCellValue(0), i);
+            assertEquals(rows.get(i).getCellValue(1), "constant");
+        }
+    }
+
+    @Test
+    public void testModificationsSurviveEviction() {
+        for (int i = 0; i < 100; i++) {
+            rows.add(row(i));
+        }
+
+        rows.get(5).setCell(0, new Cell("changed", null));
+        rows.get(6).flagged = true;
+        Recon recon = new Recon(42L, null, null);
+        rows.get(7).setCell(1, new Cell("matched", recon));
+        // reading the other rows evicts the page of the modified ones
+        for (int i = 20; i < 100; i++) {
+            rows.get(i);
+        }
+
+        assertEquals(rows.get(5).getCellValue(0), "changed");
+        assertTrue(rows.get(6).flagged);
+        assertEquals(rows.get(7).getCell(1).recon.id, recon.id);
+        assertEquals(rows.get(8).getCellValue(0), 8);
+    }
+
+    @Test
+    public void testHeldRowsSurviveEviction() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            rows.add(row(i));
+        }
+        Row fifth = rows.get(5);
+        Row sixth = rows.get(6);
+        for (int i = 20; i < 100; i++) {
+            rows.get(i);
+        }
+
+        // changed after their page was evicted
+        fifth.setCell(0, new Cell("changed", null));
+        sixth.flagged = true;
+        PagedRowList.Snapshot snapshot = rows.snapshot();
+        assertEquals(snapshot.get(5).getCellValue(0), "changed");
+        assertTrue(snapshot.get(6).flagged);
+        snapshot.release();
+
+        assertSame(rows.get(5), fifth);
+        sixth.starred = true;
+        for (int i = 20; i < 100; i++) {
+            rows.get(i);
+        }
+        assertTrue(rows.get(6).starred);
+        assertEquals(rows.get(7).getCellValue(0), 7);
+    }
+
+    @Test
+    public void testChangesOfDroppedRowsAreKept() {
+        for (int i = 0; i < 100; i++) {
+            rows.add(row(i));
+        }
+        Row fifth = rows.get(5);
+        WeakReference<Row> sixth = new WeakReference<>(rows.get(6));
+        for (int i = 20; i < 100; i++) {
+            rows.get(i);
+        }
+
+        // changed after its page was evicted, and dropped before the page is decoded again
+        fifth.setCell(0, new Cell("changed", null));
+        fifth = null;
+        for (int n = 0; n < 20 && sixth.get() != null; n++) {
+            System.gc();
+        }
+
+        assertEquals(rows.get(5).getCellValue(0), "changed");
+        assertEquals(rows.get(6).getCellValue(0), 6);
+    }
+
+    @Test
+    public void testRewrittenPagesAreCompacted() {
+        for (int i = 0; i < 100; i++) {
+            rows.add(row(i));
+        }
+        // each segment gets one page which is not rewritten afterwards, and many copies of the first page
+        for (int n = 0; n < 25; n++) {
+            rows.get(n * 4).setCell(1, new Cell("changed " + n, null));
+            for (int m = 0; m < 10; m++) {
+                rows.get(0).setCell(0, new Cell("rewritten " + n + " " + m, null));
+                for (int i = 60; i < 100; i++) {
+                    rows.get(i);
+                }
+            }
+        }
+
+        assertTrue(rows.getSegmentCount() <= 15, "segments: " + rows.getSegmentCount());
+        for (int n = 1; n < 25; n++) {
+            assertEquals(rows.get(n * 4).getCellValue(1), "changed " + n);
+        }
+        assertEquals(rows.get(0).getCellValue(0), "rewritten 24 9");
+    }
+
+    @Test
+    public void testReorder() {
+        for (int i = 0; i < 100; i++) {
+            rows.add(row(i));
+        }
+        Row held = rows.get(98);
+        int[] order = new int[100];
+        for (int i = 0; i < 100; i++) {
+            order[i] = (i * 37) % 100;
+        }
+
+        rows.reorder(order);
+
+        assertEquals(rows.size(), 100);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(rows.get(i).getCellValue(0), order[i]);
+        }
+        assertTrue(rows.getResidentPageCount() <= 3);
+        // 98 = 54 * 37 % 100
+        assertSame(rows.get(54), held);
+        held.setCell(1, new Cell("changed", null));
+        for (int i = 60; i < 100; i++) {
+            rows.get(i);
+        }
+        assertEquals(rows.get(54).getCellValue(1), "changed");
+    }
+
+    @Test
+    public void testReconsOfRewrittenPagesAreDropped() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            rows.add(row(i));
+        }
+        Recon last = null;
+        for (int n = 0; n < 10; n++) {
+            for (int i = 0; i < 20; i++) {
+                last = new Recon(n, null, null);
+                rows.get(i).setCell(1, new Cell("matched", last));
+            }
+        }
+        // encodes all pages
+        rows.snapshot().release();
+
+        assertEquals(rows.getReconCount(), 20);
+        assertEquals(rows.get(19).getCell(1).recon.id, last.id);
+    }
+
+    @Test
+    public void testBehavesLikeArrayList() {
+        List<Row> expected = new ArrayList<>();
+        Random random = new Random(1234);
+        for (int n = 0; n < 2000; n++) {
+            int operation = random.nextInt(4);
+            if (operation == 0 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                expected.remove(index);
+                rows.remove(index);
+            } else if (operation == 1 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                expected.set(index, row(n));
+                rows.set(index, row(n));
+            } else {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, row(n));
+                rows.add(index, row(n));
+            }
+        }
+
+        assertEquals(rows.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(rows.get(i).getCellValue(0), expected.get(i).getCellValue(0));
+        }
+    }
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterChanges() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            rows.add(row(i));
+        }
+        PagedRowList.Snapshot snapshot = rows.snapshot();
+
+        rows.get(0).setCell(0, new Cell("changed", null));
+        rows.remove(10);
+        rows.clear();
+        for (int i = 0; i < 50; i++) {
+            rows.add(row(-i));
+        }
+
+        assertEquals(snapshot.size(), 50);
+        assertEquals(snapshot.get(0).getCellValue(0), 0);
+        assertEquals(snapshot.get(49).getCellValue(0), 49);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Pool pool = new Pool();
+        snapshot.writeTo(out, pool);
+        List<Row> read = ColumnarRowCodec.read(new ByteArrayInputStream(out.toByteArray()), pool);
+        assertEquals(read.size(), 50);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(read.get(i).getCellValue(0), i);
+        }
+
+        int segments = rows.getSegmentCount();
+        snapshot.release();
+        assertTrue(rows.getSegmentCount() < segments);
+    }
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.model.Cell;
+import com.google.refine.model.Recon;
+
+public class CellInternerTests {
+
+    @AfterMethod
+    public void tearDown() {
+        System.clearProperty(CellInterner.MAX_SIZE_PROPERTY);
+    }
+
+    @Test
+    public void testEqualValuesShareACell() {
+        CellInterner interner = new CellInterner();
+        long totalSaved = CellInterner.getTotalSavedBytes();
+
+        Cell first = interner.intern(new String("France"), null);
+        assertSame(interner.intern(new String("France"), null), first);
+        assertSame(interner.intern(new Cell(new String("France"), null)), first);
+        assertSame(interner.intern(first), first);
+        assertSame(interner.intern(12L, null), interner.intern(Long.valueOf(12L), null));
+        // values of different types are kept apart
+        assertEquals(interner.intern(12.0, null).value, 12.0);
+
+        assertEquals(interner.size(), 3);
+        assertEquals(interner.getSharedCells(), 3);
+        assertTrue(interner.getSavedBytes() > 0);
+        assertTrue(CellInterner.getTotalSavedBytes() >= totalSaved + interner.getSavedBytes());
+    }
+
+    @Test
+    public void testReconciledCellsAreNotShared() {
+        CellInterner interner = new CellInterner();
+        Recon recon = new Recon(1L, "http://example.com/id", "http://example.com/schema");
+        Cell cell = interner.intern("France", recon);
+        assertSame(cell.recon, recon);
+        assertNotSame(interner.intern("France", recon), cell);
+        assertSame(interner.intern(cell), cell);
+        assertEquals(interner.size(), 0);
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        System.setProperty(CellInterner.MAX_SIZE_PROPERTY, "10");
+        CellInterner interner = new CellInterner();
+        for (int i = 0; i < 100; i++) {
+            interner.intern("value " + i, null);
+        }
+        assertEquals(interner.size(), 10);
+        assertSame(interner.intern(new String("value 3"), null).value, interner.intern("value 3", null).value);
+        assertNotSame(interner.intern(new String("value 50"), null), interner.intern(new String("value 50"), null));
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class OffHeapTextTests {
+
+    @AfterMethod
+    public void tearDown() {
+        System.clearProperty(OffHeapText.MIN_LENGTH_PROPERTY);
+        System.clearProperty(OffHeapText.COMPRESS_PROPERTY);
+    }
+
+    @Test
+    public void testRepetitiveTextIsCompressed() {
+        String text = "<p>Ünïcödé text, 漢字 and more</p>\n".repeat(200);
+        OffHeapText stored = OffHeapText.of(text);
+        assertEquals(stored.toString(), text);
+        assertEquals(stored.length(), text.length());
+        assertTrue(stored.getStoredBytes() < text.length() / 10);
+        assertTrue(OffHeapText.getTotalBytes() >= stored.getStoredBytes());
+    }
+
+    @Test
+    public void testTextIsNeverStoredLarger() {
+        StringBuilder sb = new StringBuilder();
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            sb.append((char) (' ' + random.nextInt(95)));
+        }
+        String text = sb.toString();
+        OffHeapText stored = OffHeapText.of(text);
+        assertTrue(stored.getStoredBytes() <= text.length());
+        assertEquals(stored.toString(), text);
+
+        System.setProperty(OffHeapText.COMPRESS_PROPERTY, "false");
+        String repetitive = "a".repeat(5000);
+        stored = OffHeapText.of(repetitive);
+        assertEquals(stored.getStoredBytes(), repetitive.length());
+        assertEquals(stored.toString(), repetitive);
+    }
+
+    @Test
+    public void testEligibility() {
+        assertFalse(OffHeapText.isEligible("short"));
+        assertTrue(OffHeapText.isEligible("x".repeat(OffHeapText.DEFAULT_MIN_LENGTH)));
+        System.setProperty(OffHeapText.MIN_LENGTH_PROPERTY, "0");
+        assertFalse(OffHeapText.isEligible("x".repeat(OffHeapText.DEFAULT_MIN_LENGTH)));
+    }
+
+    @Test
+    public void testSerializedAsString() throws IOException, ClassNotFoundException {
+        String text = "abstract ".repeat(300);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(OffHeapText.of(text));
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(in.readObject(), text);
+        }
+    }
+}
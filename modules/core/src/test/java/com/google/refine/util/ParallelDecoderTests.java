@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+public class ParallelDecoderTests {
+
+    private LineNumberReader numberLines(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(i).append('\n');
+        }
+        sb.append("trailer\n");
+        return new LineNumberReader(new StringReader(sb.toString()));
+    }
+
+    @Test
+    public void testDecodeLinesPreservesOrder() throws IOException {
+        int count = 10 * ParallelDecoder.CHUNK_SIZE + 17;
+        LineNumberReader reader = numberLines(count);
+        List<Integer> decoded = new ArrayList<>();
+
+        ParallelDecoder.decodeLines(reader, count, Integer::parseInt, decoded::add);
+
+        assertEquals(decoded.size(), count);
+        for (int i = 0; i < count; i++) {
+            assertEquals((int) decoded.get(i), i);
+        }
+        // lines after the section are left for the caller
+        assertEquals(reader.readLine(), "trailer");
+    }
+
+    @Test
+    public void testDecodeLinesStopsAtEndOfStream() throws IOException {
+        LineNumberReader reader = new LineNumberReader(new StringReader("1\n2\n3\n"));
+        List<Integer> decoded = new ArrayList<>();
+
+        ParallelDecoder.decodeLines(reader, 2 * ParallelDecoder.CHUNK_SIZE, Integer::parseInt, decoded::add);
+
+        assertEquals(decoded, List.of(1, 2, 3));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testDecodeLinesPropagatesErrors() throws IOException {
+        int count = 3 * ParallelDecoder.CHUNK_SIZE;
+        ParallelDecoder.decodeLines(numberLines(count), count, line -> {
+            if ("5000".equals(line)) {
+                throw new IOException("corrupt line");
+            }
+            return line;
+        }, line -> {
+        });
+    }
+}
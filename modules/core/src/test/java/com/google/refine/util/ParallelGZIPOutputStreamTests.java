@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.testng.annotations.Test;
+
+public class ParallelGZIPOutputStreamTests {
+
+    protected byte[] sampleData(int length) {
+        // compressible but not trivially so
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < length) {
+            sb.append("row ").append(random.nextInt(5000)).append(",value ").append(random.nextInt(100)).append('\n');
+        }
+        return sb.substring(0, length).getBytes(StandardCharsets.UTF_8);
+    }
+
+    protected byte[] compress(byte[] data, int chunk) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ParallelGZIPOutputStream out = new ParallelGZIPOutputStream(bytes)) {
+            for (int i = 0; i < data.length; i += chunk) {
+                out.write(data, i, Math.min(chunk, data.length - i));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    protected byte[] decompress(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (int length : new int[] { 0, 1, 1000, ParallelGZIPOutputStream.BLOCK_SIZE,
+                5 * ParallelGZIPOutputStream.BLOCK_SIZE + 17 }) {
+            byte[] data = sampleData(length);
+            assertEquals(decompress(compress(data, 7919)), data, "length " + length);
+        }
+    }
+
+    @Test
+    public void testSingleByteWrites() throws IOException {
+        byte[] data = sampleData(ParallelGZIPOutputStream.BLOCK_SIZE + 100);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ParallelGZIPOutputStream out = new ParallelGZIPOutputStream(bytes)) {
+            for (byte b : data) {
+                out.write(b);
+            }
+        }
+        assertEquals(decompress(bytes.toByteArray()), data);
+    }
+
+    @Test
+    public void testCompressionRatioIsCloseToGzip() throws IOException {
+        byte[] data = sampleData(20 * ParallelGZIPOutputStream.BLOCK_SIZE);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(data);
+        }
+        // thanks to the preset dictionaries, splitting into blocks costs little
+        assertTrue(compress(data, 65536).length < gzipped.size() * 1.05);
+    }
+
+    @Test
+    public void testReadAhead() throws IOException {
+        byte[] data = sampleData(3 * ReadAheadInputStream.CHUNK_SIZE + 5);
+        try (InputStream in = new ReadAheadInputStream(new ByteArrayInputStream(data))) {
+            assertEquals(in.read(), data[0] & 0xff);
+            byte[] rest = in.readAllBytes();
+            assertEquals(rest.length, data.length - 1);
+            assertEquals(rest[rest.length - 1], data[data.length - 1]);
+            assertEquals(in.read(), -1);
+        }
+    }
+
+    @Test
+    public void testReadAheadPropagatesErrors() throws IOException {
+        InputStream failing = new InputStream() {
+
+            @Override
+            public int read() throws IOException {
+                throw new IOException("broken");
+            }
+        };
+        try (InputStream in = new ReadAheadInputStream(failing)) {
+            assertThrows(IOException.class, () -> in.read());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.model.Recon;
+import com.google.refine.model.ReconCandidate;
+
+public class PoolTests {
+
+    protected Recon makeRecon(int i) {
+        Recon recon = new Recon(1234L, "http://www.wikidata.org/entity/", "http://www.wikidata.org/prop/direct/");
+        recon.service = "https://wikidata.reconci.link/en/api";
+        recon.addCandidate(new ReconCandidate("Q" + (i % 3), "item " + (i % 3), new String[] { "Q5" }, 87.5));
+        recon.addCandidate(new ReconCandidate("Q42", "Douglas Adams", new String[] { "Q5" }, 12.0));
+        recon.match = recon.candidates.get(0);
+        recon.judgment = Recon.Judgment.Matched;
+        return recon;
+    }
+
+    @Test
+    public void testLookupById() {
+        Pool pool = new Pool();
+        Recon[] recons = new Recon[1000];
+        for (int i = 0; i < recons.length; i++) {
+            recons[i] = makeRecon(i);
+            pool.pool(recons[i]);
+        }
+        // pooling the same recon twice does not duplicate it
+        pool.pool(recons[0]);
+
+        assertEquals(pool.getReconCount(), recons.length);
+        for (Recon recon : recons) {
+            assertSame(pool.getRecon(recon.id), recon);
+            assertSame(pool.getRecon(Long.toString(recon.id)), recon);
+        }
+        assertNull(pool.getRecon("not a number"));
+    }
+
+    @Test
+    public void testLoadDeduplicatesCandidates() throws Exception {
+        Pool pool = new Pool();
+        Recon[] recons = new Recon[30];
+        for (int i = 0; i < recons.length; i++) {
+            recons[i] = makeRecon(i);
+            pool.pool(recons[i]);
+        }
+        StringWriter writer = new StringWriter();
+        pool.save(writer);
+
+        Pool loaded = new Pool();
+        loaded.load(new StringReader(writer.toString()));
+
+        assertEquals(loaded.getReconCount(), recons.length);
+        Recon first = loaded.getRecon(recons[0].id);
+        Recon fourth = loaded.getRecon(recons[3].id);
+        assertEquals(first.candidates, recons[0].candidates);
+        assertEquals(first.match, recons[0].match);
+        assertSame(first.candidates.get(0), fourth.candidates.get(0));
+        assertSame(first.match, first.candidates.get(0));
+        assertSame(first.candidates.get(1), loaded.getRecon(recons[1].id).candidates.get(1));
+        assertSame(first.service, fourth.service);
+        assertSame(first.identifierSpace, fourth.identifierSpace);
+    }
+
+    @Test
+    public void testSerializeRecons() throws Exception {
+        Pool pool = new Pool();
+        Recon recon = makeRecon(0);
+        pool.pool(recon);
+
+        String json = ParsingUtilities.defaultWriter.writeValueAsString(pool);
+        assertEquals(ParsingUtilities.mapper.readTree(json).get("recons").get(Long.toString(recon.id)).get("id").asLong(),
+                recon.id);
+    }
+}
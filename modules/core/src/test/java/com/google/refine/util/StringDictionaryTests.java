@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class StringDictionaryTests {
+
+    @Test
+    public void testRepeatedValuesAreShared() {
+        StringDictionary dictionary = new StringDictionary();
+        String first = dictionary.intern(new String("France"));
+        for (int i = 0; i < 10 * StringDictionary.SAMPLE_SIZE; i++) {
+            assertSame(dictionary.intern(new String(i % 2 == 0 ? "France" : "Germany")), i % 2 == 0 ? first
+                    : dictionary.intern("Germany"));
+        }
+        assertTrue(dictionary.isEnabled());
+        assertEquals(dictionary.size(), 2);
+    }
+
+    @Test
+    public void testUniqueValuesSwitchTheDictionaryOff() {
+        StringDictionary dictionary = new StringDictionary();
+        for (int i = 0; i < 2 * StringDictionary.SAMPLE_SIZE; i++) {
+            String value = "id " + i;
+            assertEquals(dictionary.intern(value), value);
+        }
+        assertFalse(dictionary.isEnabled());
+        assertEquals(dictionary.size(), 0);
+    }
+}
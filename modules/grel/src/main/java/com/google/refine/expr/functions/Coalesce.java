@@ -72,5 +72,4 @@ public class Coalesce implements Function {
     public String getReturns() {
         return "object or null";
     }
-
 }
@@ -115,4 +115,10 @@ public class Cross implements Function {
     public String getReturns() {
         return "array";
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        // reads other projects through the lookup cache
+        return false;
+    }
 }
@@ -99,4 +99,10 @@ public class FacetCount implements Function {
     public String getReturns() {
         return "number";
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        // reads and fills the precomputed facets of the column model
+        return false;
+    }
 }
@@ -61,5 +61,4 @@ public class TimeSinceUnixEpochToDate implements Function {
     public String getReturns() {
         return "date(OffsetDateTime)";
     }
-
 }
@@ -220,5 +220,4 @@ public class ToDate implements Function {
             super(string);
         }
     }
-
 }
@@ -88,5 +88,4 @@ public class ToNumber implements Function {
     public String getReturns() {
         return "number";
     }
-
 }
@@ -98,5 +98,4 @@ public class Zip implements Function {
     public String getReturns() {
         return "array of arrays";
     }
-
 }
@@ -65,5 +65,4 @@ public class Floor implements Function {
     public String getReturns() {
         return "number";
     }
-
 }
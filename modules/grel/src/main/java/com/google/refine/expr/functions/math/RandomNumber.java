@@ -82,5 +82,4 @@ public class RandomNumber implements Function {
     public String getReturns() {
         return "number";
     }
-
 }
@@ -62,4 +62,10 @@ public class DetectLanguage implements Function {
     public String getReturns() {
         return "string";
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        // the language profiles are lazily loaded and shared
+        return false;
+    }
 }
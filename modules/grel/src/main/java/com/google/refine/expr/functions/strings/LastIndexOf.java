@@ -69,5 +69,4 @@ public class LastIndexOf implements Function {
     public String getReturns() {
         return "number";
     }
-
 }
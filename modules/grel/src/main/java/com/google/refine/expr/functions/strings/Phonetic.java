@@ -132,4 +132,10 @@ public class Phonetic implements Function {
     public String getReturns() {
         return "string";
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        // the encoders are lazily created and shared
+        return false;
+    }
 }
@@ -114,4 +114,10 @@ public class Reinterpret implements Function {
     public String getReturns() {
         return "string";
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        // reads the project metadata
+        return false;
+    }
 }
@@ -78,5 +78,4 @@ public class ToTitlecase implements Function {
     public String getReturns() {
         return "string";
     }
-
 }
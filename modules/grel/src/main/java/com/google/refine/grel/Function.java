@@ -35,6 +35,7 @@ package com.google.refine.grel;
 
 import java.util.Properties;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -58,4 +59,14 @@ public interface Function {
 
     @JsonProperty("returns")
     public String getReturns();
+
+    /**
+     * Whether this function can be called concurrently from several threads, which most functions can as they only read
+     * their arguments. Functions which keep state or reach outside of their arguments and bindings, such as other
+     * projects or column precomputes, must override this to return false.
+     */
+    @JsonIgnore
+    default public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -77,6 +77,16 @@ public class ControlCallExpr implements Evaluable {
         return Optional.of(dependencies);
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        for (Evaluable ev : _args) {
+            if (!ev.isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
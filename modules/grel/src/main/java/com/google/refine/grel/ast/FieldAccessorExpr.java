@@ -93,6 +93,11 @@ public class FieldAccessorExpr implements Evaluable {
         }
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return _inner.isThreadSafe();
+    }
+
     @Override
     public String toString() {
         return _inner.toString() + "." + _fieldName;
@@ -98,6 +98,19 @@ public class FunctionCallExpr implements Evaluable {
         return Optional.of(dependencies);
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        if (!_function.isThreadSafe()) {
+            return false;
+        }
+        for (Evaluable ev : _args) {
+            if (!ev.isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
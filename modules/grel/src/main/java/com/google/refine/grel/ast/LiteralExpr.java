@@ -63,6 +63,11 @@ public class LiteralExpr implements Evaluable {
         return Optional.of(Collections.emptySet());
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return _value instanceof String ? new TextNode((String) _value).toString() : _value.toString();
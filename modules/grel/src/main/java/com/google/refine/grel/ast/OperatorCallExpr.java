@@ -217,6 +217,16 @@ public class OperatorCallExpr implements Evaluable {
         return Optional.of(dependencies);
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        for (Evaluable ev : _args) {
+            if (!ev.isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
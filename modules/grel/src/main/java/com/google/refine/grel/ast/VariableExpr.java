@@ -70,6 +70,12 @@ public class VariableExpr implements Evaluable {
         return Optional.of(Collections.emptySet());
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        // variables are read from the bindings of the calling thread
+        return true;
+    }
+
     @Override
     public String toString() {
         return _name;
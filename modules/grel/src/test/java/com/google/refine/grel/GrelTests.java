@@ -261,6 +261,24 @@ public class GrelTests extends GrelTestBase {
         }
     }
 
+    @Test
+    public void testThreadSafety() throws ParsingException {
+        String tests[][] = {
+                { "value", "true" },
+                { "value.trim().toUppercase() + 'x'", "true" },
+                { "if(isBlank(value), 0, length(value))", "true" },
+                { "cells.foo.value", "true" },
+                { "facetCount(value, 'value', 'col')", "false" },
+                { "if(isBlank(value), 0, facetCount(value, 'value', 'col'))", "false" },
+                { "cross(value, 'My Address Book', 'friend')", "false" },
+                { "phonetic(value, 'soundex')", "false" },
+        };
+        for (String[] test : tests) {
+            Evaluable eval = MetaParser.parse("grel:" + test[0]);
+            Assert.assertEquals(eval.isThreadSafe(), Boolean.parseBoolean(test[1]), "for expression: " + test[0]);
+        }
+    }
+
     // Test for /\ throwing Internal Error
     @Test
     public void testRegex() {